@@ -0,0 +1,55 @@
+package com.basic.conf;
+
+import com.basic.tool.DelayJournal;
+import com.basic.tool.TaskPool;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.nio.file.Paths;
+
+/**
+ * 按 {@link TaskPoolProperties} 注册 {@link TaskPool} 具名线程池, 并在容器关闭时优雅关闭 {@link TaskPool}
+ *
+ * <p>配置 {@code easy.task-pool.enabled=true} 后生效</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@ConditionalOnProperty(name = "easy.task-pool.enabled")
+@EnableConfigurationProperties(TaskPoolProperties.class)
+public class TaskPoolConfig implements InitializingBean {
+
+    private final TaskPoolProperties properties;
+
+    public TaskPoolConfig(TaskPoolProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 属性绑定完成后, 注册（或替换）配置文件中声明的线程池, 设置定时任务线程池的线程类型, 并按需启用延迟队列持久化与指标
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (properties.isMetrics()) {
+            TaskPool.metrics(true);
+        }
+        TaskPool.virtualScheduled(properties.isScheduledVirtual());
+        properties.getPools().forEach(TaskPool::register);
+        if (properties.getDelayJournal() != null && !properties.getDelayJournal().isEmpty()) {
+            TaskPool.delayEngine(new DelayJournal<>(Paths.get(properties.getDelayJournal())));
+        }
+    }
+
+    /**
+     * 容器关闭时按 {@link TaskPoolProperties#getShutdownTimeout()} 关闭 {@link TaskPool}
+     *
+     * @return {@link TaskPoolLifecycle}
+     */
+    @Bean
+    public TaskPoolLifecycle taskPoolLifecycle() {
+        return new TaskPoolLifecycle(properties.getShutdownTimeout());
+    }
+}
@@ -0,0 +1,76 @@
+package com.basic.conf;
+
+import com.basic.tool.ShutdownReport;
+import com.basic.tool.TaskPool;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在 Spring 容器关闭时调用 {@link TaskPool#shutdown(long, TimeUnit)}
+ *
+ * <p>
+ *     阶段值低于 Web 服务器的优雅停机（{@link SmartLifecycle#DEFAULT_PHASE}）, 因此在 Web 服务器停止接收请求之后、
+ *     数据源等 Bean 销毁之前执行, 请求中提交的任务仍可使用这些 Bean 执行完毕
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class TaskPoolLifecycle implements SmartLifecycle {
+
+    /**
+     * 等待任务执行完毕的时长（毫秒）
+     */
+    private final long timeout;
+
+    /**
+     * 是否运行中
+     */
+    private volatile boolean running;
+
+    /**
+     * 关闭结果, 关闭前为 null
+     */
+    private volatile ShutdownReport report;
+
+    /**
+     * 构造函数
+     *
+     * @param timeout 等待任务执行完毕的时长（毫秒）
+     */
+    public TaskPoolLifecycle(long timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        report = TaskPool.shutdown(timeout, TimeUnit.MILLISECONDS);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #report}
+     */
+    public ShutdownReport getReport() {
+        return report;
+    }
+}
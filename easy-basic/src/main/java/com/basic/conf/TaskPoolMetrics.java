@@ -0,0 +1,190 @@
+package com.basic.conf;
+
+import com.basic.tool.LatencyHistogram;
+import com.basic.tool.MetricsSink;
+import com.basic.tool.PlanStats;
+import com.basic.tool.TaskPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 将 {@link TaskPool} 的指标输出至 Micrometer
+ *
+ * <ul>
+ *     <li>{@code taskpool.threads}、{@code taskpool.active}、{@code taskpool.queued}: 线程数、繁忙线程数、队列深度（tag: pool）</li>
+ *     <li>{@code taskpool.completed}、{@code taskpool.rejected}、{@code taskpool.expired}: 完成、拒绝、过期的任务数量（tag: pool）</li>
+ *     <li>{@code taskpool.wait}、{@code taskpool.run}: 排队、执行时长的分位数（tag: pool、quantile）</li>
+ *     <li>{@code taskpool.plans}: 已调度的定时任务数量</li>
+ *     <li>{@code taskpool.plan.runs}: 定时任务各结果的次数（tag: plan、outcome）</li>
+ *     <li>{@code taskpool.plan.duration}、{@code taskpool.plan.lateness}: 定时任务执行耗时、延迟的分位数（tag: plan、quantile）</li>
+ * </ul>
+ *
+ * <p>时长分位数依赖 {@link TaskPool#metrics(boolean)} 启用的直方图; 定时任务取消后移除其指标</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class TaskPoolMetrics implements MeterBinder, MetricsSink {
+
+    /**
+     * 输出的分位
+     */
+    private static final double[] QUANTILES = {0.5, 0.99, 1};
+
+    /**
+     * 已绑定的注册表
+     */
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+
+    /**
+     * 定时任务的指标, 取消时移除
+     */
+    private final Map<String, List<Meter>> plans = new ConcurrentHashMap<>();
+
+    /**
+     * 是否已注册为 {@link TaskPool} 的输出端
+     */
+    private final AtomicBoolean attached = new AtomicBoolean();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registries.add(registry);
+        Gauge.builder("taskpool.plans", () -> TaskPool.plans().size())
+                .description("Number of scheduled plans")
+                .register(registry);
+        if (attached.compareAndSet(false, true)) {
+            // 回调已存在的线程池与定时任务
+            TaskPool.metricsSink(this);
+        } else {
+            TaskPool.names().forEach(name -> bindPool(registry, name));
+            TaskPool.plans().forEach(key -> plans.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).addAll(bindPlan(registry, key)));
+        }
+    }
+
+    @Override
+    public void poolAdded(String name) {
+        registries.forEach(registry -> bindPool(registry, name));
+    }
+
+    @Override
+    public void planAdded(String key) {
+        List<Meter> meters = plans.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>());
+        registries.forEach(registry -> meters.addAll(bindPlan(registry, key)));
+    }
+
+    @Override
+    public void planRemoved(String key) {
+        List<Meter> meters = plans.remove(key);
+        if (meters != null) {
+            meters.forEach(meter -> registries.forEach(registry -> registry.remove(meter)));
+        }
+    }
+
+    /**
+     * 绑定线程池的指标
+     *
+     * @param registry {@link MeterRegistry}
+     * @param name     线程池名称
+     */
+    private void bindPool(MeterRegistry registry, String name) {
+        Gauge.builder("taskpool.threads", () -> TaskPool.stats(name).getPoolSize()).tag("pool", name).register(registry);
+        Gauge.builder("taskpool.active", () -> TaskPool.stats(name).getActiveCount()).tag("pool", name).register(registry);
+        Gauge.builder("taskpool.queued", () -> TaskPool.stats(name).getQueueSize()).tag("pool", name).register(registry);
+        FunctionCounter.builder("taskpool.completed", this, m -> TaskPool.stats(name).getCompleted()).tag("pool", name).register(registry);
+        FunctionCounter.builder("taskpool.rejected", this, m -> TaskPool.rejected(name)).tag("pool", name).register(registry);
+        FunctionCounter.builder("taskpool.expired", this, m -> TaskPool.expired(name)).tag("pool", name).register(registry);
+        for (double q : QUANTILES) {
+            quantile(registry, "taskpool.wait", "pool", name, q, () -> TaskPool.stats(name).getWaitTimes());
+            quantile(registry, "taskpool.run", "pool", name, q, () -> TaskPool.stats(name).getRunTimes());
+        }
+    }
+
+    /**
+     * 绑定定时任务的指标
+     *
+     * @param registry {@link MeterRegistry}
+     * @param key      任务的唯一标识
+     * @return 已注册的指标
+     */
+    private List<Meter> bindPlan(MeterRegistry registry, String key) {
+        List<Meter> meters = new ArrayList<>();
+        meters.add(runs(registry, key, "success", PlanStats::getSucceeded));
+        meters.add(runs(registry, key, "failure", PlanStats::getFailed));
+        meters.add(runs(registry, key, "skipped", PlanStats::getSkipped));
+        meters.add(runs(registry, key, "rejected", PlanStats::getRejected));
+        for (double q : QUANTILES) {
+            meters.add(quantile(registry, "taskpool.plan.duration", "plan", key, q, () -> plan(key, PlanStats::getDurations)));
+        }
+        meters.add(quantile(registry, "taskpool.plan.lateness", "plan", key, 0.99, () -> plan(key, PlanStats::getLateness)));
+        return meters;
+    }
+
+    /**
+     * 注册定时任务某一结果的次数
+     *
+     * @param registry {@link MeterRegistry}
+     * @param key      任务的唯一标识
+     * @param outcome  结果
+     * @param count    从快照中取次数
+     * @return {@link Meter}
+     */
+    private Meter runs(MeterRegistry registry, String key, String outcome, ToLongFunction<PlanStats> count) {
+        return FunctionCounter.builder("taskpool.plan.runs", this, m -> {
+                    PlanStats stats = TaskPool.planStats(key);
+                    return stats == null ? Double.NaN : count.applyAsLong(stats);
+                })
+                .tag("plan", key)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * 注册直方图某一分位的时长
+     *
+     * @param registry  {@link MeterRegistry}
+     * @param name      指标名称
+     * @param tag       标签名
+     * @param value     标签值
+     * @param quantile  分位, 1 表示最大值
+     * @param histogram 获取直方图快照
+     * @return {@link Meter}
+     */
+    private Meter quantile(MeterRegistry registry, String name, String tag, String value, double quantile,
+                           Supplier<LatencyHistogram> histogram) {
+        return TimeGauge.builder(name, this, TimeUnit.NANOSECONDS, m -> {
+                    LatencyHistogram h = histogram.get();
+                    return h == null ? Double.NaN : quantile >= 1 ? h.getMax() : h.percentile(quantile);
+                })
+                .tag(tag, value)
+                .tag("quantile", quantile >= 1 ? "max" : String.valueOf(quantile))
+                .register(registry);
+    }
+
+    /**
+     * 获取定时任务的直方图快照
+     *
+     * @param key       任务的唯一标识
+     * @param histogram 从快照中取直方图
+     * @return {@link LatencyHistogram}, 任务不存在时为 null
+     */
+    private static LatencyHistogram plan(String key, Function<PlanStats, LatencyHistogram> histogram) {
+        PlanStats stats = TaskPool.planStats(key);
+        return stats == null ? null : histogram.apply(stats);
+    }
+}
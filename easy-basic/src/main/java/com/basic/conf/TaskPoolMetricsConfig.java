@@ -0,0 +1,31 @@
+package com.basic.conf;
+
+import com.basic.tool.TaskPool;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * {@link TaskPool} 的 Micrometer 指标配置类
+ *
+ * <p>类路径中存在 Micrometer 且配置 {@code easy.task-pool.metrics=true} 后生效, 由 Spring Boot Actuator 将 {@link TaskPoolMetrics} 绑定至注册表</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+@ConditionalOnProperty(name = "easy.task-pool.metrics", havingValue = "true")
+public class TaskPoolMetricsConfig {
+
+    /**
+     * 启用 {@link TaskPool#metrics(boolean)} 并创建 Micrometer 绑定
+     *
+     * @return {@link TaskPoolMetrics}
+     */
+    @Bean
+    public TaskPoolMetrics taskPoolMetrics() {
+        TaskPool.metrics(true);
+        return new TaskPoolMetrics();
+    }
+}
@@ -0,0 +1,153 @@
+package com.basic.conf;
+
+import com.basic.tool.PoolProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link com.basic.tool.TaskPool} 具名线程池的 Spring 配置项
+ *
+ * <pre>{@code
+ *     easy:
+ *       task-pool:
+ *         enabled: true
+ *         pools:
+ *           default:
+ *             core-size: 8
+ *           export:
+ *             core-size: 2
+ *             max-size: 4
+ *             queue-capacity: 64
+ *           io:
+ *             virtual: true
+ *             concurrency: 200
+ *         scheduled-virtual: true
+ *         delay-journal: /data/delay
+ *         metrics: true
+ *         shutdown-timeout: 30000
+ * }</pre>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@ConfigurationProperties(prefix = "easy.task-pool")
+public class TaskPoolProperties {
+
+    /**
+     * 具名线程池配置, key 为线程池名称
+     */
+    private Map<String, PoolProperties> pools = new LinkedHashMap<>();
+
+    /**
+     * 定时任务线程池是否使用虚拟线程（JDK 21+）
+     */
+    private boolean scheduledVirtual;
+
+    /**
+     * 延迟队列持久化目录, 配置后延迟队列使用 {@link com.basic.tool.DelayJournal}, 重启后不丢失
+     */
+    private String delayJournal;
+
+    /**
+     * 是否启用指标（时长直方图、JMX, 类路径中存在 Micrometer 时同时输出至 Micrometer）
+     */
+    private boolean metrics;
+
+    /**
+     * 容器关闭时等待任务执行完毕的时长（毫秒）, 超过后放弃剩余的任务, 见 {@link TaskPoolLifecycle}
+     */
+    private long shutdownTimeout = 30000;
+
+    /**
+     * getter function
+     *
+     * @return {@link Map}
+     */
+    public Map<String, PoolProperties> getPools() {
+        return pools;
+    }
+
+    /**
+     * setter function
+     *
+     * @param pools {@link #pools}
+     */
+    public void setPools(Map<String, PoolProperties> pools) {
+        this.pools = pools;
+    }
+
+    /**
+     * getter function
+     *
+     * @return boolean
+     */
+    public boolean isScheduledVirtual() {
+        return scheduledVirtual;
+    }
+
+    /**
+     * setter function
+     *
+     * @param scheduledVirtual {@link #scheduledVirtual}
+     */
+    public void setScheduledVirtual(boolean scheduledVirtual) {
+        this.scheduledVirtual = scheduledVirtual;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link String}
+     */
+    public String getDelayJournal() {
+        return delayJournal;
+    }
+
+    /**
+     * setter function
+     *
+     * @param delayJournal {@link #delayJournal}
+     */
+    public void setDelayJournal(String delayJournal) {
+        this.delayJournal = delayJournal;
+    }
+
+    /**
+     * getter function
+     *
+     * @return boolean
+     */
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    /**
+     * setter function
+     *
+     * @param metrics {@link #metrics}
+     */
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    /**
+     * setter function
+     *
+     * @param shutdownTimeout {@link #shutdownTimeout}
+     */
+    public void setShutdownTimeout(long shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+}
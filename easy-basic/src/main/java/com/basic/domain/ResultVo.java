@@ -2,14 +2,22 @@ package com.basic.domain;
 
 import com.basic.enums.StatusEnum;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * 系统统一响应结果类封装
  *
+ * <p>
+ *     不可变对象, 可在多个线程间共享; 不带数据的 {@link #ok()}、{@link #fail()}、{@link #fail(StatusEnum)} 返回预先创建的常量实例,
+ *     easy-web 的 {@code ResultVoHttpMessageConverter}、{@code ResultVoEncoder} 将常量实例的 JSON 缓存为字节, 响应时直接写出
+ * </p>
+ *
  * @author LZH
  * @version 1.0.0
  * @since 2023/05/02
  */
-@SuppressWarnings({"unchecked", "rawtypes"})
+@SuppressWarnings("unchecked")
 public class ResultVo<T> {
 
     /**
@@ -18,7 +26,7 @@ public class ResultVo<T> {
      * @mock 200
      * @since 1.0.0
      */
-    private int code;
+    private final int code;
 
     /**
      * 响应信息
@@ -26,7 +34,7 @@ public class ResultVo<T> {
      * @mock 操作成功
      * @since 1.0.0
      */
-    private String msg;
+    private final String msg;
 
     /**
      * 响应数据
@@ -34,20 +42,53 @@ public class ResultVo<T> {
      * @mock {}
      * @since 1.0.0
      */
-    private T data;
+    private final T data;
+
+    /**
+     * 是否为常量实例
+     */
+    private final boolean constant;
+
+    /**
+     * 成功的常量实例
+     */
+    private static final ResultVo<?> OK = new ResultVo<>(StatusEnum.CODE_200.getCode(), StatusEnum.CODE_200.getMsg(), null, true);
+
+    /**
+     * 各状态码的常量实例, 以类加载时 {@link StatusEnum} 的状态码与信息创建
+     */
+    private static final Map<StatusEnum, ResultVo<?>> CONSTANTS = new EnumMap<>(StatusEnum.class);
+
+    static {
+        for (StatusEnum status : StatusEnum.values()) {
+            CONSTANTS.put(status, status == StatusEnum.CODE_200 ? OK : new ResultVo<>(status.getCode(), status.getMsg(), null, true));
+        }
+    }
 
     /**
-     * 私有化无参构造函数
+     * 私有化无参构造函数, 供 JSON 反序列化使用
      */
-    private ResultVo() {}
+    private ResultVo() {
+        this(0, null, null, false);
+    }
 
     /**
-     * 初始化当前对象
+     * 私有化全参构造函数
+     *
+     * @param code     响应状态码
+     * @param msg      响应信息
+     * @param data     响应数据
+     * @param constant 是否为常量实例
      */
-    private volatile static ResultVo result = null;
+    private ResultVo(int code, String msg, T data, boolean constant) {
+        this.code = code;
+        this.msg = msg;
+        this.data = data;
+        this.constant = constant;
+    }
 
     /**
-     * 私有化全参构实例创建方法
+     * 创建响应结果
      *
      * @param code 响应状态码
      * @param msg  响应信息
@@ -55,25 +96,28 @@ public class ResultVo<T> {
      * @param <T>  泛型
      * @return {@link ResultVo}
      */
-    private static <T> ResultVo<T> getInstance(int code, String msg, T data) {
-        if (result == null) {
-            synchronized (ResultVo.class) {
-                if (result == null) {
-                    result = new ResultVo<>();
-                }
-            }
-        }
-        return result.setCode(code).setMsg(msg).setData(data);
+    public static <T> ResultVo<T> of(int code, String msg, T data) {
+        return new ResultVo<>(code, msg, data, false);
+    }
+
+    /**
+     * 是否为常量实例, 常量实例的内容不变, 其序列化结果可以缓存
+     *
+     * @param result {@link ResultVo}
+     * @return boolean
+     */
+    public static boolean isConstant(ResultVo<?> result) {
+        return result.constant;
     }
 
     /**
      * 响应成功消息
      *
      * @param <T> 泛型
-     * @return {@link ResultVo}
+     * @return {@link ResultVo}, 常量实例
      */
     public static <T> ResultVo<T> ok() {
-        return ok(StatusEnum.CODE_200.getMsg());
+        return (ResultVo<T>) OK;
     }
 
     /**
@@ -107,17 +151,17 @@ public class ResultVo<T> {
      * @return {@link ResultVo}
      */
     public static <T> ResultVo<T> ok(String msg, T data) {
-        return getInstance(StatusEnum.CODE_200.getCode(), msg, data);
+        return of(StatusEnum.CODE_200.getCode(), msg, data);
     }
 
     /**
      * 响应失败信息
      *
      * @param <T> 泛型
-     * @return {@link ResultVo}
+     * @return {@link ResultVo}, 常量实例
      */
     public static <T> ResultVo<T> fail() {
-        return fail(StatusEnum.CODE_500.getMsg());
+        return fail(StatusEnum.CODE_500);
     }
 
     /**
@@ -159,10 +203,10 @@ public class ResultVo<T> {
      *
      * @param status {@link StatusEnum} 响应状态码
      * @param <T>    泛型
-     * @return {@link ResultVo}
+     * @return {@link ResultVo}, 常量实例
      */
     public static <T> ResultVo<T> fail(StatusEnum status) {
-        return fail(status, status.getMsg());
+        return (ResultVo<T>) CONSTANTS.get(status);
     }
 
     /**
@@ -187,7 +231,19 @@ public class ResultVo<T> {
      * @return {@link ResultVo}
      */
     public static <T> ResultVo<T> fail(StatusEnum status, String msg, T data) {
-        return getInstance(status.getCode(), msg, data);
+        return of(status.getCode(), msg, data);
+    }
+
+    /**
+     * 响应失败信息, 如 {@link com.basic.exception.BaseException#getCode()} 的自定义错误码
+     *
+     * @param code 响应状态码
+     * @param msg  响应信息
+     * @param <T>  泛型
+     * @return {@link ResultVo}
+     */
+    public static <T> ResultVo<T> fail(int code, String msg) {
+        return of(code, msg, null);
     }
 
     /**
@@ -200,14 +256,13 @@ public class ResultVo<T> {
     }
 
     /**
-     * setter function
+     * 复制并替换响应状态码
      *
      * @param code {@link #code}
-     * @return {@link ResultVo}
+     * @return 新的 {@link ResultVo}
      */
-    public ResultVo setCode(int code) {
-        this.code = code;
-        return this;
+    public ResultVo<T> withCode(int code) {
+        return of(code, msg, data);
     }
 
     /**
@@ -220,14 +275,13 @@ public class ResultVo<T> {
     }
 
     /**
-     * setter function
+     * 复制并替换响应信息
      *
      * @param msg {@link #msg}
-     * @return {@link ResultVo}
+     * @return 新的 {@link ResultVo}
      */
-    public ResultVo setMsg(String msg) {
-        this.msg = msg;
-        return this;
+    public ResultVo<T> withMsg(String msg) {
+        return of(code, msg, data);
     }
 
     /**
@@ -240,13 +294,13 @@ public class ResultVo<T> {
     }
 
     /**
-     * setter function
+     * 复制并替换响应数据
      *
      * @param data {@link #data}
-     * @return {@link ResultVo}
+     * @param <R>  泛型
+     * @return 新的 {@link ResultVo}
      */
-    public ResultVo setData(T data) {
-        this.data = data;
-        return this;
+    public <R> ResultVo<R> withData(R data) {
+        return of(code, msg, data);
     }
 }
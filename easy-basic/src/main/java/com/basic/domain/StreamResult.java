@@ -0,0 +1,288 @@
+package com.basic.domain;
+
+import com.basic.enums.StatusEnum;
+import org.reactivestreams.Publisher;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 流式的统一响应结果, 用于数据量大的列表
+ *
+ * <p>
+ *     {@link ResultVo#ok(Object)} 须先在内存中构建完整的列表与 JSON 才能写出第一个字节; 本类只包装数据源,
+ *     由 easy-web 的 {@code StreamResultHttpMessageConverter}（Tomcat 容器）、{@code StreamResultWriter}（reactive 版本）
+ *     先写出 {@code code}、{@code msg}, 再逐个序列化并写出 {@code data} 数组中的元素, 内存占用与数据量无关
+ * </p>
+ *
+ * <pre>{@code
+ *     @GetMapping("/export")
+ *     public StreamResult<Order> export() {
+ *         return StreamResult.of(orderMapper.streamAll());          // MyBatis Cursor
+ *     }
+ *
+ *     @GetMapping(value = "/events", produces = "text/event-stream")
+ *     public StreamResult<Event> events() {
+ *         return StreamResult.ofPublisher(eventFlux).withFormat(StreamResult.Format.SSE);
+ *     }
+ * }</pre>
+ *
+ * <p>
+ *     数据源只能被写出一次, 写出完毕、出错或客户端断开后关闭（{@link Stream#close()}、MyBatis {@code Cursor#close()}）;
+ *     MyBatis {@code Cursor} 须在写出期间保持 SqlSession 打开
+ * </p>
+ *
+ * @param <T> 元素的类型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class StreamResult<T> implements AutoCloseable {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.domain.StreamResult");
+
+    /**
+     * 写出格式
+     */
+    public enum Format {
+
+        /**
+         * {@code application/json}: {@code {"code":200,"msg":"操作成功","data":[...]}}, 与 {@link ResultVo} 相同
+         */
+        JSON,
+
+        /**
+         * {@code application/x-ndjson}: 每行一个元素, 不含 {@code code}、{@code msg}
+         */
+        NDJSON,
+
+        /**
+         * {@code text/event-stream}: 每个元素一个 {@code data:} 事件, 出错时发送 {@code event: error} 事件
+         */
+        SSE
+    }
+
+    /**
+     * 响应状态码
+     */
+    private final int code;
+
+    /**
+     * 响应信息
+     */
+    private final String msg;
+
+    /**
+     * 写出格式
+     */
+    private final Format format;
+
+    /**
+     * 数据源: {@link Iterator} 或 {@link Publisher}
+     */
+    private final Object source;
+
+    /**
+     * 写出后需要关闭的资源, 可为 null
+     */
+    private final AutoCloseable resource;
+
+    /**
+     * 是否已被写出, 与复制出的实例共享
+     */
+    private final AtomicBoolean consumed;
+
+    /**
+     * 是否已关闭, 与复制出的实例共享
+     */
+    private final AtomicBoolean closed;
+
+    /**
+     * 私有化全参构造函数
+     *
+     * @param code     响应状态码
+     * @param msg      响应信息
+     * @param format   写出格式
+     * @param source   数据源
+     * @param resource 写出后需要关闭的资源
+     * @param consumed 是否已被写出
+     * @param closed   是否已关闭
+     */
+    private StreamResult(int code, String msg, Format format, Object source, AutoCloseable resource,
+                         AtomicBoolean consumed, AtomicBoolean closed) {
+        this.code = code;
+        this.msg = msg;
+        this.format = format;
+        this.source = source;
+        this.resource = resource;
+        this.consumed = consumed;
+        this.closed = closed;
+    }
+
+    /**
+     * 创建流式结果
+     *
+     * @param source   数据源
+     * @param resource 写出后需要关闭的资源
+     * @param <T>      泛型
+     * @return {@link StreamResult}
+     */
+    private static <T> StreamResult<T> create(Object source, AutoCloseable resource) {
+        return new StreamResult<>(StatusEnum.CODE_200.getCode(), StatusEnum.CODE_200.getMsg(), Format.JSON,
+                Objects.requireNonNull(source, "source"), resource, new AtomicBoolean(), new AtomicBoolean());
+    }
+
+    /**
+     * 包装 {@link Iterator}
+     *
+     * @param iterator {@link Iterator}, 实现 {@link AutoCloseable} 时写出后关闭
+     * @param <T>      泛型
+     * @return {@link StreamResult}
+     */
+    public static <T> StreamResult<T> of(Iterator<T> iterator) {
+        return create(iterator, iterator instanceof AutoCloseable ? (AutoCloseable) iterator : null);
+    }
+
+    /**
+     * 包装 {@link Iterable}, 如 MyBatis {@code Cursor}
+     *
+     * @param iterable {@link Iterable}, 实现 {@link AutoCloseable} 时（如 {@code Cursor}）写出后关闭
+     * @param <T>      泛型
+     * @return {@link StreamResult}
+     */
+    public static <T> StreamResult<T> of(Iterable<T> iterable) {
+        return create(iterable.iterator(), iterable instanceof AutoCloseable ? (AutoCloseable) iterable : null);
+    }
+
+    /**
+     * 包装 {@link Stream}, 写出后关闭
+     *
+     * @param stream {@link Stream}
+     * @param <T>    泛型
+     * @return {@link StreamResult}
+     */
+    public static <T> StreamResult<T> of(Stream<T> stream) {
+        return create(stream.iterator(), stream);
+    }
+
+    /**
+     * 包装 {@link Publisher}, 如 Reactor 的 {@code Flux}; Tomcat 容器中以有界缓冲阻塞地读取
+     *
+     * <p>
+     *     不与 {@code of(...)} 重载: reactive-streams 只是本模块的可选依赖, 重载时未引入该依赖的使用者
+     *     调用 {@code of(...)} 也会因无法解析 {@link Publisher} 而编译失败
+     * </p>
+     *
+     * @param publisher {@link Publisher}
+     * @param <T>       泛型
+     * @return {@link StreamResult}
+     */
+    public static <T> StreamResult<T> ofPublisher(Publisher<T> publisher) {
+        return create(publisher, null);
+    }
+
+    /**
+     * 复制并替换写出格式
+     *
+     * @param format {@link Format}
+     * @return 新的 {@link StreamResult}, 与原实例共享数据源
+     */
+    public StreamResult<T> withFormat(Format format) {
+        return new StreamResult<>(code, msg, Objects.requireNonNull(format, "format"), source, resource, consumed, closed);
+    }
+
+    /**
+     * 复制并替换响应信息
+     *
+     * @param msg {@link #msg}
+     * @return 新的 {@link StreamResult}, 与原实例共享数据源
+     */
+    public StreamResult<T> withMsg(String msg) {
+        return new StreamResult<>(code, msg, format, source, resource, consumed, closed);
+    }
+
+    /**
+     * 获取 {@link Iterator} 数据源, 只能获取一次
+     *
+     * @return {@link Iterator}, 数据源为 {@link Publisher} 时为 null
+     */
+    @SuppressWarnings("unchecked")
+    public Iterator<T> iterator() {
+        if (!(source instanceof Iterator)) {
+            return null;
+        }
+        consume();
+        return (Iterator<T>) source;
+    }
+
+    /**
+     * 获取 {@link Publisher} 数据源, 只能获取一次
+     *
+     * @return {@link Publisher}, 数据源为 {@link Iterator} 时为 null
+     */
+    @SuppressWarnings("unchecked")
+    public Publisher<T> publisher() {
+        if (source instanceof Iterator) {
+            return null;
+        }
+        consume();
+        return (Publisher<T>) source;
+    }
+
+    /**
+     * 标记数据源已被获取
+     */
+    private void consume() {
+        if (!consumed.compareAndSet(false, true)) {
+            throw new IllegalStateException("StreamResult can only be written once");
+        }
+    }
+
+    /**
+     * 关闭数据源, 重复调用时忽略
+     */
+    @Override
+    public void close() {
+        if (resource != null && closed.compareAndSet(false, true)) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.log(Level.WARNING, "StreamResult close Exception: ", e);
+            }
+        }
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link String}
+     */
+    public String getMsg() {
+        return msg;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link Format}
+     */
+    public Format getFormat() {
+        return format;
+    }
+}
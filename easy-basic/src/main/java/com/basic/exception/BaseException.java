@@ -1,24 +1,68 @@
 package com.basic.exception;
 
+import com.basic.enums.StatusEnum;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * 自定义基础异常
  *
+ * <p>
+ *     业务校验失败等预期内的异常数量大、堆栈无用, 而填充堆栈是创建异常的主要开销（与调用深度成正比）:
+ * </p>
+ * <ol>
+ *     <li>{@link #stackTraceRate(double)}: 全局设置填充堆栈的比例, 如 0.01 表示只有 1% 的实例填充堆栈, 其余为无堆栈异常</li>
+ *     <li>{@link #of(StatusEnum)}: 按状态码预先创建的无堆栈实例, 抛出时不分配内存</li>
+ *     <li>{@link #BaseException(int, String, boolean)}: 子类按需关闭堆栈</li>
+ * </ol>
+ *
+ * <p>{@link #hasStackTrace()} 为 false 时, 全局异常处理只记录错误码与提示, 不输出堆栈</p>
+ *
  * @author LZH
  * @version 1.0.0
  * @since 2023/05/02
  */
 public class BaseException extends RuntimeException {
 
+    /**
+     * 填充堆栈的比例, 以 {@code 2^16} 为分母, 默认全部填充
+     */
+    private static volatile int sampling = 1 << 16;
+
+    /**
+     * 按状态码预先创建的无堆栈实例
+     */
+    private static final Map<StatusEnum, BaseException> CACHED = new EnumMap<>(StatusEnum.class);
+
+    static {
+        for (StatusEnum status : StatusEnum.values()) {
+            CACHED.put(status, new Cached(status));
+        }
+    }
+
+    /**
+     * 错误码, 默认为 {@link StatusEnum#CODE_500}
+     */
+    private final int code;
+
     /**
      * 自定义异常提示
      */
     private String msg;
 
+    /**
+     * 是否已填充堆栈, 由父类构造函数中的 {@link #fillInStackTrace()} 设置, 因此不能有初始值
+     */
+    private boolean filled;
+
     /**
      * 无参构造函数
      */
     public BaseException() {
         super();
+        this.code = StatusEnum.CODE_500.getCode();
     }
 
     /**
@@ -28,9 +72,122 @@ public class BaseException extends RuntimeException {
      */
     public BaseException(String msg) {
         super();
+        this.code = StatusEnum.CODE_500.getCode();
+        this.msg = msg;
+    }
+
+    /**
+     * 带错误码的构造函数
+     *
+     * @param code 错误码
+     * @param msg  错误提示
+     */
+    public BaseException(int code, String msg) {
+        super(msg);
+        this.code = code;
+        this.msg = msg;
+    }
+
+    /**
+     * 按状态码构造, 提示为状态码的默认提示
+     *
+     * @param status {@link StatusEnum}
+     */
+    public BaseException(StatusEnum status) {
+        this(status.getCode(), status.getMsg());
+    }
+
+    /**
+     * 按状态码构造
+     *
+     * @param status {@link StatusEnum}
+     * @param msg    错误提示
+     */
+    public BaseException(StatusEnum status, String msg) {
+        this(status.getCode(), msg);
+    }
+
+    /**
+     * 可关闭堆栈的构造函数, 供子类使用
+     *
+     * @param code       错误码
+     * @param msg        错误提示
+     * @param stackTrace 是否填充堆栈, 为 false 时不受 {@link #stackTraceRate(double)} 影响
+     */
+    protected BaseException(int code, String msg, boolean stackTrace) {
+        super(msg, null, stackTrace, stackTrace);
+        this.code = code;
         this.msg = msg;
     }
 
+    /**
+     * 获取按状态码预先创建的无堆栈实例
+     *
+     * <pre>{@code
+     *     if (count > limit) {
+     *         throw BaseException.of(StatusEnum.CODE_429);
+     *     }
+     * }</pre>
+     *
+     * <p>实例被共享且不可修改: {@link #setMsg(String)} 抛出 {@link UnsupportedOperationException}, 不记录被抑制的异常</p>
+     *
+     * @param status {@link StatusEnum}
+     * @return {@link BaseException}
+     */
+    public static BaseException of(StatusEnum status) {
+        return CACHED.get(status);
+    }
+
+    /**
+     * 设置填充堆栈的比例, 对之后创建的实例生效
+     *
+     * <p>
+     *     1（默认）: 全部填充; 0: 全部不填充; 0.01: 随机 1% 的实例填充, 仍可在日志中看到抛出的位置, 开销降为原来的约 1%.
+     *     通过 {@link #BaseException(int, String, boolean)} 关闭堆栈的实例不受影响
+     * </p>
+     *
+     * @param rate 比例, 0 ~ 1
+     */
+    public static void stackTraceRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Stack trace rate must be between 0 and 1: " + rate);
+        }
+        sampling = (int) Math.round(rate * (1 << 16));
+    }
+
+    /**
+     * 按 {@link #stackTraceRate(double)} 决定是否填充堆栈
+     *
+     * @return this
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        int s = sampling;
+        if (s >= 1 << 16 || s > 0 && ThreadLocalRandom.current().nextInt(1 << 16) < s) {
+            filled = true;
+            return super.fillInStackTrace();
+        }
+        return this;
+    }
+
+    /**
+     * 是否填充了堆栈
+     *
+     * @return boolean
+     */
+    public boolean hasStackTrace() {
+        return filled;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getCode() {
+        return code;
+    }
+
     /**
      * getter function
      *
@@ -48,4 +205,29 @@ public class BaseException extends RuntimeException {
     public void setMsg(String msg) {
         this.msg = msg;
     }
+
+    /**
+     * 按状态码预先创建的无堆栈实例, 不可修改
+     */
+    private static final class Cached extends BaseException {
+
+        /**
+         * 序列化版本号
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 构造函数
+         *
+         * @param status {@link StatusEnum}
+         */
+        private Cached(StatusEnum status) {
+            super(status.getCode(), status.getMsg(), false);
+        }
+
+        @Override
+        public void setMsg(String msg) {
+            throw new UnsupportedOperationException("Shared BaseException instances are immutable");
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.basic.exception;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 线程池过载时拒绝任务的异常
+ *
+ * <p>继承自 {@link RejectedExecutionException}, 由 {@link com.basic.tool.TaskPool} 在队列已满或排队等待时长过高时立即抛出, 调用方不会被阻塞</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class TaskRejectedException extends RejectedExecutionException {
+
+    /**
+     * 序列化版本号
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 拒绝任务的线程池名称
+     */
+    private final String pool;
+
+    /**
+     * 带参构造函数
+     *
+     * @param pool 线程池名称
+     * @param msg  错误提示
+     */
+    public TaskRejectedException(String pool, String msg) {
+        super(msg);
+        this.pool = pool;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link String}
+     */
+    public String getPool() {
+        return pool;
+    }
+}
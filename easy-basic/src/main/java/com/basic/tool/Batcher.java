@@ -0,0 +1,352 @@
+package com.basic.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 微批量收集器, 由 {@link TaskPool#batcher(int, long, TimeUnit, Consumer)} 创建
+ *
+ * <pre>{@code
+ *     // 审计记录攒够 500 条或最早一条等待 200 毫秒后批量写入
+ *     Batcher<Audit> audits = TaskPool.batcher(500, 200, TimeUnit.MILLISECONDS, auditMapper::insertBatch);
+ *     audits.offer(audit);
+ *
+ *     // 计数器批量写入 Redis
+ *     Batcher<Long> hits = TaskPool.batcher(1000, 1, TimeUnit.SECONDS, ids -> redisTool.setRight("hits", ids));
+ * }</pre>
+ *
+ * <ol>
+ *     <li>{@link #offer(Object)}: 不阻塞, 缓冲区已满时返回 false（背压）</li>
+ *     <li>{@link #offer(Object, long, TimeUnit)}: 缓冲区已满时最多等待给定时长</li>
+ *     <li>{@link #close()}: 不再接受元素, 等待正在执行的批次并在当前线程中写出剩余元素</li>
+ * </ol>
+ *
+ * <p>
+ *     元素数量达到批量大小, 或最早的未写出元素等待达到最大延时, 即在线程池中批量写出;
+ *     同一时刻最多一个批次在写出, 写出速度跟不上时元素在缓冲区中累积, 缓冲区满后拒绝新元素.
+ * </p>
+ *
+ * @param <T> 泛型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class Batcher<T> implements AutoCloseable {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.Batcher");
+
+    /**
+     * 批量大小
+     */
+    private final int maxSize;
+
+    /**
+     * 缓冲区容量
+     */
+    private final int capacity;
+
+    /**
+     * 最大延时（纳秒）
+     */
+    private final long maxDelay;
+
+    /**
+     * 批量消费
+     */
+    private final Consumer<List<T>> consumer;
+
+    /**
+     * 执行写出的线程池, 每次投递时获取, 以便线程池被替换后生效
+     */
+    private final Supplier<? extends Executor> executor;
+
+    /**
+     * 最大延时的定时器
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * 未关闭的收集器, 由 {@link TaskPool#closeThreadPool()} 统一关闭
+     */
+    private final Set<Batcher<?>> registry;
+
+    /**
+     * 创建收集器时线程的上下文快照, 批量消费时使用, 未注册 {@link ContextPropagator} 时为 null
+     */
+    private final Object[] context = Context.capture();
+
+    /**
+     * 缓冲区
+     */
+    private final Queue<T> buffer = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 缓冲区中的元素数量
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * 是否有批次已投递或正在写出
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 是否已安排最大延时的写出
+     */
+    private final AtomicBoolean armed = new AtomicBoolean();
+
+    /**
+     * 等待缓冲区空间的线程数量
+     */
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * 因缓冲区已满或已关闭而拒绝的元素数量
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean closed;
+
+    /**
+     * 构造函数
+     *
+     * @param maxSize  批量大小
+     * @param capacity 缓冲区容量
+     * @param maxDelay 最大延时（纳秒）
+     * @param consumer 批量消费
+     * @param executor 执行写出的线程池
+     * @param timer    定时器
+     * @param registry 未关闭的收集器
+     */
+    Batcher(int maxSize, int capacity, long maxDelay, Consumer<List<T>> consumer,
+            Supplier<? extends Executor> executor, ScheduledExecutorService timer, Set<Batcher<?>> registry) {
+        if (maxSize <= 0 || capacity < maxSize) {
+            throw new IllegalArgumentException("Batch size must be positive and not greater than capacity");
+        }
+        this.maxSize = maxSize;
+        this.capacity = capacity;
+        this.maxDelay = Math.max(0, maxDelay);
+        this.consumer = consumer;
+        this.executor = executor;
+        this.timer = timer;
+        this.registry = registry;
+        registry.add(this);
+    }
+
+    /**
+     * 添加元素, 不阻塞
+     *
+     * @param t 元素
+     * @return 缓冲区已满或已关闭时为 false
+     */
+    public boolean offer(T t) {
+        if (closed) {
+            rejected.increment();
+            return false;
+        }
+        if (count.incrementAndGet() > capacity) {
+            count.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        buffer.offer(t);
+        if (closed && buffer.remove(t)) {
+            // 关闭时已写出缓冲区, 撤回成功说明该元素未被写出
+            count.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        if (count.get() >= maxSize) {
+            trigger();
+        } else if (armed.compareAndSet(false, true)) {
+            arm();
+        }
+        return true;
+    }
+
+    /**
+     * 添加元素, 缓冲区已满时最多等待给定时长
+     *
+     * @param t       元素
+     * @param timeout 等待时长
+     * @param unit    时间单位
+     * @return 超时或已关闭时为 false
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean offer(T t, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waiters.incrementAndGet();
+        try {
+            synchronized (waiters) {
+                while (!closed && count.get() >= capacity) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(waiters, remaining);
+                }
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+        return offer(t);
+    }
+
+    /**
+     * 缓冲区中尚未写出的元素数量
+     *
+     * @return int
+     */
+    public int size() {
+        return Math.max(0, count.get());
+    }
+
+    /**
+     * 因缓冲区已满或已关闭而拒绝的元素数量
+     *
+     * @return long
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * 关闭: 不再接受元素, 等待正在写出的批次结束, 在当前线程中写出剩余元素
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        registry.remove(this);
+        signal();
+        while (!running.compareAndSet(false, true)) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        // 占用 running 后不再释放, 之后的定时写出均不会执行
+        while (!buffer.isEmpty()) {
+            write();
+        }
+    }
+
+    /**
+     * 投递写出, 已有批次在写出时由其继续处理
+     */
+    private void trigger() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.get().execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            log.log(Level.SEVERE, "Batcher flush rejected, waiting for next trigger Exception: ", e);
+            if (armed.compareAndSet(false, true)) {
+                arm();
+            }
+        }
+    }
+
+    /**
+     * 安排最大延时的写出
+     */
+    private void arm() {
+        try {
+            timer.schedule(() -> {
+                armed.set(false);
+                if (!buffer.isEmpty()) {
+                    trigger();
+                }
+            }, maxDelay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // 定时器已关闭, 立即写出
+            armed.set(false);
+            trigger();
+        }
+    }
+
+    /**
+     * 写出: 连续写出已满的批次, 剩余不足一批时写出一次后结束
+     */
+    private void flush() {
+        try {
+            while (write() >= maxSize) {
+                if (closed) {
+                    break;
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+        if (closed) {
+            return;
+        }
+        // 写出期间新增的元素
+        int n = count.get();
+        if (n >= maxSize) {
+            trigger();
+        } else if (n > 0 && armed.compareAndSet(false, true)) {
+            arm();
+        }
+    }
+
+    /**
+     * 取出最多一批元素并交给批量消费
+     *
+     * @return 本批元素数量
+     */
+    private int write() {
+        List<T> batch = new ArrayList<>(Math.min(maxSize, Math.max(1, count.get())));
+        T t;
+        while (batch.size() < maxSize && (t = buffer.poll()) != null) {
+            batch.add(t);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        count.addAndGet(-batch.size());
+        signal();
+        Object[] previous = Context.restore(context);
+        try {
+            consumer.accept(batch);
+        } catch (Throwable e) {
+            log.log(Level.SEVERE, "Batcher consumer Exception, " + batch.size() + " item(s) dropped: ", e);
+        } finally {
+            Context.reset(previous);
+        }
+        return batch.size();
+    }
+
+    /**
+     * 唤醒等待缓冲区空间的线程
+     */
+    private void signal() {
+        if (waiters.get() > 0) {
+            synchronized (waiters) {
+                waiters.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.basic.tool;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 已注册的 {@link ContextPropagator}, 供线程池、定时任务与延迟队列在任务边界传递上下文
+ *
+ * <p>
+ *     快照为一个数组: 下标 0 为获取时的传递器数组, 之后依次为各传递器的快照, 提交与执行时各分配一个数组, 不复制集合;
+ *     未注册传递器时快照为 null, 不分配内存、不读取任何 {@link ThreadLocal}.
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@SuppressWarnings("unchecked")
+final class Context {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.Context");
+
+    /**
+     * 已注册的传递器, 注册时整体替换（写时复制）
+     */
+    @SuppressWarnings("unchecked")
+    private static volatile ContextPropagator<Object>[] propagators = (ContextPropagator<Object>[]) new ContextPropagator<?>[0];
+
+    /**
+     * Private Constructor
+     */
+    private Context() {}
+
+    /**
+     * 注册传递器, 重复注册时忽略
+     *
+     * @param propagator {@link ContextPropagator}
+     */
+    static synchronized void register(ContextPropagator<?> propagator) {
+        ContextPropagator<Object>[] ps = propagators;
+        for (ContextPropagator<Object> p : ps) {
+            if (p == propagator) {
+                return;
+            }
+        }
+        ContextPropagator<Object>[] copy = Arrays.copyOf(ps, ps.length + 1);
+        copy[ps.length] = (ContextPropagator<Object>) propagator;
+        propagators = copy;
+    }
+
+    /**
+     * 获取当前线程的上下文快照
+     *
+     * @return 快照, 未注册传递器时为 null
+     */
+    static Object[] capture() {
+        ContextPropagator<Object>[] ps = propagators;
+        if (ps.length == 0) {
+            return null;
+        }
+        Object[] snapshot = new Object[ps.length + 1];
+        snapshot[0] = ps;
+        for (int i = 0; i < ps.length; i++) {
+            try {
+                snapshot[i + 1] = ps[i].capture();
+            } catch (Exception e) {
+                log.log(Level.WARNING, "Context capture Exception: ", e);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 在当前线程中设置快照
+     *
+     * @param snapshot {@link #capture()} 获取的快照, 为 null 时不做处理
+     * @return 设置前的原值, 以同样的格式返回, 供 {@link #reset(Object[])} 使用
+     */
+    static Object[] restore(Object[] snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        ContextPropagator<Object>[] ps = (ContextPropagator<Object>[]) snapshot[0];
+        Object[] previous = new Object[snapshot.length];
+        previous[0] = ps;
+        for (int i = 0; i < ps.length; i++) {
+            try {
+                previous[i + 1] = ps[i].restore(snapshot[i + 1]);
+            } catch (Exception e) {
+                log.log(Level.WARNING, "Context restore Exception: ", e);
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * 恢复 {@link #restore(Object[])} 之前的原值, 按相反顺序
+     *
+     * @param previous {@link #restore(Object[])} 的返回值
+     */
+    static void reset(Object[] previous) {
+        if (previous == null) {
+            return;
+        }
+        ContextPropagator<Object>[] ps = (ContextPropagator<Object>[]) previous[0];
+        for (int i = ps.length - 1; i >= 0; i--) {
+            try {
+                ps[i].restore(previous[i + 1]);
+            } catch (Exception e) {
+                log.log(Level.WARNING, "Context reset Exception: ", e);
+            }
+        }
+    }
+
+    /**
+     * 包装任务, 执行时使用当前线程的上下文
+     *
+     * @param command 任务
+     * @return 未注册传递器时为原任务
+     */
+    static Runnable wrap(Runnable command) {
+        Object[] snapshot = capture();
+        if (snapshot == null) {
+            return command;
+        }
+        return () -> {
+            Object[] previous = restore(snapshot);
+            try {
+                command.run();
+            } finally {
+                reset(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装任务, 执行时使用当前线程的上下文
+     *
+     * @param task 任务
+     * @param <V>  泛型
+     * @return 未注册传递器时为原任务
+     */
+    static <V> Callable<V> wrap(Callable<V> task) {
+        Object[] snapshot = capture();
+        if (snapshot == null) {
+            return task;
+        }
+        return () -> {
+            Object[] previous = restore(snapshot);
+            try {
+                return task.call();
+            } finally {
+                reset(previous);
+            }
+        };
+    }
+}
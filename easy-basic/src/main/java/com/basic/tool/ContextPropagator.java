@@ -0,0 +1,73 @@
+package com.basic.tool;
+
+import java.util.Objects;
+
+/**
+ * 线程上下文的传递, 通过 {@link TaskPool#propagate(ContextPropagator)} 注册
+ *
+ * <p>
+ *     提交任务时在提交线程中 {@link #capture()}, 执行任务前在工作线程中 {@link #restore(Object)} 并保存原值,
+ *     执行结束后以原值再次 {@link #restore(Object)}, 工作线程不会残留上一个任务的上下文
+ * </p>
+ *
+ * <pre>{@code
+ *     // 租户 ID
+ *     TaskPool.propagate(ContextPropagator.of(TenantHolder.TENANT));
+ *
+ *     // MDC（easy-web 的 com.easy.config.MdcPropagator）
+ *     TaskPool.propagate(new MdcPropagator());
+ * }</pre>
+ *
+ * <p>快照会被多个线程读取, 应为不可变对象（或之后不再修改）, 避免在 {@link #capture()} 中复制集合</p>
+ *
+ * @param <T> 快照的类型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public interface ContextPropagator<T> {
+
+    /**
+     * 在提交任务的线程中获取上下文快照
+     *
+     * @return 快照, 可为 null
+     */
+    T capture();
+
+    /**
+     * 在执行任务的线程中设置上下文
+     *
+     * @param snapshot {@link #capture()} 获取的快照, 或之前返回的原值
+     * @return 设置前的原值
+     */
+    T restore(T snapshot);
+
+    /**
+     * 传递 {@link ThreadLocal} 的值
+     *
+     * @param local {@link ThreadLocal}
+     * @param <T>   泛型
+     * @return {@link ContextPropagator}
+     */
+    static <T> ContextPropagator<T> of(ThreadLocal<T> local) {
+        Objects.requireNonNull(local, "local");
+        return new ContextPropagator<T>() {
+
+            @Override
+            public T capture() {
+                return local.get();
+            }
+
+            @Override
+            public T restore(T snapshot) {
+                T previous = local.get();
+                if (snapshot == null) {
+                    local.remove();
+                } else {
+                    local.set(snapshot);
+                }
+                return previous;
+            }
+        };
+    }
+}
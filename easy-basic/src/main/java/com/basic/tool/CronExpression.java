@@ -0,0 +1,232 @@
+package com.basic.tool;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Cron 表达式, 供 {@link PlanSpec#cron(String)} 使用
+ *
+ * <p>格式: {@code 秒 分 时 日 月 周}, 省略秒（5 段）时秒为 0</p>
+ *
+ * <ol>
+ *     <li>{@code *}、{@code ?}: 任意值</li>
+ *     <li>{@code 1,3,5}: 列表</li>
+ *     <li>{@code 1-5}: 范围</li>
+ *     <li>{@code 0/15}、{@code *}{@code /15}、{@code 10-40/5}: 步长</li>
+ *     <li>月份可使用 {@code JAN} ~ {@code DEC}, 周可使用 {@code SUN} ~ {@code SAT}, 周日为 0 或 7</li>
+ * </ol>
+ *
+ * <pre>{@code
+ *     // 每天凌晨 2 点
+ *     CronExpression.parse("0 0 2 * * ?");
+ *     // 工作日 9 点到 18 点, 每 15 分钟
+ *     CronExpression.parse("0 0/15 9-18 * * MON-FRI");
+ * }</pre>
+ *
+ * <b style="color:red">日与周同时指定时须同时满足（与 Spring {@code @Scheduled} 一致）; 不支持 {@code L}、{@code W}、{@code #}</b>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class CronExpression {
+
+    /**
+     * 月份名称
+     */
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+
+    /**
+     * 周名称
+     */
+    private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    /**
+     * 向后查找下一次执行时间的最大年数, 例如 2 月 30 日永远不会匹配
+     */
+    private static final int MAX_YEARS = 8;
+
+    /**
+     * 原始表达式
+     */
+    private final String expression;
+
+    /**
+     * 各字段的取值位图: 秒、分、时、日、月、周
+     */
+    private final long seconds, minutes, hours, days, months, weeks;
+
+    /**
+     * 构造函数
+     *
+     * @param expression 原始表达式
+     * @param fields     秒、分、时、日、月、周
+     */
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        this.seconds = field(fields[0], 0, 59, null);
+        this.minutes = field(fields[1], 0, 59, null);
+        this.hours = field(fields[2], 0, 23, null);
+        this.days = field(fields[3], 1, 31, null);
+        this.months = field(fields[4], 1, 12, MONTHS);
+        long weeks = field(fields[5], 0, 7, DAYS);
+        // 周日可写作 0 或 7
+        this.weeks = (weeks & (1L << 7)) != 0 ? (weeks | 1L) & ~(1L << 7) : weeks;
+    }
+
+    /**
+     * 解析 Cron 表达式
+     *
+     * @param expression 表达式, 6 段（含秒）或 5 段
+     * @return {@link CronExpression}
+     * @throws IllegalArgumentException 表达式格式错误
+     */
+    public static CronExpression parse(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Cron expression must not be null");
+        }
+        String[] fields = expression.trim().toUpperCase(Locale.ROOT).split("\\s+");
+        if (fields.length == 5) {
+            String[] full = new String[6];
+            full[0] = "0";
+            System.arraycopy(fields, 0, full, 1, 5);
+            fields = full;
+        }
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Cron expression must consist of 5 or 6 fields: " + expression);
+        }
+        try {
+            return new CronExpression(expression, fields);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cron expression [" + expression + "]: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取晚于给定时间的下一次执行时间
+     *
+     * @param after 给定时间, 按其时区计算
+     * @return 下一次执行时间, 无匹配时为 null
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZoneId zone = after.getZone();
+        LocalDateTime t = after.toLocalDateTime().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        int limit = t.getYear() + MAX_YEARS;
+        while (t.getYear() <= limit) {
+            if (!has(months, t.getMonthValue())) {
+                t = t.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!has(days, t.getDayOfMonth()) || !has(weeks, t.getDayOfWeek().getValue() % 7)) {
+                t = t.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!has(hours, t.getHour())) {
+                t = t.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!has(minutes, t.getMinute())) {
+                t = t.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+            } else if (!has(seconds, t.getSecond())) {
+                t = t.plusSeconds(1);
+            } else {
+                // 夏令时跳过的时间顺延至跳变之后, 重复的时间只取较早的一次
+                ZonedDateTime next = ZonedDateTime.ofLocal(t, zone, null);
+                if (next.isAfter(after)) {
+                    return next;
+                }
+                t = t.plusSeconds(1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 原始表达式
+     *
+     * @return {@link String}
+     */
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * 位图中是否包含指定值
+     *
+     * @param bits  位图
+     * @param value 值
+     * @return boolean
+     */
+    private static boolean has(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    /**
+     * 解析单个字段为位图
+     *
+     * @param field 字段
+     * @param min   最小值
+     * @param max   最大值
+     * @param names 名称, 下标 + min 为对应的值
+     * @return 位图
+     */
+    private static long field(String field, int min, int max, String[] names) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = Integer.parseInt(part.substring(slash + 1));
+                if (step <= 0) {
+                    throw new IllegalArgumentException("step must be positive: " + part);
+                }
+                part = part.substring(0, slash);
+            }
+
+            int from, to;
+            if ("*".equals(part) || "?".equals(part)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                from = value(dash < 0 ? part : part.substring(0, dash), min, max, names);
+                // a/n 表示从 a 开始到最大值
+                to = dash >= 0 ? value(part.substring(dash + 1), min, max, names) : slash >= 0 ? max : from;
+                if (from > to) {
+                    throw new IllegalArgumentException("range start is greater than end: " + part);
+                }
+            }
+            for (int i = from; i <= to; i += step) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * 解析单个值
+     *
+     * @param value 数字或名称
+     * @param min   最小值
+     * @param max   最大值
+     * @param names 名称
+     * @return int
+     */
+    private static int value(String value, int min, int max, String[] names) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(value)) {
+                    return i + min;
+                }
+            }
+        }
+        int v;
+        try {
+            v = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("unknown value: " + value);
+        }
+        if (v < min || v > max) {
+            throw new IllegalArgumentException("value " + v + " out of range [" + min + ", " + max + "]");
+        }
+        return v;
+    }
+}
@@ -0,0 +1,74 @@
+package com.basic.tool;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * {@link TaskPool} 延迟队列的存储引擎
+ *
+ * <ul>
+ *     <li>{@link TimingWheel}: 默认实现, 内存中的分层哈希时间轮</li>
+ *     <li>{@link DelayJournal}: 基于内存映射日志文件的持久化实现, 重启后不丢失</li>
+ * </ul>
+ *
+ * <p>通过 {@link TaskPool#delayEngine(DelayEngine)} 替换, 替换后 {@code push}、{@code pull}、{@code drain}、{@code onExpire} 均使用新的引擎</p>
+ *
+ * @param <T> 泛型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public interface DelayEngine<T> {
+
+    /**
+     * 添加延迟元素
+     *
+     * @param delay 延迟时长
+     * @param t     元素
+     * @param unit  时间单位
+     * @return {@link Timeout} 取消句柄
+     */
+    Timeout push(long delay, T t, TimeUnit unit);
+
+    /**
+     * 阻塞获取一个已到期的元素
+     *
+     * @return T
+     * @throws InterruptedException 等待时被中断
+     */
+    T take() throws InterruptedException;
+
+    /**
+     * 非阻塞地批量取出已到期的元素
+     *
+     * @param sink 接收元素的集合
+     * @param max  最多取出的数量
+     * @return 实际取出的数量
+     */
+    int drain(Collection<? super T> sink, int max);
+
+    /**
+     * 等待中（未到期、未取消）的元素数量
+     *
+     * @return long
+     */
+    long size();
+
+    /**
+     * 关闭引擎, 释放线程与文件等资源
+     */
+    void close();
+
+    /**
+     * 停止到期, 取出尚未被消费的元素（未到期的, 以及已到期但未被取出的）, 由 {@link TaskPool#shutdown(long, TimeUnit)} 交给持久化钩子;
+     * 自身已持久化的引擎无需实现
+     *
+     * @param sink 接收元素与剩余延迟（毫秒, 已到期为 0）
+     * @return 取出的数量
+     */
+    default int unload(ObjLongConsumer<? super T> sink) {
+        return 0;
+    }
+
+}
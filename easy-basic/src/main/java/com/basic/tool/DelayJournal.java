@@ -0,0 +1,1003 @@
+package com.basic.tool;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射日志文件的持久化延迟队列引擎, 进程重启后未到期的元素不丢失
+ *
+ * <pre>{@code
+ *     TaskPool.delayEngine(new DelayJournal<>(Paths.get("/data/delay")));
+ *
+ *     Timeout timeout = TaskPool.push(30, orderId, TimeUnit.MINUTES);
+ * }</pre>
+ *
+ * <p>存储结构:</p>
+ * <ol>
+ *     <li>按到期时间划分时间窗口（默认 1 分钟）, 每个窗口一个只追加的段文件 {@code <窗口序号>.seg}, 通过 {@link MappedByteBuffer} 写入</li>
+ *     <li>记录分为新增（含编码后的元素）与完成（已到期或已取消）两种, 每条记录带 CRC32 校验, 重启时丢弃未写完整的尾部记录</li>
+ *     <li>
+ *         只有到期时间落入加载窗口（默认 5 分钟）的段文件才会读入内存时间轮, 远期的元素只在磁盘上,
+ *         内存中仅保留每个段文件的计数, 数百万个远期元素不会占用堆内存
+ *     </li>
+ * </ol>
+ *
+ * <p>写入: 所有记录由单个日志线程批量追加, 每批只调用一次 {@link MappedByteBuffer#force()}（组提交）; sync 模式下 push 等待所在批次落盘后返回</p>
+ *
+ * <p>压缩: 日志线程定期删除已全部完成的段文件, 并重写完成记录多于存活记录的远期段文件</p>
+ *
+ * <b style="color:red">
+ *     元素被 take、drain 取出时即记录为完成（至多一次）, 取出后进程崩溃该元素不会重新投递;
+ *     元素需可被 {@link Codec} 编码, 默认使用 Java 序列化.
+ *     段文件加载前返回的 {@link Timeout} 只记录取消请求, 与到期同时发生时以先写入日志者为准
+ * </b>
+ *
+ * @param <T> 泛型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class DelayJournal<T> implements DelayEngine<T> {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.DelayJournal");
+
+    /**
+     * 记录类型: 关闭（不写入文件）、新增、完成
+     */
+    private static final byte CLOSE = 0, ADD = 1, DONE = 2;
+
+    /**
+     * 元素状态: 等待中、已取消、已到期
+     */
+    private static final int WAITING = 0, CANCELLED = 1, EXPIRED = 2;
+
+    /**
+     * 记录头长度: 记录长度(4) + CRC32(4) + 类型(1) + id(8) + 截止时间(8)
+     */
+    private static final int HEADER = 25;
+
+    /**
+     * 段文件初始映射大小, 不足时成倍扩容
+     */
+    private static final int INITIAL = 1 << 20;
+
+    /**
+     * 单批最多处理的记录数量
+     */
+    private static final int MAX_BATCH = 4096;
+
+    /**
+     * 触发压缩的最少完成记录数量
+     */
+    private static final int COMPACT_MIN = 1024;
+
+    /**
+     * 加载、删除、压缩段文件的间隔（毫秒）
+     */
+    private static final long MAINTAIN_INTERVAL = 1000;
+
+    /**
+     * 段文件后缀
+     */
+    private static final String SUFFIX = ".seg";
+
+    /**
+     * 立即解除内存映射, 运行时不支持时为 null（映射由 GC 回收）
+     */
+    private static final Consumer<ByteBuffer> UNMAPPER = unmapper();
+
+    /**
+     * 日志目录
+     */
+    private final Path dir;
+
+    /**
+     * 元素编解码
+     */
+    private final Codec<T> codec;
+
+    /**
+     * 段文件的时间窗口（毫秒）
+     */
+    private final long window;
+
+    /**
+     * 加载窗口（毫秒）, 到期时间早于 当前时间 + horizon 的段文件读入内存时间轮
+     */
+    private final long horizon;
+
+    /**
+     * push 是否等待所在批次落盘
+     */
+    private final boolean sync;
+
+    /**
+     * 已加载元素的时间轮
+     */
+    private final TimingWheel<Record<T>> wheel;
+
+    /**
+     * 待写入的记录（调用方 -> 日志线程）
+     */
+    private final BlockingQueue<Op<T>> ops = new LinkedBlockingQueue<>();
+
+    /**
+     * 段文件, key 为窗口序号, 只由日志线程访问
+     */
+    private final TreeMap<Long, Segment<T>> segments = new TreeMap<>();
+
+    /**
+     * 元素 id 生成器
+     */
+    private final AtomicLong ids;
+
+    /**
+     * 日志线程
+     */
+    private final Thread journal;
+
+    /**
+     * 等待中的元素数量, 只由日志线程写入
+     */
+    private volatile long pending;
+
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean closed;
+
+    /**
+     * 构造函数: 默认 Java 序列化、1 分钟时间窗口、5 分钟加载窗口、异步落盘
+     *
+     * @param dir 日志目录
+     */
+    public DelayJournal(Path dir) {
+        this(dir, new SerializableCodec<>(), 1, 5, TimeUnit.MINUTES, false);
+    }
+
+    /**
+     * 构造函数, 读取目录中已有的段文件, 恢复未到期的元素
+     *
+     * @param dir     日志目录
+     * @param codec   元素编解码
+     * @param window  段文件的时间窗口
+     * @param horizon 加载窗口, 不小于时间窗口
+     * @param unit    时间单位
+     * @param sync    push 是否等待所在批次落盘
+     */
+    public DelayJournal(Path dir, Codec<T> codec, long window, long horizon, TimeUnit unit, boolean sync) {
+        this.dir = Objects.requireNonNull(dir, "dir");
+        this.codec = Objects.requireNonNull(codec, "codec");
+        this.window = Math.max(1, unit.toMillis(window));
+        this.horizon = Math.max(this.window, unit.toMillis(horizon));
+        this.sync = sync;
+        this.ids = new AtomicLong(recover());
+        this.wheel = new TimingWheel<>(10, TimeUnit.MILLISECONDS, 9, new TaskPool.NamedThreadFactory("Custom-journal-wheel-"));
+        this.journal = new TaskPool.NamedThreadFactory("Custom-journal-").newThread(this::work);
+        this.journal.setDaemon(true);
+        this.journal.start();
+    }
+
+    @Override
+    public Timeout push(long delay, T t, TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("Delay journal is closed");
+        }
+        long deadline = System.currentTimeMillis() + unit.toMillis(Math.max(0, delay));
+        Record<T> record = new Record<>(this, ids.incrementAndGet(), deadline, codec.encode(t));
+        Op<T> op = new Op<>(ADD, record, sync);
+        ops.offer(op);
+        op.await();
+        return record;
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        for (; ; ) {
+            T t = claim(wheel.take());
+            if (t != null) {
+                return t;
+            }
+        }
+    }
+
+    @Override
+    public int drain(Collection<? super T> sink, int max) {
+        List<Record<T>> list = new ArrayList<>();
+        wheel.drain(list, max);
+        int count = 0;
+        for (Record<T> record : list) {
+            T t = claim(record);
+            if (t != null) {
+                sink.add(t);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long size() {
+        return pending;
+    }
+
+    /**
+     * 停止接收新元素, 写入剩余记录后关闭段文件
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ops.offer(new Op<>(CLOSE, null, false));
+        wheel.close();
+        try {
+            journal.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 取出到期的元素并记录完成
+     *
+     * @param record 到期的记录
+     * @return T, 已被取消或无法解码时为 null
+     */
+    private T claim(Record<T> record) {
+        if (!STATE.compareAndSet(record, WAITING, EXPIRED)) {
+            return null;
+        }
+        ops.offer(new Op<>(DONE, record, false));
+        try {
+            return codec.decode(record.payload);
+        } catch (RuntimeException e) {
+            log.log(Level.SEVERE, "Delay journal decode Exception: ", e);
+            return null;
+        }
+    }
+
+    /**
+     * 日志线程主循环: 批量写入记录并落盘, 定期加载、删除、压缩段文件
+     */
+    private void work() {
+        List<Op<T>> batch = new ArrayList<>();
+        long next = 0;
+        boolean running = true;
+        while (running) {
+            try {
+                Op<T> op = ops.poll(Math.max(0, next - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (op != null) {
+                    batch.add(op);
+                    ops.drainTo(batch, MAX_BATCH - 1);
+                }
+            } catch (InterruptedException e) {
+                ops.drainTo(batch);
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                running &= commit(batch);
+                batch.clear();
+            }
+            if (running && System.currentTimeMillis() >= next) {
+                maintain();
+                next = System.currentTimeMillis() + MAINTAIN_INTERVAL;
+            }
+        }
+        for (Segment<T> segment : segments.values()) {
+            segment.close();
+        }
+        // 关闭后才到达的记录不再写入
+        ops.drainTo(batch);
+        for (Op<T> op : batch) {
+            op.error = new IllegalStateException("Delay journal is closed");
+            op.complete();
+        }
+    }
+
+    /**
+     * 组提交: 追加一批记录, 每个被修改的段文件只落盘一次, 再唤醒等待的调用方
+     *
+     * @param batch 记录
+     * @return 是否继续运行, 收到关闭请求时为 false
+     */
+    private boolean commit(List<Op<T>> batch) {
+        List<Segment<T>> dirty = new ArrayList<>();
+        boolean running = true;
+        for (Op<T> op : batch) {
+            if (op.type == CLOSE) {
+                running = false;
+                continue;
+            }
+            try {
+                Segment<T> segment = op.type == ADD ? add(op.record) : done(op.record);
+                if (segment != null && !segment.dirty) {
+                    segment.dirty = true;
+                    dirty.add(segment);
+                }
+            } catch (IOException | RuntimeException e) {
+                op.error = e;
+                log.log(Level.SEVERE, "Delay journal write Exception: ", e);
+            }
+        }
+        for (Segment<T> segment : dirty) {
+            segment.dirty = false;
+            if (segment.buffer != null) {
+                segment.buffer.force();
+            }
+        }
+        for (Op<T> op : batch) {
+            op.complete();
+        }
+        return running;
+    }
+
+    /**
+     * 追加新增记录, 所在段文件已加载时放入时间轮
+     *
+     * @param record 记录
+     * @return 被修改的段文件
+     * @throws IOException 文件读写异常
+     */
+    private Segment<T> add(Record<T> record) throws IOException {
+        long now = System.currentTimeMillis();
+        Segment<T> segment = segment(record.deadline / window);
+        if (!segment.loaded && segment.window * window <= now + horizon) {
+            load(segment, now);
+        }
+        segment.append(ADD, record.id, record.deadline, record.payload);
+        segment.live++;
+        pending++;
+        if (segment.loaded) {
+            segment.records.put(record.id, record);
+            if (record.state == WAITING) {
+                record.timer = wheel.push(record.deadline - now, record, TimeUnit.MILLISECONDS);
+            }
+        } else {
+            // 远期元素只保留在磁盘上
+            record.payload = null;
+        }
+        return segment;
+    }
+
+    /**
+     * 追加完成记录
+     *
+     * @param record 已到期或已取消的记录
+     * @return 被修改的段文件, 无需写入时为 null
+     * @throws IOException 文件读写异常
+     */
+    private Segment<T> done(Record<T> record) throws IOException {
+        Segment<T> segment = segments.get(record.deadline / window);
+        if (segment == null) {
+            return null;
+        }
+        if (segment.loaded) {
+            Record<T> loaded = segment.records.remove(record.id);
+            if (loaded == null) {
+                // 已记录过完成
+                return null;
+            }
+            if (loaded != record && STATE.compareAndSet(loaded, WAITING, CANCELLED)) {
+                // 调用方持有的句柄早于段文件加载, 同时取消加载出的记录
+                Timeout timer = loaded.timer;
+                if (timer != null) {
+                    timer.cancel();
+                }
+            }
+        }
+        segment.append(DONE, record.id, record.deadline, null);
+        segment.live--;
+        segment.done++;
+        pending--;
+        return segment;
+    }
+
+    /**
+     * 加载进入加载窗口的段文件, 删除已全部完成的段文件, 压缩完成记录过多的远期段文件
+     */
+    private void maintain() {
+        long now = System.currentTimeMillis();
+        for (java.util.Iterator<Segment<T>> it = segments.values().iterator(); it.hasNext(); ) {
+            Segment<T> segment = it.next();
+            try {
+                if (!segment.loaded && segment.window * window <= now + horizon) {
+                    load(segment, now);
+                }
+                if (segment.live == 0 && (!segment.loaded || (segment.window + 1) * window <= now)) {
+                    it.remove();
+                    segment.close();
+                    Files.deleteIfExists(segment.path);
+                } else if (!segment.loaded && segment.done >= COMPACT_MIN && segment.done > segment.live) {
+                    compact(segment);
+                } else if (!segment.loaded && !segment.touched) {
+                    // 远期段文件空闲时释放文件句柄与映射
+                    segment.close();
+                }
+                segment.touched = false;
+            } catch (IOException | RuntimeException e) {
+                log.log(Level.SEVERE, "Delay journal maintain Exception: ", e);
+            }
+        }
+    }
+
+    /**
+     * 将段文件中存活的记录读入时间轮
+     *
+     * @param segment 段文件
+     * @param now     当前时间（毫秒）
+     * @throws IOException 文件读写异常
+     */
+    private void load(Segment<T> segment, long now) throws IOException {
+        Map<Long, Record<T>> records = new LinkedHashMap<>();
+        segment.scan((type, id, deadline, position, length) -> {
+            if (type == ADD) {
+                byte[] payload = new byte[length - HEADER];
+                ByteBuffer dup = segment.buffer.duplicate();
+                dup.position(position + HEADER);
+                dup.get(payload);
+                records.put(id, new Record<>(this, id, deadline, payload));
+            } else {
+                records.remove(id);
+            }
+        });
+        for (Record<T> record : records.values()) {
+            record.timer = wheel.push(record.deadline - now, record, TimeUnit.MILLISECONDS);
+        }
+        segment.records = records;
+        segment.loaded = true;
+    }
+
+    /**
+     * 只保留存活的新增记录重写段文件
+     *
+     * @param segment 段文件
+     * @throws IOException 文件读写异常
+     */
+    private void compact(Segment<T> segment) throws IOException {
+        Map<Long, int[]> live = new LinkedHashMap<>();
+        segment.scan((type, id, deadline, position, length) -> {
+            if (type == ADD) {
+                live.put(id, new int[]{position, length});
+            } else {
+                live.remove(id);
+            }
+        });
+
+        int size = 0;
+        for (int[] range : live.values()) {
+            size += range[1];
+        }
+        Path tmp = dir.resolve(segment.path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer target = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL, size));
+            for (int[] range : live.values()) {
+                ByteBuffer dup = segment.buffer.duplicate();
+                dup.position(range[0]).limit(range[0] + range[1]);
+                target.put(dup);
+            }
+            target.force();
+            unmap(target);
+        }
+        segment.close();
+        Files.move(tmp, segment.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        segment.position = size;
+        segment.live = live.size();
+        segment.done = 0;
+    }
+
+    /**
+     * 获取（或创建）段文件
+     *
+     * @param index 窗口序号
+     * @return {@link Segment}
+     */
+    private Segment<T> segment(long index) {
+        return segments.computeIfAbsent(index, k -> new Segment<>(dir.resolve(k + SUFFIX), k));
+    }
+
+    /**
+     * 读取目录中已有的段文件, 统计存活与完成的记录数量
+     *
+     * @return 已使用的最大元素 id
+     */
+    private long recover() {
+        long maxId = System.currentTimeMillis() * 1000;
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path path : stream) {
+                    String name = path.getFileName().toString();
+                    if (name.endsWith(SUFFIX + ".tmp")) {
+                        // 压缩未完成时遗留的临时文件
+                        Files.deleteIfExists(path);
+                    } else if (name.endsWith(SUFFIX)) {
+                        Segment<T> segment = new Segment<>(path, Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                        Set<Long> live = new HashSet<>();
+                        long[] max = {maxId};
+                        segment.scan((type, id, deadline, position, length) -> {
+                            max[0] = Math.max(max[0], id);
+                            if (type == ADD) {
+                                live.add(id);
+                            } else if (live.remove(id)) {
+                                segment.done++;
+                            }
+                        });
+                        maxId = max[0];
+                        segment.live = live.size();
+                        segment.close();
+                        segments.put(segment.window, segment);
+                        pending += segment.live;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover delay journal " + dir, e);
+        }
+        return maxId;
+    }
+
+    /**
+     * 解除内存映射; 调用后不可再访问该映射（含其 duplicate）, 只在日志线程中调用
+     *
+     * @param buffer {@link MappedByteBuffer}
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (UNMAPPER != null) {
+            try {
+                UNMAPPER.accept(buffer);
+            } catch (RuntimeException e) {
+                log.log(Level.FINE, "Delay journal unmap Exception: ", e);
+            }
+        }
+    }
+
+    /**
+     * 获取解除内存映射的方式: Java 9 及以上使用 {@code Unsafe#invokeCleaner}, Java 8 使用 {@code DirectBuffer#cleaner}
+     *
+     * @return {@link Consumer}, 均不可用时为 null
+     */
+    private static Consumer<ByteBuffer> unmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            return buffer -> invoke(invokeCleaner, unsafe, buffer);
+        } catch (NoSuchMethodException e) {
+            try {
+                Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                return buffer -> invoke(clean, invoke(cleaner, buffer));
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                return null;
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 反射调用, 受检异常转为运行时异常
+     *
+     * @param method 方法
+     * @param target 目标对象
+     * @param args   参数
+     * @return 返回值
+     */
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * {@link Record#state} 原子更新器
+     */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Record> STATE = AtomicIntegerFieldUpdater.newUpdater(Record.class, "state");
+
+    /**
+     * 元素编解码
+     *
+     * @param <T> 泛型
+     */
+    public interface Codec<T> {
+
+        /**
+         * 编码
+         *
+         * @param t 元素
+         * @return 字节数组
+         */
+        byte[] encode(T t);
+
+        /**
+         * 解码
+         *
+         * @param bytes 字节数组
+         * @return T
+         */
+        T decode(byte[] bytes);
+    }
+
+    /**
+     * 基于 Java 序列化的编解码, 元素需实现 {@link Serializable}
+     *
+     * @param <T> 泛型
+     */
+    private static final class SerializableCodec<T> implements Codec<T> {
+
+        @Override
+        public byte[] encode(T t) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(t);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T decode(byte[] bytes) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return (T) in.readObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 待写入的记录
+     *
+     * @param <T> 泛型
+     */
+    private static final class Op<T> {
+
+        /**
+         * 记录类型
+         */
+        private final byte type;
+
+        /**
+         * 记录
+         */
+        private final Record<T> record;
+
+        /**
+         * 等待落盘的闩锁, 异步落盘时为 null
+         */
+        private final CountDownLatch latch;
+
+        /**
+         * 写入异常
+         */
+        private volatile Exception error;
+
+        /**
+         * 构造函数
+         *
+         * @param type   记录类型
+         * @param record 记录
+         * @param sync   是否等待落盘
+         */
+        private Op(byte type, Record<T> record, boolean sync) {
+            this.type = type;
+            this.record = record;
+            this.latch = sync ? new CountDownLatch(1) : null;
+        }
+
+        /**
+         * 等待所在批次落盘
+         */
+        private void await() {
+            if (latch == null) {
+                return;
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (error != null) {
+                throw new IllegalStateException("Failed to write delay journal", error);
+            }
+        }
+
+        /**
+         * 所在批次已落盘
+         */
+        private void complete() {
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+    }
+
+    /**
+     * 延迟元素, 同时作为取消句柄
+     *
+     * @param <T> 泛型
+     */
+    private static final class Record<T> implements Timeout {
+
+        /**
+         * 所属日志
+         */
+        private final DelayJournal<T> journal;
+
+        /**
+         * 元素 id
+         */
+        private final long id;
+
+        /**
+         * 截止时间（毫秒）
+         */
+        private final long deadline;
+
+        /**
+         * 编码后的元素, 所在段文件未加载时写入后置为 null
+         */
+        private volatile byte[] payload;
+
+        /**
+         * 时间轮中的句柄, 所在段文件未加载时为 null
+         */
+        private volatile Timeout timer;
+
+        /**
+         * 元素状态, 非 private 以便 {@link #STATE} 原子更新
+         */
+        volatile int state;
+
+        /**
+         * 构造函数
+         *
+         * @param journal  所属日志
+         * @param id       元素 id
+         * @param deadline 截止时间（毫秒）
+         * @param payload  编码后的元素
+         */
+        private Record(DelayJournal<T> journal, long id, long deadline, byte[] payload) {
+            this.journal = journal;
+            this.id = id;
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                Timeout t = timer;
+                if (t != null) {
+                    t.cancel();
+                }
+                journal.ops.offer(new Op<>(DONE, this, false));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+
+    /**
+     * 段文件扫描回调
+     */
+    @FunctionalInterface
+    private interface Visitor {
+
+        /**
+         * 访问一条校验通过的记录
+         *
+         * @param type     记录类型
+         * @param id       元素 id
+         * @param deadline 截止时间（毫秒）
+         * @param position 记录在文件中的位置
+         * @param length   记录长度
+         */
+        void visit(byte type, long id, long deadline, int position, int length);
+    }
+
+    /**
+     * 段文件, 只由日志线程访问
+     *
+     * @param <T> 泛型
+     */
+    private static final class Segment<T> {
+
+        /**
+         * 文件路径
+         */
+        private final Path path;
+
+        /**
+         * 窗口序号
+         */
+        private final long window;
+
+        /**
+         * 文件通道与内存映射, 关闭后为 null, 使用时重新打开
+         */
+        private FileChannel channel;
+        private MappedByteBuffer buffer;
+
+        /**
+         * 下一条记录的写入位置, 小于 0 时需扫描确定
+         */
+        private int position = -1;
+
+        /**
+         * 存活的元素数量
+         */
+        private int live;
+
+        /**
+         * 完成记录数量
+         */
+        private int done;
+
+        /**
+         * 是否已读入时间轮
+         */
+        private boolean loaded;
+
+        /**
+         * 已加载的存活记录, key 为元素 id
+         */
+        private Map<Long, Record<T>> records;
+
+        /**
+         * 本批次是否已写入、上次整理后是否被访问
+         */
+        private boolean dirty, touched;
+
+        /**
+         * 构造函数
+         *
+         * @param path   文件路径
+         * @param window 窗口序号
+         */
+        private Segment(Path path, long window) {
+            this.path = path;
+            this.window = window;
+        }
+
+        /**
+         * 打开文件并映射
+         *
+         * @throws IOException 文件读写异常
+         */
+        private void open() throws IOException {
+            touched = true;
+            if (buffer != null) {
+                return;
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL, channel.size()));
+            if (position < 0) {
+                scan((type, id, deadline, pos, length) -> { });
+            }
+        }
+
+        /**
+         * 依次访问校验通过的记录, 遇到未写完整的记录时停止, 并以此作为写入位置
+         *
+         * @param visitor 回调
+         * @throws IOException 文件读写异常
+         */
+        private void scan(Visitor visitor) throws IOException {
+            open();
+            int pos = 0;
+            int limit = position < 0 ? buffer.capacity() : position;
+            CRC32 crc = new CRC32();
+            while (pos + HEADER <= limit) {
+                int length = buffer.getInt(pos);
+                if (length < HEADER || pos + length > limit) {
+                    break;
+                }
+                ByteBuffer dup = buffer.duplicate();
+                dup.position(pos + 8).limit(pos + length);
+                crc.reset();
+                crc.update(dup);
+                if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+                    break;
+                }
+                visitor.visit(buffer.get(pos + 8), buffer.getLong(pos + 9), buffer.getLong(pos + 17), pos, length);
+                pos += length;
+            }
+            position = pos;
+        }
+
+        /**
+         * 追加一条记录
+         *
+         * @param type     记录类型
+         * @param id       元素 id
+         * @param deadline 截止时间（毫秒）
+         * @param payload  编码后的元素, 完成记录为 null
+         * @throws IOException 文件读写异常
+         */
+        private void append(byte type, long id, long deadline, byte[] payload) throws IOException {
+            open();
+            int length = HEADER + (payload == null ? 0 : payload.length);
+            if (position + length > buffer.capacity()) {
+                MappedByteBuffer old = buffer;
+                old.force();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max((long) old.capacity() << 1, (long) position + length));
+                unmap(old);
+            }
+            buffer.put(position + 8, type);
+            buffer.putLong(position + 9, id);
+            buffer.putLong(position + 17, deadline);
+            if (payload != null) {
+                ByteBuffer dup = buffer.duplicate();
+                dup.position(position + HEADER);
+                dup.put(payload);
+            }
+            ByteBuffer dup = buffer.duplicate();
+            dup.position(position + 8).limit(position + length);
+            CRC32 crc = new CRC32();
+            crc.update(dup);
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.putInt(position, length);
+            position += length;
+        }
+
+        /**
+         * 落盘并解除映射, 关闭文件通道; 删除、替换段文件前调用
+         */
+        private void close() {
+            if (buffer != null) {
+                MappedByteBuffer mapped = buffer;
+                buffer = null;
+                mapped.force();
+                unmap(mapped);
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.log(Level.SEVERE, "Delay journal close Exception: ", e);
+                }
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.basic.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 延迟队列到期元素的批量分发器
+ *
+ * <p>
+ *     由一个专用线程阻塞等待到期元素, 一次性取出当前所有已到期的元素后按各监听器的批次大小分批回调,
+ *     不占用 {@link TaskPool} 线程池的工作线程; 大量元素同时到期时, 只需少量的批量处理即可完成.
+ * </p>
+ *
+ * <p>每个监听器都会收到全部到期元素（广播）; 监听器在分发线程中执行, 耗时的处理应自行提交至线程池</p>
+ *
+ * <p>到期元素可能来自不同的线程, 监听器使用注册时线程的上下文（{@link ContextPropagator}）</p>
+ *
+ * @param <T> 泛型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class ExpireDispatcher<T> {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.ExpireDispatcher");
+
+    /**
+     * 单次最多从延迟队列中取出的元素数量
+     */
+    private static final int MAX_DRAIN = 4096;
+
+    /**
+     * 延迟队列异常后的暂停时长（毫秒）
+     */
+    private static final long PAUSE_MILLIS = 100;
+
+    /**
+     * 延迟队列
+     */
+    private final DelayEngine<T> engine;
+
+    /**
+     * 已注册的监听器
+     */
+    private final List<Listener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 分发线程
+     */
+    private final Thread worker;
+
+    /**
+     * 构造函数, 先注册首个监听器再启动分发线程, 避免到期元素无人接收
+     *
+     * @param engine    延迟队列
+     * @param factory   分发线程工厂
+     * @param batchSize 首个监听器每批最多的元素数量
+     * @param consumer  首个监听器的批量消费
+     */
+    ExpireDispatcher(DelayEngine<T> engine, ThreadFactory factory, int batchSize, Consumer<List<T>> consumer) {
+        this.engine = engine;
+        register(batchSize, consumer);
+        this.worker = factory.newThread(this::dispatch);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 注册监听器
+     *
+     * @param batchSize 每批最多的元素数量
+     * @param consumer  批量消费
+     */
+    void register(int batchSize, Consumer<List<T>> consumer) {
+        listeners.add(new Listener<>(Math.max(1, batchSize), consumer));
+    }
+
+    /**
+     * 分发线程主循环, 单次循环中的任何异常（含 {@link Error}）只记录日志, 不终止分发线程
+     */
+    private void dispatch() {
+        List<T> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(engine.take());
+                engine.drain(batch, MAX_DRAIN - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                log.log(Level.SEVERE, "Expire dispatcher Exception: ", e);
+                if (batch.isEmpty() && !pause()) {
+                    return;
+                }
+            }
+
+            try {
+                for (Listener<T> listener : listeners) {
+                    for (int from = 0; from < batch.size(); from += listener.batchSize) {
+                        int to = Math.min(batch.size(), from + listener.batchSize);
+                        Object[] previous = Context.restore(listener.context);
+                        try {
+                            listener.consumer.accept(new ArrayList<>(batch.subList(from, to)));
+                        } catch (Throwable e) {
+                            log.log(Level.SEVERE, "Expire listener Exception: ", e);
+                        } finally {
+                            Context.reset(previous);
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                log.log(Level.SEVERE, "Expire dispatcher Exception: ", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 延迟队列异常后暂停片刻, 避免持续失败时空转
+     *
+     * @return 是否继续分发, 被中断时为 false
+     */
+    private static boolean pause() {
+        try {
+            Thread.sleep(PAUSE_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 监听器
+     *
+     * @param <T> 泛型
+     */
+    private static final class Listener<T> {
+
+        /**
+         * 每批最多的元素数量
+         */
+        private final int batchSize;
+
+        /**
+         * 批量消费
+         */
+        private final Consumer<List<T>> consumer;
+
+        /**
+         * 注册时线程的上下文快照, 未注册 {@link ContextPropagator} 时为 null
+         */
+        private final Object[] context = Context.capture();
+
+        /**
+         * 构造函数
+         *
+         * @param batchSize 每批最多的元素数量
+         * @param consumer  批量消费
+         */
+        private Listener(int batchSize, Consumer<List<T>> consumer) {
+            this.batchSize = batchSize;
+            this.consumer = consumer;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.basic.tool;
+
+/**
+ * 带下标的元素, 由 {@link Iterator#indexed(java.util.Collection)} 的流返回
+ *
+ * @param <T> 元素的类型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class Indexed<T> {
+
+    /**
+     * 下标
+     */
+    private final int index;
+
+    /**
+     * 元素
+     */
+    private final T value;
+
+    /**
+     * 构造函数
+     *
+     * @param index 下标
+     * @param value 元素
+     */
+    Indexed(int index, T value) {
+        this.index = index;
+        this.value = value;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #index}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #value}
+     */
+    public T getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return index + "=" + value;
+    }
+}
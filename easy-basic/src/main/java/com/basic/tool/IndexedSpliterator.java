@@ -0,0 +1,72 @@
+package com.basic.tool;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 为元素附加下标的 {@link Spliterator}, 供 {@link Iterator#indexed(java.util.Collection)} 使用
+ *
+ * <p>
+ *     下标由拆分时的偏移量计算: 源 {@link Spliterator} 须为 {@link #SUBSIZED}, 拆出的前半部分从当前偏移量开始,
+ *     当前部分的偏移量随之增加前半部分的大小; 并行流中各部分互不共享计数器, 下标与顺序遍历时一致
+ * </p>
+ *
+ * @param <T> 元素的类型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+final class IndexedSpliterator<T> implements Spliterator<Indexed<T>> {
+
+    /**
+     * 源 {@link Spliterator}
+     */
+    private final Spliterator<T> source;
+
+    /**
+     * 下一个元素的下标, 只被持有本 {@link Spliterator} 的线程访问
+     */
+    private int index;
+
+    /**
+     * 构造函数
+     *
+     * @param source 源 {@link Spliterator}, 须为 {@link #SUBSIZED}
+     * @param index  第一个元素的下标
+     */
+    IndexedSpliterator(Spliterator<T> source, int index) {
+        this.source = source;
+        this.index = index;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Indexed<T>> action) {
+        return source.tryAdvance(t -> action.accept(new Indexed<>(index++, t)));
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Indexed<T>> action) {
+        source.forEachRemaining(t -> action.accept(new Indexed<>(index++, t)));
+    }
+
+    @Override
+    public Spliterator<Indexed<T>> trySplit() {
+        Spliterator<T> prefix = source.trySplit();
+        if (prefix == null) {
+            return null;
+        }
+        IndexedSpliterator<T> split = new IndexedSpliterator<>(prefix, index);
+        index += (int) prefix.getExactSizeIfKnown();
+        return split;
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE | CONCURRENT) | NONNULL;
+    }
+}
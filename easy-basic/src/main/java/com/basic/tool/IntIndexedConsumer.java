@@ -0,0 +1,21 @@
+package com.basic.tool;
+
+/**
+ * 接收下标与元素的消费接口, 下标为基本类型 {@code int}, 不会为每个元素装箱
+ *
+ * @param <T> 元素的类型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@FunctionalInterface
+public interface IntIndexedConsumer<T> {
+
+    /**
+     * 消费
+     *
+     * @param index 下标
+     * @param t     元素
+     */
+    void accept(int index, T t);
+}
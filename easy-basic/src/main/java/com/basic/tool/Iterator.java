@@ -1,11 +1,25 @@
 package com.basic.tool;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 扩展集合 {@code foreach} 循环时的下标获取
  *
+ * <ol>
+ *     <li>{@link #each(BiConsumer)}: 顺序遍历时获取下标</li>
+ *     <li>{@link #indexed(Collection)}: 带下标的流, 并行流中下标同样正确</li>
+ *     <li>{@link #forEachIndexed(List, IntIndexedConsumer)}: 带下标遍历, 下标不装箱</li>
+ *     <li>{@link #forEachIndexed(List, int, IntIndexedConsumer)}: 按块在 {@link TaskPool} 的计算线程池中并行遍历</li>
+ * </ol>
+ *
  * @author LZH
  * @version 1.0.7
  * @since 2023/06/15
@@ -15,6 +29,8 @@ public class Iterator {
     /**
      * {@link java.lang.Iterable#forEach(Consumer)} 循环时同时获取数据与下标
      *
+     * <p>下标来自一个共享的计数器, 只适用于顺序遍历; 并行流请使用 {@link #indexed(Collection)}</p>
+     *
      * @param consumer {@link BiConsumer}
      * @param <T>      泛型
      * @return {@link Consumer}
@@ -27,4 +43,64 @@ public class Iterator {
         return item -> consumer.accept(count.index++, item);
     }
 
+    /**
+     * 带下标的流, 下标由拆分时的偏移量计算, 转为并行流后下标与顺序遍历时一致
+     *
+     * <pre>{@code
+     *     Iterator.indexed(rows).parallel()
+     *             .filter(row -> row.getValue().isInvalid())
+     *             .forEach(row -> errors.add("第 " + (row.getIndex() + 1) + " 行数据有误"));
+     * }</pre>
+     *
+     * @param collection 集合, 其 {@link Spliterator} 不能精确拆分时（如 {@link java.util.LinkedList}）先复制为 {@link ArrayList}
+     * @param <T>        泛型
+     * @return {@link Stream}, 顺序流
+     */
+    public static <T> Stream<Indexed<T>> indexed(Collection<T> collection) {
+        Spliterator<T> spliterator = collection.spliterator();
+        if (!spliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
+            spliterator = new ArrayList<>(collection).spliterator();
+        }
+        return StreamSupport.stream(new IndexedSpliterator<>(spliterator, 0), false);
+    }
+
+    /**
+     * 在当前线程中带下标遍历
+     *
+     * @param list     集合
+     * @param consumer {@link IntIndexedConsumer}
+     * @param <T>      泛型
+     */
+    public static <T> void forEachIndexed(List<T> list, IntIndexedConsumer<? super T> consumer) {
+        if (list instanceof RandomAccess) {
+            for (int i = 0, size = list.size(); i < size; i++) {
+                consumer.accept(i, list.get(i));
+            }
+            return;
+        }
+        int i = 0;
+        for (T t : list) {
+            consumer.accept(i++, t);
+        }
+    }
+
+    /**
+     * 按块并行地带下标遍历, 阻塞至全部元素处理完毕
+     *
+     * <p>
+     *     集合按块拆分后在 {@link TaskPool#compute(java.util.concurrent.ForkJoinTask)} 的计算线程池中执行, 块内按下标顺序、块之间无顺序,
+     *     下标由块的偏移量确定; 消费操作应为 CPU 密集型, 且能被多个线程同时调用
+     * </p>
+     *
+     * @param list      集合, 不支持随机访问时先复制
+     * @param chunkSize 每块最多的元素数量, 不大于 0 时自动计算
+     * @param consumer  {@link IntIndexedConsumer}
+     * @param <T>       泛型
+     */
+    public static <T> void forEachIndexed(List<T> list, int chunkSize, IntIndexedConsumer<? super T> consumer) {
+        List<T> items = list instanceof RandomAccess ? list : new ArrayList<>(list);
+        int granularity = ParallelTasks.granularity(items.size(), chunkSize, Runtime.getRuntime().availableProcessors());
+        TaskPool.compute(new ParallelTasks.ForEach<>(items, 0, items.size(), granularity, consumer, Context.capture()));
+    }
+
 }
@@ -0,0 +1,262 @@
+package com.basic.tool;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JMX 输出, 由 {@link TaskPool#metrics(boolean)} 注册与移除
+ *
+ * <ul>
+ *     <li>{@code com.basic:type=TaskPool,name=<线程池名称>}: {@link PoolMXBean}</li>
+ *     <li>{@code com.basic:type=TaskPlan,name=<任务 key>}: {@link PlanMXBean}</li>
+ * </ul>
+ *
+ * <p>MXBean 不保存状态, 每次读取属性时获取快照</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class JmxSink implements MetricsSink {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.JmxSink");
+
+    /**
+     * 已注册的 MXBean
+     */
+    private final Map<ObjectName, Object> registered = new ConcurrentHashMap<>();
+
+    @Override
+    public void poolAdded(String name) {
+        register(name("TaskPool", name), new Pool(name));
+    }
+
+    @Override
+    public void planAdded(String key) {
+        register(name("TaskPlan", key), new Plan(key));
+    }
+
+    @Override
+    public void planRemoved(String key) {
+        unregister(name("TaskPlan", key));
+    }
+
+    /**
+     * 注销全部 MXBean
+     */
+    void close() {
+        registered.keySet().forEach(this::unregister);
+    }
+
+    /**
+     * 注册 MXBean, 同名的已存在时忽略
+     *
+     * @param name  {@link ObjectName}
+     * @param mbean MXBean
+     */
+    private void register(ObjectName name, Object mbean) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (registered.putIfAbsent(name, mbean) == null && !server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+            }
+        } catch (Exception e) {
+            registered.remove(name, mbean);
+            log.log(Level.WARNING, "Register MXBean [" + name + "] Exception: ", e);
+        }
+    }
+
+    /**
+     * 注销 MXBean
+     *
+     * @param name {@link ObjectName}
+     */
+    private void unregister(ObjectName name) {
+        if (registered.remove(name) == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (Exception e) {
+            log.log(Level.WARNING, "Unregister MXBean [" + name + "] Exception: ", e);
+        }
+    }
+
+    /**
+     * 创建 {@link ObjectName}, 名称中的特殊字符按 JMX 规则转义
+     *
+     * @param type 类型
+     * @param name 名称
+     * @return {@link ObjectName}
+     */
+    private static ObjectName name(String type, String name) {
+        try {
+            return new ObjectName("com.basic:type=" + type + ",name=" + ObjectName.quote(name));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid MXBean name: " + name, e);
+        }
+    }
+
+    /**
+     * 线程池的 MXBean
+     */
+    private static final class Pool implements PoolMXBean {
+
+        /**
+         * 线程池名称
+         */
+        private final String name;
+
+        /**
+         * 构造函数
+         *
+         * @param name 线程池名称
+         */
+        private Pool(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int getPoolSize() {
+            return TaskPool.stats(name).getPoolSize();
+        }
+
+        @Override
+        public int getActiveCount() {
+            return TaskPool.stats(name).getActiveCount();
+        }
+
+        @Override
+        public int getQueueSize() {
+            return TaskPool.stats(name).getQueueSize();
+        }
+
+        @Override
+        public long getCompleted() {
+            return TaskPool.stats(name).getCompleted();
+        }
+
+        @Override
+        public long getRejected() {
+            return TaskPool.rejected(name);
+        }
+
+        @Override
+        public long getExpired() {
+            return TaskPool.expired(name);
+        }
+
+        @Override
+        public double getWaitP50() {
+            return LatencyHistogram.millis(TaskPool.stats(name).getWaitTimes().percentile(0.5));
+        }
+
+        @Override
+        public double getWaitP99() {
+            return LatencyHistogram.millis(TaskPool.stats(name).getWaitTimes().percentile(0.99));
+        }
+
+        @Override
+        public double getWaitMax() {
+            return LatencyHistogram.millis(TaskPool.stats(name).getWaitTimes().getMax());
+        }
+
+        @Override
+        public double getRunP50() {
+            return LatencyHistogram.millis(TaskPool.stats(name).getRunTimes().percentile(0.5));
+        }
+
+        @Override
+        public double getRunP99() {
+            return LatencyHistogram.millis(TaskPool.stats(name).getRunTimes().percentile(0.99));
+        }
+
+        @Override
+        public double getRunMax() {
+            return LatencyHistogram.millis(TaskPool.stats(name).getRunTimes().getMax());
+        }
+    }
+
+    /**
+     * 定时任务的 MXBean
+     */
+    private static final class Plan implements PlanMXBean {
+
+        /**
+         * 任务的唯一标识
+         */
+        private final String key;
+
+        /**
+         * 构造函数
+         *
+         * @param key 任务的唯一标识
+         */
+        private Plan(String key) {
+            this.key = key;
+        }
+
+        /**
+         * 获取快照, 任务已取消时为空统计
+         *
+         * @return {@link PlanStats}
+         */
+        private PlanStats stats() {
+            PlanStats stats = TaskPool.planStats(key);
+            return stats == null ? new PlanStats(key, 0, 0, 0, 0, -1, null, null) : stats;
+        }
+
+        @Override
+        public long getSucceeded() {
+            return stats().getSucceeded();
+        }
+
+        @Override
+        public long getFailed() {
+            return stats().getFailed();
+        }
+
+        @Override
+        public long getSkipped() {
+            return stats().getSkipped();
+        }
+
+        @Override
+        public long getRejected() {
+            return stats().getRejected();
+        }
+
+        @Override
+        public long getNext() {
+            return stats().getNext();
+        }
+
+        @Override
+        public double getDurationP50() {
+            return LatencyHistogram.millis(stats().getDurations().percentile(0.5));
+        }
+
+        @Override
+        public double getDurationP99() {
+            return LatencyHistogram.millis(stats().getDurations().percentile(0.99));
+        }
+
+        @Override
+        public double getDurationMax() {
+            return LatencyHistogram.millis(stats().getDurations().getMax());
+        }
+
+        @Override
+        public double getLatenessP99() {
+            return LatencyHistogram.millis(stats().getLateness().percentile(0.99));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.basic.tool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数-线性延迟直方图（纳秒）, 由 {@link PoolStats}、{@link PlanStats} 返回
+ *
+ * <p>
+ *     每个 2 的幂区间等分为 16 个桶, 相对误差不超过 1/16（约 6%）, 固定 688 个桶覆盖 0 至约 19.5 小时,
+ *     超出范围的样本计入最后一个桶（最大值仍精确记录）;
+ *     记录一次样本只有一次 {@link AtomicLongArray#incrementAndGet(int)} 与一次 {@link LongAdder#add(long)}, 不加锁、不分配内存.
+ * </p>
+ *
+ * <p>返回给调用方的均为快照, 统计自启用 {@link TaskPool#metrics(boolean)} 起累计</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 每个 2 的幂区间的桶数量: 2^4
+     */
+    private static final int SUB_BITS = 4;
+
+    /**
+     * 覆盖的最大指数, 2^46 纳秒约 19.5 小时
+     */
+    private static final int MAX_EXP = 45;
+
+    /**
+     * 桶数量
+     */
+    private static final int LENGTH = ((MAX_EXP - SUB_BITS + 1) << SUB_BITS) + (1 << SUB_BITS);
+
+    /**
+     * 空直方图
+     */
+    static final LatencyHistogram EMPTY = new LatencyHistogram();
+
+    /**
+     * 各桶的样本数量
+     */
+    private final AtomicLongArray buckets;
+
+    /**
+     * 样本总和（纳秒）
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * 最大样本（纳秒）
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 快照的样本数量, 实时直方图中为 -1
+     */
+    private final long count;
+
+    /**
+     * 构造函数
+     */
+    LatencyHistogram() {
+        this.buckets = new AtomicLongArray(LENGTH);
+        this.count = -1;
+    }
+
+    /**
+     * 构造快照
+     *
+     * @param buckets 各桶的样本数量
+     * @param count   样本数量
+     * @param sum     样本总和
+     * @param max     最大样本
+     */
+    private LatencyHistogram(AtomicLongArray buckets, long count, long sum, long max) {
+        this.buckets = buckets;
+        this.count = count;
+        this.sum.add(sum);
+        this.max.set(max);
+    }
+
+    /**
+     * 记录一个样本
+     *
+     * @param nanos 时长（纳秒）, 小于 0 时按 0 记录
+     */
+    void record(long nanos) {
+        long v = Math.max(0, nanos);
+        buckets.incrementAndGet(index(v));
+        sum.add(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) {
+            // 并发更新最大值时重试
+        }
+    }
+
+    /**
+     * 获取快照, 快照不再变化
+     *
+     * @return {@link LatencyHistogram}
+     */
+    LatencyHistogram snapshot() {
+        AtomicLongArray copy = new AtomicLongArray(LENGTH);
+        long n = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            long c = buckets.get(i);
+            if (c != 0) {
+                copy.lazySet(i, c);
+                n += c;
+            }
+        }
+        return new LatencyHistogram(copy, n, sum.sum(), max.get());
+    }
+
+    /**
+     * 样本数量
+     *
+     * @return long
+     */
+    public long getCount() {
+        if (count >= 0) {
+            return count;
+        }
+        long n = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            n += buckets.get(i);
+        }
+        return n;
+    }
+
+    /**
+     * 平均值（纳秒）
+     *
+     * @return double, 无样本时为 0
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * 最大值（纳秒）
+     *
+     * @return long
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 百分位数（纳秒）, 返回所在桶的上界, 不超过最大值
+     *
+     * <pre>{@code
+     *     long p99 = TaskPool.stats("export").getWaitTimes().percentile(0.99);
+     * }</pre>
+     *
+     * @param quantile 分位, 取值 [0, 1]
+     * @return long, 无样本时为 0
+     */
+    public long percentile(double quantile) {
+        long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * n));
+        long seen = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upper(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * 样本所在桶的下标
+     *
+     * @param v 样本
+     * @return int
+     */
+    private static int index(long v) {
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        if (exp < SUB_BITS) {
+            return (int) v;
+        }
+        if (exp > MAX_EXP) {
+            return LENGTH - 1;
+        }
+        return ((exp - SUB_BITS + 1) << SUB_BITS) + (int) ((v >>> (exp - SUB_BITS)) & ((1 << SUB_BITS) - 1));
+    }
+
+    /**
+     * 桶的上界（含）
+     *
+     * @param index 桶的下标
+     * @return long
+     */
+    private static long upper(int index) {
+        if (index < 2 << SUB_BITS) {
+            return index;
+        }
+        int exp = (index >> SUB_BITS) + SUB_BITS - 1;
+        long lower = (long) ((1 << SUB_BITS) + (index & ((1 << SUB_BITS) - 1))) << (exp - SUB_BITS);
+        return index == LENGTH - 1 ? Long.MAX_VALUE : lower + (1L << (exp - SUB_BITS)) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + getCount()
+                + ", mean=" + millis(getMean())
+                + "ms, p50=" + millis(percentile(0.5))
+                + "ms, p99=" + millis(percentile(0.99))
+                + "ms, max=" + millis(getMax()) + "ms}";
+    }
+
+    /**
+     * 纳秒换算为毫秒, 保留 3 位小数
+     *
+     * @param nanos 纳秒
+     * @return double
+     */
+    static double millis(double nanos) {
+        return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+}
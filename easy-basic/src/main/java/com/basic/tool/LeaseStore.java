@@ -0,0 +1,52 @@
+package com.basic.tool;
+
+/**
+ * 分布式租约存储, 用于 {@link PlanSpec#lease(long, java.util.concurrent.TimeUnit)} 的单节点执行
+ *
+ * <ul>
+ *     <li>{@link MemoryLeaseStore}: 进程内实现, 用于测试或单机</li>
+ *     <li>{@code com.cache.tool.RedisLeaseStore}: 基于 Redis 的实现（easy-cache）</li>
+ * </ul>
+ *
+ * <p>
+ *     每次获取成功都返回一个单调递增的防护令牌（fencing token）, 任务可通过 {@link TaskPool#fencingToken()} 取得并随写操作一起提交,
+ *     由下游拒绝携带较小令牌的写入, 避免租约过期后的旧节点覆盖新节点的结果
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public interface LeaseStore {
+
+    /**
+     * 获取租约, 租约空闲、已过期或已被自己持有时成功
+     *
+     * @param key   租约名称
+     * @param owner 持有者标识
+     * @param ttl   租约时长（毫秒）
+     * @return 防护令牌, 获取失败时为 -1
+     */
+    long acquire(String key, String owner, long ttl);
+
+    /**
+     * 续约, 只有仍持有该令牌对应的租约时成功
+     *
+     * @param key   租约名称
+     * @param owner 持有者标识
+     * @param token 防护令牌
+     * @param ttl   租约时长（毫秒）
+     * @return 是否续约成功
+     */
+    boolean renew(String key, String owner, long token, long ttl);
+
+    /**
+     * 释放租约, 只释放自己持有的租约
+     *
+     * @param key   租约名称
+     * @param owner 持有者标识
+     * @param token 防护令牌
+     */
+    void release(String key, String owner, long token);
+
+}
@@ -0,0 +1,63 @@
+package com.basic.tool;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link TaskPool} 具名线程池的统一抽象
+ *
+ * <ul>
+ *     <li>{@link PoolExecutor}: 平台线程池</li>
+ *     <li>{@link VirtualExecutor}: 虚拟线程池（JDK 21+）</li>
+ * </ul>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+interface ManagedPool extends ExecutorService {
+
+    /**
+     * 被拒绝（含被挤出队列）的任务数量
+     *
+     * @return long
+     */
+    long getRejected();
+
+    /**
+     * 排队等待时长的平均值（纳秒）
+     *
+     * @return long
+     */
+    long getWaitAvg();
+
+    /**
+     * 因超过截止时间而未执行的任务数量
+     *
+     * @return long
+     */
+    long getExpired();
+
+    /**
+     * 按优先级与截止时间执行任务
+     *
+     * @param command  任务
+     * @param priority 优先级, 越大越优先, 仅 {@link PoolProperties.Queue#PRIORITY} 队列有效
+     * @param deadline 截止时间（{@link System#nanoTime()}）, 开始执行时已超过则丢弃, 为 0 时不限制
+     */
+    void execute(Runnable command, int priority, long deadline);
+
+    /**
+     * 启用或停用排队时长、执行时长的直方图, 停用时记录样本只剩一次 volatile 读
+     *
+     * @param enabled 是否启用, 重新启用时从零开始统计
+     */
+    void instrument(boolean enabled);
+
+    /**
+     * 获取运行状态快照
+     *
+     * @return {@link PoolStats}
+     */
+    PoolStats stats();
+
+}
@@ -0,0 +1,96 @@
+package com.basic.tool;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内的 {@link LeaseStore}, 用于测试或单机部署
+ *
+ * <p>多个 {@link TaskPool} 持有者共用同一个实例时, 行为与分布式实现一致</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class MemoryLeaseStore implements LeaseStore {
+
+    /**
+     * 租约, key 为租约名称
+     */
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    /**
+     * 防护令牌生成器
+     */
+    private final AtomicLong tokens = new AtomicLong();
+
+    @Override
+    public long acquire(String key, String owner, long ttl) {
+        long now = System.nanoTime();
+        Lease lease = leases.compute(key, (k, v) -> v == null || v.expires - now <= 0 || v.owner.equals(owner)
+                ? new Lease(owner, tokens.incrementAndGet(), now + TimeUnit.MILLISECONDS.toNanos(ttl)) : v);
+        return lease.owner.equals(owner) && lease.expires - now > 0 ? lease.token : -1;
+    }
+
+    @Override
+    public boolean renew(String key, String owner, long token, long ttl) {
+        long now = System.nanoTime();
+        Lease lease = leases.computeIfPresent(key, (k, v) -> held(v, owner, token, now)
+                ? new Lease(owner, token, now + TimeUnit.MILLISECONDS.toNanos(ttl)) : v);
+        return lease != null && lease.token == token && lease.owner.equals(owner) && lease.expires - now > 0;
+    }
+
+    @Override
+    public void release(String key, String owner, long token) {
+        leases.computeIfPresent(key, (k, v) -> held(v, owner, token, System.nanoTime()) ? null : v);
+    }
+
+    /**
+     * 是否仍持有租约
+     *
+     * @param lease {@link Lease}
+     * @param owner 持有者标识
+     * @param token 防护令牌
+     * @param now   当前时间（纳秒）
+     * @return boolean
+     */
+    private static boolean held(Lease lease, String owner, long token, long now) {
+        return lease.owner.equals(owner) && lease.token == token && lease.expires - now > 0;
+    }
+
+    /**
+     * 租约
+     */
+    private static final class Lease {
+
+        /**
+         * 持有者标识
+         */
+        private final String owner;
+
+        /**
+         * 防护令牌
+         */
+        private final long token;
+
+        /**
+         * 过期时间（纳秒）
+         */
+        private final long expires;
+
+        /**
+         * 构造函数
+         *
+         * @param owner   持有者标识
+         * @param token   防护令牌
+         * @param expires 过期时间（纳秒）
+         */
+        private Lease(String owner, long token, long expires) {
+            this.owner = owner;
+            this.token = token;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.basic.tool;
+
+/**
+ * {@link TaskPool} 指标的输出端, 通过 {@link TaskPool#metricsSink(MetricsSink)} 注册
+ *
+ * <ul>
+ *     <li>{@link TaskPool#metrics(boolean)}: 内置的 JMX 输出, 每个线程池、定时任务注册一个 MXBean</li>
+ *     <li>{@code com.basic.conf.TaskPoolMetrics}: Micrometer 输出（类路径中存在 Micrometer 时）</li>
+ * </ul>
+ *
+ * <p>输出端只接收线程池、定时任务的增减通知, 指标值在采集时通过 {@link TaskPool#stats(String)}、{@link TaskPool#planStats(String)} 读取</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public interface MetricsSink {
+
+    /**
+     * 新增具名线程池, 注册时对已存在的线程池逐个回调; 同名线程池被替换时不回调
+     *
+     * @param name 线程池名称
+     */
+    default void poolAdded(String name) {}
+
+    /**
+     * 新增定时任务, 注册时对已存在的定时任务逐个回调; 相同 key 的任务被替换时不回调
+     *
+     * @param key 任务的唯一标识
+     */
+    default void planAdded(String key) {}
+
+    /**
+     * 定时任务被取消
+     *
+     * @param key 任务的唯一标识
+     */
+    default void planRemoved(String key) {}
+
+}
@@ -0,0 +1,281 @@
+package com.basic.tool;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+
+/**
+ * 分治任务, 供 {@link TaskPool#parallelReduce(List, Object, BiFunction, BinaryOperator, int)} 等方法在计算线程池中执行
+ *
+ * <p>
+ *     区间不大于粒度时在当前线程中顺序处理, 否则一分为二: 左半部分 fork 至本线程的工作队列, 右半部分在本线程中继续拆分,
+ *     空闲的工作线程从其它线程的队列尾部窃取较大的左半部分, 耗时不均的区间也能在各核心间自动平衡
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+final class ParallelTasks {
+
+    /**
+     * Private Constructor
+     */
+    private ParallelTasks() {}
+
+    /**
+     * 计算粒度, 未指定时每个工作线程约分到 8 个区间, 以便窃取时平衡负载
+     *
+     * @param size        元素数量
+     * @param granularity 指定的粒度, 不大于 0 时自动计算
+     * @param parallelism 并行度
+     * @return 每个区间的最大元素数量
+     */
+    static int granularity(int size, int granularity, int parallelism) {
+        return granularity > 0 ? granularity : Math.max(1, size / (parallelism << 3));
+    }
+
+    /**
+     * 归约: 各区间从初始值开始累加, 再两两合并
+     *
+     * @param <T> 元素的类型
+     * @param <R> 结果的类型
+     */
+    static final class Reduce<T, R> extends RecursiveTask<R> {
+
+        /**
+         * 序列化版本号
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 元素, 支持随机访问
+         */
+        private final List<? extends T> items;
+
+        /**
+         * 区间 [from, to) 与粒度
+         */
+        private final int from, to, granularity;
+
+        /**
+         * 初始值, 每个区间各使用一次
+         */
+        private final R identity;
+
+        /**
+         * 累加
+         */
+        private final BiFunction<R, ? super T, R> accumulator;
+
+        /**
+         * 合并两个区间的结果
+         */
+        private final BinaryOperator<R> combiner;
+
+        /**
+         * 提交线程的上下文快照
+         */
+        private final Object[] context;
+
+        /**
+         * 构造函数
+         *
+         * @param items       元素, 支持随机访问
+         * @param from        起始下标（含）
+         * @param to          结束下标（不含）
+         * @param granularity 粒度
+         * @param identity    初始值
+         * @param accumulator 累加
+         * @param combiner    合并
+         * @param context     上下文快照
+         */
+        Reduce(List<? extends T> items, int from, int to, int granularity, R identity,
+               BiFunction<R, ? super T, R> accumulator, BinaryOperator<R> combiner, Object[] context) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.granularity = granularity;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.context = context;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= granularity) {
+                Object[] previous = Context.restore(context);
+                try {
+                    R r = identity;
+                    for (int i = from; i < to; i++) {
+                        r = accumulator.apply(r, items.get(i));
+                    }
+                    return r;
+                } finally {
+                    Context.reset(previous);
+                }
+            }
+            int mid = (from + to) >>> 1;
+            Reduce<T, R> left = new Reduce<>(items, from, mid, granularity, identity, accumulator, combiner, context);
+            left.fork();
+            R right = new Reduce<>(items, mid, to, granularity, identity, accumulator, combiner, context).compute();
+            return combiner.apply(left.join(), right);
+        }
+    }
+
+    /**
+     * 遍历: 各区间内按下标顺序执行, 区间之间无顺序; 下标由区间偏移量确定, 与顺序遍历时一致
+     *
+     * @param <T> 元素的类型
+     */
+    static final class ForEach<T> extends RecursiveAction {
+
+        /**
+         * 序列化版本号
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 元素, 支持随机访问
+         */
+        private final List<? extends T> items;
+
+        /**
+         * 区间 [from, to) 与粒度
+         */
+        private final int from, to, granularity;
+
+        /**
+         * 对每个下标与元素执行的操作
+         */
+        private final IntIndexedConsumer<? super T> action;
+
+        /**
+         * 提交线程的上下文快照
+         */
+        private final Object[] context;
+
+        /**
+         * 构造函数
+         *
+         * @param items       元素, 支持随机访问
+         * @param from        起始下标（含）
+         * @param to          结束下标（不含）
+         * @param granularity 粒度
+         * @param action      对每个下标与元素执行的操作
+         * @param context     上下文快照
+         */
+        ForEach(List<? extends T> items, int from, int to, int granularity, IntIndexedConsumer<? super T> action, Object[] context) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.granularity = granularity;
+            this.action = action;
+            this.context = context;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= granularity) {
+                Object[] previous = Context.restore(context);
+                try {
+                    for (int i = from; i < to; i++) {
+                        action.accept(i, items.get(i));
+                    }
+                } finally {
+                    Context.reset(previous);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            ForEach<T> left = new ForEach<>(items, from, mid, granularity, action, context);
+            left.fork();
+            new ForEach<>(items, mid, to, granularity, action, context).compute();
+            left.join();
+        }
+    }
+
+    /**
+     * 稳定的归并排序: 区间不大于粒度时使用 {@link Arrays#sort(Object[], int, int, Comparator)}, 否则并行排序两半后归并
+     *
+     * @param <T> 元素的类型
+     */
+    static final class Sort<T> extends RecursiveAction {
+
+        /**
+         * 序列化版本号
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 待排序的数组与同样长度的归并缓冲区
+         */
+        private final T[] array, buffer;
+
+        /**
+         * 区间 [from, to) 与粒度
+         */
+        private final int from, to, granularity;
+
+        /**
+         * 比较器
+         */
+        private final Comparator<? super T> comparator;
+
+        /**
+         * 构造函数
+         *
+         * @param array       待排序的数组
+         * @param buffer      归并缓冲区, 长度与数组相同
+         * @param from        起始下标（含）
+         * @param to          结束下标（不含）
+         * @param granularity 粒度
+         * @param comparator  比较器
+         */
+        Sort(T[] array, T[] buffer, int from, int to, int granularity, Comparator<? super T> comparator) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.granularity = granularity;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= granularity) {
+                Arrays.sort(array, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Sort<>(array, buffer, from, mid, granularity, comparator),
+                      new Sort<>(array, buffer, mid, to, granularity, comparator));
+            merge(mid);
+        }
+
+        /**
+         * 归并两个已排序的半区, 相等时左半部分在前
+         *
+         * @param mid 右半部分的起始下标
+         */
+        private void merge(int mid) {
+            if (comparator.compare(array[mid - 1], array[mid]) <= 0) {
+                // 已有序
+                return;
+            }
+            System.arraycopy(array, from, buffer, from, mid - from);
+            int i = from, j = mid, k = from;
+            while (i < mid && j < to) {
+                array[k++] = comparator.compare(array[j], buffer[i]) < 0 ? array[j++] : buffer[i++];
+            }
+            while (i < mid) {
+                array[k++] = buffer[i++];
+            }
+        }
+    }
+}
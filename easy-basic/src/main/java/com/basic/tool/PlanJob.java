@@ -0,0 +1,442 @@
+package com.basic.tool;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 定时任务, 由 {@link TaskPool} 的定时器线程触发, 在工作线程池中执行
+ *
+ * <p>
+ *     定时器线程只负责计算下一次执行时间并投递任务, 耗时的任务不会推迟其它任务的触发;
+ *     同一个任务的多次执行串行进行, 上次执行仍未结束时按 {@link PlanSpec.Misfire} 策略跳过、合并或排队;
+ *     启用租约时, 每次执行前确认当前节点持有租约, 否则跳过;
+ *     每次执行均使用调度该任务（{@link TaskPool#plan(Runnable, String, PlanSpec)}）时线程的上下文（{@link ContextPropagator}）.
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class PlanJob implements Runnable {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.PlanJob");
+
+    /**
+     * {@link PlanSpec.Misfire#CATCH_UP} 单次最多补执行的次数, 避免时钟跳变后无限补执行; 超出的计划时间不再逐个计算
+     */
+    private static final int MAX_CATCH_UP = 1000;
+
+    /**
+     * 当前线程正在执行的任务所持有的防护令牌, 见 {@link TaskPool#fencingToken()}
+     */
+    static final ThreadLocal<Long> TOKEN = new ThreadLocal<>();
+
+    /**
+     * 任务的唯一标识
+     */
+    private final String key;
+
+    /**
+     * 任务
+     */
+    private final Runnable command;
+
+    /**
+     * 调度配置
+     */
+    private final PlanSpec spec;
+
+    /**
+     * 定时器
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * 工作线程池, 每次投递时获取, 以便线程池被替换后生效
+     */
+    private final Supplier<? extends ExecutorService> worker;
+
+    /**
+     * 租约, 未启用时为 null
+     */
+    private final PlanLease lease;
+
+    /**
+     * 执行续约的线程池
+     */
+    private final ScheduledExecutorService renewer;
+
+    /**
+     * 调度时线程的上下文快照, 未注册 {@link ContextPropagator} 时为 null
+     */
+    private final Object[] context = Context.capture();
+
+    /**
+     * 待执行的计划时间
+     */
+    private final Queue<Long> due = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 已投递、未执行完的次数
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * 最近的执行记录
+     */
+    private final Deque<PlanRecord> history = new ArrayDeque<>();
+
+    /**
+     * 各执行结果的累计次数, 下标为 {@link PlanRecord.Outcome#ordinal()}
+     */
+    private final LongAdder[] outcomes = new LongAdder[PlanRecord.Outcome.values().length];
+
+    /**
+     * 执行耗时的直方图, 未启用时为 null
+     */
+    private volatile LatencyHistogram durations;
+
+    /**
+     * 实际开始时间晚于计划执行时间的时长的直方图, 未启用时为 null
+     */
+    private volatile LatencyHistogram lateness;
+
+    /**
+     * 下一次计划执行时间（毫秒时间戳）, 小于 0 时不再执行
+     */
+    private volatile long next;
+
+    /**
+     * 定时器中的下一次触发
+     */
+    private volatile ScheduledFuture<?> trigger;
+
+    /**
+     * 工作线程池中正在执行的任务
+     */
+    private volatile Future<?> running;
+
+    /**
+     * 是否已取消
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * 构造函数
+     *
+     * @param key     任务的唯一标识
+     * @param command 任务
+     * @param spec    调度配置
+     * @param timer   定时器
+     * @param worker  工作线程池
+     * @param lease   租约, 未启用时为 null
+     * @param renewer 执行续约的线程池
+     */
+    PlanJob(String key, Runnable command, PlanSpec spec, ScheduledExecutorService timer,
+            Supplier<? extends ExecutorService> worker, PlanLease lease, ScheduledExecutorService renewer) {
+        this.key = key;
+        this.command = command;
+        this.spec = spec;
+        this.timer = timer;
+        this.worker = worker;
+        this.lease = lease;
+        this.renewer = renewer;
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 计算首次执行时间并开始调度
+     */
+    void start() {
+        if (lease != null) {
+            lease.start(renewer);
+        }
+        long now = System.currentTimeMillis();
+        next = spec.getMode() == PlanSpec.Mode.CRON ? following(now) : now + spec.getInitialDelay();
+        schedule(now);
+    }
+
+    /**
+     * 取消任务
+     *
+     * @param interrupt 是否中断正在执行的任务
+     */
+    void cancel(boolean interrupt) {
+        cancelled = true;
+        ScheduledFuture<?> t = trigger;
+        if (t != null) {
+            t.cancel(false);
+        }
+        Future<?> r = running;
+        if (r != null && interrupt) {
+            r.cancel(true);
+        }
+        release();
+    }
+
+    /**
+     * 释放租约, 以便其它节点立即接管
+     */
+    void release() {
+        if (lease != null) {
+            lease.stop();
+        }
+    }
+
+    /**
+     * 最近的执行记录, 按时间先后排列
+     *
+     * @return {@link List}
+     */
+    List<PlanRecord> history() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    /**
+     * 启用或停用执行耗时、延迟的直方图
+     *
+     * @param enabled 是否启用, 重新启用时从零开始统计
+     */
+    void instrument(boolean enabled) {
+        durations = enabled ? new LatencyHistogram() : null;
+        lateness = enabled ? new LatencyHistogram() : null;
+    }
+
+    /**
+     * 累计统计快照
+     *
+     * @return {@link PlanStats}
+     */
+    PlanStats stats() {
+        return new PlanStats(key,
+                outcomes[PlanRecord.Outcome.SUCCESS.ordinal()].sum(),
+                outcomes[PlanRecord.Outcome.FAILURE.ordinal()].sum(),
+                outcomes[PlanRecord.Outcome.SKIPPED.ordinal()].sum(),
+                outcomes[PlanRecord.Outcome.REJECTED.ordinal()].sum(),
+                cancelled ? -1 : next, durations, lateness);
+    }
+
+    /**
+     * 定时器线程触发: 处理错过的计划时间, 投递任务并计算下一次执行时间
+     */
+    @Override
+    public void run() {
+        if (cancelled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long slot = next;
+        if (spec.getMode() == PlanSpec.Mode.FIXED_DELAY) {
+            // 下一次执行时间在本次执行结束后计算
+            fire(slot);
+            return;
+        }
+
+        List<Long> missed = new ArrayList<>();
+        long n = slot;
+        if (spec.getMode() == PlanSpec.Mode.FIXED_RATE) {
+            // 错过的周期数直接计算, 时钟跳变后不逐个遍历
+            long period = spec.getPeriod();
+            long periods = now < slot ? 0 : (now - slot) / period + 1;
+            for (long i = 0; i < Math.min(periods, MAX_CATCH_UP); i++) {
+                missed.add(slot + i * period);
+            }
+            n = slot + periods * period;
+        } else {
+            while (n >= 0 && n <= now && missed.size() < MAX_CATCH_UP) {
+                missed.add(n);
+                n = following(n);
+            }
+            if (n >= 0 && n <= now) {
+                // 超过补执行上限, 其余错过的计划时间直接跳过
+                n = following(now);
+            }
+        }
+        next = n;
+
+        switch (spec.getMisfire()) {
+            case CATCH_UP:
+                missed.forEach(this::fire);
+                break;
+            case FIRE_ONCE:
+                fire(slot);
+                break;
+            default:
+                if (now - slot <= spec.getMisfireThreshold()) {
+                    fire(slot);
+                } else {
+                    record(new PlanRecord(slot, 0, 0, PlanRecord.Outcome.SKIPPED, "missed " + missed.size() + " execution(s)"));
+                }
+        }
+        schedule(now);
+    }
+
+    /**
+     * 投递一次执行, 上次执行仍未结束时按策略处理
+     *
+     * @param scheduled 计划执行时间
+     */
+    private void fire(long scheduled) {
+        int busy = queued.get();
+        if (busy > 0 && spec.getMode() != PlanSpec.Mode.FIXED_DELAY) {
+            PlanSpec.Misfire misfire = spec.getMisfire();
+            if (misfire == PlanSpec.Misfire.SKIP || misfire == PlanSpec.Misfire.FIRE_ONCE && busy > 1) {
+                record(new PlanRecord(scheduled, 0, 0, PlanRecord.Outcome.SKIPPED, "previous execution still running"));
+                return;
+            }
+        }
+        due.offer(scheduled);
+        if (queued.getAndIncrement() == 0) {
+            try {
+                running = worker.get().submit(this::drain);
+            } catch (RejectedExecutionException e) {
+                Long s;
+                while ((s = due.poll()) != null) {
+                    record(new PlanRecord(s, 0, 0, PlanRecord.Outcome.REJECTED, e.getMessage()));
+                }
+                queued.set(0);
+                if (spec.getMode() == PlanSpec.Mode.FIXED_DELAY) {
+                    long now = System.currentTimeMillis();
+                    next = now + spec.getPeriod();
+                    schedule(now);
+                }
+            }
+        }
+    }
+
+    /**
+     * 工作线程: 依次执行已投递的计划时间
+     */
+    private void drain() {
+        do {
+            Long scheduled = due.poll();
+            if (scheduled == null || cancelled) {
+                continue;
+            }
+            long token = lease == null ? 0 : lease.hold();
+            if (lease != null && token == 0) {
+                // 取消后租约已释放, 不再重新获取
+                if (!cancelled) {
+                    record(new PlanRecord(scheduled, 0, 0, PlanRecord.Outcome.SKIPPED, "lease held by another node"));
+                }
+                continue;
+            }
+            long started = System.currentTimeMillis();
+            long begin = System.nanoTime();
+            TOKEN.set(token);
+            Object[] previous = Context.restore(context);
+            try {
+                command.run();
+                record(new PlanRecord(scheduled, started, elapsed(begin), PlanRecord.Outcome.SUCCESS, null, token));
+            } catch (Throwable e) {
+                record(new PlanRecord(scheduled, started, elapsed(begin), PlanRecord.Outcome.FAILURE, e.toString(), token));
+                log.log(Level.SEVERE, "Plan [" + key + "] Exception: ", e);
+            } finally {
+                Context.reset(previous);
+                TOKEN.remove();
+                sample(begin, started - scheduled);
+            }
+        } while (queued.decrementAndGet() > 0);
+
+        if (spec.getMode() == PlanSpec.Mode.FIXED_DELAY) {
+            long now = System.currentTimeMillis();
+            next = now + spec.getPeriod();
+            schedule(now);
+        }
+    }
+
+    /**
+     * 在定时器中安排下一次触发
+     *
+     * @param now 当前时间（毫秒时间戳）
+     */
+    private void schedule(long now) {
+        long at = next;
+        if (cancelled || at < 0) {
+            return;
+        }
+        try {
+            trigger = timer.schedule(this, Math.max(0, at - now), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 定时器已关闭
+            cancelled = true;
+        }
+    }
+
+    /**
+     * 计算给定计划时间之后的下一次计划时间
+     *
+     * @param time 计划时间（毫秒时间戳）
+     * @return 下一次计划时间, 无时为 -1
+     */
+    private long following(long time) {
+        if (spec.getMode() != PlanSpec.Mode.CRON) {
+            return time + spec.getPeriod();
+        }
+        ZonedDateTime next = spec.getCron().next(ZonedDateTime.ofInstant(Instant.ofEpochMilli(time), spec.getZone()));
+        return next == null ? -1 : next.toInstant().toEpochMilli();
+    }
+
+    /**
+     * 启用直方图时, 记录一次执行的耗时与延迟
+     *
+     * @param begin 开始时间（纳秒）
+     * @param late  延迟（毫秒）
+     */
+    private void sample(long begin, long late) {
+        LatencyHistogram d = durations;
+        if (d != null) {
+            d.record(System.nanoTime() - begin);
+        }
+        LatencyHistogram l = lateness;
+        if (l != null) {
+            l.record(TimeUnit.MILLISECONDS.toNanos(late));
+        }
+    }
+
+    /**
+     * 累计执行结果, 追加执行记录, 超出保留数量时丢弃最早的记录
+     *
+     * @param record {@link PlanRecord}
+     */
+    private void record(PlanRecord record) {
+        outcomes[record.getOutcome().ordinal()].increment();
+        if (spec.getHistory() == 0) {
+            return;
+        }
+        synchronized (history) {
+            if (history.size() >= spec.getHistory()) {
+                history.pollFirst();
+            }
+            history.offerLast(record);
+        }
+    }
+
+    /**
+     * 距开始时间的耗时（毫秒）
+     *
+     * @param begin 开始时间（纳秒）
+     * @return long
+     */
+    private static long elapsed(long begin) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+    }
+}
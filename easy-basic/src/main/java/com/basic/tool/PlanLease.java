@@ -0,0 +1,182 @@
+package com.basic.tool;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 定时任务的租约, 由 {@link PlanJob} 在执行前确认当前节点是否为持有者
+ *
+ * <p>
+ *     持有者每 1/3 租约时长续约一次, 未持有的节点以相同频率尝试获取, 持有者宕机后其它节点在租约过期后的一个周期内接管;
+ *     本地有效期从发起请求时开始计算并扣除 1/10 时长作为时钟误差, 因此本地认为仍持有时, 存储中的租约一定未过期.
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class PlanLease {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.PlanLease");
+
+    /**
+     * 租约存储
+     */
+    private final LeaseStore store;
+
+    /**
+     * 租约名称
+     */
+    private final String key;
+
+    /**
+     * 当前节点标识
+     */
+    private final String owner;
+
+    /**
+     * 租约时长（毫秒）
+     */
+    private final long ttl;
+
+    /**
+     * 防护令牌, 未持有时为 0
+     */
+    private long token;
+
+    /**
+     * 本地有效期（纳秒）
+     */
+    private long validUntil;
+
+    /**
+     * 续约任务
+     */
+    private volatile ScheduledFuture<?> renewal;
+
+    /**
+     * 是否已停止, 停止后不再获取租约
+     */
+    private boolean stopped;
+
+    /**
+     * 构造函数
+     *
+     * @param store 租约存储
+     * @param key   租约名称
+     * @param owner 当前节点标识
+     * @param ttl   租约时长（毫秒）
+     */
+    PlanLease(LeaseStore store, String key, String owner, long ttl) {
+        this.store = store;
+        this.key = key;
+        this.owner = owner;
+        this.ttl = ttl;
+    }
+
+    /**
+     * 开始周期性地续约或获取租约, 续约在工作线程中进行, 不占用定时器线程
+     *
+     * @param scheduler 执行续约的线程池
+     */
+    void start(ScheduledExecutorService scheduler) {
+        try {
+            renewal = scheduler.scheduleWithFixedDelay(this::refresh, 0, ttl / 3, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warning("Plan [" + key + "] lease renewal rejected, fires will acquire the lease on demand");
+        }
+    }
+
+    /**
+     * 停止续约并释放租约, 以便其它节点立即接管; 之后 {@link #hold()} 不再获取租约
+     */
+    synchronized void stop() {
+        stopped = true;
+        ScheduledFuture<?> r = renewal;
+        if (r != null) {
+            r.cancel(false);
+        }
+        if (token > 0) {
+            try {
+                store.release(key, owner, token);
+            } catch (RuntimeException e) {
+                log.log(Level.SEVERE, "Plan [" + key + "] lease release Exception: ", e);
+            }
+            token = 0;
+        }
+    }
+
+    /**
+     * 确认当前节点持有租约, 未持有时尝试获取
+     *
+     * @return 防护令牌, 未持有或已停止时为 0
+     */
+    synchronized long hold() {
+        if (stopped) {
+            return 0;
+        }
+        if (token > 0 && validUntil - System.nanoTime() > 0) {
+            return token;
+        }
+        return acquire();
+    }
+
+    /**
+     * 续约, 未持有时尝试获取
+     */
+    private synchronized void refresh() {
+        if (stopped) {
+            return;
+        }
+        if (token <= 0) {
+            acquire();
+            return;
+        }
+        long begin = System.nanoTime();
+        try {
+            if (store.renew(key, owner, token, ttl)) {
+                validUntil = begin + local();
+                return;
+            }
+            log.warning("Plan [" + key + "] lease lost, token " + token);
+            token = 0;
+        } catch (RuntimeException e) {
+            // 存储不可用时保留本地有效期, 到期后自然失去租约
+            log.log(Level.SEVERE, "Plan [" + key + "] lease renewal Exception: ", e);
+        }
+    }
+
+    /**
+     * 获取租约
+     *
+     * @return 防护令牌, 获取失败时为 0
+     */
+    private long acquire() {
+        long begin = System.nanoTime();
+        try {
+            long t = store.acquire(key, owner, ttl);
+            token = Math.max(0, t);
+            validUntil = begin + local();
+        } catch (RuntimeException e) {
+            token = 0;
+            log.log(Level.SEVERE, "Plan [" + key + "] lease acquire Exception: ", e);
+        }
+        return token;
+    }
+
+    /**
+     * 本地有效时长（纳秒）, 扣除 1/10 租约时长作为时钟误差
+     *
+     * @return long
+     */
+    private long local() {
+        return TimeUnit.MILLISECONDS.toNanos(ttl - ttl / 10);
+    }
+}
@@ -0,0 +1,77 @@
+package com.basic.tool;
+
+/**
+ * 定时任务的 JMX 视图, 启用 {@link TaskPool#metrics(boolean)} 后以 {@code com.basic:type=TaskPlan,name=<任务 key>} 注册, 取消时注销
+ *
+ * <p>时长均为毫秒</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public interface PlanMXBean {
+
+    /**
+     * 执行成功的次数
+     *
+     * @return long
+     */
+    long getSucceeded();
+
+    /**
+     * 执行抛出异常的次数
+     *
+     * @return long
+     */
+    long getFailed();
+
+    /**
+     * 跳过的次数
+     *
+     * @return long
+     */
+    long getSkipped();
+
+    /**
+     * 被线程池拒绝的次数
+     *
+     * @return long
+     */
+    long getRejected();
+
+    /**
+     * 下一次计划执行时间（毫秒时间戳）, 不再执行时小于 0
+     *
+     * @return long
+     */
+    long getNext();
+
+    /**
+     * 执行耗时的中位数
+     *
+     * @return double
+     */
+    double getDurationP50();
+
+    /**
+     * 执行耗时的 99 分位数
+     *
+     * @return double
+     */
+    double getDurationP99();
+
+    /**
+     * 执行耗时的最大值
+     *
+     * @return double
+     */
+    double getDurationMax();
+
+    /**
+     * 延迟（实际开始时间晚于计划时间）的 99 分位数
+     *
+     * @return double
+     */
+    double getLatenessP99();
+
+}
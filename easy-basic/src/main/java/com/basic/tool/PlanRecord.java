@@ -0,0 +1,168 @@
+package com.basic.tool;
+
+/**
+ * 定时任务的一次执行记录, 由 {@link TaskPool#history(String)} 返回
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class PlanRecord {
+
+    /**
+     * 执行结果
+     */
+    public enum Outcome {
+
+        /**
+         * 执行成功
+         */
+        SUCCESS,
+
+        /**
+         * 执行抛出异常
+         */
+        FAILURE,
+
+        /**
+         * 按 {@link PlanSpec.Misfire} 策略跳过, 或租约由其它节点持有
+         */
+        SKIPPED,
+
+        /**
+         * 线程池过载拒绝
+         */
+        REJECTED
+    }
+
+    /**
+     * 计划执行时间（毫秒时间戳）
+     */
+    private final long scheduled;
+
+    /**
+     * 实际开始时间（毫秒时间戳）, 未执行时为 0
+     */
+    private final long started;
+
+    /**
+     * 执行耗时（毫秒）
+     */
+    private final long duration;
+
+    /**
+     * 执行结果
+     */
+    private final Outcome outcome;
+
+    /**
+     * 失败原因
+     */
+    private final String error;
+
+    /**
+     * 执行时持有的租约防护令牌, 未启用租约时为 0
+     */
+    private final long token;
+
+    /**
+     * 构造函数
+     *
+     * @param scheduled 计划执行时间
+     * @param started   实际开始时间
+     * @param duration  执行耗时
+     * @param outcome   执行结果
+     * @param error     失败原因
+     */
+    PlanRecord(long scheduled, long started, long duration, Outcome outcome, String error) {
+        this(scheduled, started, duration, outcome, error, 0);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param scheduled 计划执行时间
+     * @param started   实际开始时间
+     * @param duration  执行耗时
+     * @param outcome   执行结果
+     * @param error     失败原因
+     * @param token     租约防护令牌
+     */
+    PlanRecord(long scheduled, long started, long duration, Outcome outcome, String error, long token) {
+        this.scheduled = scheduled;
+        this.started = started;
+        this.duration = duration;
+        this.outcome = outcome;
+        this.error = error;
+        this.token = token;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getStarted() {
+        return started;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * 实际开始时间晚于计划执行时间的时长（毫秒）, 未执行时为 0
+     *
+     * @return long
+     */
+    public long getLateness() {
+        return started == 0 ? 0 : Math.max(0, started - scheduled);
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link Outcome}
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link String}
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getToken() {
+        return token;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanRecord{scheduled=" + scheduled + ", lateness=" + getLateness() + ", duration=" + duration
+                + ", outcome=" + outcome + (token == 0 ? "" : ", token=" + token) + (error == null ? "" : ", error=" + error) + "}";
+    }
+}
@@ -0,0 +1,380 @@
+package com.basic.tool;
+
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务的调度配置, 供 {@link TaskPool#plan(Runnable, String, PlanSpec)} 使用
+ *
+ * <pre>{@code
+ *     // 每天凌晨 2 点（上海时间）在 report 线程池中执行, 错过时只补执行一次
+ *     TaskPool.plan(reportService::daily, "daily-report",
+ *             PlanSpec.cron("0 0 2 * * ?").zone(ZoneId.of("Asia/Shanghai")).pool("report"));
+ *
+ *     // 每次执行结束 30 秒后再次执行
+ *     TaskPool.plan(syncService::pull, "sync", PlanSpec.fixedDelay(30, TimeUnit.SECONDS));
+ *
+ *     // 多节点部署时每分钟只由持有租约的一个节点执行
+ *     TaskPool.plan(orderService::close, "close-order",
+ *             PlanSpec.cron("0 * * * * ?").lease(new RedisLeaseStore(redisTool), 15, TimeUnit.SECONDS));
+ * }</pre>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class PlanSpec {
+
+    /**
+     * 调度方式
+     */
+    public enum Mode {
+
+        /**
+         * 按 Cron 表达式
+         */
+        CRON,
+
+        /**
+         * 固定频率, 以计划时间为基准
+         */
+        FIXED_RATE,
+
+        /**
+         * 固定间隔, 以上次执行结束为基准
+         */
+        FIXED_DELAY
+    }
+
+    /**
+     * 错过执行时间（如线程池繁忙、进程暂停、上次执行仍未结束）时的处理策略, 对 {@link Mode#FIXED_DELAY} 无效
+     */
+    public enum Misfire {
+
+        /**
+         * 跳过错过的执行, 等待下一个计划时间
+         */
+        SKIP,
+
+        /**
+         * 无论错过多少次, 只补执行一次
+         */
+        FIRE_ONCE,
+
+        /**
+         * 逐次补执行所有错过的执行
+         */
+        CATCH_UP
+    }
+
+    /**
+     * 调度方式
+     */
+    private final Mode mode;
+
+    /**
+     * Cron 表达式, 仅 {@link Mode#CRON}
+     */
+    private final CronExpression cron;
+
+    /**
+     * 周期（毫秒）, 仅 {@link Mode#FIXED_RATE}、{@link Mode#FIXED_DELAY}
+     */
+    private final long period;
+
+    /**
+     * 首次执行的延时（毫秒）, 默认为一个周期; Cron 方式忽略
+     */
+    private long initialDelay = -1;
+
+    /**
+     * Cron 表达式的时区, 默认为系统时区
+     */
+    private ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * 错过执行时间的处理策略
+     */
+    private Misfire misfire = Misfire.FIRE_ONCE;
+
+    /**
+     * 晚于计划时间多久视为错过（毫秒）
+     */
+    private long misfireThreshold = 1000;
+
+    /**
+     * 执行任务的 {@link TaskPool} 线程池名称, 为 null 时使用定时任务线程池
+     */
+    private String pool;
+
+    /**
+     * 保留的执行记录数量
+     */
+    private int history = 16;
+
+    /**
+     * 租约存储, 为 null 时使用 {@link TaskPool#leaseStore(LeaseStore)} 设置的默认存储
+     */
+    private LeaseStore leaseStore;
+
+    /**
+     * 租约时长（毫秒）, 0 表示不使用租约
+     */
+    private long leaseTtl;
+
+    /**
+     * 构造函数
+     *
+     * @param mode   调度方式
+     * @param cron   Cron 表达式
+     * @param period 周期（毫秒）
+     */
+    private PlanSpec(Mode mode, CronExpression cron, long period) {
+        this.mode = mode;
+        this.cron = cron;
+        this.period = period;
+    }
+
+    /**
+     * 按 Cron 表达式调度
+     *
+     * @param expression Cron 表达式, 格式见 {@link CronExpression}
+     * @return {@link PlanSpec}
+     */
+    public static PlanSpec cron(String expression) {
+        return new PlanSpec(Mode.CRON, CronExpression.parse(expression), 0);
+    }
+
+    /**
+     * 固定频率调度
+     *
+     * @param period 周期
+     * @param unit   时间单位
+     * @return {@link PlanSpec}
+     */
+    public static PlanSpec fixedRate(long period, TimeUnit unit) {
+        return new PlanSpec(Mode.FIXED_RATE, null, positive(unit.toMillis(period)));
+    }
+
+    /**
+     * 固定间隔调度
+     *
+     * @param delay 上次执行结束到下次执行开始的间隔
+     * @param unit  时间单位
+     * @return {@link PlanSpec}
+     */
+    public static PlanSpec fixedDelay(long delay, TimeUnit unit) {
+        return new PlanSpec(Mode.FIXED_DELAY, null, positive(unit.toMillis(delay)));
+    }
+
+    /**
+     * 设置首次执行的延时, Cron 方式忽略
+     *
+     * @param delay 延时
+     * @param unit  时间单位
+     * @return {@link PlanSpec}
+     */
+    public PlanSpec initialDelay(long delay, TimeUnit unit) {
+        this.initialDelay = Math.max(0, unit.toMillis(delay));
+        return this;
+    }
+
+    /**
+     * 设置 Cron 表达式的时区
+     *
+     * @param zone {@link ZoneId}
+     * @return {@link PlanSpec}
+     */
+    public PlanSpec zone(ZoneId zone) {
+        this.zone = Objects.requireNonNull(zone, "zone");
+        return this;
+    }
+
+    /**
+     * 设置错过执行时间的处理策略
+     *
+     * @param misfire {@link Misfire}
+     * @return {@link PlanSpec}
+     */
+    public PlanSpec misfire(Misfire misfire) {
+        this.misfire = Objects.requireNonNull(misfire, "misfire");
+        return this;
+    }
+
+    /**
+     * 设置晚于计划时间多久视为错过
+     *
+     * @param threshold 阈值
+     * @param unit      时间单位
+     * @return {@link PlanSpec}
+     */
+    public PlanSpec misfireThreshold(long threshold, TimeUnit unit) {
+        this.misfireThreshold = Math.max(0, unit.toMillis(threshold));
+        return this;
+    }
+
+    /**
+     * 设置执行任务的 {@link TaskPool} 线程池
+     *
+     * @param pool 线程池名称
+     * @return {@link PlanSpec}
+     */
+    public PlanSpec pool(String pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * 设置保留的执行记录数量
+     *
+     * @param history 数量, 0 表示不记录
+     * @return {@link PlanSpec}
+     */
+    public PlanSpec history(int history) {
+        this.history = Math.max(0, history);
+        return this;
+    }
+
+    /**
+     * 启用租约: 多个节点调度同一任务时, 只有持有租约的节点执行, 其它节点记录为 {@link PlanRecord.Outcome#SKIPPED};
+     * 使用 {@link TaskPool#leaseStore(LeaseStore)} 设置的默认存储
+     *
+     * @param ttl  租约时长, 持有者每 1/3 时长续约一次, 宕机后其它节点最迟约 4/3 时长接管
+     * @param unit 时间单位
+     * @return {@link PlanSpec}
+     */
+    public PlanSpec lease(long ttl, TimeUnit unit) {
+        return lease(null, ttl, unit);
+    }
+
+    /**
+     * 使用指定的存储启用租约, 见 {@link #lease(long, TimeUnit)}
+     *
+     * @param store {@link LeaseStore}
+     * @param ttl   租约时长
+     * @param unit  时间单位
+     * @return {@link PlanSpec}
+     */
+    public PlanSpec lease(LeaseStore store, long ttl, TimeUnit unit) {
+        long millis = unit.toMillis(ttl);
+        if (millis < 3) {
+            throw new IllegalArgumentException("Lease ttl must be at least 3 milliseconds");
+        }
+        this.leaseStore = store;
+        this.leaseTtl = millis;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link Mode}
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link CronExpression}
+     */
+    public CronExpression getCron() {
+        return cron;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long, 未设置时为周期
+     */
+    public long getInitialDelay() {
+        return initialDelay < 0 ? period : initialDelay;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link ZoneId}
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link Misfire}
+     */
+    public Misfire getMisfire() {
+        return misfire;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getMisfireThreshold() {
+        return misfireThreshold;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link String}
+     */
+    public String getPool() {
+        return pool;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getHistory() {
+        return history;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link LeaseStore}
+     */
+    public LeaseStore getLeaseStore() {
+        return leaseStore;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long, 未启用租约时为 0
+     */
+    public long getLeaseTtl() {
+        return leaseTtl;
+    }
+
+    /**
+     * 校验周期
+     *
+     * @param millis 周期（毫秒）
+     * @return long
+     */
+    private static long positive(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Period must be at least 1 millisecond");
+        }
+        return millis;
+    }
+}
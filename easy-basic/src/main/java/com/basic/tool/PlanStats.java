@@ -0,0 +1,155 @@
+package com.basic.tool;
+
+/**
+ * 定时任务的累计统计快照, 由 {@link TaskPool#planStats(String)} 返回
+ *
+ * <p>各结果的次数始终统计; 执行耗时、延迟的直方图仅在启用 {@link TaskPool#metrics(boolean)} 后记录, 未启用时为空直方图</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class PlanStats {
+
+    /**
+     * 任务的唯一标识
+     */
+    private final String key;
+
+    /**
+     * 执行成功的次数
+     */
+    private final long succeeded;
+
+    /**
+     * 执行抛出异常的次数
+     */
+    private final long failed;
+
+    /**
+     * 跳过的次数
+     */
+    private final long skipped;
+
+    /**
+     * 被线程池拒绝的次数
+     */
+    private final long rejected;
+
+    /**
+     * 下一次计划执行时间（毫秒时间戳）, 不再执行时小于 0
+     */
+    private final long next;
+
+    /**
+     * 执行耗时的直方图
+     */
+    private final LatencyHistogram durations;
+
+    /**
+     * 实际开始时间晚于计划执行时间的时长的直方图
+     */
+    private final LatencyHistogram lateness;
+
+    /**
+     * 构造函数
+     *
+     * @param key       任务的唯一标识
+     * @param succeeded 执行成功的次数
+     * @param failed    执行抛出异常的次数
+     * @param skipped   跳过的次数
+     * @param rejected  被线程池拒绝的次数
+     * @param next      下一次计划执行时间
+     * @param durations 执行耗时的直方图, 未启用时为 null
+     * @param lateness  延迟的直方图, 未启用时为 null
+     */
+    PlanStats(String key, long succeeded, long failed, long skipped, long rejected, long next,
+              LatencyHistogram durations, LatencyHistogram lateness) {
+        this.key = key;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.skipped = skipped;
+        this.rejected = rejected;
+        this.next = next;
+        this.durations = durations == null ? LatencyHistogram.EMPTY : durations.snapshot();
+        this.lateness = lateness == null ? LatencyHistogram.EMPTY : lateness.snapshot();
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link String}
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getNext() {
+        return next;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link LatencyHistogram}
+     */
+    public LatencyHistogram getDurations() {
+        return durations;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link LatencyHistogram}
+     */
+    public LatencyHistogram getLateness() {
+        return lateness;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanStats{key=" + key + ", succeeded=" + succeeded + ", failed=" + failed + ", skipped=" + skipped
+                + ", rejected=" + rejected + ", next=" + next + ", duration=" + durations + ", lateness=" + lateness + "}";
+    }
+}
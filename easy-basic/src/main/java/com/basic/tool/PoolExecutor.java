@@ -0,0 +1,452 @@
+package com.basic.tool;
+
+import com.basic.exception.TaskRejectedException;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * {@link TaskPool} 具名线程池的实现
+ *
+ * <p>在 {@link ThreadPoolExecutor} 的基础上:</p>
+ * <ol>
+ *     <li>记录每个任务的入队时间, 以指数加权移动平均值统计排队等待时长</li>
+ *     <li>按 {@link PoolProperties.Policy} 处理过载, 任何策略都不会阻塞提交任务的线程</li>
+ *     <li>统计被拒绝（含被挤出队列）的任务数量</li>
+ *     <li>累计已完成任务的数量、排队时长与执行时长, 供 {@link PoolTuner} 采样</li>
+ *     <li>{@link PoolProperties.Queue#PRIORITY} 队列下按优先级与老化排序, 开始执行时已超过截止时间的任务被丢弃</li>
+ *     <li>提交时获取 {@link ContextPropagator} 的上下文快照, 在工作线程中执行前设置、执行后恢复</li>
+ *     <li>启用 {@link TaskPool#metrics(boolean)} 后, 以 {@link LatencyHistogram} 记录排队时长与执行时长的分布</li>
+ * </ol>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class PoolExecutor extends ThreadPoolExecutor implements ManagedPool {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.PoolExecutor");
+
+    /**
+     * 线程池名称
+     */
+    private final String name;
+
+    /**
+     * 过载策略
+     */
+    private final PoolProperties.Policy policy;
+
+    /**
+     * {@link PoolProperties.Policy#ADAPTIVE} 策略下允许的平均排队时长（纳秒）
+     */
+    private final long maxWait;
+
+    /**
+     * 每一级优先级相当于提前入队的时长（纳秒）
+     */
+    private final long aging;
+
+    /**
+     * 被拒绝的任务数量
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 已完成的任务数量
+     */
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * 已完成任务的累计排队时长（纳秒）
+     */
+    private final LongAdder waited = new LongAdder();
+
+    /**
+     * 已完成任务的累计执行时长（纳秒）
+     */
+    private final LongAdder served = new LongAdder();
+
+    /**
+     * 因超过截止时间而未执行的任务数量
+     */
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * 排队等待时长的直方图, 未启用时为 null
+     */
+    private volatile LatencyHistogram waitTimes;
+
+    /**
+     * 执行时长的直方图, 未启用时为 null
+     */
+    private volatile LatencyHistogram runTimes;
+
+    /**
+     * 排队等待时长的指数加权移动平均值（纳秒）
+     *
+     * <p>仅作为过载判断的参考值, 允许并发更新时丢失个别样本</p>
+     */
+    private volatile long waitAvg;
+
+    /**
+     * 是否已提示过优先级被忽略（非 {@link PoolProperties.Queue#PRIORITY} 队列）
+     */
+    private volatile boolean priorityIgnored;
+
+    /**
+     * 构造函数
+     *
+     * @param name       线程池名称
+     * @param properties {@link PoolProperties}
+     * @param queue      阻塞队列
+     * @param factory    线程工厂
+     */
+    PoolExecutor(String name, PoolProperties properties, BlockingQueue<Runnable> queue, ThreadFactory factory) {
+        super(properties.getCoreSize(),
+                Math.max(properties.getCoreSize(), properties.getMaxSize()),
+                properties.getKeepAlive(),
+                TimeUnit.SECONDS,
+                queue,
+                factory);
+        this.name = name;
+        this.policy = properties.getPolicy();
+        this.maxWait = TimeUnit.MILLISECONDS.toNanos(properties.getMaxWait());
+        this.aging = TimeUnit.MILLISECONDS.toNanos(Math.max(0, properties.getAging()));
+        setRejectedExecutionHandler(new Overload());
+    }
+
+    /**
+     * 包装任务并记录入队时间后提交
+     *
+     * <p>{@link PoolProperties.Policy#ADAPTIVE} 策略下, 若队列中有任务积压且平均排队时长超过阈值, 则直接拒绝</p>
+     *
+     * @param command {@link Runnable}
+     */
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        if (policy == PoolProperties.Policy.ADAPTIVE && waitAvg > maxWait && !getQueue().isEmpty()) {
+            throw reject("average queue wait " + TimeUnit.NANOSECONDS.toMillis(waitAvg) + "ms exceeds limit");
+        }
+        super.execute(command instanceof Task ? command : new Task(command, 0, 0, 0));
+    }
+
+    @Override
+    public void execute(Runnable command, int priority, long deadline) {
+        if (priority != 0 && !priorityIgnored && !(getQueue() instanceof RankedQueue)) {
+            priorityIgnored = true;
+            log.warning("Pool [" + name + "] does not use a PRIORITY queue, task priority is ignored");
+        }
+        execute(new Task(Objects.requireNonNull(command), priority, deadline, aging));
+    }
+
+    /**
+     * 任务开始执行前, 采样其排队等待时长
+     *
+     * @param t 执行任务的线程
+     * @param r 任务
+     */
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (r instanceof Task) {
+            Task task = (Task) r;
+            task.started = System.nanoTime();
+            long wait = task.started - task.enqueued;
+            long avg = waitAvg;
+            waitAvg = avg + ((wait - avg) >> 3);
+            waited.add(wait);
+            LatencyHistogram histogram = waitTimes;
+            if (histogram != null) {
+                histogram.record(wait);
+            }
+        }
+    }
+
+    /**
+     * 任务执行结束后, 累计其执行时长
+     *
+     * @param r 任务
+     * @param t 任务抛出的异常
+     */
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        if (r instanceof Task) {
+            Task task = (Task) r;
+            if (task.expired) {
+                expired.increment();
+                return;
+            }
+            long elapsed = System.nanoTime() - task.started;
+            served.add(elapsed);
+            completed.increment();
+            LatencyHistogram histogram = runTimes;
+            if (histogram != null) {
+                histogram.record(elapsed);
+            }
+        }
+    }
+
+    /**
+     * 调整线程数, 核心线程数与最大线程数保持一致
+     *
+     * @param size 线程数
+     */
+    void resize(int size) {
+        if (size > getMaximumPoolSize()) {
+            setMaximumPoolSize(size);
+            setCorePoolSize(size);
+        } else {
+            setCorePoolSize(size);
+            setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * 已完成的任务数量
+     *
+     * @return long
+     */
+    long completed() {
+        return completed.sum();
+    }
+
+    /**
+     * 已完成任务的累计排队时长（纳秒）
+     *
+     * @return long
+     */
+    long waited() {
+        return waited.sum();
+    }
+
+    /**
+     * 已完成任务的累计执行时长（纳秒）
+     *
+     * @return long
+     */
+    long served() {
+        return served.sum();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getWaitAvg() {
+        return waitAvg;
+    }
+
+    @Override
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    @Override
+    public void instrument(boolean enabled) {
+        waitTimes = enabled ? new LatencyHistogram() : null;
+        runTimes = enabled ? new LatencyHistogram() : null;
+    }
+
+    @Override
+    public PoolStats stats() {
+        return new PoolStats(name, getPoolSize(), getActiveCount(), getQueue().size(), completed(),
+                getRejected(), getExpired(), waitTimes, runTimes);
+    }
+
+    /**
+     * 记录一次拒绝并创建异常
+     *
+     * @param reason 拒绝原因
+     * @return {@link TaskRejectedException}
+     */
+    private TaskRejectedException reject(String reason) {
+        rejected.increment();
+        return new TaskRejectedException(name, "Task rejected by pool [" + name + "]: " + reason);
+    }
+
+    /**
+     * 取消被挤出队列的任务, 使 {@link TaskPool#submit(Callable)} 的调用方能感知到
+     *
+     * @param r 任务
+     */
+    private static void cancel(Runnable r) {
+        Runnable command = r instanceof Task ? ((Task) r).command : r;
+        if (command instanceof Future) {
+            ((Future<?>) command).cancel(false);
+        }
+    }
+
+    /**
+     * 记录入队时间、优先级与截止时间的任务包装
+     *
+     * <p>
+     *     排序值 {@code 入队时间 - 优先级 × 老化时长} 在入队时确定, 之后入队的任务排序值只会更大, 因此等待越久的任务越靠前（老化）;
+     *     有截止时间的任务排序值不晚于 {@code 截止时间 - 老化时长}, 临近截止的任务提前执行
+     * </p>
+     */
+    static final class Task implements Runnable, Comparable<Task> {
+
+        /**
+         * 原始任务
+         */
+        final Runnable command;
+
+        /**
+         * 入队时间（纳秒）
+         */
+        final long enqueued;
+
+        /**
+         * 开始执行时间（纳秒）, 只由执行该任务的线程读写
+         */
+        long started;
+
+        /**
+         * 排序值, 越小越优先
+         */
+        final long rank;
+
+        /**
+         * 截止时间（纳秒）, 为 0 时不限制
+         */
+        final long deadline;
+
+        /**
+         * 是否因超过截止时间而未执行
+         */
+        boolean expired;
+
+        /**
+         * 提交线程的上下文快照, 未注册 {@link ContextPropagator} 时为 null
+         */
+        final Object[] context;
+
+        /**
+         * 构造函数
+         *
+         * @param command  原始任务
+         * @param priority 优先级
+         * @param deadline 截止时间（纳秒）, 为 0 时不限制
+         * @param aging    每一级优先级相当于提前入队的时长（纳秒）
+         */
+        Task(Runnable command, int priority, long deadline, long aging) {
+            this.command = command;
+            this.enqueued = System.nanoTime();
+            this.deadline = deadline;
+            // 限制偏移量, 避免极端的优先级与老化时长相乘溢出
+            long rank = enqueued - (long) Math.max(-1e15, Math.min(1e15, (double) priority * aging));
+            this.rank = deadline == 0 ? rank : Math.min(rank, deadline - aging);
+            this.context = Context.capture();
+        }
+
+        @Override
+        public void run() {
+            if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                expired = true;
+                if (command instanceof Future) {
+                    ((Future<?>) command).cancel(false);
+                }
+                return;
+            }
+            Object[] previous = Context.restore(context);
+            try {
+                command.run();
+            } finally {
+                Context.reset(previous);
+            }
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            int c = Long.compare(rank - o.rank, 0);
+            return c != 0 ? c : Long.compare(enqueued - o.enqueued, 0);
+        }
+    }
+
+    /**
+     * 有界优先级队列, 元素均为 {@link Task}
+     *
+     * <p>容量在入队前检查, 并发入队时可能略微超出</p>
+     */
+    static final class RankedQueue extends PriorityBlockingQueue<Runnable> {
+
+        /**
+         * 序列化版本号
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 容量
+         */
+        private final int capacity;
+
+        /**
+         * 构造函数
+         *
+         * @param capacity 容量
+         */
+        RankedQueue(int capacity) {
+            super(Math.max(1, Math.min(capacity, 1024)), (a, b) -> ((Task) a).compareTo((Task) b));
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(Runnable r) {
+            return size() < capacity && super.offer(r);
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Math.max(0, capacity - size());
+        }
+    }
+
+    /**
+     * 过载（队列已满）时的处理策略, 均不阻塞提交任务的线程
+     */
+    private class Overload implements RejectedExecutionHandler {
+
+        /**
+         * 按 {@link PoolProperties.Policy} 处理被拒绝的任务
+         *
+         * @param r        当前被拒绝的任务
+         * @param executor 当前的线程池
+         */
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw reject("pool is shut down");
+            }
+            switch (policy) {
+                case CALLER_RUNS:
+                    rejected.increment();
+                    r.run();
+                    break;
+                case DISCARD_OLDEST:
+                    if (executor.getQueue() instanceof RankedQueue) {
+                        // 优先级队列的队首是最优先的任务, 不能挤出
+                        throw reject("queue is full");
+                    }
+                    Runnable oldest = executor.getQueue().poll();
+                    if (oldest == null) {
+                        // 直接移交队列无可挤出的任务
+                        throw reject("no queued task to discard");
+                    }
+                    rejected.increment();
+                    cancel(oldest);
+                    executor.execute(r);
+                    break;
+                default:
+                    throw reject("queue is full");
+            }
+        }
+    }
+}
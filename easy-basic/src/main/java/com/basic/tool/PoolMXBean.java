@@ -0,0 +1,98 @@
+package com.basic.tool;
+
+/**
+ * 具名线程池的 JMX 视图, 启用 {@link TaskPool#metrics(boolean)} 后以 {@code com.basic:type=TaskPool,name=<线程池名称>} 注册
+ *
+ * <p>时长均为毫秒, 统计自启用时起累计</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public interface PoolMXBean {
+
+    /**
+     * 当前线程数
+     *
+     * @return int
+     */
+    int getPoolSize();
+
+    /**
+     * 正在执行任务的线程数
+     *
+     * @return int
+     */
+    int getActiveCount();
+
+    /**
+     * 队列中的任务数量
+     *
+     * @return int
+     */
+    int getQueueSize();
+
+    /**
+     * 已完成的任务数量
+     *
+     * @return long
+     */
+    long getCompleted();
+
+    /**
+     * 被拒绝（含被挤出队列）的任务数量
+     *
+     * @return long
+     */
+    long getRejected();
+
+    /**
+     * 因超过截止时间而未执行的任务数量
+     *
+     * @return long
+     */
+    long getExpired();
+
+    /**
+     * 排队时长的中位数
+     *
+     * @return double
+     */
+    double getWaitP50();
+
+    /**
+     * 排队时长的 99 分位数
+     *
+     * @return double
+     */
+    double getWaitP99();
+
+    /**
+     * 排队时长的最大值
+     *
+     * @return double
+     */
+    double getWaitMax();
+
+    /**
+     * 执行时长的中位数
+     *
+     * @return double
+     */
+    double getRunP50();
+
+    /**
+     * 执行时长的 99 分位数
+     *
+     * @return double
+     */
+    double getRunP99();
+
+    /**
+     * 执行时长的最大值
+     *
+     * @return double
+     */
+    double getRunMax();
+
+}
@@ -0,0 +1,439 @@
+package com.basic.tool;
+
+/**
+ * 具名线程池（舱壁）的配置参数
+ *
+ * <p>每一个具名线程池拥有独立的线程数、阻塞队列、拒绝策略与线程名前缀, 彼此之间互不抢占工作线程</p>
+ *
+ * <pre>{@code
+ *     TaskPool.register("export", new PoolProperties()
+ *         .setCoreSize(2)
+ *         .setMaxSize(4)
+ *         .setQueueType(PoolProperties.Queue.ARRAY)
+ *         .setQueueCapacity(64)
+ *         .setPolicy(PoolProperties.Policy.CALLER_RUNS)
+ *         .setThreadNamePrefix("export-"));
+ *
+ *     TaskPool.execute("export", () -> System.out.println("慢吞吞的 Excel 导出"));
+ * }</pre>
+ *
+ * <p>Spring 配置文件示例（见 {@code com.basic.conf.TaskPoolConfig}）:</p>
+ *
+ * <pre>{@code
+ *     easy:
+ *       task-pool:
+ *         enabled: true
+ *         pools:
+ *           export:
+ *             core-size: 2
+ *             max-size: 4
+ *             queue-type: array
+ *             queue-capacity: 64
+ *             policy: caller-runs
+ *             thread-name-prefix: export-
+ *           io:
+ *             virtual: true
+ *             concurrency: 200
+ *             queue-capacity: 10000
+ *           search:
+ *             queue-type: priority
+ *             aging: 100
+ *           jdbc:
+ *             auto-tune: true
+ *             min-size: 4
+ *             max-size: 64
+ *             queue-capacity: 1000
+ * }</pre>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class PoolProperties {
+
+    /**
+     * 核心线程数, 默认为可用处理器数量
+     */
+    private int coreSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 最大线程数, 默认为可用处理器数量
+     */
+    private int maxSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 非核心线程的空闲存活时间（秒）
+     */
+    private long keepAlive = 60;
+
+    /**
+     * 阻塞队列类型
+     */
+    private Queue queueType = Queue.LINKED;
+
+    /**
+     * 阻塞队列容量, 对 {@link Queue#SYNCHRONOUS} 无效
+     */
+    private int queueCapacity = 16;
+
+    /**
+     * 线程池饱和时的拒绝策略
+     */
+    private Policy policy = Policy.ABORT;
+
+    /**
+     * {@link Policy#ADAPTIVE} 策略下允许的平均排队时长（毫秒）
+     */
+    private long maxWait = 100;
+
+    /**
+     * 线程名前缀, 为空时使用线程池名称
+     */
+    private String threadNamePrefix;
+
+    /**
+     * 是否使用虚拟线程（JDK 21+）, 低版本 JDK 下退化为平台线程池
+     *
+     * <p>启用后 {@link #coreSize}、{@link #maxSize}、{@link #keepAlive}、{@link #queueType} 不再生效</p>
+     */
+    private boolean virtual;
+
+    /**
+     * 虚拟线程池同时执行的任务数量上限（信号量）, 小于等于 0 时不限制
+     *
+     * <p>用于保护下游系统（如数据库连接池）, 等待许可的任务数量上限为 {@link #queueCapacity}</p>
+     */
+    private int concurrency;
+
+    /**
+     * 是否根据排队时长、执行时长与吞吐量自动调整线程数, 范围为 [{@link #minSize}, {@link #maxSize}], 初始为 {@link #coreSize}
+     *
+     * <p>对虚拟线程池无效</p>
+     */
+    private boolean autoTune;
+
+    /**
+     * 自动调整时的最小线程数
+     */
+    private int minSize = 1;
+
+    /**
+     * {@link Queue#PRIORITY} 队列中每一级优先级相当于提前入队的时长（毫秒）, 用于防止低优先级任务饿死
+     *
+     * <p>例如默认 100 毫秒时, 优先级为 10 的任务最多越过 1 秒前入队的普通任务, 更早入队的普通任务先执行</p>
+     */
+    private long aging = 100;
+
+    /**
+     * 阻塞队列类型
+     */
+    public enum Queue {
+
+        /**
+         * {@link java.util.concurrent.LinkedBlockingDeque} 有界链表队列
+         */
+        LINKED,
+
+        /**
+         * {@link java.util.concurrent.ArrayBlockingQueue} 有界数组队列, 预分配内存
+         */
+        ARRAY,
+
+        /**
+         * {@link java.util.concurrent.SynchronousQueue} 直接移交, 不缓存任务
+         */
+        SYNCHRONOUS,
+
+        /**
+         * 有界优先级队列, 按优先级与入队时间（老化）排序, 见 {@link #aging};
+         * 此队列下 {@link Policy#DISCARD_OLDEST} 等同于 {@link Policy#ABORT}
+         */
+        PRIORITY
+    }
+
+    /**
+     * 过载（拒绝）策略, 均不会阻塞提交任务的线程, 且每次拒绝都会被计数
+     */
+    public enum Policy {
+
+        /**
+         * 由提交任务的线程自行执行
+         */
+        CALLER_RUNS,
+
+        /**
+         * 立即抛出 {@link com.basic.exception.TaskRejectedException}
+         */
+        ABORT,
+
+        /**
+         * 取消队列中最早的任务, 再尝试提交当前任务
+         */
+        DISCARD_OLDEST,
+
+        /**
+         * 平均排队时长超过 {@link #maxWait} 时提前拒绝新任务（卸载负载）, 队列已满时同 {@link #ABORT}
+         */
+        ADAPTIVE
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getCoreSize() {
+        return coreSize;
+    }
+
+    /**
+     * setter function
+     *
+     * @param coreSize {@link #coreSize}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setCoreSize(int coreSize) {
+        this.coreSize = coreSize;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * setter function
+     *
+     * @param maxSize {@link #maxSize}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * setter function
+     *
+     * @param keepAlive {@link #keepAlive}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link Queue}
+     */
+    public Queue getQueueType() {
+        return queueType;
+    }
+
+    /**
+     * setter function
+     *
+     * @param queueType {@link #queueType}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setQueueType(Queue queueType) {
+        this.queueType = queueType;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * setter function
+     *
+     * @param queueCapacity {@link #queueCapacity}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link Policy}
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * setter function
+     *
+     * @param policy {@link #policy}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setPolicy(Policy policy) {
+        this.policy = policy;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * setter function
+     *
+     * @param maxWait {@link #maxWait}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setMaxWait(long maxWait) {
+        this.maxWait = maxWait;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link String}
+     */
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    /**
+     * setter function
+     *
+     * @param threadNamePrefix {@link #threadNamePrefix}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setThreadNamePrefix(String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return boolean
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * setter function
+     *
+     * @param virtual {@link #virtual}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setVirtual(boolean virtual) {
+        this.virtual = virtual;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * setter function
+     *
+     * @param concurrency {@link #concurrency}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return boolean
+     */
+    public boolean isAutoTune() {
+        return autoTune;
+    }
+
+    /**
+     * setter function
+     *
+     * @param autoTune {@link #autoTune}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setAutoTune(boolean autoTune) {
+        this.autoTune = autoTune;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * setter function
+     *
+     * @param minSize {@link #minSize}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setMinSize(int minSize) {
+        this.minSize = minSize;
+        return this;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getAging() {
+        return aging;
+    }
+
+    /**
+     * setter function
+     *
+     * @param aging {@link #aging}
+     * @return {@link PoolProperties}
+     */
+    public PoolProperties setAging(long aging) {
+        this.aging = aging;
+        return this;
+    }
+}
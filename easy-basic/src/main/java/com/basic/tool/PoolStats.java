@@ -0,0 +1,172 @@
+package com.basic.tool;
+
+/**
+ * 具名线程池的运行状态快照, 由 {@link TaskPool#stats(String)} 返回
+ *
+ * <p>排队时长、执行时长的直方图仅在启用 {@link TaskPool#metrics(boolean)} 后记录, 未启用时为空直方图</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class PoolStats {
+
+    /**
+     * 线程池名称
+     */
+    private final String name;
+
+    /**
+     * 当前线程数, 虚拟线程池为占用的并发许可数
+     */
+    private final int poolSize;
+
+    /**
+     * 正在执行任务的线程数
+     */
+    private final int activeCount;
+
+    /**
+     * 队列中（虚拟线程池为等待许可）的任务数量
+     */
+    private final int queueSize;
+
+    /**
+     * 已完成的任务数量
+     */
+    private final long completed;
+
+    /**
+     * 被拒绝（含被挤出队列）的任务数量
+     */
+    private final long rejected;
+
+    /**
+     * 因超过截止时间而未执行的任务数量
+     */
+    private final long expired;
+
+    /**
+     * 排队等待时长的直方图
+     */
+    private final LatencyHistogram waitTimes;
+
+    /**
+     * 执行时长的直方图
+     */
+    private final LatencyHistogram runTimes;
+
+    /**
+     * 构造函数
+     *
+     * @param name        线程池名称
+     * @param poolSize    当前线程数
+     * @param activeCount 正在执行任务的线程数
+     * @param queueSize   队列中的任务数量
+     * @param completed   已完成的任务数量
+     * @param rejected    被拒绝的任务数量
+     * @param expired     超过截止时间的任务数量
+     * @param waitTimes   排队等待时长的直方图, 未启用时为 null
+     * @param runTimes    执行时长的直方图, 未启用时为 null
+     */
+    PoolStats(String name, int poolSize, int activeCount, int queueSize, long completed, long rejected, long expired,
+              LatencyHistogram waitTimes, LatencyHistogram runTimes) {
+        this.name = name;
+        this.poolSize = poolSize;
+        this.activeCount = activeCount;
+        this.queueSize = queueSize;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.expired = expired;
+        this.waitTimes = waitTimes == null ? LatencyHistogram.EMPTY : waitTimes.snapshot();
+        this.runTimes = runTimes == null ? LatencyHistogram.EMPTY : runTimes.snapshot();
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link String}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getExpired() {
+        return expired;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link LatencyHistogram}
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link LatencyHistogram}
+     */
+    public LatencyHistogram getRunTimes() {
+        return runTimes;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{name=" + name + ", poolSize=" + poolSize + ", active=" + activeCount + ", queued=" + queueSize
+                + ", completed=" + completed + ", rejected=" + rejected + ", expired=" + expired
+                + ", wait=" + waitTimes + ", run=" + runTimes + "}";
+    }
+}
@@ -0,0 +1,193 @@
+package com.basic.tool;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 线程池线程数的自动调整, 见 {@link PoolProperties#isAutoTune()}
+ *
+ * <p>每秒采样一次已完成任务的数量、排队时长与执行时长:</p>
+ * <ol>
+ *     <li>有积压（队列非空或排队时长超过执行时长）: 按梯度 {@code 基准执行时长 / 当前执行时长} 缩放线程数, 再加上 {@code √线程数} 的余量;
+ *     I/O 型任务增加线程不影响执行时长, 梯度为 1, 线程数持续增长; CPU 型任务线程数超过核心数后执行时长随之变长, 梯度下降, 线程数收敛</li>
+ *     <li>无积压: 按利特尔法则（吞吐量 × 执行时长）计算平均繁忙线程数, 每次最多减少 10%, 保留 25% 余量</li>
+ * </ol>
+ *
+ * <p>执行时长的基准值取最小值, 并缓慢向当前值漂移（无积压时更快）, 以适应任务本身变慢的情况</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class PoolTuner implements Runnable {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.PoolTuner");
+
+    /**
+     * 采样间隔（毫秒）
+     */
+    private static final long INTERVAL = 1000;
+
+    /**
+     * 线程池名称
+     */
+    private final String name;
+
+    /**
+     * 线程池
+     */
+    private final PoolExecutor pool;
+
+    /**
+     * 线程数下限
+     */
+    private final int min;
+
+    /**
+     * 线程数上限
+     */
+    private final int max;
+
+    /**
+     * 线程数（未取整）
+     */
+    private double limit;
+
+    /**
+     * 执行时长的基准值（纳秒）
+     */
+    private double baseline;
+
+    /**
+     * 上次采样的累计值
+     */
+    private long lastCompleted, lastWaited, lastServed, lastTime;
+
+    /**
+     * 最近一次决策
+     */
+    private volatile PoolTuning last;
+
+    /**
+     * 采样任务
+     */
+    private volatile ScheduledFuture<?> future;
+
+    /**
+     * 构造函数
+     *
+     * @param name       线程池名称
+     * @param pool       线程池
+     * @param properties {@link PoolProperties}
+     */
+    PoolTuner(String name, PoolExecutor pool, PoolProperties properties) {
+        this.name = name;
+        this.pool = pool;
+        this.min = Math.max(1, properties.getMinSize());
+        this.max = Math.max(this.min, properties.getMaxSize());
+        this.limit = Math.min(max, Math.max(min, pool.getCorePoolSize()));
+        this.lastTime = System.nanoTime();
+        pool.resize((int) limit);
+    }
+
+    /**
+     * 开始定期采样
+     *
+     * @param timer 定时器
+     */
+    void start(ScheduledExecutorService timer) {
+        try {
+            future = timer.scheduleWithFixedDelay(this, INTERVAL, INTERVAL, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warning("Pool [" + name + "] auto-tuning disabled, timer is shut down");
+        }
+    }
+
+    /**
+     * 停止采样
+     */
+    void stop() {
+        ScheduledFuture<?> f = future;
+        if (f != null) {
+            f.cancel(false);
+        }
+    }
+
+    /**
+     * 最近一次决策
+     *
+     * @return {@link PoolTuning}, 尚未采样时为 null
+     */
+    PoolTuning last() {
+        return last;
+    }
+
+    @Override
+    public void run() {
+        if (pool.isShutdown()) {
+            stop();
+            return;
+        }
+        try {
+            tune();
+        } catch (RuntimeException e) {
+            log.log(Level.SEVERE, "Pool [" + name + "] auto-tuning Exception: ", e);
+        }
+    }
+
+    /**
+     * 采样并调整线程数
+     */
+    private void tune() {
+        long now = System.nanoTime();
+        long completed = pool.completed(), waited = pool.waited(), served = pool.served();
+        long count = completed - lastCompleted;
+        double elapsed = now - lastTime;
+        double service = count == 0 ? 0 : (double) (served - lastServed) / count;
+        double wait = count == 0 ? 0 : (double) (waited - lastWaited) / count;
+        lastCompleted = completed;
+        lastWaited = waited;
+        lastServed = served;
+        lastTime = now;
+
+        int queued = pool.getQueue().size();
+        int previous = pool.getCorePoolSize();
+        double throughput = count * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        double busy = throughput * service / TimeUnit.SECONDS.toNanos(1);
+        boolean backlog = queued > 0 || wait > service;
+
+        if (count == 0) {
+            // 无任务完成: 有积压说明线程全部被长任务占用, 否则为空闲
+            limit = backlog ? limit + Math.sqrt(limit) : limit * 0.9;
+        } else {
+            if (baseline == 0 || service < baseline) {
+                baseline = service;
+            } else {
+                baseline += (service - baseline) * (backlog ? 0.02 : 0.1);
+            }
+            if (backlog) {
+                double gradient = Math.max(0.5, Math.min(1.0, baseline / service));
+                limit = limit * gradient + Math.sqrt(limit);
+            } else {
+                limit = Math.max(Math.ceil(busy * 1.25), limit * 0.9);
+            }
+        }
+        limit = Math.max(min, Math.min(max, limit));
+
+        int size = (int) Math.round(limit);
+        if (size != previous) {
+            pool.resize(size);
+            if (log.isLoggable(Level.FINE)) {
+                log.fine("Pool [" + name + "] resized " + previous + " -> " + size);
+            }
+        }
+        last = new PoolTuning(previous, size, throughput, service / 1e6, wait / 1e6, baseline / 1e6, busy, queued);
+    }
+}
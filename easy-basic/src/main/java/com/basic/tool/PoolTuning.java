@@ -0,0 +1,168 @@
+package com.basic.tool;
+
+/**
+ * 线程池自动调整的一次决策, 由 {@link TaskPool#tuning(String)} 返回
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class PoolTuning {
+
+    /**
+     * 决策时间（毫秒时间戳）
+     */
+    private final long time;
+
+    /**
+     * 调整前的线程数
+     */
+    private final int previous;
+
+    /**
+     * 调整后的线程数
+     */
+    private final int size;
+
+    /**
+     * 采样周期内的吞吐量（任务数/秒）
+     */
+    private final double throughput;
+
+    /**
+     * 平均执行时长（毫秒）
+     */
+    private final double serviceTime;
+
+    /**
+     * 平均排队时长（毫秒）
+     */
+    private final double waitTime;
+
+    /**
+     * 无竞争时执行时长的基准值（毫秒）
+     */
+    private final double baseline;
+
+    /**
+     * 按利特尔法则（吞吐量 × 执行时长）计算的平均繁忙线程数
+     */
+    private final double busy;
+
+    /**
+     * 采样时队列中的任务数量
+     */
+    private final int queued;
+
+    /**
+     * 构造函数
+     *
+     * @param previous    调整前的线程数
+     * @param size        调整后的线程数
+     * @param throughput  吞吐量
+     * @param serviceTime 平均执行时长
+     * @param waitTime    平均排队时长
+     * @param baseline    执行时长的基准值
+     * @param busy        平均繁忙线程数
+     * @param queued      队列中的任务数量
+     */
+    PoolTuning(int previous, int size, double throughput, double serviceTime, double waitTime,
+               double baseline, double busy, int queued) {
+        this.time = System.currentTimeMillis();
+        this.previous = previous;
+        this.size = size;
+        this.throughput = throughput;
+        this.serviceTime = serviceTime;
+        this.waitTime = waitTime;
+        this.baseline = baseline;
+        this.busy = busy;
+        this.queued = queued;
+    }
+
+    /**
+     * getter function
+     *
+     * @return long
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getPrevious() {
+        return previous;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * getter function
+     *
+     * @return double
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * getter function
+     *
+     * @return double
+     */
+    public double getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * getter function
+     *
+     * @return double
+     */
+    public double getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * getter function
+     *
+     * @return double
+     */
+    public double getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * getter function
+     *
+     * @return double
+     */
+    public double getBusy() {
+        return busy;
+    }
+
+    /**
+     * getter function
+     *
+     * @return int
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolTuning{size=%d->%d, throughput=%.1f/s, service=%.3fms, wait=%.3fms, baseline=%.3fms, busy=%.2f, queued=%d}",
+                previous, size, throughput, serviceTime, waitTime, baseline, busy, queued);
+    }
+}
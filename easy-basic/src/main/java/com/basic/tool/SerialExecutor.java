@@ -0,0 +1,299 @@
+package com.basic.tool;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 按 key 串行的执行器, 供 {@link TaskPool#executeOrdered(Object, Runnable)} 使用
+ *
+ * <p>
+ *     相同 key 的任务按提交顺序依次执行, 不同 key 的任务在共享线程池中并行执行;
+ *     每个有待执行任务的 key 对应一条通道（队列 + 状态）, 队列清空后通道即被移除, 空闲的 key 不占用内存, 也不占用线程.
+ * </p>
+ *
+ * <p>
+ *     提交任务只涉及 {@link ConcurrentHashMap#get(Object)}、{@link ConcurrentLinkedQueue#offer(Object)} 与一次 CAS, 不加锁;
+ *     同一通道每次最多连续执行 {@link #BATCH} 个任务后重新投递, 避免高频 key 长期占用工作线程.
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class SerialExecutor {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.SerialExecutor");
+
+    /**
+     * 通道每次投递最多连续执行的任务数量
+     */
+    private static final int BATCH = 64;
+
+    /**
+     * 通道状态: 未投递
+     */
+    private static final int IDLE = 0;
+
+    /**
+     * 通道状态: 已投递或正在执行
+     */
+    private static final int SCHEDULED = 1;
+
+    /**
+     * 通道状态: 已移除, 不再接受任务
+     */
+    private static final int RETIRED = -1;
+
+    /**
+     * 通道, key 为任务的 key
+     */
+    private final Map<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * 工作线程池, 每次投递时获取, 以便线程池被替换后生效
+     */
+    private final Supplier<? extends Executor> executor;
+
+    /**
+     * 构造函数
+     *
+     * @param executor 工作线程池
+     */
+    SerialExecutor(Supplier<? extends Executor> executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 提交任务, 在相同 key 之前提交的任务全部执行完后执行
+     *
+     * @param key     任务的 key
+     * @param command 任务
+     * @throws RejectedExecutionException 线程池拒绝, 此时该 key 尚未执行的任务均被丢弃
+     */
+    void execute(Object key, Runnable command) {
+        for (;;) {
+            Lane lane = lanes.get(key);
+            if (lane == null) {
+                Lane created = new Lane(key);
+                lane = lanes.putIfAbsent(key, created);
+                if (lane == null) {
+                    lane = created;
+                }
+            }
+            if (lane.offer(command)) {
+                return;
+            }
+            // 通道已移除, 协助清理后重试
+            lanes.remove(key, lane);
+        }
+    }
+
+    /**
+     * 有待执行任务的 key 数量
+     *
+     * @return int
+     */
+    int size() {
+        return lanes.size();
+    }
+
+    /**
+     * 通道: 单个 key 的任务队列
+     */
+    private final class Lane implements Runnable {
+
+        /**
+         * 任务的 key
+         */
+        private final Object key;
+
+        /**
+         * 待执行的任务
+         */
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 通道状态
+         */
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        /**
+         * 构造函数
+         *
+         * @param key 任务的 key
+         */
+        private Lane(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * 追加任务, 通道未投递时投递
+         *
+         * @param command 任务
+         * @return 通道已移除时为 false, 任务未被追加
+         */
+        private boolean offer(Runnable command) {
+            tasks.offer(command);
+            for (;;) {
+                int s = state.get();
+                if (s == SCHEDULED) {
+                    // 执行线程清空队列后会再次检查, 必然能看到该任务
+                    return true;
+                }
+                if (s == RETIRED) {
+                    // 撤回失败说明任务在通道移除前已被执行
+                    return !tasks.remove(command);
+                }
+                if (state.compareAndSet(IDLE, SCHEDULED)) {
+                    schedule();
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 投递至工作线程池, 被拒绝时丢弃尚未执行的任务并抛出异常
+         */
+        private void schedule() {
+            try {
+                executor.get().execute(new Drain(null));
+            } catch (RejectedExecutionException e) {
+                discard();
+                throw e;
+            }
+        }
+
+        /**
+         * 依次执行任务, 队列清空后移除通道
+         */
+        @Override
+        public void run() {
+            int n = 0;
+            for (;;) {
+                Runnable command;
+                while ((command = tasks.poll()) != null) {
+                    try {
+                        command.run();
+                    } catch (Throwable e) {
+                        log.log(Level.SEVERE, "Ordered task [" + key + "] Exception: ", e);
+                    }
+                    if (++n >= BATCH && !tasks.isEmpty()) {
+                        if (handOff()) {
+                            return;
+                        }
+                        n = 0;
+                    }
+                }
+                if (!finish()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 队列已清空: 有新任务时继续执行, 否则移除通道
+         *
+         * @return 是否继续执行
+         */
+        private boolean finish() {
+            state.set(IDLE);
+            if (!tasks.isEmpty()) {
+                // 竞争失败说明提交线程已重新投递
+                return state.compareAndSet(IDLE, SCHEDULED);
+            }
+            if (state.compareAndSet(IDLE, RETIRED)) {
+                lanes.remove(key, this);
+            }
+            return false;
+        }
+
+        /**
+         * 让出工作线程, 重新投递至线程池队列末尾
+         *
+         * @return 是否已重新投递; 被拒绝或由当前线程直接执行时为 false, 由当前线程继续执行
+         */
+        private boolean handOff() {
+            Drain drain = new Drain(Thread.currentThread());
+            try {
+                executor.get().execute(drain);
+            } catch (RejectedExecutionException e) {
+                return false;
+            } finally {
+                // 之后由当前线程从线程池队列中取出时正常执行
+                drain.caller = null;
+            }
+            return !drain.inline;
+        }
+
+        /**
+         * 丢弃尚未执行的任务并移除通道, 用于投递被拒绝或被挤出线程池队列
+         */
+        private void discard() {
+            int dropped = 0;
+            do {
+                while (tasks.poll() != null) {
+                    dropped++;
+                }
+                state.set(IDLE);
+            } while (!tasks.isEmpty() && state.compareAndSet(IDLE, SCHEDULED));
+            if (state.compareAndSet(IDLE, RETIRED)) {
+                lanes.remove(key, this);
+            }
+            log.warning("Ordered tasks of key [" + key + "] discarded by overloaded pool: " + dropped);
+        }
+
+        /**
+         * 一次投递, 实现 {@link java.util.concurrent.Future} 以便被 {@link PoolProperties.Policy#DISCARD_OLDEST} 挤出时得到通知
+         */
+        private final class Drain extends FutureTask<Void> {
+
+            /**
+             * 发起让出的线程, 投递期间线程池在该线程中直接执行（{@link PoolProperties.Policy#CALLER_RUNS}）时跳过, 由其继续执行
+             */
+            private Thread caller;
+
+            /**
+             * 是否被线程池在发起线程中直接执行
+             */
+            private boolean inline;
+
+            /**
+             * 构造函数
+             *
+             * @param caller 发起让出的线程, 首次投递时为 null
+             */
+            private Drain(Thread caller) {
+                super(Lane.this, null);
+                this.caller = caller;
+            }
+
+            @Override
+            public void run() {
+                if (caller == Thread.currentThread()) {
+                    inline = true;
+                    return;
+                }
+                super.run();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    discard();
+                }
+            }
+        }
+    }
+}
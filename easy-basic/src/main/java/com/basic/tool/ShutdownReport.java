@@ -0,0 +1,156 @@
+package com.basic.tool;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * {@link TaskPool#shutdown(long, java.util.concurrent.TimeUnit)} 的结果: 耗时、是否在截止时间内执行完毕, 以及被放弃的任务
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class ShutdownReport {
+
+    /**
+     * 关闭耗时（毫秒）
+     */
+    private final long elapsed;
+
+    /**
+     * 全部线程池是否在截止时间内执行完队列中的任务
+     */
+    private final boolean terminated;
+
+    /**
+     * 被取消的定时任务数量
+     */
+    private final int plans;
+
+    /**
+     * 截止时间到达时仍在队列中、被丢弃的任务数量, key 为线程池名称（定时任务线程池为 {@code scheduled}）, 不含数量为 0 的线程池
+     */
+    private final Map<String, Integer> abandoned;
+
+    /**
+     * 截止时间到达时仍在执行、被中断的任务数量
+     */
+    private final int interrupted;
+
+    /**
+     * 关闭时延迟队列中未消费的元素数量
+     */
+    private final long delayPending;
+
+    /**
+     * 交给持久化钩子的延迟队列元素数量
+     */
+    private final int handedOff;
+
+    /**
+     * 构造函数
+     *
+     * @param elapsed      关闭耗时（毫秒）
+     * @param terminated   是否在截止时间内执行完毕
+     * @param plans        被取消的定时任务数量
+     * @param abandoned    被丢弃的任务数量
+     * @param interrupted  被中断的任务数量
+     * @param delayPending 延迟队列中未消费的元素数量
+     * @param handedOff    交给持久化钩子的元素数量
+     */
+    ShutdownReport(long elapsed, boolean terminated, int plans, Map<String, Integer> abandoned, int interrupted,
+                   long delayPending, int handedOff) {
+        this.elapsed = elapsed;
+        this.terminated = terminated;
+        this.plans = plans;
+        this.abandoned = Collections.unmodifiableMap(abandoned);
+        this.interrupted = interrupted;
+        this.delayPending = delayPending;
+        this.handedOff = handedOff;
+    }
+
+    /**
+     * 是否未丢失任何任务: 在截止时间内执行完毕, 且延迟队列为空或已全部交给持久化钩子
+     *
+     * @return boolean
+     */
+    public boolean isClean() {
+        return terminated && handedOff >= delayPending;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #elapsed}
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #terminated}
+     */
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #plans}
+     */
+    public int getPlans() {
+        return plans;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #abandoned}
+     */
+    public Map<String, Integer> getAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #interrupted}
+     */
+    public int getInterrupted() {
+        return interrupted;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #delayPending}
+     */
+    public long getDelayPending() {
+        return delayPending;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #handedOff}
+     */
+    public int getHandedOff() {
+        return handedOff;
+    }
+
+    @Override
+    public String toString() {
+        return "ShutdownReport{" +
+                "elapsed=" + elapsed + "ms" +
+                ", terminated=" + terminated +
+                ", plans=" + plans +
+                ", abandoned=" + abandoned +
+                ", interrupted=" + interrupted +
+                ", delayPending=" + delayPending +
+                ", handedOff=" + handedOff +
+                '}';
+    }
+}
@@ -1,11 +1,22 @@
 package com.basic.tool;
 
+import com.basic.exception.TaskRejectedException;
+
+import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,6 +27,60 @@ import java.util.logging.Logger;
  * <ol>
  *     <li>{@link #execute(Runnable)}: 无返回值的异步线程</li>
  *     <li>{@link #submit(Callable)}: 有返回值的异步线程</li>
+ *     <li>{@link #execute(String, Runnable)}: 在指定的具名线程池中执行无返回值的异步线程</li>
+ *     <li>{@link #submit(String, Callable)}: 在指定的具名线程池中执行有返回值的异步线程</li>
+ *     <li>{@link #submit(Callable, int)}: 按优先级执行有返回值的异步线程</li>
+ *     <li>{@link #submit(Callable, long, TimeUnit)}: 限定开始执行的截止时间, 超过后丢弃</li>
+ *     <li>{@link #submit(String, Callable, int, long, TimeUnit)}: 在指定的具名线程池中按优先级与截止时间执行</li>
+ *     <li>{@link #executeOrdered(Object, Runnable)}: 相同 key 的任务按提交顺序串行执行, 不同 key 并行执行</li>
+ *     <li>{@link #executeOrdered(String, Object, Runnable)}: 在指定的具名线程池中按 key 串行执行</li>
+ * </ol>
+ *
+ *
+ * <p>上下文传递（MDC、租户 ID、链路追踪等 {@link ThreadLocal}）:</p>
+ * <ol>
+ *     <li>{@link #propagate(ContextPropagator)}: 注册上下文传递器, 对线程池、定时任务、延迟队列监听器与批量收集器生效</li>
+ *     <li>{@link #wrap(Runnable)}: 包装任务, 在其它执行器中执行时使用当前线程的上下文</li>
+ *     <li>{@link #wrap(Callable)}: 包装有返回值的任务</li>
+ * </ol>
+ *
+ *
+ * <p>具名线程池（舱壁隔离）:</p>
+ * <ol>
+ *     <li>{@link #register(String, PoolProperties)}: 注册（或替换）具名线程池</li>
+ *     <li>{@link #names()}: 获取已注册的线程池名称</li>
+ *     <li>{@link #rejected(String)}: 获取线程池因过载而拒绝的任务数量</li>
+ *     <li>{@link #expired(String)}: 获取线程池因超过截止时间而丢弃的任务数量</li>
+ *     <li>{@link #tuning(String)}: 获取线程池自动调整线程数的最近一次决策</li>
+ *     <li>{@link #stats(String)}: 获取线程池的运行状态（线程数、队列深度、排队与执行时长分布）</li>
+ *     <li>{@link #virtualScheduled(boolean)}: 定时任务线程池是否使用虚拟线程（JDK 21+）</li>
+ * </ol>
+ *
+ *
+ * <p>异步编排（{@link CompletableFuture}, 异常会向下传播而不是返回 null）:</p>
+ * <ol>
+ *     <li>{@link #supplyAsync(Supplier)}: 异步执行并返回 {@link CompletableFuture}</li>
+ *     <li>{@link #within(CompletableFuture, long, TimeUnit)}: 为异步结果设置截止时间</li>
+ *     <li>{@link #allOf(Collection, long, TimeUnit)}: 等待全部完成, 按入参顺序收集结果</li>
+ *     <li>{@link #anyOf(Collection, long, TimeUnit)}: 取最先成功的结果</li>
+ *     <li>{@link #parallelMap(Collection, Function, int)}: 限定并行度的映射, 按入参顺序收集结果</li>
+ *     <li>{@link #parallelMapUnordered(Collection, Function, int)}: 限定并行度的映射, 按完成顺序收集结果</li>
+ * </ol>
+ *
+ *
+ * <p>并行计算（独立的 {@link ForkJoinPool}, 工作窃取, 不占用异步任务线程池）:</p>
+ * <ol>
+ *     <li>{@link #compute(ForkJoinTask)}: 在计算线程池中执行自定义的分治任务</li>
+ *     <li>{@link #parallelReduce(List, Object, BiFunction, BinaryOperator, int)}: 按粒度拆分的并行归约</li>
+ *     <li>{@link #parallelForEach(List, Consumer, int)}: 按粒度拆分的并行遍历</li>
+ *     <li>{@link #parallelSort(Object[], Comparator, int)}: 稳定的并行归并排序</li>
+ * </ol>
+ *
+ *
+ * <p>批量收集:</p>
+ * <ol>
+ *     <li>{@link #batcher(int, long, TimeUnit, Consumer)}: 逐个提交的元素攒批后在默认线程池中批量消费</li>
+ *     <li>{@link #batcher(String, int, int, long, TimeUnit, Consumer)}: 指定线程池与缓冲区容量的批量收集</li>
  * </ol>
  *
  *
@@ -23,17 +88,36 @@ import java.util.logging.Logger;
  * <ol>
  *     <li>{@link #push(long, Object, TimeUnit)}: 向延迟队列中添加元素</li>
  *     <li>{@link #pull()}: 取出延迟队列中的元素</li>
+ *     <li>{@link #drain(int)}: 非阻塞地批量取出已到期的元素</li>
+ *     <li>{@link #onExpire(int, Consumer)}: 注册到期元素的批量监听器</li>
+ *     <li>{@link #delayEngine(DelayEngine)}: 替换延迟队列的引擎, 如持久化的 {@link DelayJournal}</li>
+ *     <li>{@link #delayHandoff(ObjLongConsumer)}: 设置关闭时未消费元素的持久化钩子</li>
  * </ol>
  *
  *
  * <p>定时任务:</p>
  * <ol>
+ *     <li>{@link #plan(Runnable, String, PlanSpec)}: 按 Cron 表达式、固定频率或固定间隔执行</li>
  *     <li>{@link #plan(Runnable, String, String, long, TimeUnit)}: 指定首次延时执行时间点, 后续根据频率执行</li>
+ *     <li>{@link #plan(Runnable, String, String, long, TimeUnit, ZoneId)}: 指定时区的首次延时执行时间点, 后续根据频率执行</li>
  *     <li>{@link #plan(Runnable, String, long, long, TimeUnit)}: 指定首次延时执行时长, 后续根据频率执行</li>
+ *     <li>{@link #history(String)}: 获取定时任务最近的执行记录</li>
+ *     <li>{@link #planStats(String)}: 获取定时任务的累计统计</li>
+ *     <li>{@link #plans()}: 获取已调度的定时任务 key</li>
  *     <li>{@link #cancel(String)}: 取消定时任务</li>
+ *     <li>{@link #leaseStore(LeaseStore)}: 设置多节点单点执行的默认租约存储</li>
+ *     <li>{@link #fencingToken()}: 获取当前执行持有的租约防护令牌</li>
+ * </ol>
+ *
+ *
+ * <p>指标:</p>
+ * <ol>
+ *     <li>{@link #metrics(boolean)}: 启用排队、执行时长的直方图与 JMX MXBean</li>
+ *     <li>{@link #metricsSink(MetricsSink)}: 注册指标输出端, 如 Micrometer</li>
  * </ol>
  *
  *
+ * <p>{@link #shutdown(long, TimeUnit)}: 停止接收任务, 在截止时间内执行完队列中的任务, 返回被放弃的任务（{@link ShutdownReport}）</p>
  * <p>{@link #closeScheduled()}: 关闭定时任务线程池</p>
  * <p>{@link #closeThreadPool()}: 关闭异步任务线程池</p>
  *
@@ -49,21 +133,6 @@ public class TaskPool {
      */
     private static final Logger log = Logger.getLogger("com.basic.tool.TaskPool");
 
-    /**
-     * 换算为毫秒的时间长度
-     *
-     * <ul>
-     *     <li>天: 24 * 60 * 60 * 1000</li>
-     *     <li>时: 60 * 60 * 1000</li>
-     *     <li>分: 60 * 1000</li>
-     *     <li>秒: 1000</li>
-     * </ul>
-     */
-    private static final long DAY_MILLIS = 86400000,
-            HOURS_MILLIS = 3600000,
-            MINUTES_MILLIS = 60000,
-            SECONDS_SECONDS = 1000;
-
     /**
      * Private Constructor
      */
@@ -122,14 +191,14 @@ public class TaskPool {
      *     {@link Map} 容器的 key、value 如下:
      *     <ul>
      *         <li>key: 客户端区分不同定时任务的唯一自定义标识</li>
-     *         <li>value: 当前指定、计划、执行的定时任务接口 {@link ScheduledFuture}</li>
+     *         <li>value: 当前指定、计划、执行的定时任务 {@link PlanJob}</li>
      *     </ul>
      * </p>
      */
-    private static final Map<String, ScheduledFuture<?>> TASK = new ConcurrentHashMap<>(NUM << 1);
+    private static final Map<String, PlanJob> TASK = new ConcurrentHashMap<>(NUM << 1);
 
     /**
-     * 自定义延迟队列
+     * 自定义延迟队列, 默认基于分层哈希时间轮 {@link TimingWheel}, 首次使用时创建
      *
      * <p>使用场景:</p>
      * <ol>
@@ -137,57 +206,339 @@ public class TaskPool {
      *     <li>任务有时间延迟限制</li>
      *     <li>单机版消息队列</li>
      * </ol>
+     *
+     * <p>刻度为 10 毫秒, 即到期时间的精度为 10 毫秒; 可通过 {@link #delayEngine(DelayEngine)} 替换为持久化等其它实现</p>
+     */
+    private static class Wheel {
+
+        /**
+         * 延迟队列引擎
+         */
+        private static volatile DelayEngine<Object> engine;
+
+        /**
+         * 到期元素的批量分发器, 首次注册监听器时创建
+         */
+        private static ExpireDispatcher<Object> dispatcher;
+
+        /**
+         * 关闭时接收未消费元素的持久化钩子
+         */
+        private static volatile ObjLongConsumer<Object> handoff;
+
+        /**
+         * 获取延迟队列引擎, 未指定时创建默认的时间轮
+         *
+         * @return {@link DelayEngine}
+         */
+        private static DelayEngine<Object> engine() {
+            DelayEngine<Object> e = engine;
+            if (e == null) {
+                synchronized (Wheel.class) {
+                    if ((e = engine) == null) {
+                        engine = e = new TimingWheel<>(10, TimeUnit.MILLISECONDS, 9, new NamedThreadFactory("Custom-wheel-"));
+                    }
+                }
+            }
+            return e;
+        }
+    }
+
+    /**
+     * 计算线程池, 首次使用时创建
+     *
+     * <p>
+     *     CPU 密集的分治任务（批量校验和、差异比较、聚合等）使用独立的 {@link ForkJoinPool}: 并行度为 CPU 核数,
+     *     各工作线程拥有自己的任务队列并从其它线程窃取任务, 与 I/O 线程池（{@link #POOLS}）互不抢占;
+     *     不使用 {@link ForkJoinPool#commonPool()}, 避免与 {@code parallelStream} 及框架代码相互影响
+     * </p>
+     */
+    private static class Compute {
+
+        /**
+         * 计算线程池
+         */
+        private static volatile ForkJoinPool pool;
+
+        /**
+         * 获取计算线程池, 未创建时创建
+         *
+         * @return {@link ForkJoinPool}
+         */
+        private static ForkJoinPool pool() {
+            ForkJoinPool p = pool;
+            if (p == null) {
+                synchronized (Compute.class) {
+                    if ((p = pool) == null) {
+                        if (closed) {
+                            throw new TaskRejectedException("compute", "Task rejected by pool [compute]: TaskPool is shut down");
+                        }
+                        pool = p = new ForkJoinPool(NUM, fjp -> {
+                            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fjp);
+                            t.setName("Custom-compute-" + t.getPoolIndex());
+                            return t;
+                        }, null, false);
+                    }
+                }
+            }
+            return p;
+        }
+    }
+
+    /**
+     * 默认线程池名称, 未指定线程池名称的 {@link #execute(Runnable)}、{@link #submit(Callable)} 均使用此线程池
      */
-    private static final DelayQueue<Item<?>> QUEUE = new DelayQueue<>();
+    public static final String DEFAULT = "default";
 
     /**
-     * 自定义异步线程池
+     * 具名线程池（舱壁）注册容器
+     *
+     * <p>不同业务的任务使用各自的线程池, 例如慢速的 Excel 导出与延迟敏感的缓存刷新互不抢占工作线程</p>
      *
-     * <p>用于执行客户端的调度任务, 保证线程复用, 提高程序的生产力, 节约响应时间</p>
+     * <ul>
+     *     <li>key: 线程池名称</li>
+     *     <li>value: 按 {@link PoolProperties} 创建的线程池</li>
+     * </ul>
+     */
+    private static final Map<String, ManagedPool> POOLS = new ConcurrentHashMap<>(16);
+
+    /**
+     * 线程数自动调整, key 为线程池名称, 仅包含 {@link PoolProperties#isAutoTune()} 的线程池
+     */
+    private static final Map<String, PoolTuner> TUNERS = new ConcurrentHashMap<>(16);
+
+    /**
+     * 指标, 未启用时线程池与定时任务只保留计数器, 不记录时长分布
+     */
+    private static class Metrics {
+
+        /**
+         * 是否启用时长直方图与 JMX
+         */
+        private static volatile boolean enabled;
+
+        /**
+         * 指标输出端
+         */
+        private static final List<MetricsSink> SINKS = new CopyOnWriteArrayList<>();
+
+        /**
+         * JMX 输出, 启用时加入 {@link #SINKS}
+         */
+        private static final JmxSink JMX = new JmxSink();
+
+        /**
+         * 通知全部输出端, 单个输出端异常不影响其它输出端与调用方
+         *
+         * @param event 通知
+         */
+        private static void publish(Consumer<MetricsSink> event) {
+            for (MetricsSink sink : SINKS) {
+                try {
+                    event.accept(sink);
+                } catch (Exception e) {
+                    log.log(Level.WARNING, "Metrics sink Exception: ", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 是否已调用 {@link #shutdown(long, TimeUnit)}, 之后不再创建默认线程池
+     */
+    private static volatile boolean closed;
+
+    /**
+     * 按 key 串行的执行器, key 为线程池名称, 首次使用时创建
+     */
+    private static final Map<String, SerialExecutor> ORDERED = new ConcurrentHashMap<>(16);
+
+    /**
+     * 未关闭的批量收集器, 关闭线程池前写出其中剩余的元素
+     */
+    private static final Set<Batcher<?>> BATCHERS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 定时任务线程池与定时器, 首次调度定时任务（或 {@link #within(CompletableFuture, long, TimeUnit)}）时创建
      *
-     * @see LinkedBlockingDeque
-     * @see NamedThreadFactory
-     * @see Rejected
+     * <p>只使用异步任务或延迟队列的应用不会创建它们; {@link #closeScheduled()}、{@link #shutdown(long, TimeUnit)} 之后创建的立即关闭</p>
      */
-    private static final ExecutorService POOL = new ThreadPoolExecutor(
-            // 线程的数量
-            NUM,
-            // 最大线程数量
-            NUM,
-            // 线程存活时间
-            60,
-            // 时间单位
-            TimeUnit.SECONDS,
-            // 阻塞队列
-            new LinkedBlockingDeque<>(16),
-            // 自定义创建线程的工厂
-            new NamedThreadFactory(),
-            // 自定义拒绝策略
-            new Rejected()
-    );
+    private static class Scheduled {
+
+        /**
+         * 自定义定时任务
+         *
+         * <p>
+         *     用于执行客户端需要周期性的线程任务, <br/>
+         *     <b style="color:red">特别注意的是: </b>{@link ScheduledThreadPoolExecutor} 的构造方法并没有最大线程数的参数, 而是使用
+         *     {@link Integer#MAX_VALUE} 的低 29 位, 说明其可以无限制的开启任意线程执行任务, 造成 OOM.
+         * </p>
+         *
+         * <P style="color:yellow">所以在大量任务系统, 应注意使用</P>
+         *
+         * @see TaskPool#newScheduledThread(Runnable)
+         */
+        private static volatile ScheduledThreadPoolExecutor executor;
+
+        /**
+         * 定时器, 单个守护线程, 只负责在计划时间将 {@link PlanJob} 投递至工作线程池（默认为 {@link #executor}）,
+         * 耗时的任务不会推迟其它任务的触发
+         */
+        private static volatile ScheduledThreadPoolExecutor timer;
+
+        /**
+         * 是否已调用 {@link #closeScheduled()}
+         */
+        private static boolean stopped;
+
+        /**
+         * 获取定时任务线程池, 未创建时创建
+         *
+         * @return {@link ScheduledThreadPoolExecutor}
+         */
+        private static ScheduledThreadPoolExecutor executor() {
+            ScheduledThreadPoolExecutor e = executor;
+            if (e == null) {
+                synchronized (Scheduled.class) {
+                    if ((e = executor) == null) {
+                        // 线程的数量; 自定义创建线程的工厂, 可切换为虚拟线程
+                        executor = e = open(new ScheduledThreadPoolExecutor(NUM, TaskPool::newScheduledThread));
+                    }
+                }
+            }
+            return e;
+        }
+
+        /**
+         * 获取定时器, 未创建时创建
+         *
+         * @return {@link ScheduledThreadPoolExecutor}
+         */
+        private static ScheduledThreadPoolExecutor timer() {
+            ScheduledThreadPoolExecutor t = timer;
+            if (t == null) {
+                synchronized (Scheduled.class) {
+                    if ((t = timer) == null) {
+                        t = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("Custom-timer-", true));
+                        t.setRemoveOnCancelPolicy(true);
+                        timer = t = open(t);
+                    }
+                }
+            }
+            return t;
+        }
+
+        /**
+         * 已关闭时立即关闭新创建的线程池, 之后的调度被拒绝, 与关闭前创建的线程池一致
+         *
+         * @param executor 新创建的线程池
+         * @return {@link ScheduledThreadPoolExecutor}
+         */
+        private static ScheduledThreadPoolExecutor open(ScheduledThreadPoolExecutor executor) {
+            if (closed || stopped) {
+                executor.shutdown();
+            }
+            return executor;
+        }
+    }
 
     /**
-     * 自定义定时任务
+     * 线程池自动调整（{@link PoolTuner}）与批量收集器（{@link Batcher}）的定时器, 首次使用时创建
      *
      * <p>
-     *     用于执行客户端需要周期性的线程任务, <br/>
-     *     <b style="color:red">特别注意的是: </b>{@link ScheduledThreadPoolExecutor} 的构造方法并没有最大线程数的参数, 而是使用
-     *     {@link Integer#MAX_VALUE} 的低 29 位, 说明其可以无限制的开启任意线程执行任务, 造成 OOM.
+     *     守护线程, 与定时任务的定时器（{@link Scheduled#timer}）分离: {@link #closeScheduled()} 只停止定时任务, 不影响自动调整与按时写出;
+     *     由 {@link #shutdown(long, TimeUnit)} 在关闭批量收集器、停止自动调整后关闭
      * </p>
-     *
-     * <P style="color:yellow">所以在大量任务系统, 应注意使用</P>
-     *
-     * @see NamedThreadFactory
-     * @see Rejected
      */
-    private static final ScheduledExecutorService SCHEDULED = new ScheduledThreadPoolExecutor(
-            // 线程的数量
-            NUM,
-            // 自定义创建线程的工厂
-            new NamedThreadFactory(),
-            // 自定义拒绝策略
-            new Rejected()
-    );
+    private static class Ticker {
+
+        /**
+         * 定时器
+         */
+        private static volatile ScheduledThreadPoolExecutor timer;
+
+        /**
+         * 获取定时器, 未创建时创建
+         *
+         * @return {@link ScheduledThreadPoolExecutor}
+         */
+        private static ScheduledThreadPoolExecutor timer() {
+            ScheduledThreadPoolExecutor t = timer;
+            if (t == null) {
+                synchronized (Ticker.class) {
+                    if ((t = timer) == null) {
+                        t = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("Custom-ticker-", true));
+                        t.setRemoveOnCancelPolicy(true);
+                        if (closed) {
+                            // 已关闭时不再调度, 自动调整停用, 批量收集器立即写出
+                            t.shutdown();
+                        }
+                        timer = t;
+                    }
+                }
+            }
+            return t;
+        }
+    }
+
+    /**
+     * 定时任务租约, 首次使用时创建续约线程
+     */
+    private static class Lease {
+
+        /**
+         * 默认租约存储
+         */
+        private static volatile LeaseStore store;
+
+        /**
+         * 当前节点标识
+         */
+        private static final String NODE = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+
+        /**
+         * 续约线程, 与定时器、工作线程分离, 耗时的任务和存储的网络延迟互不影响; 首个租约任务调度时创建
+         */
+        private static volatile ScheduledThreadPoolExecutor renewer;
+
+        /**
+         * 获取续约线程池, 未创建时创建
+         *
+         * @return {@link ScheduledThreadPoolExecutor}
+         */
+        private static ScheduledThreadPoolExecutor renewer() {
+            ScheduledThreadPoolExecutor r = renewer;
+            if (r == null) {
+                synchronized (Lease.class) {
+                    if ((r = renewer) == null) {
+                        r = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("Custom-lease-"));
+                        r.setRemoveOnCancelPolicy(true);
+                        if (closed) {
+                            // 已关闭时不再续约, 与关闭前创建的续约线程一致
+                            r.shutdown();
+                        }
+                        renewer = r;
+                    }
+                }
+            }
+            return r;
+        }
+    }
+
+    /**
+     * 定时任务线程池的平台线程工厂
+     */
+    private static final ThreadFactory SCHEDULED_FACTORY = new NamedThreadFactory("Custom");
+
+    /**
+     * 定时任务线程池是否使用虚拟线程, 只对之后新创建的线程生效
+     */
+    private static volatile boolean scheduledVirtual;
+
+    /**
+     * 定时任务线程池的虚拟线程工厂, 首次使用时创建
+     */
+    private static volatile ThreadFactory scheduledVirtualFactory;
 
     /**
      * 执行线程任务且无返回值, 也可执行一次计划任务（定时任务）
@@ -223,7 +574,102 @@ public class TaskPool {
      * @param command {@link Runnable} 接口实例
      */
     public static void execute(Runnable command) {
-        POOL.execute(command);
+        execute(DEFAULT, command);
+    }
+
+    /**
+     * 在指定的具名线程池中执行线程任务且无返回值
+     *
+     * <pre>{@code
+     *     TaskPool.execute("export", () -> excelService.export());
+     * }</pre>
+     *
+     * @param name    线程池名称, 需先通过 {@link #register(String, PoolProperties)} 注册
+     * @param command {@link Runnable} 接口实例
+     */
+    public static void execute(String name, Runnable command) {
+        pool(name).execute(command);
+    }
+
+    /**
+     * 在默认线程池中按 key 串行执行线程任务
+     *
+     * <pre>{@code
+     *     // 同一订单的事件按到达顺序处理, 不同订单的事件并行处理
+     *     TaskPool.executeOrdered(event.getOrderId(), () -> orderService.apply(event));
+     * }</pre>
+     *
+     * <p>
+     *     相同 key（按 {@link Object#equals(Object)}）的任务按提交顺序依次执行, 上一个任务抛出异常不影响后续任务;
+     *     没有待执行任务的 key 不占用内存和线程, 提交过程不加锁
+     * </p>
+     *
+     * @param key     任务的 key, 如用户 ID、订单号
+     * @param command {@link Runnable} 接口实例
+     */
+    public static void executeOrdered(Object key, Runnable command) {
+        executeOrdered(DEFAULT, key, command);
+    }
+
+    /**
+     * 在指定的具名线程池中按 key 串行执行线程任务, 见 {@link #executeOrdered(Object, Runnable)}
+     *
+     * <p>线程池过载拒绝时抛出 {@link com.basic.exception.TaskRejectedException}, 该 key 尚未执行的任务一并丢弃</p>
+     *
+     * @param name    线程池名称, 需先通过 {@link #register(String, PoolProperties)} 注册
+     * @param key     任务的 key
+     * @param command {@link Runnable} 接口实例
+     */
+    public static void executeOrdered(String name, Object key, Runnable command) {
+        SerialExecutor executor = ORDERED.get(name);
+        if (executor == null) {
+            pool(name);
+            executor = ORDERED.computeIfAbsent(name, n -> new SerialExecutor(() -> pool(n)));
+        }
+        // 通道的投递只在首个任务时发生, 每个任务各自携带提交线程的上下文
+        executor.execute(key, Context.wrap(command));
+    }
+
+    /**
+     * 注册上下文传递器
+     *
+     * <pre>{@code
+     *     TaskPool.propagate(ContextPropagator.of(TenantHolder.TENANT));
+     *
+     *     TenantHolder.TENANT.set("t1");
+     *     TaskPool.execute(() -> log.info(TenantHolder.TENANT.get()));   // t1
+     * }</pre>
+     *
+     * <p>
+     *     提交任务时获取快照, 执行前设置、执行后恢复, 覆盖具名线程池（含虚拟线程池）、按 key 串行执行、定时任务（使用调度时的上下文）、
+     *     延迟队列监听器与批量收集器（使用注册、创建时的上下文）; 未注册任何传递器时没有额外开销. 应在应用启动时注册, 只对之后提交的任务生效
+     * </p>
+     *
+     * @param propagator {@link ContextPropagator}, 重复注册时忽略
+     */
+    public static void propagate(ContextPropagator<?> propagator) {
+        Context.register(Objects.requireNonNull(propagator, "propagator"));
+    }
+
+    /**
+     * 包装任务, 在 {@link TaskPool} 以外的执行器（如 {@link CompletableFuture#thenRunAsync(Runnable, Executor)}）中执行时使用当前线程的上下文
+     *
+     * @param command 任务
+     * @return 未注册传递器时为原任务
+     */
+    public static Runnable wrap(Runnable command) {
+        return Context.wrap(Objects.requireNonNull(command, "command"));
+    }
+
+    /**
+     * 包装有返回值的任务, 见 {@link #wrap(Runnable)}
+     *
+     * @param task 任务
+     * @param <V>  泛型
+     * @return 未注册传递器时为原任务
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        return Context.wrap(Objects.requireNonNull(task, "task"));
     }
 
     /**
@@ -252,109 +698,933 @@ public class TaskPool {
      * @return {@link Future} 异步阻塞接口
      */
     public static <V> Future<V> submit(Callable<V> task) {
-        return POOL.submit(task);
+        return submit(DEFAULT, task);
     }
 
     /**
-     * 等待线程任务执行完成, 并获取其返回值
-     *
-     * <p>在 {@link #submit(Callable)} 执行完后可获取其值</p>
+     * 在指定的具名线程池中带返回值执行线程任务
      *
      * <pre>{@code
-     *     public class Example {
-     *         public void test() {
-     *             Future<Integer> future = TaskPool.submit(() -> {
-     *                 for (int i = 0; i < 10; i++) {
-     *                     System.out.println(i);
-     *                     Thread.sleep(2000);
-     *                 }
-     *                 return 100;
-     *             });
-     *
-     *             System.out.println("我是主线程");
-     *
-     *             // 这里会阻塞等待
-     *             Integer num = TaskPool.get(future);
-     *             System.out.println(num);
-     *         }
-     *     }
+     *     Future<String> future = TaskPool.submit("cache", () -> cacheService.refresh());
      * }</pre>
      *
-     * @param future {@link Future}
-     * @param <R>    泛型
-     * @return R
+     * @param name 线程池名称, 需先通过 {@link #register(String, PoolProperties)} 注册
+     * @param task 实现了 {@link Callable} 线程的任务
+     * @param <V>  泛型
+     * @return {@link Future} 异步阻塞接口
      */
-    public static <R> R get(Future<R> future) {
+    public static <V> Future<V> submit(String name, Callable<V> task) {
+        return pool(name).submit(task);
+    }
+
+    /**
+     * 在默认线程池中按优先级执行线程任务
+     *
+     * <p>
+     *     默认线程池为链表队列, 需先将其注册为 {@link PoolProperties.Queue#PRIORITY} 队列（Spring 中配置
+     *     {@code easy.task-pool.pools.default.queue-type: priority}）, 否则优先级被忽略并输出一次警告, 任务按提交顺序执行
+     * </p>
+     *
+     * <pre>{@code
+     *     TaskPool.register(TaskPool.DEFAULT, new PoolProperties().setThreadNamePrefix("Custom").setQueueType(PoolProperties.Queue.PRIORITY));
+     *     // 用户请求优先于批量重建索引, 但重建任务等待越久越靠前, 不会饿死
+     *     TaskPool.submit(() -> searchService.query(q), 10);
+     *     TaskPool.submit(() -> searchService.reindex(id), -10);
+     * }</pre>
+     *
+     * @param task     实现了 {@link Callable} 线程的任务
+     * @param priority 优先级, 越大越优先, 普通任务为 0
+     * @param <V>      泛型
+     * @return {@link Future} 异步阻塞接口
+     */
+    public static <V> Future<V> submit(Callable<V> task, int priority) {
+        return submit(DEFAULT, task, priority, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在默认线程池中执行线程任务, 超过截止时间仍未开始执行则丢弃
+     *
+     * <pre>{@code
+     *     // 500 毫秒内没有开始执行的预加载, 结果已无人读取
+     *     Future<Page> page = TaskPool.submit(() -> loader.prefetch(next), 500, TimeUnit.MILLISECONDS);
+     * }</pre>
+     *
+     * <p>被丢弃的任务其 {@link Future} 被取消, {@link Future#get()} 抛出 {@link CancellationException}</p>
+     *
+     * @param task     实现了 {@link Callable} 线程的任务
+     * @param deadline 从现在起的截止时长
+     * @param unit     时间单位
+     * @param <V>      泛型
+     * @return {@link Future} 异步阻塞接口
+     */
+    public static <V> Future<V> submit(Callable<V> task, long deadline, TimeUnit unit) {
+        return submit(DEFAULT, task, 0, deadline, unit);
+    }
+
+    /**
+     * 在指定的具名线程池中按优先级与截止时间执行线程任务, 见 {@link #submit(Callable, int)}、{@link #submit(Callable, long, TimeUnit)}
+     *
+     * @param name     线程池名称, 需先通过 {@link #register(String, PoolProperties)} 注册
+     * @param task     实现了 {@link Callable} 线程的任务
+     * @param priority 优先级, 越大越优先, 普通任务为 0
+     * @param deadline 从现在起的截止时长, 小于等于 0 时不限制
+     * @param unit     时间单位
+     * @param <V>      泛型
+     * @return {@link Future} 异步阻塞接口
+     */
+    public static <V> Future<V> submit(String name, Callable<V> task, int priority, long deadline, TimeUnit unit) {
+        FutureTask<V> future = new FutureTask<>(task);
+        long at = deadline > 0 ? System.nanoTime() + unit.toNanos(deadline) : 0;
+        // 恰好为 0 的截止时间表示不限制
+        pool(name).execute(future, priority, at == 0 && deadline > 0 ? 1 : at);
+        return future;
+    }
+
+    /**
+     * 注册具名线程池
+     *
+     * <p>若同名线程池已存在, 则替换之, 旧线程池进入过渡状态（执行完队列中的任务后关闭）</p>
+     *
+     * @param name       线程池名称
+     * @param properties {@link PoolProperties} 线程池配置
+     */
+    public static void register(String name, PoolProperties properties) {
+        ManagedPool pool = create(name, properties);
+        PoolTuner tuner = TUNERS.remove(name);
+        if (tuner != null) {
+            tuner.stop();
+        }
+        if (properties.isAutoTune()) {
+            if (pool instanceof PoolExecutor) {
+                tuner = new PoolTuner(name, (PoolExecutor) pool, properties);
+                TUNERS.put(name, tuner);
+                tuner.start(Ticker.timer());
+            } else {
+                log.warning("Auto-tuning is not supported by virtual thread pool [" + name + "]");
+            }
+        }
+        if (Metrics.enabled) {
+            pool.instrument(true);
+        }
+        ManagedPool old = POOLS.put(name, pool);
+        if (old != null) {
+            old.shutdown();
+        } else {
+            Metrics.publish(sink -> sink.poolAdded(name));
+        }
+    }
+
+    /**
+     * 获取已注册的线程池名称
+     *
+     * @return 线程池名称集合
+     */
+    public static Set<String> names() {
+        return Collections.unmodifiableSet(POOLS.keySet());
+    }
+
+    /**
+     * 定时任务线程池是否使用虚拟线程（JDK 21+）
+     *
+     * <p>定时任务线程池的线程在首次调度时才会创建, 所以应在首次调用 {@code plan} 之前设置; 低版本 JDK 下此设置无效</p>
+     *
+     * @param virtual 是否使用虚拟线程
+     */
+    public static void virtualScheduled(boolean virtual) {
+        if (virtual && !VirtualThreads.available()) {
+            log.warning("Virtual threads are not supported by the current JDK, scheduled pool keeps platform threads");
+            return;
+        }
+        scheduledVirtual = virtual;
+    }
+
+    /**
+     * 获取线程池因过载而拒绝（含被挤出队列）的任务数量
+     *
+     * @param name 线程池名称
+     * @return 拒绝次数
+     */
+    public static long rejected(String name) {
+        return pool(name).getRejected();
+    }
+
+    /**
+     * 获取线程池因超过截止时间而丢弃（未执行）的任务数量
+     *
+     * @param name 线程池名称
+     * @return 丢弃次数
+     */
+    public static long expired(String name) {
+        return pool(name).getExpired();
+    }
+
+    /**
+     * 获取线程池自动调整线程数的最近一次决策（线程数、吞吐量、执行时长、排队时长等）
+     *
+     * @param name 线程池名称
+     * @return {@link PoolTuning}, 未启用 {@link PoolProperties#isAutoTune()} 或尚未采样时为 null
+     */
+    public static PoolTuning tuning(String name) {
+        PoolTuner tuner = TUNERS.get(name);
+        return tuner == null ? null : tuner.last();
+    }
+
+    /**
+     * 获取线程池的运行状态快照: 线程数、队列深度、完成/拒绝/过期数量, 以及排队时长、执行时长的直方图
+     *
+     * <pre>{@code
+     *     TaskPool.metrics(true);
+     *     PoolStats stats = TaskPool.stats("export");
+     *     long p99 = stats.getWaitTimes().percentile(0.99);
+     * }</pre>
+     *
+     * @param name 线程池名称
+     * @return {@link PoolStats}, 未启用 {@link #metrics(boolean)} 时直方图为空
+     */
+    public static PoolStats stats(String name) {
+        return pool(name).stats();
+    }
+
+    /**
+     * 启用或停用指标
+     *
+     * <p>
+     *     启用后, 所有线程池与定时任务记录时长直方图（{@link LatencyHistogram}）, 并向平台 MBeanServer 注册 {@link PoolMXBean}、{@link PlanMXBean};
+     *     停用后注销 MXBean, 记录样本只剩一次 volatile 读. 重新启用时直方图从零开始统计
+     * </p>
+     *
+     * @param enabled 是否启用
+     */
+    public static synchronized void metrics(boolean enabled) {
+        if (Metrics.enabled == enabled) {
+            return;
+        }
+        Metrics.enabled = enabled;
+        POOLS.values().forEach(pool -> pool.instrument(enabled));
+        TASK.values().forEach(job -> job.instrument(enabled));
+        if (enabled) {
+            metricsSink(Metrics.JMX);
+        } else {
+            Metrics.SINKS.remove(Metrics.JMX);
+            Metrics.JMX.close();
+        }
+    }
+
+    /**
+     * 注册指标输出端, 注册时对已存在的线程池与定时任务逐个回调
+     *
+     * @param sink {@link MetricsSink}
+     */
+    public static void metricsSink(MetricsSink sink) {
+        Metrics.SINKS.add(Objects.requireNonNull(sink, "sink"));
+        POOLS.keySet().forEach(sink::poolAdded);
+        TASK.keySet().forEach(sink::planAdded);
+    }
+
+    /**
+     * 等待线程任务执行完成, 并获取其返回值
+     *
+     * <p>在 {@link #submit(Callable)} 执行完后可获取其值</p>
+     *
+     * <pre>{@code
+     *     public class Example {
+     *         public void test() {
+     *             Future<Integer> future = TaskPool.submit(() -> {
+     *                 for (int i = 0; i < 10; i++) {
+     *                     System.out.println(i);
+     *                     Thread.sleep(2000);
+     *                 }
+     *                 return 100;
+     *             });
+     *
+     *             System.out.println("我是主线程");
+     *
+     *             // 这里会阻塞等待
+     *             Integer num = TaskPool.get(future);
+     *             System.out.println(num);
+     *         }
+     *     }
+     * }</pre>
+     *
+     * @param future {@link Future}
+     * @param <R>    泛型
+     * @return R
+     */
+    public static <R> R get(Future<R> future) {
         try {
             return future.get();
         } catch (InterruptedException | ExecutionException e) {
             log.log(Level.SEVERE, "Thread Exception: ", e);
         }
-        return null;
+        return null;
+    }
+
+    /**
+     * 在默认线程池中异步执行, 并返回 {@link CompletableFuture}
+     *
+     * <pre>{@code
+     *     CompletableFuture<User> user = TaskPool.supplyAsync(() -> userService.get(id));
+     *     CompletableFuture<List<Order>> orders = TaskPool.supplyAsync(() -> orderService.list(id));
+     *     // 耗时为两者中较慢的一个, 而不是两者之和
+     *     return user.thenCombine(orders, Page::new).join();
+     * }</pre>
+     *
+     * @param supplier {@link Supplier}
+     * @param <V>      泛型
+     * @return {@link CompletableFuture}
+     */
+    public static <V> CompletableFuture<V> supplyAsync(Supplier<V> supplier) {
+        return supplyAsync(DEFAULT, supplier);
+    }
+
+    /**
+     * 在指定的具名线程池中异步执行, 并返回 {@link CompletableFuture}
+     *
+     * <p>线程池过载时直接抛出 {@link RejectedExecutionException}</p>
+     *
+     * @param name     线程池名称
+     * @param supplier {@link Supplier}
+     * @param <V>      泛型
+     * @return {@link CompletableFuture}
+     */
+    public static <V> CompletableFuture<V> supplyAsync(String name, Supplier<V> supplier) {
+        return CompletableFuture.supplyAsync(supplier, pool(name));
+    }
+
+    /**
+     * 为异步结果设置截止时间, 超时后以 {@link TimeoutException} 异常完成并尝试取消原任务
+     *
+     * @param future  {@link CompletableFuture}
+     * @param timeout 超时时长
+     * @param unit    时间单位
+     * @param <V>     泛型
+     * @return 新的 {@link CompletableFuture}
+     */
+    public static <V> CompletableFuture<V> within(CompletableFuture<V> future, long timeout, TimeUnit unit) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        ScheduledFuture<?> timer = Scheduled.executor().schedule(() -> {
+            if (result.completeExceptionally(new TimeoutException("Deadline exceeded: " + timeout + " " + unit))) {
+                future.cancel(true);
+            }
+        }, timeout, unit);
+        future.whenComplete((v, e) -> {
+            timer.cancel(false);
+            if (e == null) {
+                result.complete(v);
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 等待全部异步结果完成, 并按入参顺序收集结果
+     *
+     * <p>任意一个失败或超出截止时间, 则整体以该异常完成, 并取消其余未完成的任务</p>
+     *
+     * @param futures {@link CompletableFuture} 集合
+     * @param timeout 超时时长
+     * @param unit    时间单位
+     * @param <V>     泛型
+     * @return 按入参顺序排列的结果
+     */
+    public static <V> CompletableFuture<List<V>> allOf(Collection<? extends CompletableFuture<? extends V>> futures,
+                                                       long timeout, TimeUnit unit) {
+        CompletableFuture<?>[] array = futures.toArray(new CompletableFuture<?>[0]);
+        CompletableFuture<List<V>> all = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(array.length);
+        if (array.length == 0) {
+            all.complete(new ArrayList<>());
+        }
+        for (CompletableFuture<?> future : array) {
+            future.whenComplete((v, e) -> {
+                if (e != null) {
+                    all.completeExceptionally(e);
+                } else if (remaining.decrementAndGet() == 0) {
+                    List<V> list = new ArrayList<>(array.length);
+                    for (CompletableFuture<?> f : array) {
+                        list.add((V) f.join());
+                    }
+                    all.complete(list);
+                }
+            });
+        }
+        CompletableFuture<List<V>> result = within(all, timeout, unit);
+        result.whenComplete((v, e) -> {
+            if (e != null) {
+                for (CompletableFuture<?> f : array) {
+                    f.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 取最先成功完成的异步结果
+     *
+     * <p>与 {@link CompletableFuture#anyOf(CompletableFuture[])} 不同, 单个任务失败不会导致整体失败; 全部失败时以最后一个异常完成</p>
+     *
+     * <p>得到结果或超出截止时间后, 取消其余未完成的任务</p>
+     *
+     * @param futures {@link CompletableFuture} 集合
+     * @param timeout 超时时长
+     * @param unit    时间单位
+     * @param <V>     泛型
+     * @return 最先成功的结果
+     */
+    public static <V> CompletableFuture<V> anyOf(Collection<? extends CompletableFuture<? extends V>> futures,
+                                                 long timeout, TimeUnit unit) {
+        CompletableFuture<?>[] array = futures.toArray(new CompletableFuture<?>[0]);
+        CompletableFuture<V> any = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(array.length);
+        if (array.length == 0) {
+            any.completeExceptionally(new NoSuchElementException("No futures given"));
+        }
+        for (CompletableFuture<?> future : array) {
+            future.whenComplete((v, e) -> {
+                if (e == null) {
+                    any.complete((V) v);
+                } else if (remaining.decrementAndGet() == 0) {
+                    any.completeExceptionally(e);
+                }
+            });
+        }
+        CompletableFuture<V> result = within(any, timeout, unit);
+        result.whenComplete((v, e) -> {
+            for (CompletableFuture<?> f : array) {
+                f.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 在默认线程池中以限定的并行度映射集合元素, 并按入参顺序收集结果
+     *
+     * <pre>{@code
+     *     // 最多同时发起 4 个远程调用
+     *     List<Detail> details = TaskPool.parallelMap(ids, remote::detail, 4).join();
+     * }</pre>
+     *
+     * @param items       集合
+     * @param mapper      映射函数
+     * @param parallelism 并行度, 即最多同时占用的工作线程数
+     * @param <T>         泛型
+     * @param <R>         泛型
+     * @return 按入参顺序排列的结果
+     */
+    public static <T, R> CompletableFuture<List<R>> parallelMap(Collection<T> items, Function<? super T, ? extends R> mapper,
+                                                               int parallelism) {
+        return parallelMap(DEFAULT, items, mapper, parallelism);
+    }
+
+    /**
+     * 在指定的具名线程池中以限定的并行度映射集合元素, 并按入参顺序收集结果
+     *
+     * <p>任意一个元素映射失败, 则整体以该异常完成, 其余尚未开始的元素不再执行</p>
+     *
+     * @param name        线程池名称
+     * @param items       集合
+     * @param mapper      映射函数
+     * @param parallelism 并行度, 即最多同时占用的工作线程数
+     * @param <T>         泛型
+     * @param <R>         泛型
+     * @return 按入参顺序排列的结果
+     */
+    public static <T, R> CompletableFuture<List<R>> parallelMap(String name, Collection<T> items,
+                                                               Function<? super T, ? extends R> mapper, int parallelism) {
+        Object[] results = new Object[items.size()];
+        return parallelMap(name, items, mapper, parallelism, (i, r) -> results[i] = r)
+                .thenApply(v -> {
+                    List<R> list = new ArrayList<>(results.length);
+                    for (Object r : results) {
+                        list.add((R) r);
+                    }
+                    return list;
+                });
+    }
+
+    /**
+     * 在默认线程池中以限定的并行度映射集合元素, 并按完成顺序收集结果
+     *
+     * @param items       集合
+     * @param mapper      映射函数
+     * @param parallelism 并行度, 即最多同时占用的工作线程数
+     * @param <T>         泛型
+     * @param <R>         泛型
+     * @return 按完成顺序排列的结果
+     */
+    public static <T, R> CompletableFuture<List<R>> parallelMapUnordered(Collection<T> items, Function<? super T, ? extends R> mapper,
+                                                                        int parallelism) {
+        return parallelMapUnordered(DEFAULT, items, mapper, parallelism);
+    }
+
+    /**
+     * 在指定的具名线程池中以限定的并行度映射集合元素, 并按完成顺序收集结果
+     *
+     * @param name        线程池名称
+     * @param items       集合
+     * @param mapper      映射函数
+     * @param parallelism 并行度, 即最多同时占用的工作线程数
+     * @param <T>         泛型
+     * @param <R>         泛型
+     * @return 按完成顺序排列的结果
+     */
+    public static <T, R> CompletableFuture<List<R>> parallelMapUnordered(String name, Collection<T> items,
+                                                                        Function<? super T, ? extends R> mapper, int parallelism) {
+        // 映射结果可为 null
+        List<R> results = Collections.synchronizedList(new ArrayList<>(items.size()));
+        return parallelMap(name, items, mapper, parallelism, (i, r) -> results.add(r))
+                .thenApply(v -> new ArrayList<>(results));
+    }
+
+    /**
+     * 启动 parallelism 个工作任务, 依次领取下标并执行映射
+     *
+     * @param name        线程池名称
+     * @param items       集合
+     * @param mapper      映射函数
+     * @param parallelism 并行度
+     * @param collector   结果收集, 参数为下标与映射结果
+     * @param <T>         泛型
+     * @param <R>         泛型
+     * @return 全部映射完成后完成; 线程池拒绝工作任务时以 {@link RejectedExecutionException} 异常完成, 已启动的工作任务不再领取元素
+     */
+    private static <T, R> CompletableFuture<Void> parallelMap(String name, Collection<T> items, Function<? super T, ? extends R> mapper,
+                                                              int parallelism, IntIndexedConsumer<R> collector) {
+        Object[] array = items.toArray();
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        int workers = Math.max(1, Math.min(parallelism, array.length));
+        Executor executor = pool(name);
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(workers);
+        for (int w = 0; w < workers; w++) {
+            CompletableFuture<Void> future;
+            try {
+                future = CompletableFuture.runAsync(() -> {
+                    int i;
+                    while (!failed.get() && (i = next.getAndIncrement()) < array.length) {
+                        try {
+                            collector.accept(i, mapper.apply((T) array[i]));
+                        } catch (RuntimeException | Error e) {
+                            failed.set(true);
+                            throw e;
+                        }
+                    }
+                }, executor);
+            } catch (RejectedExecutionException e) {
+                // 已启动的工作任务不再领取新的下标, 整体以拒绝异常完成
+                failed.set(true);
+                result.completeExceptionally(e);
+                break;
+            }
+            future.whenComplete((v, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else if (remaining.decrementAndGet() == 0) {
+                    result.complete(null);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 在计算线程池中执行分治任务, 阻塞至完成
+     *
+     * <pre>{@code
+     *     class Checksum extends RecursiveTask<Long> { ... }
+     *     long crc = TaskPool.compute(new Checksum(file, 0, size));
+     * }</pre>
+     *
+     * <p>在计算线程池的工作线程中调用时直接在当前线程中执行（子任务照常 fork）, 不会占用另一个工作线程等待</p>
+     *
+     * @param task {@link ForkJoinTask}
+     * @param <V>  泛型
+     * @return 任务的结果, 任务异常时原样抛出
+     */
+    public static <V> V compute(ForkJoinTask<V> task) {
+        ForkJoinPool pool = Compute.pool();
+        return ForkJoinTask.getPool() == pool ? task.invoke() : pool.invoke(task);
+    }
+
+    /**
+     * 并行归约, 粒度自动计算
+     *
+     * @param items       元素
+     * @param identity    初始值
+     * @param accumulator 累加
+     * @param combiner    合并两个区间的结果
+     * @param <T>         元素的类型
+     * @param <R>         结果的类型
+     * @return 归约结果
+     * @see #parallelReduce(List, Object, BiFunction, BinaryOperator, int)
+     */
+    public static <T, R> R parallelReduce(List<? extends T> items, R identity, BiFunction<R, ? super T, R> accumulator,
+                                          BinaryOperator<R> combiner) {
+        return parallelReduce(items, identity, accumulator, combiner, 0);
+    }
+
+    /**
+     * 并行归约: 按粒度将元素拆分为若干区间, 各区间从初始值开始累加, 再按区间顺序两两合并
+     *
+     * <pre>{@code
+     *     long total = TaskPool.parallelReduce(orders, 0L, (sum, order) -> sum + order.getAmount(), Long::sum, 1024);
+     * }</pre>
+     *
+     * <p>
+     *     与 {@link java.util.stream.Stream#reduce(Object, BiFunction, BinaryOperator)} 相同, 初始值会被每个区间使用,
+     *     须为合并的单位元（如求和的 0）; 累加与合并应无副作用, 合并须满足结合律
+     * </p>
+     *
+     * @param items       元素, 不支持随机访问时先复制
+     * @param identity    初始值
+     * @param accumulator 累加
+     * @param combiner    合并两个区间的结果
+     * @param granularity 粒度, 每个区间最多的元素数量, 不大于 0 时自动计算（每个工作线程约 8 个区间）
+     * @param <T>         元素的类型
+     * @param <R>         结果的类型
+     * @return 归约结果
+     */
+    public static <T, R> R parallelReduce(List<? extends T> items, R identity, BiFunction<R, ? super T, R> accumulator,
+                                          BinaryOperator<R> combiner, int granularity) {
+        List<? extends T> list = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        int g = ParallelTasks.granularity(list.size(), granularity, NUM);
+        return compute(new ParallelTasks.Reduce<>(list, 0, list.size(), g, identity, accumulator, combiner, Context.capture()));
+    }
+
+    /**
+     * 并行遍历, 粒度自动计算
+     *
+     * @param items  元素
+     * @param action 对每个元素执行的操作
+     * @param <T>    泛型
+     * @see #parallelForEach(List, Consumer, int)
+     */
+    public static <T> void parallelForEach(List<? extends T> items, Consumer<? super T> action) {
+        parallelForEach(items, action, 0);
+    }
+
+    /**
+     * 并行遍历, 阻塞至全部元素处理完毕; 区间内按下标顺序执行, 区间之间无顺序
+     *
+     * <p>用于 CPU 密集的操作, 阻塞 I/O 应使用 {@link #parallelMap(String, Collection, Function, int)} 在 I/O 线程池中执行</p>
+     *
+     * @param items       元素, 不支持随机访问时先复制
+     * @param action      对每个元素执行的操作
+     * @param granularity 粒度, 每个区间最多的元素数量, 不大于 0 时自动计算
+     * @param <T>         泛型
+     */
+    public static <T> void parallelForEach(List<? extends T> items, Consumer<? super T> action, int granularity) {
+        List<? extends T> list = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        int g = ParallelTasks.granularity(list.size(), granularity, NUM);
+        compute(new ParallelTasks.ForEach<>(list, 0, list.size(), g, (i, t) -> action.accept(t), Context.capture()));
+    }
+
+    /**
+     * 并行排序（稳定）, 粒度自动计算
+     *
+     * @param array      数组
+     * @param comparator 比较器
+     * @param <T>        泛型
+     * @see #parallelSort(Object[], Comparator, int)
+     */
+    public static <T> void parallelSort(T[] array, Comparator<? super T> comparator) {
+        parallelSort(array, comparator, 0);
+    }
+
+    /**
+     * 并行排序（稳定）: 按粒度拆分后各区间使用 {@link Arrays#sort(Object[], int, int, Comparator)}, 再两两归并, 需要与数组等长的缓冲区
+     *
+     * @param array       数组
+     * @param comparator  比较器
+     * @param granularity 粒度, 不大于 0 时自动计算（不小于 8192）
+     * @param <T>         泛型
+     */
+    public static <T> void parallelSort(T[] array, Comparator<? super T> comparator, int granularity) {
+        Objects.requireNonNull(comparator, "comparator");
+        int g = Math.max(ParallelTasks.granularity(array.length, granularity, NUM), granularity > 0 ? 1 : 8192);
+        if (array.length <= g) {
+            Arrays.sort(array, comparator);
+            return;
+        }
+        compute(new ParallelTasks.Sort<>(array, array.clone(), 0, array.length, g, comparator));
+    }
+
+    /**
+     * 并行排序列表（稳定）, 与 {@link List#sort(Comparator)} 相同, 排序数组后依次写回
+     *
+     * @param list       列表
+     * @param comparator 比较器
+     * @param <T>        泛型
+     */
+    public static <T> void parallelSort(List<T> list, Comparator<? super T> comparator) {
+        T[] array = (T[]) list.toArray();
+        parallelSort(array, comparator, 0);
+        ListIterator<T> iterator = list.listIterator();
+        for (T t : array) {
+            iterator.next();
+            iterator.set(t);
+        }
+    }
+
+    /**
+     * 创建批量收集器, 在默认线程池中写出, 缓冲区容量为批量大小的 16 倍
+     *
+     * <pre>{@code
+     *     Batcher<Audit> audits = TaskPool.batcher(500, 200, TimeUnit.MILLISECONDS, auditMapper::insertBatch);
+     *     // 请求线程中逐条提交, 不阻塞
+     *     audits.offer(audit);
+     * }</pre>
+     *
+     * @param maxSize  批量大小, 攒够即写出
+     * @param maxDelay 最早的未写出元素最多等待的时长
+     * @param unit     时间单位
+     * @param consumer 批量消费, 如 {@code RootMapper::insertBatch}
+     * @param <T>      泛型
+     * @return {@link Batcher}
+     */
+    public static <T> Batcher<T> batcher(int maxSize, long maxDelay, TimeUnit unit, Consumer<List<T>> consumer) {
+        return batcher(DEFAULT, maxSize, maxSize << 4, maxDelay, unit, consumer);
+    }
+
+    /**
+     * 创建批量收集器
+     *
+     * <p>{@link #closeThreadPool()} 会先关闭所有未关闭的收集器, 写出剩余元素</p>
+     *
+     * @param name     线程池名称, 需先通过 {@link #register(String, PoolProperties)} 注册
+     * @param maxSize  批量大小, 攒够即写出
+     * @param capacity 缓冲区容量, 写出跟不上时最多缓存的元素数量, 超出后 {@link Batcher#offer(Object)} 返回 false
+     * @param maxDelay 最早的未写出元素最多等待的时长
+     * @param unit     时间单位
+     * @param consumer 批量消费
+     * @param <T>      泛型
+     * @return {@link Batcher}
+     */
+    public static <T> Batcher<T> batcher(String name, int maxSize, int capacity, long maxDelay, TimeUnit unit,
+                                         Consumer<List<T>> consumer) {
+        pool(name);
+        return new Batcher<>(maxSize, capacity, unit.toNanos(maxDelay), consumer, () -> pool(name), Ticker.timer(), BATCHERS);
+    }
+
+    /**
+     * 向延迟队列中添加待执行的元素（数据）
+     *
+     * <pre>{@code
+     *     public class Example {
+     *
+     *         public Example() {
+     *             while (true) {
+     *                 String str = TaskPool.pull();
+     *                 System.out.println(str);
+     *             }
+     *         }
+     *
+     *         public static void producer() {
+     *             // 模拟往队列中添加元素
+     *             for (int i = 0; i < 100; i++) {
+     *                 TaskPool.push(5, "我是数据" + i, TimeUnit.MINUTES);
+     *             }
+     *         }
+     *     }
+     * }</pre>
+     *
+     * <p>插入与取消均为 O(1), 返回的 {@link Timeout} 可用于取消该元素</p>
+     *
+     * @param activeTime 过期时间
+     * @param t          队列元素
+     * @param unit       时间单位
+     * @param <T>        泛型
+     * @return {@link Timeout} 取消句柄
+     */
+    public static <T> Timeout push(long activeTime, T t, TimeUnit unit) {
+        return ((DelayEngine<T>) Wheel.engine()).push(activeTime, t, unit);
+    }
+
+    /**
+     * 取出延迟队列中的元素
+     *
+     * <pre>{@code
+     *     public class Example {
+     *         public Example() {
+     *             while (true) {
+     *                 String str = TaskPool.pull();
+     *                 System.out.println(str);
+     *             }
+     *         }
+     *
+     *         public static void producer() {
+     *             // 模拟往队列中添加元素
+     *             for (int i = 0; i < 100; i++) {
+     *                 TaskPool.push(5, "我是数据" + i, TimeUnit.MINUTES);
+     *             }
+     *         }
+     *     }
+     * }</pre>
+     *
+     * @param <T> 泛型
+     * @return 队列中的元素
+     */
+    public static <T> T pull() {
+        try {
+            // 直接在调用方线程中等待, 不占用线程池的工作线程
+            return (T) Wheel.engine().take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.log(Level.SEVERE, "Thread Exception: ", e);
+        }
+        return null;
+    }
+
+    /**
+     * 非阻塞地批量取出当前已到期的元素
+     *
+     * @param max 最多取出的数量
+     * @param <T> 泛型
+     * @return 已到期的元素, 无到期元素时为空集合
+     */
+    public static <T> List<T> drain(int max) {
+        List<T> list = new ArrayList<>();
+        ((DelayEngine<T>) Wheel.engine()).drain(list, max);
+        return list;
+    }
+
+    /**
+     * 注册到期元素的批量监听器
+     *
+     * <p>
+     *     由专用的分发线程一次性取出所有已到期的元素, 再按 batchSize 分批回调,
+     *     大量元素同时到期时（如几千个订单同时超时）只需少量的批量处理, 例如一条 {@code update ... where id in (...)}.
+     * </p>
+     *
+     * <pre>{@code
+     *     TaskPool.<Long>onExpire(500, ids -> orderMapper.closeBatch(ids));
+     *
+     *     TaskPool.push(30, orderId, TimeUnit.MINUTES);
+     * }</pre>
+     *
+     * <b style="color:red">
+     *     每个监听器都会收到全部到期元素, 且与 {@link #pull()} 竞争消费; 监听器在分发线程中执行, 耗时的处理应自行提交至线程池
+     * </b>
+     *
+     * @param batchSize 每批最多的元素数量
+     * @param consumer  批量消费
+     * @param <T>       泛型
+     */
+    public static <T> void onExpire(int batchSize, Consumer<List<T>> consumer) {
+        synchronized (Wheel.class) {
+            if (Wheel.dispatcher == null) {
+                Wheel.dispatcher = new ExpireDispatcher<>(Wheel.engine(), new NamedThreadFactory("Custom-expire-"),
+                        batchSize, (Consumer) consumer);
+            } else {
+                Wheel.dispatcher.register(batchSize, (Consumer) consumer);
+            }
+        }
+    }
+
+    /**
+     * 替换延迟队列的引擎, 例如重启后不丢失的 {@link DelayJournal}
+     *
+     * <pre>{@code
+     *     TaskPool.delayEngine(new DelayJournal<>(Paths.get("/data/delay")));
+     * }</pre>
+     *
+     * <b style="color:red">
+     *     应在应用启动时、使用延迟队列之前调用; 原引擎将被关闭, 其中未到期的元素随之丢弃,
+     *     已注册 {@link #onExpire(int, Consumer)} 监听器后不可再替换
+     * </b>
+     *
+     * @param engine {@link DelayEngine}
+     */
+    public static void delayEngine(DelayEngine<?> engine) {
+        Objects.requireNonNull(engine, "engine");
+        DelayEngine<Object> old;
+        synchronized (Wheel.class) {
+            if (Wheel.dispatcher != null) {
+                throw new IllegalStateException("Delay engine cannot be replaced after onExpire listeners are registered");
+            }
+            old = Wheel.engine;
+            Wheel.engine = (DelayEngine<Object>) engine;
+        }
+        if (old != null && old != engine) {
+            if (old.size() > 0) {
+                log.warning("Replacing delay engine, " + old.size() + " pending elements are discarded");
+            }
+            old.close();
+        }
     }
 
     /**
-     * 向延迟队列中添加待执行的元素（数据）
+     * 设置延迟队列的持久化钩子, {@link #shutdown(long, TimeUnit)} 时将未消费的元素（未到期的, 以及已到期但未被取出的）连同剩余延迟交给它,
+     * 重启后可按剩余延迟重新 {@link #push(long, Object, TimeUnit)}
      *
      * <pre>{@code
-     *     public class Example {
-     *
-     *         public Example() {
-     *             while (true) {
-     *                 String str = TaskPool.pull();
-     *                 System.out.println(str);
-     *             }
-     *         }
-     *
-     *         public static void producer() {
-     *             // 模拟往队列中添加元素
-     *             for (int i = 0; i < 100; i++) {
-     *                 TaskPool.push(5, "我是数据" + i, TimeUnit.MINUTES);
-     *             }
-     *         }
-     *     }
+     *     TaskPool.<Order>delayHandoff((order, remaining) -> orderMapper.saveDelay(order.getId(), remaining));
      * }</pre>
      *
-     * @param activeTime 过期时间
-     * @param t          队列元素
-     * @param unit       时间单位
-     * @param <T>        泛型
+     * <p>自身已持久化的引擎（如 {@link DelayJournal}）无需设置, 关闭后其中的元素保留在磁盘中</p>
+     *
+     * @param handoff 接收元素与剩余延迟（毫秒, 已到期为 0）, 为 null 时取消
+     * @param <T>     泛型
      */
-    public static <T> void push(long activeTime, T t, TimeUnit unit) {
-        QUEUE.offer(new Item(activeTime, t, unit));
+    public static <T> void delayHandoff(ObjLongConsumer<? super T> handoff) {
+        Wheel.handoff = (ObjLongConsumer<Object>) handoff;
     }
 
     /**
-     * 取出延迟队列中的元素
+     * 定时任务
      *
      * <pre>{@code
-     *     public class Example {
-     *         public Example() {
-     *             while (true) {
-     *                 String str = TaskPool.pull();
-     *                 System.out.println(str);
-     *             }
-     *         }
+     *     // 每天凌晨 2 点（上海时间）在 report 线程池中执行
+     *     TaskPool.plan(reportService::daily, "daily-report",
+     *             PlanSpec.cron("0 0 2 * * ?").zone(ZoneId.of("Asia/Shanghai")).pool("report"));
      *
-     *         public static void producer() {
-     *             // 模拟往队列中添加元素
-     *             for (int i = 0; i < 100; i++) {
-     *                 TaskPool.push(5, "我是数据" + i, TimeUnit.MINUTES);
-     *             }
-     *         }
-     *     }
+     *     // 每次执行结束 30 秒后再次执行
+     *     TaskPool.plan(syncService::pull, "sync", PlanSpec.fixedDelay(30, TimeUnit.SECONDS));
+     *
+     *     // 每 5 分钟执行一次, 错过（如上次执行超过 5 分钟）时直接跳过
+     *     TaskPool.plan(cacheService::refresh, "refresh",
+     *             PlanSpec.fixedRate(5, TimeUnit.MINUTES).misfire(PlanSpec.Misfire.SKIP));
      * }</pre>
      *
-     * @param <T> 泛型
-     * @return 队列中的元素
+     * <p>
+     *     由单个定时器线程触发, 在 {@link PlanSpec#pool(String)} 指定的线程池（默认为定时任务线程池）中执行;
+     *     同一任务的多次执行不会并发, 执行抛出异常不影响后续执行, 最近的执行记录可通过 {@link #history(String)} 获取
+     * </p>
+     *
+     * <b style="color:red">会加入 {@link #TASK} 容器, 方便暂停/启动操作; 相同 key 的旧任务会被取消</b>
+     *
+     * @param command {@link Runnable} 接口实例
+     * @param key     该任务的唯一标识（客户端自定义）, 用于区分不同的定时任务
+     * @param spec    {@link PlanSpec} 调度配置
      */
-    public static <T> T pull() {
-        try {
-            return submit(() -> (T) QUEUE.take().getT()).get();
-        } catch (InterruptedException | ExecutionException e) {
-            log.log(Level.SEVERE, "Thread Exception: ", e);
+    public static void plan(Runnable command, String key, PlanSpec spec) {
+        String name = spec.getPool();
+        PlanLease lease = null;
+        if (spec.getLeaseTtl() > 0) {
+            LeaseStore store = spec.getLeaseStore() == null ? Lease.store : spec.getLeaseStore();
+            if (store == null) {
+                throw new IllegalStateException("No lease store configured for plan: " + key);
+            }
+            lease = new PlanLease(store, key, Lease.NODE, spec.getLeaseTtl());
         }
-        return null;
+        PlanJob job = new PlanJob(key, command, spec, Scheduled.timer(), name == null ? Scheduled::executor : () -> pool(name),
+                lease, lease == null ? null : Lease.renewer());
+        if (Metrics.enabled) {
+            job.instrument(true);
+        }
+        PlanJob old = TASK.put(key, job);
+        if (old != null) {
+            old.cancel(false);
+        } else {
+            Metrics.publish(sink -> sink.planAdded(key));
+        }
+        job.start();
     }
 
     /**
@@ -370,6 +1640,8 @@ public class TaskPool {
      *     TaskPool.plan(() -> System.out.println("立马执行哈!"), "unique", 0, 5, TimeUnit.MINUTES);
      * }</pre>
      *
+     * <p>等同于固定频率的 {@link #plan(Runnable, String, PlanSpec)}, 错过的执行逐次补执行（{@link PlanSpec.Misfire#CATCH_UP}）</p>
+     *
      * <b style="color:red">会加入 {@link #TASK} 容器, 方便暂停/启动操作</b>
      *
      * @param command {@link Runnable} 接口实例
@@ -380,14 +1652,13 @@ public class TaskPool {
      */
     public static void plan(Runnable command, String key,
                             long delay, long period, TimeUnit timer) {
-        ScheduledFuture<?> future = SCHEDULED.scheduleAtFixedRate(command, delay, period, timer);
-        TASK.put(key, future);
+        plan(command, key, PlanSpec.fixedRate(period, timer)
+                .initialDelay(delay, timer)
+                .misfire(PlanSpec.Misfire.CATCH_UP));
     }
 
     /**
-     * 定时任务
-     *
-     * <p style="color:red">时间单位: 天、时、分、秒</p>
+     * 定时任务, 首次延时时间点按东八区（{@code +8}）解析
      *
      * <pre>{@code
      *     // 首次执行于 2099-01-01 00:00:00, 往后每 30 天执行一次
@@ -413,17 +1684,97 @@ public class TaskPool {
      * @param key     该任务的唯一标识（客户端自定义）, 用于区分不同的定时任务
      * @param day     指定的首次延时时间点, <b style="color:red">格式为 yyyy-MM-dd HH:mm:ss</b>
      * @param period  首次执行后, 后面定时任务的执行频率
-     * @param timer   {@link TimeUnit} 时间单位, <b style="color:red">需要注意, 只支持天、时、分、秒</b>
+     * @param timer   {@link TimeUnit} 时间单位, 不小于 1 毫秒
      */
     public static void plan(Runnable command, String key, String day, long period, TimeUnit timer) {
-        switch (timer) {
-            case DAYS    : period = Math.multiplyExact(period, DAY_MILLIS); break;
-            case HOURS   : period = Math.multiplyExact(period, HOURS_MILLIS); break;
-            case MINUTES : period = Math.multiplyExact(period, MINUTES_MILLIS); break;
-            case SECONDS : period = Math.multiplyExact(period, SECONDS_SECONDS); break;
-            default      : period = 3000;
-        }
-        plan(command, key, getMillis(day, period), period, TimeUnit.MILLISECONDS);
+        plan(command, key, day, period, timer, ZoneOffset.of("+8"));
+    }
+
+    /**
+     * 定时任务, 首次延时时间点按指定时区解析
+     *
+     * <pre>{@code
+     *     TaskPool.plan(
+     *         () -> System.out.println("Happy new year!"),
+     *         "unique",
+     *         "2099-01-01 00:00:00",
+     *         365,
+     *         TimeUnit.DAYS,
+     *         ZoneId.of("America/New_York")
+     *     );
+     * }</pre>
+     *
+     * @param command {@link Runnable} 接口实例
+     * @param key     该任务的唯一标识（客户端自定义）, 用于区分不同的定时任务
+     * @param day     指定的首次延时时间点, <b style="color:red">格式为 yyyy-MM-dd HH:mm:ss</b>
+     * @param period  首次执行后, 后面定时任务的执行频率
+     * @param timer   {@link TimeUnit} 时间单位, 不小于 1 毫秒
+     * @param zone    {@link ZoneId} 时间点所在的时区
+     */
+    public static void plan(Runnable command, String key, String day, long period, TimeUnit timer, ZoneId zone) {
+        long millis = timer.toMillis(period);
+        plan(command, key, getMillis(day, millis, zone), millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取定时任务最近的执行记录（执行时间、耗时、延迟、结果）, 按时间先后排列
+     *
+     * @param key 该任务的唯一标识
+     * @return {@link PlanRecord} 集合, 任务不存在时为空集合
+     */
+    public static List<PlanRecord> history(String key) {
+        PlanJob job = TASK.get(key);
+        return job == null ? Collections.emptyList() : job.history();
+    }
+
+    /**
+     * 获取定时任务的累计统计: 成功、失败、跳过、拒绝的次数, 下一次计划执行时间, 以及执行耗时、延迟的直方图
+     *
+     * @param key 该任务的唯一标识
+     * @return {@link PlanStats}, 任务不存在时为 null
+     */
+    public static PlanStats planStats(String key) {
+        PlanJob job = TASK.get(key);
+        return job == null ? null : job.stats();
+    }
+
+    /**
+     * 获取已调度（未取消）的定时任务 key
+     *
+     * @return key 集合
+     */
+    public static Set<String> plans() {
+        return Collections.unmodifiableSet(TASK.keySet());
+    }
+
+    /**
+     * 设置默认的租约存储, 供 {@link PlanSpec#lease(long, TimeUnit)} 使用, 只对之后调度的任务生效
+     *
+     * <pre>{@code
+     *     TaskPool.leaseStore(new RedisLeaseStore(redisTool));
+     *     // 多个节点都调度该任务, 每次只有持有租约的节点执行
+     *     TaskPool.plan(orderService::close, "close-order", PlanSpec.cron("0 * * * * ?").lease(15, TimeUnit.SECONDS));
+     * }</pre>
+     *
+     * @param store {@link LeaseStore}
+     */
+    public static void leaseStore(LeaseStore store) {
+        Lease.store = store;
+    }
+
+    /**
+     * 获取当前线程正在执行的定时任务所持有的租约防护令牌
+     *
+     * <p>
+     *     令牌随每次获取租约单调递增; 将其随写操作一起提交（如 {@code update ... where fence < #{token}}）,
+     *     可避免因进程暂停而失去租约的旧节点覆盖新节点的结果
+     * </p>
+     *
+     * @return 防护令牌, 不在启用租约的定时任务中时为 0
+     */
+    public static long fencingToken() {
+        Long token = PlanJob.TOKEN.get();
+        return token == null ? 0 : token;
     }
 
     /**
@@ -434,29 +1785,282 @@ public class TaskPool {
      * @param key 该任务的唯一标识
      */
     public static void cancel(String key) {
-        TASK.computeIfPresent(key, (k, v) -> {
-            v.cancel(true);
-            TASK.remove(k);
-            return v;
-        });
+        PlanJob job = TASK.remove(key);
+        if (job != null) {
+            job.cancel(true);
+            Metrics.publish(sink -> sink.planRemoved(key));
+        }
+    }
+
+    /**
+     * 优雅关闭: 停止接收任务, 在截止时间内执行完已接收的任务, 到期后中断仍在执行的任务并丢弃队列中剩余的任务
+     *
+     * <ol>
+     *     <li>取消全部定时任务并释放租约, 已投递的执行照常完成</li>
+     *     <li>在当前线程中写出各 {@link Batcher} 中剩余的元素</li>
+     *     <li>将延迟队列中未消费的元素交给 {@link #delayHandoff(ObjLongConsumer)} 设置的钩子, 未设置时丢弃, 然后关闭延迟队列</li>
+     *     <li>关闭全部线程池（含定时任务线程池与计算线程池）, 等待至截止时间</li>
+     *     <li>截止时间到达后 {@code shutdownNow}, 丢弃的 {@link #submit(Callable)} 任务被取消, 调用方能感知到</li>
+     * </ol>
+     *
+     * <p>Spring Boot 应用中由 {@code com.basic.conf.TaskPoolLifecycle} 在容器关闭时调用, 重复调用时不再等待</p>
+     *
+     * @param timeout 等待时长
+     * @param unit    时间单位
+     * @return {@link ShutdownReport}
+     */
+    public static synchronized ShutdownReport shutdown(long timeout, TimeUnit unit) {
+        long begin = System.nanoTime();
+        long deadline = begin + unit.toNanos(timeout);
+        closed = true;
+
+        // 1. 定时任务: 不再触发, 释放租约
+        ScheduledThreadPoolExecutor timer, scheduled;
+        synchronized (Scheduled.class) {
+            timer = Scheduled.timer;
+            scheduled = Scheduled.executor;
+        }
+        if (timer != null) {
+            timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            timer.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        }
+        int plans = 0;
+        for (String key : new ArrayList<>(TASK.keySet())) {
+            PlanJob job = TASK.remove(key);
+            if (job != null) {
+                job.cancel(false);
+                plans++;
+                Metrics.publish(sink -> sink.planRemoved(key));
+            }
+        }
+        if (timer != null) {
+            timer.shutdown();
+        }
+        if (Lease.renewer != null) {
+            Lease.renewer.shutdown();
+        }
+
+        // 2. 批量收集器
+        new ArrayList<>(BATCHERS).forEach(Batcher::close);
+
+        // 3. 延迟队列
+        long delayPending = 0;
+        int handedOff = 0;
+        DelayEngine<Object> engine;
+        synchronized (Wheel.class) {
+            engine = Wheel.engine;
+        }
+        if (engine != null) {
+            delayPending = engine.size();
+            ObjLongConsumer<Object> handoff = Wheel.handoff;
+            if (handoff != null) {
+                handedOff = engine.unload((t, remaining) -> {
+                    try {
+                        handoff.accept(t, remaining);
+                    } catch (Exception e) {
+                        log.log(Level.SEVERE, "Delay handoff Exception: ", e);
+                    }
+                });
+            }
+            // 已到期但未被取出的元素不计入 size()
+            delayPending = Math.max(delayPending, handedOff);
+            engine.close();
+        }
+
+        // 4. 线程池
+        Map<String, ExecutorService> executors = new LinkedHashMap<>(POOLS);
+        if (scheduled != null) {
+            executors.put("scheduled", scheduled);
+        }
+        if (Compute.pool != null) {
+            executors.put("compute", Compute.pool);
+        }
+        TUNERS.values().forEach(PoolTuner::stop);
+        synchronized (Ticker.class) {
+            if (Ticker.timer != null) {
+                Ticker.timer.shutdown();
+            }
+        }
+        executors.values().forEach(ExecutorService::shutdown);
+
+        // 5. 截止时间到达后放弃剩余的任务
+        boolean terminated = true;
+        int interrupted = 0;
+        Map<String, Integer> abandoned = new LinkedHashMap<>();
+        for (Map.Entry<String, ExecutorService> entry : executors.entrySet()) {
+            ExecutorService executor = entry.getValue();
+            try {
+                if (executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            terminated = false;
+            int active = 0, queued = 0;
+            if (executor instanceof ManagedPool) {
+                PoolStats stats = ((ManagedPool) executor).stats();
+                active = stats.getActiveCount();
+                queued = stats.getQueueSize();
+            } else if (executor instanceof ThreadPoolExecutor) {
+                active = ((ThreadPoolExecutor) executor).getActiveCount();
+            }
+            List<Runnable> dropped = executor.shutdownNow();
+            dropped.forEach(TaskPool::abandon);
+            interrupted += active;
+            // 虚拟线程池没有队列, 等待许可的任务被中断后自行取消
+            int count = Math.max(dropped.size(), queued);
+            if (count > 0) {
+                abandoned.put(entry.getKey(), count);
+            }
+        }
+
+        ShutdownReport report = new ShutdownReport(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin),
+                terminated, plans, abandoned, interrupted, delayPending, handedOff);
+        if (report.isClean()) {
+            log.info("TaskPool shut down: " + report);
+        } else {
+            log.warning("TaskPool shut down with abandoned tasks: " + report);
+        }
+        return report;
+    }
+
+    /**
+     * 取消被丢弃的任务, 使 {@link #submit(Callable)} 的调用方能感知到
+     *
+     * @param r 任务
+     */
+    private static void abandon(Runnable r) {
+        Runnable command = r instanceof PoolExecutor.Task ? ((PoolExecutor.Task) r).command : r;
+        if (command instanceof Future) {
+            ((Future<?>) command).cancel(false);
+        }
     }
 
     /**
      * 关闭线程池, 进入过渡状态
      *
-     * <p>此时还是会执行队列中的任务, 但不接受新的任务</p>
+     * <p>此时还是会执行队列中的任务, 但不接受新的任务; 关闭前在当前线程中写出各 {@link Batcher} 中剩余的元素</p>
      */
     public static void closeThreadPool() {
-        POOL.shutdown();
+        new ArrayList<>(BATCHERS).forEach(Batcher::close);
+        POOLS.values().forEach(ExecutorService::shutdown);
     }
 
     /**
      * 关闭定时任务线程池, 进入过渡状态
      *
-     * <p>此时还是会执行队列中的任务, 但不接受新的任务</p>
+     * <p>此时还是会执行队列中的任务, 但不接受新的任务; 定时任务被取消, 正在执行的照常完成, 已投递未开始的不再执行</p>
      */
     public static void closeScheduled() {
-        SCHEDULED.shutdown();
+        // 先取消再释放租约（与 shutdown 一致）, 已投递的执行不会重新获取租约; 其它节点无需等待租约过期即可接管
+        TASK.values().forEach(job -> job.cancel(false));
+        synchronized (Scheduled.class) {
+            Scheduled.stopped = true;
+            if (Scheduled.timer != null) {
+                Scheduled.timer.shutdown();
+            }
+            if (Scheduled.executor != null) {
+                Scheduled.executor.shutdown();
+            }
+        }
+        if (Lease.renewer != null) {
+            Lease.renewer.shutdown();
+        }
+    }
+
+    /**
+     * 获取具名线程池
+     *
+     * @param name 线程池名称
+     * @return {@link ManagedPool}
+     */
+    private static ManagedPool pool(String name) {
+        ManagedPool executor = POOLS.get(name);
+        if (executor == null) {
+            if (!DEFAULT.equals(name)) {
+                throw new IllegalArgumentException("No thread pool registered with name: " + name);
+            }
+            executor = defaultPool();
+        }
+        return executor;
+    }
+
+    /**
+     * 首次使用时创建默认线程池: 核心数、最大线程数均为 NUM, 16 容量的链表阻塞队列
+     *
+     * <p>只使用具名线程池、定时任务或延迟队列的应用不会创建它; 线程本身也在提交任务时才创建</p>
+     *
+     * @return {@link ManagedPool}
+     */
+    private static ManagedPool defaultPool() {
+        synchronized (POOLS) {
+            ManagedPool executor = POOLS.get(DEFAULT);
+            if (executor == null) {
+                if (closed) {
+                    throw new TaskRejectedException(DEFAULT, "Task rejected by pool [" + DEFAULT + "]: TaskPool is shut down");
+                }
+                register(DEFAULT, new PoolProperties().setThreadNamePrefix("Custom"));
+                executor = POOLS.get(DEFAULT);
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * 创建定时任务线程池的线程, 根据 {@link #scheduledVirtual} 选择虚拟线程或平台线程
+     *
+     * @param run 任务
+     * @return {@link Thread}
+     */
+    private static Thread newScheduledThread(Runnable run) {
+        if (scheduledVirtual) {
+            ThreadFactory factory = scheduledVirtualFactory;
+            if (factory == null) {
+                scheduledVirtualFactory = factory = VirtualThreads.factory("Custom-scheduled-");
+            }
+            if (factory != null) {
+                return factory.newThread(run);
+            }
+        }
+        return SCHEDULED_FACTORY.newThread(run);
+    }
+
+    /**
+     * 按配置创建线程池
+     *
+     * @param name       线程池名称
+     * @param properties {@link PoolProperties}
+     * @return {@link ManagedPool}
+     */
+    private static ManagedPool create(String name, PoolProperties properties) {
+        String prefix = properties.getThreadNamePrefix();
+        prefix = prefix == null || prefix.isEmpty() ? name + "-" : prefix;
+
+        if (properties.isVirtual()) {
+            ThreadFactory factory = VirtualThreads.factory(prefix);
+            if (factory != null) {
+                return new VirtualExecutor(name, properties, factory);
+            }
+            log.warning("Virtual threads are not supported by the current JDK, pool [" + name + "] falls back to platform threads");
+        }
+
+        BlockingQueue<Runnable> queue;
+        switch (properties.getQueueType()) {
+            case ARRAY       : queue = new ArrayBlockingQueue<>(properties.getQueueCapacity()); break;
+            case SYNCHRONOUS : queue = new SynchronousQueue<>(); break;
+            case PRIORITY    : queue = new PoolExecutor.RankedQueue(properties.getQueueCapacity()); break;
+            default          : queue = new LinkedBlockingDeque<>(properties.getQueueCapacity());
+        }
+
+        PoolExecutor executor = new PoolExecutor(name, properties, queue, new NamedThreadFactory(prefix));
+        if (properties.isVirtual() && properties.getConcurrency() > 0) {
+            // 虚拟线程退化为平台线程池时, 以并发上限作为线程数
+            executor.setMaximumPoolSize(Math.max(executor.getMaximumPoolSize(), properties.getConcurrency()));
+            executor.setCorePoolSize(properties.getConcurrency());
+            executor.setMaximumPoolSize(properties.getConcurrency());
+        }
+        return executor;
     }
 
     /**
@@ -464,11 +2068,13 @@ public class TaskPool {
      *
      * @param day    给定的目标延时时间点, 如: <i style="color:red">2023-10-01 14:00:33</i>
      * @param period 定时任务执行的频率（已换算为毫秒）
+     * @param zone   时间点所在的时区
      * @return 首次延时时长
      */
-    private static long getMillis(String day, long period) {
+    private static long getMillis(String day, long period, ZoneId zone) {
         long delay = LocalDateTime.parse(day, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
-                .toInstant(ZoneOffset.of("+8"))
+                .atZone(zone)
+                .toInstant()
                 .toEpochMilli();
         return (delay = delay - System.currentTimeMillis()) > 0 ? delay : period + delay;
     }
@@ -482,7 +2088,7 @@ public class TaskPool {
      *     <li>线程优先级</li>
      * </ol>
      */
-    private static class NamedThreadFactory implements ThreadFactory {
+    static class NamedThreadFactory implements ThreadFactory {
 
         /**
          * 原子性的递增线程数量
@@ -495,10 +2101,35 @@ public class TaskPool {
         private final ThreadGroup group;
 
         /**
-         * 无参构造函数
+         * 线程名前缀
+         */
+        private final String prefix;
+
+        /**
+         * 是否为守护线程
+         */
+        private final boolean daemon;
+
+        /**
+         * 构造函数: 创建非守护线程
+         *
+         * @param prefix 线程名前缀
+         */
+        NamedThreadFactory(String prefix) {
+            this(prefix, false);
+        }
+
+        /**
+         * 构造函数
+         *
+         * @param prefix 线程名前缀
+         * @param daemon 是否为守护线程
          */
         @SuppressWarnings("removal")
-        private NamedThreadFactory() {
+        NamedThreadFactory(String prefix, boolean daemon) {
+            this.prefix = prefix;
+            this.daemon = daemon;
+
             // 原子性的递增线程数量, 步长为 1
             this.threadNumber = new AtomicInteger(1);
 
@@ -516,10 +2147,10 @@ public class TaskPool {
          */
         @Override
         public Thread newThread(Runnable run) {
-            // 创建执行线程, 线程名为 Custom + 进行递增序号
-            Thread thread = new Thread(group, run, "Custom" + this.threadNumber.getAndIncrement());
-            // 设置为非守护线程
-            thread.setDaemon(false);
+            // 创建执行线程, 线程名为前缀 + 进行递增序号
+            Thread thread = new Thread(group, run, prefix + this.threadNumber.getAndIncrement());
+            // 默认为非守护线程
+            thread.setDaemon(daemon);
             // 设置线程的优先级, Java 根据操作系统的不同, 分布有 1 ~ 10 的优先级
             // 且不同的操作系统优先级大相径庭, 如有的操作系统优先级为: 低、中、高
             // 但这里的优先级只是给 CPU 提供执行建议, 最终的执行权由 CPU 解释
@@ -528,96 +2159,4 @@ public class TaskPool {
         }
     }
 
-    /**
-     * 自定义线程拒绝处理策略
-     *
-     * <P>当线程数量大于最大线程数时执行此拒绝策略</P>
-     */
-    private static class Rejected implements RejectedExecutionHandler {
-
-        /**
-         * 自定义拒绝策略
-         *
-         * @param r        当前被拒绝的任务
-         * @param executor 当前的线程池
-         */
-        @Override
-        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-            // 获取当前线程的阻塞队列
-            final BlockingQueue<Runnable> queue = executor.getQueue();
-            try {
-                // 将该任务加入队列队尾, 若队列已满, 则等待 1 分钟
-                // noinspection ResultOfMethodCallIgnored
-                queue.offer(r, 1, TimeUnit.MINUTES);
-            } catch (InterruptedException e) {
-                log.log(Level.SEVERE, "线程丢弃时, 执行拒绝策略错误: ", e);
-            }
-        }
-    }
-
-    /**
-     * 实现了 {@link Delayed} 延迟队列接口的实现类
-     *
-     * <p>用于存储过期时间、时间单位、数据元素</p>
-     *
-     * @param <T> 泛型
-     */
-    private static class Item<T> implements Delayed {
-
-        /**
-         * 过期时间
-         */
-        private final long activeTime;
-
-        /**
-         * 待消费的元素
-         */
-        private final T t;
-
-        /**
-         * 初始化构造函数
-         *
-         * @param activeTime 过期时间
-         * @param t          数据元素
-         * @param unit       时间单位
-         */
-        private Item(long activeTime, T t, TimeUnit unit) {
-            this.activeTime = unit.convert(activeTime, unit) + System.nanoTime();
-            this.t = t;
-        }
-
-        /**
-         * 获取延迟时间
-         *
-         * @param unit 时间单位
-         * @return 延迟的时长
-         */
-        @Override
-        public long getDelay(TimeUnit unit) {
-            return unit.convert(activeTime - System.nanoTime(), unit);
-        }
-
-        /**
-         * 继承自接口 {@link Comparable#compareTo(Object)},
-         * 用于比较指定对象的顺序, 也即大小
-         *
-         * @param o {@link Delayed}
-         * @return int
-         */
-        @Override
-        public int compareTo(Delayed o) {
-            long diff = getDelay(TimeUnit.NANOSECONDS) - getDelay(TimeUnit.NANOSECONDS);
-            return diff == 0 ? 0 : (diff > 0 ? 1 : -1);
-        }
-
-        /**
-         * 待延迟时间到达, 获取被阻塞的元素数据
-         *
-         * @return T
-         */
-        private T getT() {
-            return t;
-        }
-    }
-
 }
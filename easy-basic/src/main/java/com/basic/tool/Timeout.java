@@ -0,0 +1,39 @@
+package com.basic.tool;
+
+/**
+ * 延迟队列元素的取消句柄, 由 {@link TaskPool#push(long, Object, java.util.concurrent.TimeUnit)} 返回
+ *
+ * <pre>{@code
+ *     Timeout timeout = TaskPool.push(30, orderId, TimeUnit.MINUTES);
+ *     // 订单已支付, 取消超时关单
+ *     timeout.cancel();
+ * }</pre>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public interface Timeout {
+
+    /**
+     * 取消该元素, 已到期或已取消的元素无法再取消
+     *
+     * @return 是否取消成功
+     */
+    boolean cancel();
+
+    /**
+     * 是否已取消
+     *
+     * @return boolean
+     */
+    boolean isCancelled();
+
+    /**
+     * 是否已到期
+     *
+     * @return boolean
+     */
+    boolean isExpired();
+
+}
@@ -0,0 +1,485 @@
+package com.basic.tool;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * 分层哈希时间轮, {@link TaskPool} 延迟队列的实现
+ *
+ * <p>相比 {@link java.util.concurrent.DelayQueue}（单锁 + 二叉堆, 插入 O(log n)）:</p>
+ * <ol>
+ *     <li>插入: 生产者只向无锁队列追加元素, O(1)</li>
+ *     <li>取消: CAS 修改状态, 由时间轮线程从槽位链表中摘除, O(1)</li>
+ *     <li>到期: 时间轮线程按刻度推进, 每个刻度只处理一个槽位, 高层时间轮的槽位到期时逐级下放</li>
+ * </ol>
+ *
+ * <p>
+ *     共 {@link #LEVELS} 层, 每层 2^bits 个槽位; 第 0 层每个槽位跨度为一个刻度, 第 n 层每个槽位跨度为 2^(bits * n) 个刻度.
+ *     默认刻度 10 毫秒、每层 512 个槽位, 可覆盖的延迟时长远超实际需要, 超出部分放入最高层的最后一个槽位, 到期下放时重新计算.
+ * </p>
+ *
+ * <p>槽位、链表只由时间轮线程访问, 无需加锁; 到期的元素进入 {@link #ready} 队列等待消费</p>
+ *
+ * @param <T> 泛型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class TimingWheel<T> implements DelayEngine<T> {
+
+    /**
+     * 时间轮层数
+     */
+    private static final int LEVELS = 4;
+
+    /**
+     * 元素状态: 等待中、已取消、已到期
+     */
+    private static final int WAITING = 0, CANCELLED = 1, EXPIRED = 2;
+
+    /**
+     * 刻度时长（纳秒）
+     */
+    private final long tick;
+
+    /**
+     * 每层槽位数量的位数
+     */
+    private final int bits;
+
+    /**
+     * 槽位下标掩码
+     */
+    private final int mask;
+
+    /**
+     * 槽位, [层][槽位]
+     */
+    private final Bucket[][] wheels;
+
+    /**
+     * 待放入槽位的元素（生产者 -> 时间轮线程）
+     */
+    private final Queue<Entry<T>> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 已取消、待从槽位中摘除的元素（生产者 -> 时间轮线程）
+     */
+    private final Queue<Entry<T>> cancelled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 已到期、待消费的元素
+     */
+    private final BlockingQueue<T> ready = new LinkedBlockingQueue<>();
+
+    /**
+     * 等待中（未到期、未取消）的元素数量
+     */
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * 时间轮线程
+     */
+    private final Thread worker;
+
+    /**
+     * 时间轮的起始时间（纳秒）
+     */
+    private final long start;
+
+    /**
+     * 已处理的刻度数, 只由时间轮线程访问
+     */
+    private long now;
+
+    /**
+     * 时间轮线程是否因无元素而挂起
+     */
+    private volatile boolean idle;
+
+    /**
+     * 构造函数
+     *
+     * @param tick    刻度时长
+     * @param unit    时间单位
+     * @param bits    每层槽位数量的位数, 每层槽位数量为 2^bits
+     * @param factory 时间轮线程工厂
+     */
+    TimingWheel(long tick, TimeUnit unit, int bits, java.util.concurrent.ThreadFactory factory) {
+        this.tick = Math.max(1, unit.toNanos(tick));
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.wheels = new Bucket[LEVELS][1 << bits];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        this.start = System.nanoTime();
+        this.worker = factory.newThread(this::work);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public Timeout push(long delay, T t, TimeUnit unit) {
+        Entry<T> entry = new Entry<>(this, t, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+        size.incrementAndGet();
+        pending.offer(entry);
+        if (idle) {
+            LockSupport.unpark(worker);
+        }
+        return entry;
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        return ready.take();
+    }
+
+    @Override
+    public int drain(java.util.Collection<? super T> sink, int max) {
+        return ready.drainTo(sink, max);
+    }
+
+    @Override
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * 停止时间轮线程, 未到期的元素不再到期
+     */
+    @Override
+    public void close() {
+        worker.interrupt();
+    }
+
+    /**
+     * 停止时间轮线程后取出全部未消费的元素; 时间轮线程未能在 1 秒内停止时, 只取出尚未放入槽位的元素
+     *
+     * @param sink 接收元素与剩余延迟（毫秒）
+     * @return 取出的数量
+     */
+    @Override
+    public int unload(ObjLongConsumer<? super T> sink) {
+        close();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int n = 0;
+        T t;
+        while ((t = ready.poll()) != null) {
+            sink.accept(t, 0);
+            n++;
+        }
+        long nanos = System.nanoTime();
+        Entry<T> e;
+        while ((e = pending.poll()) != null) {
+            n += unload(e, nanos, sink);
+        }
+        if (!worker.isAlive()) {
+            // 时间轮线程已停止, 槽位不再被并发访问
+            for (Bucket[] wheel : wheels) {
+                for (Bucket bucket : wheel) {
+                    for (e = bucket.clear(); e != null; e = e.next) {
+                        n += unload(e, nanos, sink);
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 取出一个等待中的元素, 已取消或已到期的忽略
+     *
+     * @param e     元素
+     * @param nanos 当前时间（纳秒）
+     * @param sink  接收元素与剩余延迟（毫秒）
+     * @return 取出的数量
+     */
+    private int unload(Entry<T> e, long nanos, ObjLongConsumer<? super T> sink) {
+        if (!STATE.compareAndSet(e, WAITING, CANCELLED)) {
+            return 0;
+        }
+        size.decrementAndGet();
+        sink.accept(e.item, Math.max(0, TimeUnit.NANOSECONDS.toMillis(e.deadlineNanos - nanos)));
+        return 1;
+    }
+
+    /**
+     * 时间轮线程主循环
+     */
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long target = (System.nanoTime() - start) / tick;
+            unlinkCancelled();
+            transferPending();
+            while (now < target) {
+                if (size.get() == 0 && pending.isEmpty()) {
+                    // 无元素时直接跳到当前刻度
+                    now = target;
+                    break;
+                }
+                advance();
+            }
+
+            if (size.get() == 0 && pending.isEmpty()) {
+                idle = true;
+                if (pending.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+            } else {
+                long sleep = start + (now + 1) * tick - System.nanoTime();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(this, sleep);
+                }
+            }
+        }
+    }
+
+    /**
+     * 推进一个刻度: 下放高层到期槽位, 处理第 0 层的当前槽位
+     */
+    private void advance() {
+        now++;
+        // 第 n 层的槽位每经过 2^(bits * n) 个刻度到期一次
+        for (int level = 1; level < LEVELS; level++) {
+            if ((now & ((1L << (bits * level)) - 1)) != 0) {
+                break;
+            }
+            Bucket bucket = wheels[level][(int) ((now >>> (bits * level)) & mask)];
+            for (Entry<T> e = bucket.clear(); e != null; ) {
+                Entry<T> next = e.next;
+                e.next = e.prev = null;
+                e.bucket = null;
+                place(e);
+                e = next;
+            }
+        }
+
+        Bucket bucket = wheels[0][(int) (now & mask)];
+        for (Entry<T> e = bucket.clear(); e != null; ) {
+            Entry<T> next = e.next;
+            e.next = e.prev = null;
+            e.bucket = null;
+            if (e.deadline <= now) {
+                expire(e);
+            } else {
+                place(e);
+            }
+            e = next;
+        }
+    }
+
+    /**
+     * 将新增元素放入槽位
+     */
+    private void transferPending() {
+        Entry<T> e;
+        while ((e = pending.poll()) != null) {
+            if (e.state == WAITING) {
+                long ticks = e.deadlineNanos - start;
+                // 向上取整, 保证不早于截止时间到期
+                e.deadline = ticks <= 0 ? 0 : (ticks + tick - 1) / tick;
+                place(e);
+            }
+        }
+    }
+
+    /**
+     * 从槽位中摘除已取消的元素
+     */
+    private void unlinkCancelled() {
+        Entry<T> e;
+        while ((e = cancelled.poll()) != null) {
+            if (e.bucket != null) {
+                e.bucket.remove(e);
+            }
+        }
+    }
+
+    /**
+     * 按剩余刻度数选择层级与槽位
+     *
+     * @param e 元素
+     */
+    private void place(Entry<T> e) {
+        if (e.state != WAITING) {
+            return;
+        }
+        long delta = e.deadline - now;
+        if (delta <= 0) {
+            expire(e);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (bits * (level + 1)))) {
+                wheels[level][(int) ((e.deadline >>> (bits * level)) & mask)].add(e);
+                return;
+            }
+        }
+        // 超出时间轮范围, 放入最高层即将到期的最后一个槽位, 下放时重新计算
+        int top = LEVELS - 1;
+        wheels[top][(int) (((now >>> (bits * top)) - 1) & mask)].add(e);
+    }
+
+    /**
+     * 元素到期, 移入待消费队列
+     *
+     * @param e 元素
+     */
+    private void expire(Entry<T> e) {
+        if (STATE.compareAndSet(e, WAITING, EXPIRED)) {
+            size.decrementAndGet();
+            ready.offer(e.item);
+        }
+    }
+
+    /**
+     * {@link Entry#state} 原子更新器
+     */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Entry> STATE = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "state");
+
+    /**
+     * 时间轮槽位, 双向链表
+     */
+    private static final class Bucket {
+
+        /**
+         * 链表头
+         */
+        private Entry<?> head;
+
+        /**
+         * 追加元素
+         *
+         * @param e 元素
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void add(Entry e) {
+            e.bucket = this;
+            e.next = head;
+            if (head != null) {
+                head.prev = e;
+            }
+            head = e;
+        }
+
+        /**
+         * 摘除元素
+         *
+         * @param e 元素
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void remove(Entry e) {
+            if (e.prev != null) {
+                e.prev.next = e.next;
+            } else {
+                head = e.next;
+            }
+            if (e.next != null) {
+                e.next.prev = e.prev;
+            }
+            e.next = e.prev = null;
+            e.bucket = null;
+        }
+
+        /**
+         * 清空槽位, 返回原链表头
+         *
+         * @param <T> 泛型
+         * @return {@link Entry}
+         */
+        @SuppressWarnings("unchecked")
+        <T> Entry<T> clear() {
+            Entry<T> e = (Entry<T>) head;
+            head = null;
+            return e;
+        }
+    }
+
+    /**
+     * 时间轮中的元素, 同时作为取消句柄
+     *
+     * @param <T> 泛型
+     */
+    private static final class Entry<T> implements Timeout {
+
+        /**
+         * 所属时间轮
+         */
+        private final TimingWheel<T> wheel;
+
+        /**
+         * 元素
+         */
+        private final T item;
+
+        /**
+         * 截止时间（纳秒）
+         */
+        private final long deadlineNanos;
+
+        /**
+         * 截止刻度, 只由时间轮线程访问
+         */
+        private long deadline;
+
+        /**
+         * 元素状态, 非 private 以便 {@link #STATE} 原子更新
+         */
+        volatile int state;
+
+        /**
+         * 所在槽位与链表指针, 只由时间轮线程访问
+         */
+        private Bucket bucket;
+        private Entry<T> prev, next;
+
+        /**
+         * 构造函数
+         *
+         * @param wheel         所属时间轮
+         * @param item          元素
+         * @param deadlineNanos 截止时间（纳秒）
+         */
+        private Entry(TimingWheel<T> wheel, T item, long deadlineNanos) {
+            this.wheel = wheel;
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                wheel.size.decrementAndGet();
+                wheel.cancelled.offer(this);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.basic.tool;
+
+import com.basic.exception.TaskRejectedException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 基于虚拟线程（JDK 21+）的具名线程池
+ *
+ * <p>每个任务一个虚拟线程, 阻塞型 I/O 任务（Redis、MinIO、JDBC）不再受限于平台线程数量</p>
+ *
+ * <p>
+ *     配置了 {@link PoolProperties#getConcurrency()} 时, 使用 {@link Semaphore} 限制同时执行的任务数量以保护下游系统,
+ *     等待许可的任务数量超过 {@link PoolProperties#getQueueCapacity()} 时按 {@link PoolProperties.Policy} 处理过载
+ *     （{@link PoolProperties.Policy#DISCARD_OLDEST} 等同于 {@link PoolProperties.Policy#ABORT}）
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class VirtualExecutor extends AbstractExecutorService implements ManagedPool {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.VirtualExecutor");
+
+    /**
+     * 线程池名称
+     */
+    private final String name;
+
+    /**
+     * 过载策略
+     */
+    private final PoolProperties.Policy policy;
+
+    /**
+     * {@link PoolProperties.Policy#ADAPTIVE} 策略下允许的平均等待时长（纳秒）
+     */
+    private final long maxWait;
+
+    /**
+     * 允许等待许可的任务数量
+     */
+    private final int capacity;
+
+    /**
+     * 并发上限, 0 表示不限制
+     */
+    private final int concurrency;
+
+    /**
+     * 并发许可, 为 null 时不限制
+     */
+    private final Semaphore permits;
+
+    /**
+     * 是否已提示过优先级被忽略
+     */
+    private volatile boolean priorityIgnored;
+
+    /**
+     * 每个任务一个虚拟线程的执行器
+     */
+    private final ExecutorService delegate;
+
+    /**
+     * 正在等待许可的任务数量
+     */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * 被拒绝的任务数量
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 因超过截止时间而未执行的任务数量
+     */
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * 已完成的任务数量
+     */
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * 等待许可时长的直方图, 未启用时为 null
+     */
+    private volatile LatencyHistogram waitTimes;
+
+    /**
+     * 执行时长的直方图, 未启用时为 null
+     */
+    private volatile LatencyHistogram runTimes;
+
+    /**
+     * 等待许可时长的指数加权移动平均值（纳秒）
+     */
+    private volatile long waitAvg;
+
+    /**
+     * 构造函数
+     *
+     * @param name       线程池名称
+     * @param properties {@link PoolProperties}
+     * @param factory    虚拟线程工厂
+     */
+    VirtualExecutor(String name, PoolProperties properties, ThreadFactory factory) {
+        this.name = name;
+        this.policy = properties.getPolicy();
+        this.maxWait = TimeUnit.MILLISECONDS.toNanos(properties.getMaxWait());
+        this.capacity = properties.getQueueCapacity();
+        this.concurrency = Math.max(0, properties.getConcurrency());
+        this.permits = concurrency > 0 ? new Semaphore(concurrency) : null;
+        this.delegate = VirtualThreads.perTask(factory);
+    }
+
+    /**
+     * 为任务启动一个虚拟线程
+     *
+     * @param command {@link Runnable}
+     */
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command);
+        if (delegate.isShutdown()) {
+            throw reject("pool is shut down");
+        }
+        if (permits != null) {
+            if (policy == PoolProperties.Policy.ADAPTIVE && waitAvg > maxWait && waiting.get() > 0) {
+                throw reject("average permit wait " + TimeUnit.NANOSECONDS.toMillis(waitAvg) + "ms exceeds limit");
+            }
+            if (waiting.incrementAndGet() > capacity && permits.availablePermits() == 0) {
+                waiting.decrementAndGet();
+                if (policy != PoolProperties.Policy.CALLER_RUNS) {
+                    throw reject("too many tasks waiting for permits");
+                }
+                rejected.increment();
+                command.run();
+                return;
+            }
+        }
+
+        long enqueued = System.nanoTime();
+        Object[] context = Context.capture();
+        try {
+            delegate.execute(() -> run(command, enqueued, context));
+        } catch (RejectedExecutionException e) {
+            if (permits != null) {
+                waiting.decrementAndGet();
+            }
+            throw reject("pool is shut down");
+        }
+    }
+
+    /**
+     * 按截止时间执行任务, 虚拟线程池没有任务队列, 忽略优先级
+     *
+     * @param command  任务
+     * @param priority 优先级
+     * @param deadline 截止时间（纳秒）, 为 0 时不限制
+     */
+    @Override
+    public void execute(Runnable command, int priority, long deadline) {
+        Objects.requireNonNull(command);
+        if (priority != 0 && !priorityIgnored) {
+            priorityIgnored = true;
+            log.warning("Pool [" + name + "] uses virtual threads, task priority is ignored");
+        }
+        if (deadline == 0) {
+            execute(command);
+            return;
+        }
+        execute(() -> {
+            if (System.nanoTime() - deadline > 0) {
+                expired.increment();
+                if (command instanceof Future) {
+                    ((Future<?>) command).cancel(false);
+                }
+                return;
+            }
+            command.run();
+        });
+    }
+
+    /**
+     * 获取许可后执行任务
+     *
+     * @param command  任务
+     * @param enqueued 提交时间（纳秒）
+     * @param context  提交线程的上下文快照
+     */
+    private void run(Runnable command, long enqueued, Object[] context) {
+        if (permits != null) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                waiting.decrementAndGet();
+                if (command instanceof Future) {
+                    ((Future<?>) command).cancel(false);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+            waiting.decrementAndGet();
+        }
+
+        long started = System.nanoTime();
+        long wait = started - enqueued;
+        long avg = waitAvg;
+        waitAvg = avg + ((wait - avg) >> 3);
+        LatencyHistogram histogram = waitTimes;
+        if (histogram != null) {
+            histogram.record(wait);
+        }
+        Object[] previous = Context.restore(context);
+        try {
+            command.run();
+        } finally {
+            Context.reset(previous);
+            if (permits != null) {
+                permits.release();
+            }
+            completed.increment();
+            histogram = runTimes;
+            if (histogram != null) {
+                histogram.record(System.nanoTime() - started);
+            }
+        }
+    }
+
+    /**
+     * 记录一次拒绝并创建异常
+     *
+     * @param reason 拒绝原因
+     * @return {@link TaskRejectedException}
+     */
+    private TaskRejectedException reject(String reason) {
+        rejected.increment();
+        return new TaskRejectedException(name, "Task rejected by pool [" + name + "]: " + reason);
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getWaitAvg() {
+        return waitAvg;
+    }
+
+    @Override
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    @Override
+    public void instrument(boolean enabled) {
+        waitTimes = enabled ? new LatencyHistogram() : null;
+        runTimes = enabled ? new LatencyHistogram() : null;
+    }
+
+    /**
+     * 虚拟线程池的线程数、正在执行的任务数均以占用的并发许可数表示, 未限制并发时为 0
+     *
+     * @return {@link PoolStats}
+     */
+    @Override
+    public PoolStats stats() {
+        int busy = permits == null ? 0 : concurrency - permits.availablePermits();
+        return new PoolStats(name, busy, busy, waiting.get(), completed.sum(), getRejected(), getExpired(), waitTimes, runTimes);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,109 @@
+package com.basic.tool;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 运行时探测并创建虚拟线程（JDK 21+）
+ *
+ * <p>项目以 1.8 为编译目标, 无法直接引用 {@code Thread.ofVirtual()}, 遂通过反射调用; 运行于低版本 JDK 时 {@link #available()} 返回 false</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+final class VirtualThreads {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.basic.tool.VirtualThreads");
+
+    /**
+     * {@code Thread.ofVirtual()}
+     */
+    private static final Method OF_VIRTUAL;
+
+    /**
+     * {@code Thread.Builder#name(String, long)}
+     */
+    private static final Method NAME;
+
+    /**
+     * {@code Thread.Builder#factory()}
+     */
+    private static final Method FACTORY;
+
+    /**
+     * {@code Executors.newThreadPerTaskExecutor(ThreadFactory)}
+     */
+    private static final Method PER_TASK;
+
+    static {
+        Method ofVirtual = null, name = null, factory = null, perTask = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            perTask = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            // JDK 21 以下, 不支持虚拟线程
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        PER_TASK = perTask;
+    }
+
+    /**
+     * Private Constructor
+     */
+    private VirtualThreads() {}
+
+    /**
+     * 当前 JDK 是否支持虚拟线程
+     *
+     * @return boolean
+     */
+    static boolean available() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建虚拟线程工厂, 线程名为前缀 + 递增序号
+     *
+     * @param prefix 线程名前缀
+     * @return {@link ThreadFactory}, 不支持虚拟线程时返回 null
+     */
+    static ThreadFactory factory(String prefix) {
+        if (!available()) {
+            return null;
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 1L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            log.log(Level.WARNING, "Create virtual thread factory failed: ", e);
+            return null;
+        }
+    }
+
+    /**
+     * 创建每个任务一个线程的 {@link ExecutorService}
+     *
+     * @param factory 虚拟线程工厂
+     * @return {@link ExecutorService}
+     */
+    static ExecutorService perTask(ThreadFactory factory) {
+        try {
+            return (ExecutorService) PER_TASK.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Create virtual thread executor failed", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.basic.exception;
+
+import com.basic.enums.StatusEnum;
+
+import java.util.function.IntFunction;
+
+/**
+ * {@link BaseException} 抛出与捕获的耗时对比（填充堆栈、不填充堆栈、预先创建的实例）, 非单元测试, 直接运行 {@link #main(String[])}
+ *
+ * <p>在 50 层调用深度中抛出, 每种方式先预热再计时, 输出每次的平均耗时; 结果只用于相互比较, 不同机器的数值不同</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class BaseExceptionThrowCost {
+
+    private static final int DEPTH = 50;
+
+    private static final int WARMUP = 200_000;
+
+    private static final int ROUNDS = 1_000_000;
+
+    private static int sink;
+
+    public static void main(String[] args) {
+        measure("stack trace", i -> new BaseException("failed " + i));
+        measure("stackless", i -> new BaseException(StatusEnum.CODE_500.getCode(), "failed " + i, false));
+        measure("shared of()", i -> BaseException.of(StatusEnum.CODE_500));
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    private static void measure(String name, IntFunction<BaseException> factory) {
+        run(factory, WARMUP);
+        long begin = System.nanoTime();
+        run(factory, ROUNDS);
+        double micros = (System.nanoTime() - begin) / 1000.0 / ROUNDS;
+        System.out.printf("%-12s %.2f us/throw%n", name, micros);
+    }
+
+    private static void run(IntFunction<BaseException> factory, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            try {
+                deep(DEPTH, factory, i);
+            } catch (BaseException e) {
+                sink += e.getCode();
+            }
+        }
+    }
+
+    private static void deep(int depth, IntFunction<BaseException> factory, int i) {
+        if (depth == 0) {
+            throw factory.apply(i);
+        }
+        deep(depth - 1, factory, i);
+    }
+}
@@ -0,0 +1,196 @@
+package com.basic.tool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * {@link TimingWheel} 与 {@link DelayQueue}（替换前的实现）的添加、取消、到期耗时对比, 非单元测试, 直接运行 {@link #main(String[])}
+ *
+ * <ol>
+ *     <li>添加: {@link #THREADS} 个线程并发添加延迟 1 ~ 60 秒的元素, 输出每个元素的平均耗时</li>
+ *     <li>取消: 单线程添加后按随机顺序逐个取消, {@link DelayQueue} 只能 {@code remove(Object)}（线性查找）, 元素数量较少</li>
+ *     <li>到期: 添加延迟 0 ~ 100 毫秒的元素, 单个消费者取出全部元素的总耗时</li>
+ * </ol>
+ *
+ * <p>每项先预热再计时; 结果只用于相互比较, 不同机器的数值不同</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class DelayEngineThroughput {
+
+    private static final int THREADS = 4;
+
+    private static final int PUSHES = 1_000_000;
+
+    private static final int CANCELS = 20_000;
+
+    private static final int EXPIRES = 200_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int round = 0; round < 2; round++) {
+            String label = round == 0 ? "warm-up" : "measured";
+            System.out.println("-- " + label);
+            report("push", pushWheel(), pushQueue(), PUSHES);
+            report("push+cancel", cancelWheel(), cancelQueue(), CANCELS);
+            report("expire", expireWheel(), expireQueue(), EXPIRES);
+        }
+    }
+
+    private static void report(String name, long wheel, long queue, int n) {
+        System.out.printf("%-12s wheel %8.1f ns/op   DelayQueue %8.1f ns/op%n", name, (double) wheel / n, (double) queue / n);
+    }
+
+    private static TimingWheel<Integer> wheel() {
+        return new TimingWheel<>(10, TimeUnit.MILLISECONDS, 9, Executors.defaultThreadFactory());
+    }
+
+    private static long pushWheel() throws InterruptedException {
+        TimingWheel<Integer> wheel = wheel();
+        try {
+            return concurrently(i -> wheel.push(1000 + i % 59_000, i, TimeUnit.MILLISECONDS));
+        } finally {
+            wheel.close();
+        }
+    }
+
+    private static long pushQueue() throws InterruptedException {
+        DelayQueue<Item> queue = new DelayQueue<>();
+        return concurrently(i -> queue.offer(new Item(1000 + i % 59_000, i)));
+    }
+
+    private static long cancelWheel() {
+        TimingWheel<Integer> wheel = wheel();
+        List<Timeout> timeouts = new ArrayList<>(CANCELS);
+        long begin = System.nanoTime();
+        for (int i = 0; i < CANCELS; i++) {
+            timeouts.add(wheel.push(60_000, i, TimeUnit.MILLISECONDS));
+        }
+        Collections.shuffle(timeouts, new Random(CANCELS));
+        for (Timeout timeout : timeouts) {
+            timeout.cancel();
+        }
+        long nanos = System.nanoTime() - begin;
+        wheel.close();
+        return nanos;
+    }
+
+    private static long cancelQueue() {
+        DelayQueue<Item> queue = new DelayQueue<>();
+        List<Item> items = new ArrayList<>(CANCELS);
+        long begin = System.nanoTime();
+        for (int i = 0; i < CANCELS; i++) {
+            Item item = new Item(60_000, i);
+            items.add(item);
+            queue.offer(item);
+        }
+        Collections.shuffle(items, new Random(CANCELS));
+        for (Item item : items) {
+            queue.remove(item);
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static long expireWheel() throws InterruptedException {
+        TimingWheel<Integer> wheel = wheel();
+        long begin = System.nanoTime();
+        for (int i = 0; i < EXPIRES; i++) {
+            wheel.push(i % 100, i, TimeUnit.MILLISECONDS);
+        }
+        List<Integer> sink = new ArrayList<>(EXPIRES);
+        while (sink.size() < EXPIRES) {
+            sink.add(wheel.take());
+            wheel.drain(sink, EXPIRES);
+        }
+        long nanos = System.nanoTime() - begin;
+        wheel.close();
+        return nanos;
+    }
+
+    private static long expireQueue() throws InterruptedException {
+        DelayQueue<Item> queue = new DelayQueue<>();
+        long begin = System.nanoTime();
+        for (int i = 0; i < EXPIRES; i++) {
+            queue.offer(new Item(i % 100, i));
+        }
+        List<Item> sink = new ArrayList<>(EXPIRES);
+        while (sink.size() < EXPIRES) {
+            sink.add(queue.take());
+            queue.drainTo(sink, EXPIRES);
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * {@link #THREADS} 个线程共同执行 {@link #PUSHES} 次添加
+     *
+     * @param push 添加一个元素, 参数为序号
+     * @return 总耗时（纳秒）
+     */
+    private static long concurrently(IntConsumer push) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int from = t * (PUSHES / THREADS);
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = from; i < from + PUSHES / THREADS; i++) {
+                    push.accept(i);
+                }
+                done.countDown();
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * 替换前 {@link TaskPool} 延迟队列的元素
+     */
+    private static final class Item implements Delayed {
+
+        private final long deadline;
+
+        private final int value;
+
+        private Item(long delayMillis, int value) {
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            this.value = value;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(deadline, ((Item) o).deadline);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Item && ((Item) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.basic.tool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link DelayJournal} 测试: 重启恢复、尾部记录损坏时截断、压缩、取消未加载的远期元素、sync 模式的组提交
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class DelayJournalTest {
+
+    /**
+     * 记录头长度, 与 {@link DelayJournal} 一致
+     */
+    private static final int HEADER = 25;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 重启后恢复未取出的元素, 已取出、已取消的元素不再恢复
+     */
+    @Test
+    void restartRecoversPendingEntries() throws InterruptedException {
+        DelayJournal<String> journal = open(1, TimeUnit.HOURS, true);
+        journal.push(0, "taken", TimeUnit.MILLISECONDS);
+        journal.push(300, "a", TimeUnit.MILLISECONDS);
+        journal.push(600, "b", TimeUnit.MILLISECONDS);
+        journal.push(900, "cancelled", TimeUnit.MILLISECONDS).cancel();
+        assertEquals("taken", journal.take());
+        journal.close();
+
+        DelayJournal<String> reopened = open(1, TimeUnit.HOURS, false);
+        assertEquals(2, reopened.size());
+        assertEquals("a", reopened.take());
+        assertEquals("b", reopened.take());
+        reopened.close();
+    }
+
+    /**
+     * 尾部记录未写完整（CRC 不匹配）时, 重启只恢复之前的记录, 之后的写入覆盖损坏的尾部
+     */
+    @Test
+    void tornTailIsTruncatedOnRecovery() throws IOException, InterruptedException {
+        DelayJournal<String> journal = open(1, TimeUnit.HOURS, true);
+        journal.push(200, "kept", TimeUnit.MILLISECONDS);
+        journal.push(200, "torn", TimeUnit.MILLISECONDS);
+        journal.close();
+
+        Path segment = single();
+        List<int[]> records = records(segment);
+        assertEquals(2, records.size());
+        // 损坏最后一条记录的内容
+        int last = records.get(1)[0];
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0x7f}), last + HEADER);
+        }
+
+        DelayJournal<String> reopened = open(1, TimeUnit.HOURS, true);
+        assertEquals(1, reopened.size());
+        reopened.push(300, "after", TimeUnit.MILLISECONDS);
+        reopened.close();
+        assertEquals(2, records(segment).size());
+
+        DelayJournal<String> again = open(1, TimeUnit.HOURS, false);
+        assertEquals(2, again.size());
+        assertEquals("kept", again.take());
+        assertEquals("after", again.take());
+        again.close();
+    }
+
+    /**
+     * 远期段文件中完成记录多于存活记录时被重写, 只保留存活的新增记录
+     */
+    @Test
+    void farSegmentIsCompacted() throws IOException, InterruptedException {
+        // 3 小时后到期, 不在 1 小时的加载窗口内
+        DelayJournal<String> journal = open(1, TimeUnit.HOURS, false);
+        List<Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 1600; i++) {
+            timeouts.add(journal.push(3, "far-" + i, TimeUnit.HOURS));
+        }
+        for (int i = 0; i < 1200; i++) {
+            assertTrue(timeouts.get(i).cancel());
+        }
+        assertEquals(400, poll(journal::size, 400));
+
+        Path segment = single();
+        assertEquals(2800, records(segment).size());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (records(segment).size() != 400 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(400, records(segment).size());
+        journal.close();
+
+        DelayJournal<String> reopened = open(1, TimeUnit.HOURS, false);
+        assertEquals(400, reopened.size());
+        reopened.close();
+    }
+
+    /**
+     * 取消尚未加载的远期元素, 以及段文件加载前获取、加载后取消的元素, 二者都不会到期
+     */
+    @Test
+    void farEntriesCancelledBeforeAndAfterLoading() throws InterruptedException {
+        DelayJournal<String> journal = new DelayJournal<>(dir, new StringCodec(), 100, 1000, TimeUnit.MILLISECONDS, true);
+        Timeout before = journal.push(2500, "before", TimeUnit.MILLISECONDS);
+        Timeout after = journal.push(2600, "after", TimeUnit.MILLISECONDS);
+        journal.push(2700, "kept", TimeUnit.MILLISECONDS);
+
+        assertTrue(before.cancel());
+        // 段文件在 1.5 秒之后进入加载窗口, 由日志线程每秒一次的整理加载
+        Thread.sleep(2300);
+        assertTrue(after.cancel());
+        assertFalse(after.cancel());
+
+        assertEquals("kept", journal.take());
+        List<String> rest = new ArrayList<>();
+        Thread.sleep(200);
+        journal.drain(rest, 10);
+        assertTrue(rest.isEmpty(), "cancelled entries expired: " + rest);
+        assertEquals(0, journal.size());
+        journal.close();
+    }
+
+    /**
+     * sync 模式下并发 push 返回时记录已写入段文件, 未关闭时另一个实例即可恢复全部元素
+     */
+    @Test
+    void syncPushesAreOnDiskWhenTheyReturn() throws InterruptedException {
+        DelayJournal<String> journal = open(1, TimeUnit.HOURS, true);
+        int threads = 8, each = 200;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            new Thread(() -> {
+                for (int i = 0; i < each; i++) {
+                    journal.push(1, id + "-" + i, TimeUnit.HOURS);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+
+        DelayJournal<String> copy = open(1, TimeUnit.HOURS, false);
+        assertEquals(threads * each, copy.size());
+        copy.close();
+        journal.close();
+    }
+
+    private DelayJournal<String> open(long window, TimeUnit unit, boolean sync) {
+        return new DelayJournal<>(dir, new StringCodec(), window, window, unit, sync);
+    }
+
+    /**
+     * 目录中唯一的段文件
+     */
+    private Path single() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.seg")) {
+            stream.forEach(segments::add);
+        }
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    /**
+     * 读取段文件中的记录, 返回各记录的位置与类型
+     */
+    private static List<int[]> records(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<int[]> records = new ArrayList<>();
+        int pos = 0;
+        while (pos + HEADER <= buffer.limit()) {
+            int length = buffer.getInt(pos);
+            if (length < HEADER) {
+                break;
+            }
+            records.add(new int[]{pos, buffer.get(pos + 8)});
+            pos += length;
+        }
+        return records;
+    }
+
+    private static long poll(LongSupplier value, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (value.getAsLong() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return value.getAsLong();
+    }
+
+    /**
+     * UTF-8 字符串编解码
+     */
+    private static final class StringCodec implements DelayJournal.Codec<String> {
+
+        @Override
+        public byte[] encode(String s) {
+            return s.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
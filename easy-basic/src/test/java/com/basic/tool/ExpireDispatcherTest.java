@@ -0,0 +1,152 @@
+package com.basic.tool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ExpireDispatcher} 测试: 按批次大小广播、监听器与延迟队列的异常不终止分发线程
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class ExpireDispatcherTest {
+
+    /**
+     * 每个监听器都收到全部元素, 按各自的批次大小分批
+     */
+    @Test
+    void broadcastsInListenerBatchSizes() throws InterruptedException {
+        ManualEngine engine = new ManualEngine();
+        List<List<Integer>> small = Collections.synchronizedList(new ArrayList<>());
+        List<List<Integer>> large = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        ExpireDispatcher<Integer> dispatcher = new ExpireDispatcher<>(engine, Executors.defaultThreadFactory(), 2, batch -> {
+            small.add(batch);
+            if (batch.contains(5)) {
+                done.countDown();
+            }
+        });
+        dispatcher.register(10, batch -> {
+            large.add(batch);
+            if (batch.contains(5)) {
+                done.countDown();
+            }
+        });
+
+        engine.expire(1, 2, 3, 4, 5);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(5, flatten(small, 2).size());
+        // 元素逐个加入队列, 分发线程可能在全部加入前取出, 只校验批次上限
+        assertEquals(5, flatten(large, 10).size());
+        engine.close();
+    }
+
+    private static List<Integer> flatten(List<List<Integer>> batches, int max) {
+        List<Integer> all = new ArrayList<>();
+        batches.forEach(batch -> {
+            assertTrue(batch.size() <= max);
+            all.addAll(batch);
+        });
+        return all;
+    }
+
+    /**
+     * 监听器抛出异常（含 {@link Error}）后, 之后到期的元素照常分发
+     */
+    @Test
+    void listenerFailureDoesNotStopDispatching() throws InterruptedException {
+        ManualEngine engine = new ManualEngine();
+        BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+        new ExpireDispatcher<Integer>(engine, Executors.defaultThreadFactory(), 1, batch -> {
+            received.addAll(batch);
+            if (batch.contains(1)) {
+                throw new AssertionError("listener failure");
+            }
+        });
+
+        engine.expire(1);
+        assertEquals(1, received.poll(5, TimeUnit.SECONDS));
+        engine.expire(2);
+        assertEquals(2, received.poll(5, TimeUnit.SECONDS));
+        engine.close();
+    }
+
+    /**
+     * 延迟队列抛出异常后暂停片刻再继续, 分发线程不退出
+     */
+    @Test
+    void engineFailureDoesNotStopDispatching() throws InterruptedException {
+        ManualEngine engine = new ManualEngine();
+        BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+        new ExpireDispatcher<Integer>(engine, Executors.defaultThreadFactory(), 1, received::addAll);
+
+        engine.failures.set(3);
+        engine.expire(7);
+        assertEquals(7, received.poll(5, TimeUnit.SECONDS));
+        assertEquals(0, engine.failures.get());
+        engine.close();
+    }
+
+    /**
+     * 手动控制到期的延迟队列
+     */
+    private static final class ManualEngine implements DelayEngine<Integer> {
+
+        private final BlockingQueue<Integer> ready = new LinkedBlockingQueue<>();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private volatile Thread taker;
+
+        void expire(Integer... items) {
+            Collections.addAll(ready, items);
+        }
+
+        @Override
+        public Timeout push(long delay, Integer t, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Integer take() throws InterruptedException {
+            taker = Thread.currentThread();
+            if (failures.get() > 0) {
+                failures.decrementAndGet();
+                throw new IllegalStateException("engine failure");
+            }
+            return ready.take();
+        }
+
+        @Override
+        public int drain(Collection<? super Integer> sink, int max) {
+            return ready.drainTo(sink, max);
+        }
+
+        @Override
+        public long size() {
+            return ready.size();
+        }
+
+        @Override
+        public void close() {
+            Thread t = taker;
+            if (t != null) {
+                t.interrupt();
+            }
+        }
+    }
+}
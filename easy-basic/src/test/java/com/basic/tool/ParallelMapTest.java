@@ -0,0 +1,97 @@
+package com.basic.tool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TaskPool#parallelMap(String, java.util.Collection, java.util.function.Function, int)} 与
+ * {@link TaskPool#parallelMapUnordered(String, java.util.Collection, java.util.function.Function, int)} 测试
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class ParallelMapTest {
+
+    private static final String POOL = "parallel-map-test";
+
+    private static final String TINY = "parallel-map-tiny";
+
+    @BeforeAll
+    static void register() {
+        TaskPool.register(POOL, new PoolProperties().setCoreSize(4).setMaxSize(4).setThreadNamePrefix("map-"));
+        TaskPool.register(TINY, new PoolProperties().setCoreSize(1).setMaxSize(1)
+                .setQueueType(PoolProperties.Queue.SYNCHRONOUS).setPolicy(PoolProperties.Policy.ABORT)
+                .setThreadNamePrefix("tiny-"));
+    }
+
+    @AfterAll
+    static void close() {
+        TaskPool.closeThreadPool();
+    }
+
+    /**
+     * 有序映射按入参顺序收集, 允许 null 结果
+     */
+    @Test
+    void orderedKeepsInputOrderAndNulls() {
+        List<Integer> result = TaskPool.parallelMap(POOL, Arrays.asList(1, 2, 3, 4, 5, 6),
+                i -> i % 2 == 0 ? null : i * 10, 3).join();
+        assertEquals(Arrays.asList(10, null, 30, null, 50, null), result);
+    }
+
+    /**
+     * 无序映射同样允许 null 结果
+     */
+    @Test
+    void unorderedAcceptsNullResults() {
+        List<Integer> result = TaskPool.parallelMapUnordered(POOL, Arrays.asList(1, 2, 3, 4, 5, 6),
+                i -> i % 2 == 0 ? null : i * 10, 3).join();
+        assertEquals(6, result.size());
+        assertEquals(3, Collections.frequency(result, null));
+        assertTrue(result.containsAll(Arrays.asList(10, 30, 50)));
+    }
+
+    /**
+     * 部分工作任务被拒绝时整体以拒绝异常完成, 已启动的工作任务不再领取元素
+     */
+    @Test
+    void rejectedWorkerFailsTheWholeMap() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger mapped = new AtomicInteger();
+
+        CompletableFuture<List<Integer>> future = TaskPool.parallelMap(TINY, Arrays.asList(1, 2, 3, 4, 5, 6), i -> {
+            mapped.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return i;
+        }, 3);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        // 首个工作任务可能在拒绝之后才开始运行, 此时一个元素也不领取
+        started.await(200, TimeUnit.MILLISECONDS);
+        release.countDown();
+        Thread.sleep(100);
+        assertTrue(mapped.get() <= 1);
+    }
+}
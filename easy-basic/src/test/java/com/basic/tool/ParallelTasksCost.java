@@ -0,0 +1,124 @@
+package com.basic.tool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link TaskPool#parallelReduce}、{@link TaskPool#parallelSort}、{@link TaskPool#parallelForEach} 与顺序流、并行流的耗时对比,
+ * 非单元测试, 直接运行 {@link #main(String[])}
+ *
+ * <ol>
+ *     <li>归约: 对 {@link #SIZE} 个元素做少量位运算后求和</li>
+ *     <li>遍历: 对 {@link #SIZE} 个元素做同样的计算, 结果写入各自下标</li>
+ *     <li>排序: {@link #SIZE} 个随机打乱的元素按比较器排序（稳定）</li>
+ * </ol>
+ *
+ * <p>每项先预热再计时, 输出每次的平均耗时并校验结果一致; 结果只用于相互比较, 与 CPU 核数相关, 不同机器的数值不同</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class ParallelTasksCost {
+
+    private static final int SIZE = 2_000_000;
+
+    private static final int WARMUP = 5;
+
+    private static final int ROUNDS = 10;
+
+    private static final Comparator<Integer> ORDER = Comparator.comparingInt(i -> i >>> 4);
+
+    public static void main(String[] args) {
+        System.out.println("cpus " + Runtime.getRuntime().availableProcessors());
+        List<Integer> items = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            items.add(i);
+        }
+
+        long expected = items.stream().reduce(0L, (sum, i) -> sum + mix(i), Long::sum);
+        measure("reduce", "stream", () -> items.stream().reduce(0L, (sum, i) -> sum + mix(i), Long::sum), expected);
+        measure("reduce", "parallelStream", () -> items.parallelStream().reduce(0L, (sum, i) -> sum + mix(i), Long::sum), expected);
+        measure("reduce", "TaskPool", () -> TaskPool.parallelReduce(items, 0L, (sum, i) -> sum + mix(i), Long::sum), expected);
+
+        long[] out = new long[SIZE];
+        measure("forEach", "stream", () -> {
+            items.stream().forEach(i -> out[i] = mix(i));
+            return sum(out);
+        }, expected);
+        measure("forEach", "parallelStream", () -> {
+            items.parallelStream().forEach(i -> out[i] = mix(i));
+            return sum(out);
+        }, expected);
+        measure("forEach", "TaskPool", () -> {
+            TaskPool.parallelForEach(items, i -> out[i] = mix(i));
+            return sum(out);
+        }, expected);
+
+        List<Integer> shuffled = new ArrayList<>(items);
+        Collections.shuffle(shuffled, new Random(SIZE));
+        Integer[] source = shuffled.toArray(new Integer[0]);
+        Integer[] sorted = source.clone();
+        Arrays.sort(sorted, ORDER);
+        long order = checksum(sorted);
+        measure("sort", "stream", () -> checksum(Arrays.stream(source).sorted(ORDER).toArray(Integer[]::new)), order);
+        measure("sort", "parallelStream", () -> checksum(Arrays.stream(source).parallel().sorted(ORDER).toArray(Integer[]::new)), order);
+        measure("sort", "TaskPool", () -> {
+            Integer[] array = source.clone();
+            TaskPool.parallelSort(array, ORDER);
+            return checksum(array);
+        }, order);
+
+        TaskPool.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    private static void measure(String operation, String name, LongSupplier run, long expected) {
+        for (int i = 0; i < WARMUP; i++) {
+            check(run.getAsLong(), expected, name);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            check(run.getAsLong(), expected, name);
+        }
+        double millis = (System.nanoTime() - begin) / 1_000_000.0 / ROUNDS;
+        System.out.printf("%-8s %-15s %8.2f ms/op%n", operation, name, millis);
+    }
+
+    private static void check(long actual, long expected, String name) {
+        if (actual != expected) {
+            throw new IllegalStateException(name + " returned " + actual + ", expected " + expected);
+        }
+    }
+
+    private static long mix(int i) {
+        long x = i * 0x9E3779B97F4A7C15L;
+        x ^= x >>> 31;
+        x *= 0xBF58476D1CE4E5B9L;
+        return x ^ (x >>> 29);
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * 与位置相关的校验和, 稳定排序时相同比较值的元素保持原有顺序, 结果唯一
+     */
+    private static long checksum(Integer[] array) {
+        long sum = 0;
+        for (int i = 0; i < array.length; i++) {
+            sum = sum * 31 + array[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,138 @@
+package com.basic.tool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link PlanLease} 与 {@link MemoryLeaseStore} 测试: 租约接管、续约与防护令牌
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class PlanLeaseTest {
+
+    private static final long TTL = 300;
+
+    private MemoryLeaseStore store;
+
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() {
+        store = new MemoryLeaseStore();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 同一时刻只有一个节点持有租约, 持有者重复获取时令牌不变
+     */
+    @Test
+    void onlyOneNodeHoldsTheLease() {
+        PlanLease a = new PlanLease(store, "job", "node-a", TTL);
+        PlanLease b = new PlanLease(store, "job", "node-b", TTL);
+
+        long token = a.hold();
+        assertTrue(token > 0);
+        assertEquals(0, b.hold());
+        assertEquals(token, a.hold());
+    }
+
+    /**
+     * 持有者释放后其它节点立即接管, 令牌递增
+     */
+    @Test
+    void releasedLeaseIsTakenOverWithHigherToken() {
+        PlanLease a = new PlanLease(store, "job", "node-a", TTL);
+        PlanLease b = new PlanLease(store, "job", "node-b", TTL);
+
+        long first = a.hold();
+        a.stop();
+        long second = b.hold();
+        assertTrue(second > first);
+        assertEquals(0, a.hold());
+    }
+
+    /**
+     * 停止后不再获取租约, 已投递的执行不会在释放后重新持有
+     */
+    @Test
+    void stoppedLeaseIsNotReacquired() {
+        PlanLease a = new PlanLease(store, "job", "node-a", TTL);
+        PlanLease b = new PlanLease(store, "job", "node-b", TTL);
+
+        assertTrue(a.hold() > 0);
+        a.stop();
+        assertEquals(0, a.hold());
+        assertTrue(b.hold() > 0);
+    }
+
+    /**
+     * 未续约的租约过期后被其它节点接管, 旧节点的本地有效期先于存储过期, 不会与新节点同时执行
+     */
+    @Test
+    void expiredLeaseIsTakenOver() throws InterruptedException {
+        PlanLease a = new PlanLease(store, "job", "node-a", TTL);
+        PlanLease b = new PlanLease(store, "job", "node-b", TTL);
+
+        long first = a.hold();
+        assertTrue(first > 0);
+        TimeUnit.MILLISECONDS.sleep(TTL + 50);
+
+        long second = b.hold();
+        assertTrue(second > first);
+        assertEquals(0, a.hold());
+    }
+
+    /**
+     * 持续续约的持有者在多个租约时长内不会被接管, 停止后立即被接管
+     */
+    @Test
+    void renewalKeepsTheLease() throws InterruptedException {
+        PlanLease a = new PlanLease(store, "job", "node-a", TTL);
+        PlanLease b = new PlanLease(store, "job", "node-b", TTL);
+
+        a.start(scheduler);
+        TimeUnit.MILLISECONDS.sleep(50);
+        long token = a.hold();
+        assertTrue(token > 0);
+
+        TimeUnit.MILLISECONDS.sleep(TTL * 3);
+        assertEquals(0, b.hold());
+        assertEquals(token, a.hold());
+
+        a.stop();
+        assertTrue(b.hold() > token);
+    }
+
+    /**
+     * 被接管后, 旧令牌的续约与释放均被拒绝, 不影响新的持有者
+     */
+    @Test
+    void staleTokenIsRejected() throws InterruptedException {
+        long stale = store.acquire("job", "node-a", TTL);
+        TimeUnit.MILLISECONDS.sleep(TTL + 50);
+        long current = store.acquire("job", "node-b", TTL);
+        assertTrue(current > stale);
+
+        assertFalse(store.renew("job", "node-a", stale, TTL));
+        store.release("job", "node-a", stale);
+        assertEquals(-1, store.acquire("job", "node-a", TTL));
+
+        // 持有者自己的旧令牌同样无效
+        assertFalse(store.renew("job", "node-b", stale, TTL));
+        assertTrue(store.renew("job", "node-b", current, TTL));
+    }
+}
@@ -0,0 +1,165 @@
+package com.basic.tool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TimingWheel} 测试: 各层槽位的放置、高层槽位的逐级下放、取消与关闭时取出
+ *
+ * <p>刻度 1 毫秒、每层 4 个槽位: 第 0 层覆盖 4 个刻度, 第 1、2、3 层分别覆盖 16、64、256 个刻度, 更长的延迟超出时间轮范围</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class TimingWheelTest {
+
+    /**
+     * 到期时间允许的最大延后（毫秒）, 单核机器上线程调度可能较慢
+     */
+    private static final long LATE = 250;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(1, TimeUnit.MILLISECONDS, 2, Executors.defaultThreadFactory());
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    /**
+     * 落在各层槽位（及超出范围）的元素都不早于截止时间到期, 且按截止时间的先后到期
+     */
+    @Test
+    void entriesOnEveryLevelExpireInDeadlineOrder() throws InterruptedException {
+        long[] delays = {2, 10, 40, 150, 400};
+        long begin = System.nanoTime();
+        // 逆序添加, 到期顺序只取决于截止时间
+        for (int i = delays.length - 1; i >= 0; i--) {
+            wheel.push(delays[i], "d" + delays[i], TimeUnit.MILLISECONDS);
+        }
+        assertEquals(delays.length, wheel.size());
+
+        for (long delay : delays) {
+            String item = wheel.take();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+            assertEquals("d" + delay, item);
+            assertTrue(elapsed >= delay, item + " expired early at " + elapsed + "ms");
+            assertTrue(elapsed < delay + LATE, item + " expired late at " + elapsed + "ms");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * 最高层槽位中的元素逐级下放后仍在截止时间到期, 同一槽位中不同截止时间的元素各自到期
+     */
+    @Test
+    void cascadedEntriesKeepTheirOwnDeadlines() throws InterruptedException {
+        // 第 3 层的同一槽位（192 ~ 255 个刻度）下放至第 2、1、0 层
+        long[] delays = {200, 205, 230, 250};
+        long begin = System.nanoTime();
+        for (long delay : delays) {
+            wheel.push(delay, "d" + delay, TimeUnit.MILLISECONDS);
+        }
+        for (long delay : delays) {
+            String item = wheel.take();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+            assertEquals("d" + delay, item);
+            assertTrue(elapsed >= delay, item + " expired early at " + elapsed + "ms");
+        }
+    }
+
+    /**
+     * 已取消的元素不会到期, 重复取消、到期后取消均返回 false
+     */
+    @Test
+    void cancelledEntriesNeverExpire() throws InterruptedException {
+        Timeout near = wheel.push(5, "near", TimeUnit.MILLISECONDS);
+        Timeout far = wheel.push(300, "far", TimeUnit.MILLISECONDS);
+        Timeout kept = wheel.push(60, "kept", TimeUnit.MILLISECONDS);
+
+        assertTrue(near.cancel());
+        assertFalse(near.cancel());
+        assertTrue(near.isCancelled());
+        assertTrue(far.cancel());
+        assertEquals(1, wheel.size());
+
+        assertEquals("kept", wheel.take());
+        assertTrue(kept.isExpired());
+        assertFalse(kept.cancel());
+
+        Thread.sleep(350);
+        List<String> rest = new ArrayList<>();
+        assertEquals(0, wheel.drain(rest, 10));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * 在时间轮线程放入槽位之后取消, 同样从槽位中摘除
+     */
+    @Test
+    void cancelAfterPlacement() throws InterruptedException {
+        Timeout timeout = wheel.push(100, "placed", TimeUnit.MILLISECONDS);
+        wheel.push(150, "marker", TimeUnit.MILLISECONDS);
+        // 等待时间轮线程将元素放入槽位
+        Thread.sleep(20);
+        assertTrue(timeout.cancel());
+        assertEquals("marker", wheel.take());
+        assertFalse(timeout.isExpired());
+    }
+
+    /**
+     * 多个生产者并发添加的元素各自到期一次
+     */
+    @Test
+    void concurrentPushesExpireExactlyOnce() throws InterruptedException {
+        int threads = 4, each = 2000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            new Thread(() -> {
+                for (int i = 0; i < each; i++) {
+                    wheel.push(i % 50, id + "-" + i, TimeUnit.MILLISECONDS);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < threads * each; i++) {
+            assertTrue(seen.add(wheel.take()));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * 关闭时取出未到期与已到期未消费的元素, 附带剩余延迟
+     */
+    @Test
+    void unloadReturnsWaitingAndReadyEntries() throws InterruptedException {
+        wheel.push(0, "ready", TimeUnit.MILLISECONDS);
+        wheel.push(10, "cancelled", TimeUnit.SECONDS).cancel();
+        wheel.push(10, "waiting", TimeUnit.SECONDS);
+        Thread.sleep(50);
+
+        Map<String, Long> unloaded = new HashMap<>();
+        assertEquals(2, wheel.unload(unloaded::put));
+        assertEquals(new HashSet<>(Arrays.asList("ready", "waiting")), unloaded.keySet());
+        assertEquals(0L, unloaded.get("ready"));
+        assertTrue(unloaded.get("waiting") > 9000);
+        assertEquals(0, wheel.size());
+    }
+}
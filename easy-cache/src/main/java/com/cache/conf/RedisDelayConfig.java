@@ -0,0 +1,35 @@
+package com.cache.conf;
+
+import com.basic.tool.TaskPool;
+import com.cache.tool.RedisDelayQueue;
+import com.cache.tool.RedisTool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 集群延迟队列配置类, 将 {@link TaskPool} 的延迟队列替换为 {@link RedisDelayQueue}
+ *
+ * <p>配置 {@code easy.redis-delay=队列名称} 后生效, 相同队列名称的实例共享同一个延迟队列</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@ConditionalOnProperty(name = "easy.redis-delay")
+public class RedisDelayConfig {
+
+    /**
+     * 创建集群延迟队列并设置为 {@link TaskPool} 的延迟队列引擎
+     *
+     * @param redisTool {@link RedisTool}
+     * @param name      队列名称
+     * @return {@link RedisDelayQueue}
+     */
+    @Bean(destroyMethod = "close")
+    public RedisDelayQueue<Object> redisDelayQueue(RedisTool redisTool, @Value("${easy.redis-delay}") String name) {
+        RedisDelayQueue<Object> queue = new RedisDelayQueue<>(redisTool, name);
+        TaskPool.delayEngine(queue);
+        return queue;
+    }
+}
@@ -0,0 +1,33 @@
+package com.cache.conf;
+
+import com.basic.tool.TaskPool;
+import com.cache.tool.RedisLeaseStore;
+import com.cache.tool.RedisTool;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 定时任务租约配置类, 将 {@link RedisLeaseStore} 设置为 {@link TaskPool} 的默认租约存储
+ *
+ * <p>配置 {@code easy.redis-lease=true} 后生效, 之后通过 {@code PlanSpec.lease(ttl, unit)} 启用租约的定时任务在多个节点间只执行一次</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@ConditionalOnProperty(name = "easy.redis-lease", havingValue = "true")
+public class RedisLeaseConfig {
+
+    /**
+     * 创建租约存储并设置为 {@link TaskPool} 的默认租约存储
+     *
+     * @param redisTool {@link RedisTool}
+     * @return {@link RedisLeaseStore}
+     */
+    @Bean
+    public RedisLeaseStore redisLeaseStore(RedisTool redisTool) {
+        RedisLeaseStore store = new RedisLeaseStore(redisTool);
+        TaskPool.leaseStore(store);
+        return store;
+    }
+}
@@ -0,0 +1,493 @@
+package com.cache.tool;
+
+import com.basic.tool.DelayEngine;
+import com.basic.tool.TaskPool;
+import com.basic.tool.Timeout;
+import com.cache.conf.JsonSerializer;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 基于 Redis 有序集合的集群延迟队列, 多个实例共享同一个队列
+ *
+ * <pre>{@code
+ *     RedisDelayQueue<Long> queue = new RedisDelayQueue<>(redisTool, "order-timeout");
+ *     TaskPool.delayEngine(queue);
+ *
+ *     TaskPool.push(30, orderId, TimeUnit.MINUTES);
+ *     // 任意实例到期后批量消费, 在本地线程池中执行, 执行成功后确认
+ *     queue.subscribe(TaskPool.DEFAULT, orderService::closeBatch);
+ * }</pre>
+ *
+ * <p>数据结构（集群模式下通过 {@code {name}} 哈希标签位于同一个哈希槽）:</p>
+ * <ol>
+ *     <li>{@code {name}:ready}: 等待到期的元素, score 为到期时间</li>
+ *     <li>{@code {name}:processing}: 已被领取、尚未确认的元素, score 为可见性超时时间</li>
+ * </ol>
+ *
+ * <p>
+ *     轮询线程通过 Lua 脚本原子性地批量领取已到期的元素（从 ready 移入 processing）, 并将可见性超时仍未确认的元素放回 ready,
+ *     领取元素的实例崩溃后, 元素会被其它实例重新投递; 成员为序列化后的原始字节, 确认时按字节与领取时的可见性超时时间删除,
+ *     超时后已被重新领取的元素不会被旧的领取确认, 同一次领取只投递一次.
+ * </p>
+ *
+ * <p>消费方式:</p>
+ * <ol>
+ *     <li>{@link #subscribe(String, Consumer)}: 在本地线程池中批量执行, 执行成功后确认, 失败或过载时等待重新投递（至少一次）</li>
+ *     <li>{@link #take()}、{@link #drain(Collection, int)}: 即 {@link TaskPool#pull()} 等, 取出时确认（至多一次）</li>
+ * </ol>
+ *
+ * <b style="color:red">相同的元素只保留一份, 重复 push 以最后一次的到期时间为准; 元素应为订单号等轻量标识</b>
+ *
+ * @param <T> 泛型
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class RedisDelayQueue<T> implements DelayEngine<T> {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = Logger.getLogger("com.cache.tool.RedisDelayQueue");
+
+    /**
+     * 添加元素: KEYS[1] ready; ARGV[1] 到期时间, ARGV[2] 元素
+     */
+    private static final RedisScript<Long> PUSH = new DefaultRedisScript<>(
+            "return redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])", Long.class);
+
+    /**
+     * 领取元素: KEYS[1] ready, KEYS[2] processing; ARGV[1] 当前时间, ARGV[2] 可见性超时, ARGV[3] 最多领取的数量
+     *
+     * <p>先将可见性超时的元素放回 ready, 再将已到期的元素移入 processing</p>
+     */
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<byte[]>> CLAIM = new DefaultRedisScript<>(
+            "local now = tonumber(ARGV[1])\n" +
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', now, 'LIMIT', 0, ARGV[3])\n" +
+            "for i = 1, #expired do\n" +
+            "    redis.call('ZREM', KEYS[2], expired[i])\n" +
+            "    redis.call('ZADD', KEYS[1], now, expired[i])\n" +
+            "end\n" +
+            "local items = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'LIMIT', 0, ARGV[3])\n" +
+            "local deadline = now + tonumber(ARGV[2])\n" +
+            "for i = 1, #items do\n" +
+            "    redis.call('ZREM', KEYS[1], items[i])\n" +
+            "    redis.call('ZADD', KEYS[2], deadline, items[i])\n" +
+            "end\n" +
+            "return items", (Class<List<byte[]>>) (Class<?>) List.class);
+
+    /**
+     * 确认元素: KEYS[1] processing; ARGV 依次为领取时的可见性超时时间与元素
+     *
+     * <p>只删除可见性超时时间未变的元素, 已超时并被重新领取的元素不受影响; 返回每个元素是否确认成功（1 或 0）</p>
+     */
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Long>> ACK = new DefaultRedisScript<>(
+            "local acked = {}\n" +
+            "for i = 1, #ARGV, 2 do\n" +
+            "    local score = redis.call('ZSCORE', KEYS[1], ARGV[i + 1])\n" +
+            "    if score and tonumber(score) == tonumber(ARGV[i]) then\n" +
+            "        redis.call('ZREM', KEYS[1], ARGV[i + 1])\n" +
+            "        acked[#acked + 1] = 1\n" +
+            "    else\n" +
+            "        acked[#acked + 1] = 0\n" +
+            "    end\n" +
+            "end\n" +
+            "return acked", (Class<List<Long>>) (Class<?>) List.class);
+
+    /**
+     * 删除元素（取消）: KEYS[1] 有序集合; ARGV 元素
+     */
+    private static final RedisScript<Long> REMOVE = new DefaultRedisScript<>(
+            "return redis.call('ZREM', KEYS[1], unpack(ARGV))", Long.class);
+
+    /**
+     * 归还元素: KEYS[1] ready, KEYS[2] processing; ARGV[1] 当前时间, 之后依次为领取时的可见性超时时间与元素
+     *
+     * <p>与 {@link #ACK} 相同, 只归还可见性超时时间未变的元素, 已超时并被其它实例重新领取的元素不受影响</p>
+     */
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "local released = 0\n" +
+            "for i = 2, #ARGV, 2 do\n" +
+            "    local score = redis.call('ZSCORE', KEYS[2], ARGV[i + 1])\n" +
+            "    if score and tonumber(score) == tonumber(ARGV[i]) then\n" +
+            "        redis.call('ZREM', KEYS[2], ARGV[i + 1])\n" +
+            "        redis.call('ZADD', KEYS[1], ARGV[1], ARGV[i + 1])\n" +
+            "        released = released + 1\n" +
+            "    end\n" +
+            "end\n" +
+            "return released", Long.class);
+
+    /**
+     * 元素数量: KEYS[1] ready, KEYS[2] processing
+     */
+    private static final RedisScript<Long> SIZE = new DefaultRedisScript<>(
+            "return redis.call('ZCARD', KEYS[1]) + redis.call('ZCARD', KEYS[2])", Long.class);
+
+    /**
+     * {@link RedisTool}
+     */
+    private final RedisTool redis;
+
+    /**
+     * 元素序列化
+     */
+    private final RedisSerializer<T> serializer;
+
+    /**
+     * ready、processing 有序集合的键
+     */
+    private final List<String> keys;
+
+    /**
+     * 可见性超时（毫秒）, 领取后超过该时长仍未确认的元素将被重新投递
+     */
+    private final long visibility;
+
+    /**
+     * 每次最多领取的数量
+     */
+    private final int batchSize;
+
+    /**
+     * 无到期元素时的轮询间隔（毫秒）
+     */
+    private final long interval;
+
+    /**
+     * 已领取、等待 take 的元素
+     */
+    private final BlockingQueue<Claimed> buffer = new LinkedBlockingQueue<>();
+
+    /**
+     * 轮询线程
+     */
+    private final Thread poller;
+
+    /**
+     * 订阅的线程池名称与批量消费, 未订阅时为 null
+     */
+    private volatile String pool;
+    private volatile Consumer<List<T>> consumer;
+
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean closed;
+
+    /**
+     * 构造函数: 使用与 {@link RedisTool} 相同的 JSON 序列化, 可见性超时 30 秒, 每批最多 100 个, 轮询间隔 100 毫秒
+     *
+     * @param redis {@link RedisTool}
+     * @param name  队列名称
+     */
+    @SuppressWarnings("unchecked")
+    public RedisDelayQueue(RedisTool redis, String name) {
+        this(redis, name, (RedisSerializer<T>) new JsonSerializer<>(Object.class), 30000, 100, 100);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param redis      {@link RedisTool}
+     * @param name       队列名称
+     * @param serializer 元素序列化
+     * @param visibility 可见性超时（毫秒）
+     * @param batchSize  每次最多领取的数量
+     * @param interval   无到期元素时的轮询间隔（毫秒）
+     */
+    public RedisDelayQueue(RedisTool redis, String name, RedisSerializer<T> serializer, long visibility, int batchSize, long interval) {
+        this.redis = redis;
+        this.serializer = serializer;
+        this.keys = Arrays.asList("{" + name + "}:ready", "{" + name + "}:processing");
+        this.visibility = visibility;
+        this.batchSize = Math.max(1, batchSize);
+        this.interval = interval;
+        this.poller = new Thread(this::poll, "Redis-delay-" + name);
+        this.poller.setDaemon(true);
+        this.poller.start();
+    }
+
+    @Override
+    public Timeout push(long delay, T t, TimeUnit unit) {
+        long deadline = System.currentTimeMillis() + unit.toMillis(Math.max(0, delay));
+        byte[] member = serializer.serialize(t);
+        redis.executeRaw(PUSH, keys.subList(0, 1), bytes(deadline), member);
+        return new RedisTimeout(member, deadline);
+    }
+
+    /**
+     * 取出一个已到期的元素, 在本地缓冲中超过可见性超时的元素已被重新投递, 直接丢弃
+     *
+     * @return T
+     * @throws InterruptedException 等待时被中断
+     */
+    @Override
+    public T take() throws InterruptedException {
+        while (true) {
+            Claimed claimed = buffer.take();
+            if (ack(Collections.singletonList(claimed)).get(0)) {
+                return serializer.deserialize(claimed.member);
+            }
+        }
+    }
+
+    @Override
+    public int drain(Collection<? super T> sink, int max) {
+        List<Claimed> claims = new ArrayList<>();
+        buffer.drainTo(claims, max);
+        if (claims.isEmpty()) {
+            return 0;
+        }
+        List<Boolean> acked = ack(claims);
+        int count = 0;
+        for (int i = 0; i < claims.size(); i++) {
+            if (acked.get(i)) {
+                sink.add(serializer.deserialize(claims.get(i).member));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 集群中等待到期与已领取未确认的元素数量
+     *
+     * @return long
+     */
+    @Override
+    public long size() {
+        Long size = redis.executeRaw(SIZE, keys);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 停止轮询, 已领取但未被 take 的元素立即归还给其它实例, 本地缓冲中已超时并被重新领取的元素不归还
+     */
+    @Override
+    public void close() {
+        closed = true;
+        poller.interrupt();
+        List<Claimed> claims = new ArrayList<>();
+        buffer.drainTo(claims);
+        if (!claims.isEmpty()) {
+            byte[][] args = new byte[claims.size() * 2 + 1][];
+            args[0] = bytes(System.currentTimeMillis());
+            for (int i = 0; i < claims.size(); i++) {
+                args[i * 2 + 1] = bytes(claims.get(i).deadline);
+                args[i * 2 + 2] = claims.get(i).member;
+            }
+            redis.executeRaw(RELEASE, keys, args);
+        }
+    }
+
+    /**
+     * 订阅到期元素, 每批在指定的本地线程池中执行, 执行成功后确认
+     *
+     * <p>消费抛出异常、线程池过载或实例崩溃时不确认, 可见性超时后由任意实例重新投递, 消费逻辑应保证幂等</p>
+     *
+     * @param pool     {@link TaskPool} 线程池名称
+     * @param consumer 批量消费
+     */
+    public void subscribe(String pool, Consumer<List<T>> consumer) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+        this.consumer = Objects.requireNonNull(consumer, "consumer");
+    }
+
+    /**
+     * 轮询线程主循环
+     */
+    private void poll() {
+        while (!closed) {
+            try {
+                if (consumer == null) {
+                    // 无人 take 时, 超过可见性超时的元素已可被重新领取, 不再占用本地缓冲
+                    long now = System.currentTimeMillis();
+                    buffer.removeIf(claimed -> claimed.deadline <= now);
+                }
+                int room = consumer != null ? batchSize : batchSize - buffer.size();
+                int claimed = room > 0 ? claim(room) : 0;
+                if (claimed < room || room <= 0) {
+                    TimeUnit.MILLISECONDS.sleep(interval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (closed) {
+                    // 关闭时中断了正在执行的命令
+                    return;
+                }
+                log.log(Level.SEVERE, "Redis delay queue poll Exception: ", e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(interval);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 批量领取已到期的元素, 交给订阅者或放入本地缓冲
+     *
+     * @param max 最多领取的数量
+     * @return 实际领取的数量, 线程池拒绝时为 0, 以便轮询线程等待后再领取
+     */
+    private int claim(int max) {
+        long now = System.currentTimeMillis();
+        List<byte[]> members = redis.executeRaw(CLAIM, keys, bytes(now), bytes(visibility), bytes(max));
+        if (members == null || members.isEmpty()) {
+            return 0;
+        }
+        long deadline = now + visibility;
+        List<Claimed> claims = new ArrayList<>(members.size());
+        members.forEach(member -> claims.add(new Claimed(member, deadline)));
+
+        Consumer<List<T>> subscriber = consumer;
+        if (subscriber == null) {
+            buffer.addAll(claims);
+            return claims.size();
+        }
+        try {
+            TaskPool.execute(pool, () -> {
+                List<T> list = new ArrayList<>(members.size());
+                members.forEach(member -> list.add(serializer.deserialize(member)));
+                subscriber.accept(list);
+                ack(claims);
+            });
+        } catch (RejectedExecutionException e) {
+            log.warning("Redis delay queue batch rejected by pool [" + pool + "], waiting for redelivery");
+            return 0;
+        }
+        return claims.size();
+    }
+
+    /**
+     * 确认元素, 只删除可见性超时时间与领取时相同的元素
+     *
+     * @param claims 已领取的元素
+     * @return 每个元素是否确认成功
+     */
+    private List<Boolean> ack(List<Claimed> claims) {
+        byte[][] args = new byte[claims.size() * 2][];
+        for (int i = 0; i < claims.size(); i++) {
+            args[i * 2] = bytes(claims.get(i).deadline);
+            args[i * 2 + 1] = claims.get(i).member;
+        }
+        List<Long> result = redis.executeRaw(ACK, keys.subList(1, 2), args);
+        List<Boolean> acked = new ArrayList<>(claims.size());
+        for (int i = 0; i < claims.size(); i++) {
+            acked.add(result != null && i < result.size() && Long.valueOf(1).equals(result.get(i)));
+        }
+        return acked;
+    }
+
+    /**
+     * 数值参数
+     *
+     * @param value 数值
+     * @return byte[]
+     */
+    private static byte[] bytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 已领取的元素
+     */
+    private static final class Claimed {
+
+        /**
+         * 序列化后的元素
+         */
+        private final byte[] member;
+
+        /**
+         * 领取时设置的可见性超时时间（毫秒）, 即 processing 中的 score
+         */
+        private final long deadline;
+
+        /**
+         * 构造函数
+         *
+         * @param member   序列化后的元素
+         * @param deadline 可见性超时时间（毫秒）
+         */
+        private Claimed(byte[] member, long deadline) {
+            this.member = member;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * 集群延迟队列元素的取消句柄
+     */
+    private final class RedisTimeout implements Timeout {
+
+        /**
+         * 序列化后的元素
+         */
+        private final byte[] member;
+
+        /**
+         * 到期时间（毫秒）
+         */
+        private final long deadline;
+
+        /**
+         * 是否已取消
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * 构造函数
+         *
+         * @param member   序列化后的元素
+         * @param deadline 到期时间（毫秒）
+         */
+        private RedisTimeout(byte[] member, long deadline) {
+            this.member = member;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 从 ready 中删除该元素, 已被领取的元素无法取消
+         *
+         * @return 是否取消成功
+         */
+        @Override
+        public boolean cancel() {
+            Long removed = redis.executeRaw(REMOVE, keys.subList(0, 1), member);
+            if (removed != null && removed > 0) {
+                cancelled = true;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return !cancelled && System.currentTimeMillis() >= deadline;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.cache.tool;
+
+import com.basic.tool.LeaseStore;
+import com.basic.tool.PlanSpec;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 Redis 的 {@link LeaseStore}, 供多节点部署的 {@link PlanSpec#lease(long, java.util.concurrent.TimeUnit)} 使用
+ *
+ * <pre>{@code
+ *     TaskPool.leaseStore(new RedisLeaseStore(redisTool));
+ *     TaskPool.plan(orderService::close, "close-order", PlanSpec.cron("0 * * * * ?").lease(15, TimeUnit.SECONDS));
+ * }</pre>
+ *
+ * <p>数据结构（集群模式下通过 {@code {key}} 哈希标签位于同一个哈希槽）:</p>
+ * <ol>
+ *     <li>{@code lease:{key}}: 哈希, 持有者与防护令牌, 过期时间即租约时长</li>
+ *     <li>{@code lease:{key}:fence}: 防护令牌计数器, 不过期, 保证令牌单调递增</li>
+ * </ol>
+ *
+ * <p>获取、续约、释放均通过 Lua 脚本原子性地校验持有者与令牌</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class RedisLeaseStore implements LeaseStore {
+
+    /**
+     * 获取租约: KEYS[1] 租约, KEYS[2] 令牌计数器; ARGV[1] 持有者, ARGV[2] 租约时长
+     */
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(
+            "local owner = redis.call('HGET', KEYS[1], 'owner')\n" +
+            "if owner and owner ~= ARGV[1] then\n" +
+            "    return -1\n" +
+            "end\n" +
+            "local token = redis.call('INCR', KEYS[2])\n" +
+            "redis.call('HSET', KEYS[1], 'owner', ARGV[1], 'token', token)\n" +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2])\n" +
+            "return token", Long.class);
+
+    /**
+     * 续约: KEYS[1] 租约; ARGV[1] 持有者, ARGV[2] 令牌, ARGV[3] 租约时长
+     */
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "local lease = redis.call('HMGET', KEYS[1], 'owner', 'token')\n" +
+            "if lease[1] == ARGV[1] and lease[2] == ARGV[2] then\n" +
+            "    return redis.call('PEXPIRE', KEYS[1], ARGV[3])\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    /**
+     * 释放租约: KEYS[1] 租约; ARGV[1] 持有者, ARGV[2] 令牌
+     */
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "local lease = redis.call('HMGET', KEYS[1], 'owner', 'token')\n" +
+            "if lease[1] == ARGV[1] and lease[2] == ARGV[2] then\n" +
+            "    return redis.call('DEL', KEYS[1])\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    /**
+     * {@link RedisTool}
+     */
+    private final RedisTool redis;
+
+    /**
+     * 构造函数
+     *
+     * @param redis {@link RedisTool}
+     */
+    public RedisLeaseStore(RedisTool redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public long acquire(String key, String owner, long ttl) {
+        Long token = redis.executeRaw(ACQUIRE, keys(key, true), bytes(owner), bytes(Long.toString(ttl)));
+        return token == null ? -1 : token;
+    }
+
+    @Override
+    public boolean renew(String key, String owner, long token, long ttl) {
+        Long renewed = redis.executeRaw(RENEW, keys(key, false),
+                bytes(owner), bytes(Long.toString(token)), bytes(Long.toString(ttl)));
+        return renewed != null && renewed == 1;
+    }
+
+    @Override
+    public void release(String key, String owner, long token) {
+        redis.executeRaw(RELEASE, keys(key, false), bytes(owner), bytes(Long.toString(token)));
+    }
+
+    /**
+     * 租约及令牌计数器的键
+     *
+     * @param key   租约名称
+     * @param fence 是否包含令牌计数器
+     * @return {@link List}
+     */
+    private static List<String> keys(String key, boolean fence) {
+        String lease = "lease:{" + key + "}";
+        return fence ? Arrays.asList(lease, lease + ":fence") : Collections.singletonList(lease);
+    }
+
+    /**
+     * 字符串转为 UTF-8 字节
+     *
+     * @param value 字符串
+     * @return byte[]
+     */
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,8 @@ package com.cache.tool;
 
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.util.Pair;
 
 import java.util.Collection;
@@ -125,6 +127,13 @@ import java.util.stream.Collectors;
  *             <li>{@link #numbers(String)}: 获取指定 Hash 表中键的数量</li>
  *         </ul>
  *     </li>
+ *     <li>
+ *         脚本(Lua)
+ *         <ul>
+ *             <li>{@link #execute(RedisScript, List, Object[])}: 原子性地执行 Lua 脚本</li>
+ *             <li>{@link #executeRaw(RedisScript, List, byte[][])}: 以原始字节原子性地执行 Lua 脚本</li>
+ *         </ul>
+ *     </li>
  * </ol>
  *
  * @author LZH
@@ -627,7 +636,7 @@ public class RedisTool {
      * @since 1.0.6
      */
     public <T> Long drop(String key, T... ts) {
-        return template.opsForZSet().remove(key, (Object) ts);
+        return template.opsForZSet().remove(key, (Object[]) ts);
     }
 
     /**
@@ -1045,4 +1054,37 @@ public class RedisTool {
         return template.opsForHash().size(key);
     }
 
+
+    /**
+     * 原子性地执行 Lua 脚本, 参数与结果均使用 {@link RedisTemplate} 值的序列化方式
+     *
+     * <p>集群模式下, {@code keys} 须位于同一个哈希槽, 例如使用 {@code {tag}:a}、{@code {tag}:b} 形式的键</p>
+     *
+     * @param script {@link RedisScript}
+     * @param keys   脚本中的 KEYS
+     * @param args   脚本中的 ARGV
+     * @param <T>    泛型
+     * @return 脚本的返回值
+     * @since 1.0.13
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        return template.execute(script, keys, args);
+    }
+
+    /**
+     * 以原始字节原子性地执行 Lua 脚本, 参数不做序列化, 结果不做反序列化（bulk 回复为 byte[]）
+     *
+     * <p>适用于需要按字节精确匹配成员的场景, 例如先取出再删除有序集合中的元素</p>
+     *
+     * @param script {@link RedisScript}
+     * @param keys   脚本中的 KEYS
+     * @param args   脚本中的 ARGV
+     * @param <T>    泛型
+     * @return 脚本的返回值
+     * @since 1.0.13
+     */
+    public <T> T executeRaw(RedisScript<T> script, List<String> keys, byte[]... args) {
+        return template.execute(script, RedisSerializer.byteArray(), (RedisSerializer<T>) RedisSerializer.byteArray(), keys, (Object[]) args);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.cache.tool;
+
+import com.basic.tool.TaskPool;
+import com.cache.conf.RedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RedisDelayQueue} 集成测试, 使用本地启动的 redis-server（embedded-redis）
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class RedisDelayQueueTest {
+
+    private static RedisServer server;
+
+    private static LettuceConnectionFactory factory;
+
+    private static RedisTool redis;
+
+    @BeforeAll
+    static void start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RedisServer(port);
+        server.start();
+        factory = new LettuceConnectionFactory("127.0.0.1", port);
+        factory.afterPropertiesSet();
+        redis = new RedisTool(new RedisConfig().redisTemplate(factory));
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        factory.destroy();
+        server.stop();
+    }
+
+    /**
+     * 领取后 take 即确认, processing 中不再保留
+     */
+    @Test
+    void takeClaimsAndAcknowledges() throws InterruptedException {
+        RedisDelayQueue<String> queue = queue("take", 5000);
+        try {
+            queue.push(50, "a", TimeUnit.MILLISECONDS);
+            assertEquals(1, queue.size());
+            assertEquals("a", queue.take());
+            assertEquals(0, queue.size());
+        } finally {
+            queue.close();
+        }
+    }
+
+    /**
+     * 批量取出已到期的元素, 未到期的元素保留
+     */
+    @Test
+    void drainReturnsExpiredOnly() {
+        RedisDelayQueue<String> queue = queue("drain", 5000);
+        try {
+            queue.push(0, "a", TimeUnit.MILLISECONDS);
+            queue.push(0, "b", TimeUnit.MILLISECONDS);
+            queue.push(1, "later", TimeUnit.HOURS);
+            List<String> sink = new ArrayList<>();
+            await(() -> {
+                queue.drain(sink, 10);
+                return sink.size() >= 2;
+            });
+            Collections.sort(sink);
+            assertEquals(Arrays.asList("a", "b"), sink);
+            assertEquals(1, queue.size());
+        } finally {
+            queue.close();
+        }
+    }
+
+    /**
+     * 订阅者失败未确认的元素, 可见性超时后被其它实例重新投递
+     */
+    @Test
+    void unacknowledgedIsRedeliveredAfterVisibilityTimeout() throws InterruptedException {
+        RedisDelayQueue<String> failing = queue("redeliver", 1000);
+        List<String> attempts = new CopyOnWriteArrayList<>();
+        failing.subscribe(TaskPool.DEFAULT, list -> {
+            attempts.addAll(list);
+            throw new IllegalStateException("consumer failed");
+        });
+        // 领取一定在 push 之后, 重新投递不早于 push 后的一个可见性超时
+        long pushed = System.nanoTime();
+        failing.push(0, "x", TimeUnit.MILLISECONDS);
+        await(() -> !attempts.isEmpty());
+        failing.close();
+
+        RedisDelayQueue<String> other = queue("redeliver", 1000);
+        try {
+            assertEquals("x", other.take());
+            assertTrue(System.nanoTime() - pushed >= TimeUnit.MILLISECONDS.toNanos(950), "redelivered before visibility timeout");
+            assertEquals(Collections.singletonList("x"), attempts);
+            assertEquals(0, other.size());
+        } finally {
+            other.close();
+        }
+    }
+
+    /**
+     * 本地缓冲中超过可见性超时的元素被重新领取后只投递一次
+     */
+    @Test
+    void staleBufferedMemberIsDeliveredOnce() throws InterruptedException {
+        RedisDelayQueue<String> queue = queue("stale", 200);
+        try {
+            queue.push(0, "d", TimeUnit.MILLISECONDS);
+            // 无人 take, 元素在本地缓冲中多次超过可见性超时并被重新领取
+            TimeUnit.MILLISECONDS.sleep(900);
+            List<String> sink = new ArrayList<>();
+            await(() -> {
+                queue.drain(sink, 10);
+                return !sink.isEmpty();
+            });
+            TimeUnit.MILLISECONDS.sleep(500);
+            queue.drain(sink, 10);
+            assertEquals(Collections.singletonList("d"), sink);
+            assertEquals(0, queue.size());
+        } finally {
+            queue.close();
+        }
+    }
+
+    /**
+     * 关闭时不归还本地缓冲中已超时、正被其它实例消费的元素, 避免重复投递
+     */
+    @Test
+    void closeDoesNotReleaseReclaimedMember() throws InterruptedException {
+        RedisDelayQueue<String> other = null;
+        CountDownLatch consuming = new CountDownLatch(1);
+        List<String> attempts = new CopyOnWriteArrayList<>();
+        // 轮询间隔 5 秒: 领取后本地缓冲中的元素在关闭前不会被清理
+        RedisDelayQueue<String> stale = new RedisDelayQueue<>(redis, "release", RedisSerializer.string(), 200, 100, 5000);
+        try {
+            stale.push(0, "r", TimeUnit.MILLISECONDS);
+            TimeUnit.MILLISECONDS.sleep(100);
+            other = queue("release", 5000);
+            other.subscribe(TaskPool.DEFAULT, list -> {
+                attempts.addAll(list);
+                try {
+                    consuming.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            await(() -> !attempts.isEmpty());
+        } finally {
+            stale.close();
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(300);
+            consuming.countDown();
+            RedisDelayQueue<String> consumer = other;
+            await(() -> consumer.size() == 0);
+            assertEquals(Collections.singletonList("r"), attempts);
+        } finally {
+            other.close();
+        }
+    }
+
+    /**
+     * 创建队列, 轮询间隔 20 毫秒
+     *
+     * @param name       队列名称
+     * @param visibility 可见性超时（毫秒）
+     * @return {@link RedisDelayQueue}
+     */
+    private static RedisDelayQueue<String> queue(String name, long visibility) {
+        return new RedisDelayQueue<>(redis, name, RedisSerializer.string(), visibility, 100, 20);
+    }
+
+    /**
+     * 等待条件成立, 最多 5 秒
+     *
+     * @param condition 条件
+     */
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 seconds");
+            try {
+                TimeUnit.MILLISECONDS.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.cache.tool;
+
+import com.cache.conf.RedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RedisLeaseStore} 集成测试, 使用本地启动的 redis-server（embedded-redis）
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+class RedisLeaseStoreTest {
+
+    private static final long TTL = 300;
+
+    private static RedisServer server;
+
+    private static LettuceConnectionFactory factory;
+
+    private static RedisLeaseStore store;
+
+    @BeforeAll
+    static void start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RedisServer(port);
+        server.start();
+        factory = new LettuceConnectionFactory("127.0.0.1", port);
+        factory.afterPropertiesSet();
+        store = new RedisLeaseStore(new RedisTool(new RedisConfig().redisTemplate(factory)));
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        factory.destroy();
+        server.stop();
+    }
+
+    /**
+     * 同一时刻只有一个持有者, 释放后其它节点以更大的令牌获取
+     */
+    @Test
+    void exclusiveAcquireAndRelease() {
+        long first = store.acquire("release", "node-a", TTL);
+        assertTrue(first > 0);
+        assertEquals(-1, store.acquire("release", "node-b", TTL));
+
+        store.release("release", "node-a", first);
+        long second = store.acquire("release", "node-b", TTL);
+        assertTrue(second > first);
+    }
+
+    /**
+     * 续约延长租约, 未续约的租约过期后被接管
+     */
+    @Test
+    void renewalAndExpiry() throws InterruptedException {
+        long token = store.acquire("expiry", "node-a", TTL);
+        for (int i = 0; i < 3; i++) {
+            TimeUnit.MILLISECONDS.sleep(TTL / 2);
+            assertTrue(store.renew("expiry", "node-a", token, TTL));
+        }
+        assertEquals(-1, store.acquire("expiry", "node-b", TTL));
+
+        TimeUnit.MILLISECONDS.sleep(TTL + 100);
+        assertTrue(store.acquire("expiry", "node-b", TTL) > token);
+    }
+
+    /**
+     * 被接管后, 旧令牌的续约与释放均被拒绝, 不影响新的持有者
+     */
+    @Test
+    void staleTokenIsRejected() throws InterruptedException {
+        long stale = store.acquire("fence", "node-a", TTL);
+        TimeUnit.MILLISECONDS.sleep(TTL + 100);
+        long current = store.acquire("fence", "node-b", TTL);
+        assertTrue(current > stale);
+
+        assertFalse(store.renew("fence", "node-a", stale, TTL));
+        store.release("fence", "node-a", stale);
+        assertEquals(-1, store.acquire("fence", "node-a", TTL));
+        assertTrue(store.renew("fence", "node-b", current, TTL));
+    }
+}
@@ -19,8 +19,10 @@ public @interface Validation {
     /**
      * 必填, 实现于 {@link ValidInterface} 接口的自定义参数校验逻辑类; 同时需要注入 Spring 容器中
      *
+     * <p>可指定多个, 按声明顺序依次校验, 如 {@code @Validation({LoginValid.class, CaptchaValid.class})}</p>
+     *
      * @return {@link ValidInterface}
      */
-    Class<? extends ValidInterface> value();
+    Class<? extends ValidInterface>[] value();
 
 }
@@ -0,0 +1,167 @@
+package com.easy.aspect;
+
+import com.easy.interfaces.ReactiveValidInterface;
+import com.easy.interfaces.ValidInterface;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * 返回 {@link Mono}、{@link Flux} 的方法的参数校验, 只在 Reactor 存在时由 {@link ValidParams} 加载
+ *
+ * <ol>
+ *     <li>{@link Mono} 类型的参数替换为 {@link Mono#cache()}, 校验与目标方法读取的是同一个值（请求体只能读取一次）</li>
+ *     <li>
+ *         {@link Flux} 类型的参数（如 {@code @RequestBody Flux<T>}）同样替换为 {@link Flux#cache()}, 校验时传入全部元素组成的 {@link List};
+ *         元素在校验前全部读入内存, 数据量大的流不宜使用参数校验
+ *     </li>
+ *     <li>{@link ReactiveValidInterface} 直接组合在响应流中</li>
+ *     <li>{@link ValidInterface} 视为阻塞的校验（如查询数据库、Redis）, 在有界的 {@link Schedulers#boundedElastic()} 中执行</li>
+ *     <li>校验按声明顺序依次执行, 全部通过后才调用目标方法</li>
+ * </ol>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+final class ReactiveValidation {
+
+    /**
+     * 非响应式方法
+     */
+    static final int NONE = 0;
+
+    /**
+     * 返回 {@link Mono} 的方法
+     */
+    static final int MONO = 1;
+
+    /**
+     * 返回 {@link Flux} 或 {@link Publisher} 的方法
+     */
+    static final int FLUX = 2;
+
+    /**
+     * Private Constructor
+     */
+    private ReactiveValidation() {}
+
+    /**
+     * 按返回值类型判断方法是否为响应式
+     *
+     * @param returnType 返回值类型
+     * @return {@link #NONE}、{@link #MONO}、{@link #FLUX}
+     */
+    static int mode(Class<?> returnType) {
+        if (Mono.class.isAssignableFrom(returnType)) {
+            return MONO;
+        }
+        if (returnType == Flux.class || returnType == Publisher.class) {
+            return FLUX;
+        }
+        return NONE;
+    }
+
+    /**
+     * 校验类中是否有 {@link ReactiveValidInterface}
+     *
+     * @param valids 校验类
+     * @return boolean
+     */
+    static boolean reactive(ValidInterface[] valids) {
+        for (ValidInterface valid : valids) {
+            if (valid instanceof ReactiveValidInterface) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前线程是否为事件循环等不允许阻塞的线程
+     *
+     * @return boolean
+     */
+    static boolean nonBlocking() {
+        return Schedulers.isInNonBlockingThread();
+    }
+
+    /**
+     * 将校验组合在目标方法之前, 订阅时才执行
+     *
+     * @param joinPoint {@link ProceedingJoinPoint}
+     * @param valids    校验类
+     * @param stats     校验耗时
+     * @param mode      {@link #MONO} 或 {@link #FLUX}
+     * @return {@link Mono} 或 {@link Flux}
+     */
+    @SuppressWarnings("unchecked")
+    static Object around(ProceedingJoinPoint joinPoint, ValidInterface[] valids, ValidStats stats, int mode) {
+        Object[] args = joinPoint.getArgs();
+        Object[] values = args.clone();
+        Mono<Void> ready = Mono.empty();
+        for (int i = 0; i < args.length; i++) {
+            int index = i;
+            if (args[i] instanceof Mono) {
+                Mono<Object> cached = ((Mono<Object>) args[i]).cache();
+                args[i] = cached;
+                values[i] = null;
+                ready = ready.then(cached.doOnNext(value -> values[index] = value).then());
+            } else if (args[i] instanceof Flux) {
+                Flux<Object> cached = ((Flux<Object>) args[i]).cache();
+                args[i] = cached;
+                values[i] = null;
+                ready = ready.then(cached.collectList().doOnNext(list -> values[index] = list).then());
+            }
+        }
+        Mono<Void> validation = ready.then(Mono.defer(() -> {
+            long begin = System.nanoTime();
+            return validate(valids, values).doFinally(signal -> stats.record(System.nanoTime() - begin));
+        }));
+        if (mode == MONO) {
+            return validation.then(Mono.defer(() -> (Mono<Object>) proceed(joinPoint, args)));
+        }
+        return validation.thenMany(Flux.defer(() -> (Publisher<Object>) proceed(joinPoint, args)));
+    }
+
+    /**
+     * 按声明顺序依次校验, 第一个失败的校验结束整个流程
+     *
+     * @param valids 校验类
+     * @param values 已解析的参数
+     * @return {@link Mono}
+     */
+    private static Mono<Void> validate(ValidInterface[] valids, Object[] values) {
+        Scheduler scheduler = Schedulers.boundedElastic();
+        Mono<Void> chain = Mono.empty();
+        for (ValidInterface valid : valids) {
+            if (valid instanceof ReactiveValidInterface) {
+                chain = chain.then(Mono.defer(() -> ((ReactiveValidInterface) valid).validate(values)));
+            } else {
+                chain = chain.then(Mono.<Void>fromRunnable(() -> valid.handle(values)).subscribeOn(scheduler));
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * 调用目标方法, 异常转为错误信号
+     *
+     * @param joinPoint {@link ProceedingJoinPoint}
+     * @param args      参数, {@link Mono}、{@link Flux} 参数已替换为缓存的实例
+     * @return {@link Publisher}
+     */
+    private static Publisher<?> proceed(ProceedingJoinPoint joinPoint, Object[] args) {
+        try {
+            Publisher<?> result = (Publisher<?>) joinPoint.proceed(args);
+            return result == null ? Mono.empty() : result;
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+}
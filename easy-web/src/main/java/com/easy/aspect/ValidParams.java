@@ -3,21 +3,37 @@ package com.easy.aspect;
 import com.basic.exception.BaseException;
 import com.easy.annotations.Validation;
 import com.easy.interfaces.ValidInterface;
-import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.BeansException;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.*;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.lang.NonNull;
+import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 参数校验的代理类
  *
+ * <p>
+ *     每个方法首次调用时解析 {@link Validation} 注解并从 Spring 容器中获取校验类, 之后只查询一次 {@link ConcurrentHashMap}（不加锁）;
+ *     校验类因此应为单例. 各方法的校验耗时通过 {@link #stats()} 获取
+ * </p>
+ *
+ * <p>
+ *     返回 {@code Mono}、{@code Flux} 的方法（WebFlux 控制器）由 {@link ReactiveValidation} 将校验组合在响应流之前,
+ *     {@code Mono}、{@code Flux} 参数解析为其中的值后再校验; {@link com.easy.interfaces.ReactiveValidInterface} 不阻塞,
+ *     其它 {@link ValidInterface} 在有界的弹性线程池中执行, 不占用事件循环线程.
+ *     返回值不是 {@code Mono}、{@code Flux} 的方法在事件循环线程中使用 {@link com.easy.interfaces.ReactiveValidInterface} 时
+ *     抛出 {@link IllegalStateException}, 不阻塞事件循环
+ * </p>
+ *
  * @author LZH
  * @version 1.0.11
  * @since 2023/12/30
@@ -28,21 +44,80 @@ public class ValidParams implements ApplicationContextAware {
 
     private static ApplicationContext applicationContext;
 
+    /**
+     * 是否存在 Reactor, 不存在时所有方法均同步校验
+     */
+    private static final boolean REACTOR = ClassUtils.isPresent("reactor.core.publisher.Mono", ValidParams.class.getClassLoader());
+
+    /**
+     * 已解析的方法, key 为被代理的方法
+     */
+    private final Map<Method, Validator> validators = new ConcurrentHashMap<>();
+
     /**
      * 方法执行之前的校验代理
      *
-     * @param joinPoint  {@link JoinPoint}
+     * @param joinPoint  {@link ProceedingJoinPoint}
+     * @return 目标方法的返回值
+     * @throws Throwable 校验失败或目标方法的异常
      */
-    @Before(value = "@annotation(com.easy.annotations.Validation)")
-    public void doBefore(JoinPoint joinPoint) {
+    @Around(value = "@annotation(com.easy.annotations.Validation)")
+    public Object doAround(ProceedingJoinPoint joinPoint) throws Throwable {
         Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
-        Validation annotation = method.getAnnotation(Validation.class);
-        Class<?> clazz = annotation.value();
-        ValidInterface anInterface = (ValidInterface) applicationContext.getBean(clazz);
-        Optional
-            .of(anInterface)
-            .orElseThrow(this::isNull)
-            .handle(joinPoint.getArgs());
+        Validator validator = validators.get(method);
+        if (validator == null) {
+            validator = validators.computeIfAbsent(method, this::resolve);
+        }
+        if (validator.mode != 0) {
+            return ReactiveValidation.around(joinPoint, validator.valids, validator.stats, validator.mode);
+        }
+        if (validator.reactive && ReactiveValidation.nonBlocking()) {
+            throw new IllegalStateException("ReactiveValidInterface cannot block the event loop in "
+                    + validator.stats.getMethod() + ", return Mono or Flux instead");
+        }
+        long begin = System.nanoTime();
+        try {
+            Object[] args = joinPoint.getArgs();
+            for (ValidInterface valid : validator.valids) {
+                valid.handle(args);
+            }
+        } finally {
+            validator.stats.record(System.nanoTime() - begin);
+        }
+        return joinPoint.proceed();
+    }
+
+    /**
+     * 获取各方法的累计校验耗时
+     *
+     * @return {@link ValidStats}
+     */
+    public Collection<ValidStats> stats() {
+        List<ValidStats> stats = new ArrayList<>(validators.size());
+        validators.values().forEach(validator -> stats.add(validator.stats));
+        stats.sort(Comparator.comparing(ValidStats::getMethod));
+        return Collections.unmodifiableList(stats);
+    }
+
+    /**
+     * 解析方法上的 {@link Validation} 注解, 获取校验类
+     *
+     * @param method 被代理的方法
+     * @return {@link Validator}
+     */
+    private Validator resolve(Method method) {
+        Validation annotation = AnnotationUtils.findAnnotation(method, Validation.class);
+        if (annotation == null) {
+            throw isNull();
+        }
+        Class<? extends ValidInterface>[] classes = annotation.value();
+        ValidInterface[] valids = new ValidInterface[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            valids[i] = applicationContext.getBean(classes[i]);
+        }
+        int mode = REACTOR ? ReactiveValidation.mode(method.getReturnType()) : 0;
+        boolean reactive = REACTOR && ReactiveValidation.reactive(valids);
+        return new Validator(valids, new ValidStats(method.getDeclaringClass().getSimpleName() + "#" + method.getName()), mode, reactive);
     }
 
     /**
@@ -70,4 +145,45 @@ public class ValidParams implements ApplicationContextAware {
     public void setApplicationContext(@NonNull ApplicationContext applicationContext) throws BeansException {
         ValidParams.applicationContext = applicationContext;
     }
+
+    /**
+     * 方法的校验类与耗时
+     */
+    private static final class Validator {
+
+        /**
+         * 校验类, 按声明顺序
+         */
+        private final ValidInterface[] valids;
+
+        /**
+         * 校验耗时
+         */
+        private final ValidStats stats;
+
+        /**
+         * 返回值类型, 见 {@link ReactiveValidation#mode(Class)}, 0 为非响应式方法
+         */
+        private final int mode;
+
+        /**
+         * 校验类中是否有 {@link com.easy.interfaces.ReactiveValidInterface}
+         */
+        private final boolean reactive;
+
+        /**
+         * 构造函数
+         *
+         * @param valids   校验类
+         * @param stats    校验耗时
+         * @param mode     返回值类型
+         * @param reactive 校验类中是否有 {@link com.easy.interfaces.ReactiveValidInterface}
+         */
+        private Validator(ValidInterface[] valids, ValidStats stats, int mode, boolean reactive) {
+            this.valids = valids;
+            this.stats = stats;
+            this.mode = mode;
+            this.reactive = reactive;
+        }
+    }
 }
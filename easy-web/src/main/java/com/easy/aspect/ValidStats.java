@@ -0,0 +1,100 @@
+package com.easy.aspect;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 {@link com.easy.annotations.Validation} 方法的累计校验耗时, 由 {@link ValidParams#stats()} 获取
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public final class ValidStats {
+
+    /**
+     * 方法, 如 {@code UserController#login}
+     */
+    private final String method;
+
+    /**
+     * 校验次数（含校验失败）
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * 累计耗时（纳秒）
+     */
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * 最大耗时（纳秒）
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 构造函数
+     *
+     * @param method 方法
+     */
+    ValidStats(String method) {
+        this.method = method;
+    }
+
+    /**
+     * 记录一次校验
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    void record(long nanos) {
+        count.increment();
+        total.add(nanos);
+        long m;
+        while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {
+            // 重试
+        }
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #method}
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * getter function
+     *
+     * @return {@link #count}
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 平均耗时（微秒）
+     *
+     * @return double
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : total.sum() / (double) n / 1000;
+    }
+
+    /**
+     * 最大耗时（微秒）
+     *
+     * @return long
+     */
+    public long getMax() {
+        return TimeUnit.NANOSECONDS.toMicros(max.get());
+    }
+
+    @Override
+    public String toString() {
+        return method + "{count=" + getCount() + ", mean=" + String.format("%.1f", getMean()) + "us, max=" + getMax() + "us}";
+    }
+}
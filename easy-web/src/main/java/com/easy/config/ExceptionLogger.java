@@ -0,0 +1,369 @@
+package com.easy.config;
+
+import com.basic.exception.BaseException;
+import org.slf4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 全局异常处理的日志记录, 供 {@link GlobalWebException}、{@link GlobalWebfluxException} 使用
+ *
+ * <ol>
+ *     <li>
+ *         指纹: 异常类型、原因的类型与前 {@value #FRAMES} 个栈帧; 无堆栈的 {@link BaseException} 为类型、错误码与提示.
+ *         同一指纹每 10 秒只输出一次, 期间被抑制的次数附加在下一次输出中, 累计次数由 {@link #suppressed()} 获取
+ *     </li>
+ *     <li>
+ *         {@link com.easy.interfaces.LogInterface} 通过容量为 {@value #CAPACITY} 的环形队列交给单独的线程执行, 不占用请求线程;
+ *         队列已满时丢弃并计数, 请求线程的 MDC 会传递到执行线程
+ *     </li>
+ * </ol>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+final class ExceptionLogger implements AutoCloseable {
+
+    /**
+     * 同一指纹两次输出的最小间隔（纳秒）
+     */
+    static final long INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * 参与指纹计算的栈帧数
+     */
+    static final int FRAMES = 5;
+
+    /**
+     * 异步队列的容量
+     */
+    static final int CAPACITY = 1024;
+
+    /**
+     * 最多记录的指纹数, 超出时清理已过期的指纹, 仍超出则不再限流
+     */
+    static final int MAX_FINGERPRINTS = 4096;
+
+    /**
+     * 日志
+     */
+    private final Logger log;
+
+    /**
+     * 各指纹的限流窗口
+     */
+    private final Map<Long, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * 上次清理指纹的时间（纳秒）
+     */
+    private final AtomicLong pruned = new AtomicLong(System.nanoTime());
+
+    /**
+     * 异步队列
+     */
+    private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(CAPACITY);
+
+    /**
+     * 队列已满被丢弃的次数, 由执行线程定期输出
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 传递请求线程的 MDC
+     */
+    private final MdcPropagator mdc = new MdcPropagator();
+
+    /**
+     * 执行线程, 首次提交时创建
+     */
+    private volatile Thread worker;
+
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean closed;
+
+    /**
+     * 构造函数
+     *
+     * @param log 日志
+     */
+    ExceptionLogger(Logger log) {
+        this.log = log;
+    }
+
+    /**
+     * 按指纹限流输出异常与堆栈
+     *
+     * @param msg 日志信息
+     * @param ex  {@link Throwable}
+     */
+    void error(String msg, Throwable ex) {
+        long suppressed = acquire(ex);
+        if (suppressed == 0) {
+            log.error(msg, ex);
+        } else if (suppressed > 0) {
+            log.error("{} (suppressed {} similar)", msg, suppressed, ex);
+        }
+    }
+
+    /**
+     * 按指纹限流输出 {@link BaseException}, 无堆栈时只输出错误码与提示
+     *
+     * @param ex {@link BaseException}
+     */
+    void error(BaseException ex) {
+        if (ex.hasStackTrace()) {
+            error(ex.getMsg(), ex);
+            return;
+        }
+        long suppressed = acquire(ex);
+        if (suppressed == 0) {
+            log.error("[{}] {}", ex.getCode(), ex.getMsg());
+        } else if (suppressed > 0) {
+            log.error("[{}] {} (suppressed {} similar)", ex.getCode(), ex.getMsg(), suppressed);
+        }
+    }
+
+    /**
+     * 异步执行, 队列已满时丢弃
+     *
+     * @param task 如 {@code () -> logInterface.log(ex)}
+     */
+    void dispatch(Runnable task) {
+        if (closed) {
+            run(task);
+            return;
+        }
+        Map<String, String> context = mdc.capture();
+        if (!queue.offer(() -> {
+            mdc.restore(context);
+            task.run();
+        })) {
+            dropped.increment();
+            return;
+        }
+        if (worker == null) {
+            start();
+        }
+    }
+
+    /**
+     * 各指纹累计被抑制的次数, key 为异常类型与抛出位置
+     *
+     * @return {@link Map}
+     */
+    Map<String, Long> suppressed() {
+        Map<String, Long> map = new TreeMap<>();
+        windows.values().forEach(window -> map.merge(window.label, window.total.sum(), Long::sum));
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 执行完队列中剩余的任务后停止执行线程, 最多等待 5 秒
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            closed = true;
+            thread = worker;
+        }
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 获取输出许可
+     *
+     * @param ex {@link Throwable}
+     * @return 上次输出以来被抑制的次数; -1 表示本次被抑制
+     */
+    private long acquire(Throwable ex) {
+        long now = System.nanoTime();
+        StackTraceElement[] trace = ex.getStackTrace();
+        long fingerprint = fingerprint(ex, trace);
+        Window window = windows.get(fingerprint);
+        if (window == null) {
+            if (windows.size() >= MAX_FINGERPRINTS && !prune(now)) {
+                return 0;
+            }
+            window = windows.computeIfAbsent(fingerprint, key -> new Window(label(ex, trace), now));
+        }
+        return window.acquire(now);
+    }
+
+    /**
+     * 计算指纹
+     *
+     * @param ex    {@link Throwable}
+     * @param trace 堆栈
+     * @return 指纹
+     */
+    private static long fingerprint(Throwable ex, StackTraceElement[] trace) {
+        long h = ex.getClass().getName().hashCode();
+        if (ex.getCause() != null) {
+            h = 31 * h + ex.getCause().getClass().getName().hashCode();
+        }
+        for (int i = 0, n = Math.min(FRAMES, trace.length); i < n; i++) {
+            StackTraceElement frame = trace[i];
+            h = 31 * h + frame.getClassName().hashCode();
+            h = 31 * h + frame.getMethodName().hashCode();
+            h = 31 * h + frame.getLineNumber();
+        }
+        if (trace.length == 0 && ex instanceof BaseException) {
+            BaseException base = (BaseException) ex;
+            h = 31 * h + base.getCode();
+            h = 31 * h + Objects.hashCode(base.getMsg());
+        }
+        return h;
+    }
+
+    /**
+     * 指纹的可读名称
+     *
+     * @param ex    {@link Throwable}
+     * @param trace 堆栈
+     * @return 如 {@code java.lang.NullPointerException at com.demo.UserService.get(UserService.java:42)}
+     */
+    private static String label(Throwable ex, StackTraceElement[] trace) {
+        if (trace.length > 0) {
+            return ex.getClass().getName() + " at " + trace[0];
+        }
+        if (ex instanceof BaseException) {
+            return ex.getClass().getName() + " [" + ((BaseException) ex).getCode() + "]";
+        }
+        return ex.getClass().getName();
+    }
+
+    /**
+     * 清理已过期的指纹, 每个间隔最多一次
+     *
+     * @param now 当前时间（纳秒）
+     * @return 清理后是否还能记录新的指纹
+     */
+    private boolean prune(long now) {
+        long last = pruned.get();
+        if (now - last >= INTERVAL && pruned.compareAndSet(last, now)) {
+            windows.values().removeIf(window -> now - window.start.get() >= INTERVAL);
+        }
+        return windows.size() < MAX_FINGERPRINTS;
+    }
+
+    /**
+     * 创建执行线程
+     */
+    private synchronized void start() {
+        if (worker != null || closed) {
+            return;
+        }
+        Thread thread = new Thread(this::drain, "Custom-exception-log");
+        thread.setDaemon(true);
+        thread.start();
+        worker = thread;
+    }
+
+    /**
+     * 执行线程: 依次执行队列中的任务, 关闭后执行完剩余的任务即退出
+     */
+    private void drain() {
+        while (true) {
+            Runnable task;
+            try {
+                task = closed ? queue.poll() : queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (task == null) {
+                return;
+            }
+            run(task);
+            long count = dropped.sum();
+            if (count > 0) {
+                dropped.add(-count);
+                log.warn("LogInterface queue is full, {} events dropped", count);
+            }
+        }
+    }
+
+    /**
+     * 执行任务, 异常不影响后续任务
+     *
+     * @param task 任务
+     */
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            log.warn("LogInterface Exception: ", e);
+        }
+    }
+
+    /**
+     * 单个指纹的限流窗口
+     */
+    private static final class Window {
+
+        /**
+         * 指纹的可读名称
+         */
+        private final String label;
+
+        /**
+         * 上次输出的时间（纳秒）
+         */
+        private final AtomicLong start;
+
+        /**
+         * 上次输出以来被抑制的次数
+         */
+        private final LongAdder suppressed = new LongAdder();
+
+        /**
+         * 累计被抑制的次数
+         */
+        private final LongAdder total = new LongAdder();
+
+        /**
+         * 构造函数
+         *
+         * @param label 指纹的可读名称
+         * @param now   当前时间（纳秒）, 首次即可输出
+         */
+        private Window(String label, long now) {
+            this.label = label;
+            this.start = new AtomicLong(now - INTERVAL);
+        }
+
+        /**
+         * 获取输出许可
+         *
+         * @param now 当前时间（纳秒）
+         * @return 上次输出以来被抑制的次数; -1 表示本次被抑制
+         */
+        private long acquire(long now) {
+            long last = start.get();
+            if (now - last >= INTERVAL && start.compareAndSet(last, now)) {
+                return suppressed.sumThenReset();
+            }
+            suppressed.increment();
+            total.increment();
+            return -1;
+        }
+    }
+}
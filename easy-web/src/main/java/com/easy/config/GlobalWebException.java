@@ -1,10 +1,12 @@
 package com.easy.config;
 
 import com.basic.domain.ResultVo;
+import com.basic.enums.StatusEnum;
 import com.basic.exception.BaseException;
 import com.easy.interfaces.LogInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
 
 /**
  * 全局异常处理（Tomcat 容器）
@@ -26,13 +29,18 @@ import javax.servlet.http.HttpServletResponse;
  *     <li>{@link MethodArgumentNotValidException} 参数校验异常</li>
  * </ol>
  *
+ * <p>
+ *     相同的异常（类型与抛出位置相同）每 10 秒只输出一次堆栈, {@link LogInterface} 在单独的线程中异步执行, 详见 {@link ExceptionLogger};
+ *     各异常被抑制的次数由 {@link #suppressed()} 获取
+ * </p>
+ *
  * @author LZH
  * @version 1.0.0
  * @since 2023/05/19
  */
 @RestControllerAdvice
 @ConditionalOnProperty(name = "easy.exception-web")
-public class GlobalWebException extends RuntimeException {
+public class GlobalWebException extends RuntimeException implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalWebException.class);
 
@@ -40,23 +48,28 @@ public class GlobalWebException extends RuntimeException {
     @Autowired(required = false)
     private LogInterface logInterface;
 
+    private final ExceptionLogger exceptionLogger = new ExceptionLogger(log);
+
     /**
      * 全局异常 {@link Exception} 捕获
      *
      * @param response {@link HttpServletResponse}
      * @param ex       {@link Exception}
      * @return {@link ResultVo}
+     * @throws Exception 响应已提交时重新抛出, 见 {@link #abortIfCommitted(HttpServletResponse, Exception)}
      */
     @ExceptionHandler(Exception.class)
-    public ResultVo<?> globalHandle(HttpServletResponse response, Exception ex) {
+    public ResultVo<?> globalHandle(HttpServletResponse response, Exception ex) throws Exception {
         // 设置 HTTP 响应码
         response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
 
+        LogInterface logInterface = this.logInterface;
         if (logInterface != null) {
-            logInterface.log(ex);
+            exceptionLogger.dispatch(() -> logInterface.log(ex));
         }
 
-        log.error(ex.getMessage(), ex);
+        abortIfCommitted(response, ex);
+        exceptionLogger.error(ex.getMessage(), ex);
         return ResultVo.fail();
     }
 
@@ -66,18 +79,22 @@ public class GlobalWebException extends RuntimeException {
      * @param response {@link HttpServletResponse}
      * @param ex       {@link BaseException}
      * @return {@link ResultVo}
+     * @throws BaseException 响应已提交时重新抛出, 见 {@link #abortIfCommitted(HttpServletResponse, Exception)}
      */
     @ExceptionHandler(BaseException.class)
-    public ResultVo<?> baseHandle(HttpServletResponse response, BaseException ex) {
+    public ResultVo<?> baseHandle(HttpServletResponse response, BaseException ex) throws BaseException {
         // 设置 HTTP 响应码
         response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
 
+        LogInterface logInterface = this.logInterface;
         if (logInterface != null) {
-            logInterface.log(ex);
+            exceptionLogger.dispatch(() -> logInterface.log(ex));
         }
 
-        log.error(ex.getMsg(), ex);
-        return StringUtils.hasLength(ex.getMsg()) ? ResultVo.fail(ex.getMsg()): ResultVo.fail();
+        abortIfCommitted(response, ex);
+        // 无堆栈的业务异常只记录错误码与提示
+        exceptionLogger.error(ex);
+        return ResultVo.fail(ex.getCode(), StringUtils.hasLength(ex.getMsg()) ? ex.getMsg() : StatusEnum.CODE_500.getMsg());
     }
 
     /**
@@ -95,12 +112,46 @@ public class GlobalWebException extends RuntimeException {
         // 设置 HTTP 响应码
         response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
 
+        LogInterface logInterface = this.logInterface;
         if (logInterface != null) {
-            logInterface.log(ex);
+            exceptionLogger.dispatch(() -> logInterface.log(ex));
         }
 
-        log.error(error.getDefaultMessage(), ex);
+        exceptionLogger.error(error.getDefaultMessage(), ex);
         return ResultVo.fail(error.getDefaultMessage());
     }
 
+    /**
+     * 响应已提交（如 {@code StreamResult} 已写出部分数据）时重新抛出异常, 不再追加 {@link ResultVo},
+     * 由容器中断连接使客户端感知到数据不完整, 日志由抛出方或容器记录; 未提交时丢弃缓冲区中已写出的部分数据
+     *
+     * @param response {@link HttpServletResponse}
+     * @param ex       异常
+     * @param <E>      异常的类型
+     * @throws E 响应已提交
+     */
+    private static <E extends Exception> void abortIfCommitted(HttpServletResponse response, E ex) throws E {
+        if (response.isCommitted()) {
+            throw ex;
+        }
+        response.resetBuffer();
+    }
+
+    /**
+     * 各异常累计被抑制的次数, key 为异常类型与抛出位置
+     *
+     * @return {@link Map}
+     */
+    public Map<String, Long> suppressed() {
+        return exceptionLogger.suppressed();
+    }
+
+    /**
+     * 执行完异步队列中剩余的 {@link LogInterface} 任务
+     */
+    @Override
+    public void destroy() {
+        exceptionLogger.close();
+    }
+
 }
@@ -1,13 +1,16 @@
 package com.easy.config;
 
 import com.basic.domain.ResultVo;
+import com.basic.enums.StatusEnum;
 import com.basic.exception.BaseException;
 import com.easy.interfaces.LogInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -16,6 +19,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ServerWebExchange;
 
+import java.util.Map;
+
 
 /**
  * 全局异常处理（Netty 容器）
@@ -26,13 +31,18 @@ import org.springframework.web.server.ServerWebExchange;
  *     <li>{@link MethodArgumentNotValidException} 参数校验异常</li>
  * </ol>
  *
+ * <p>
+ *     相同的异常（类型与抛出位置相同）每 10 秒只输出一次堆栈, {@link LogInterface} 在单独的线程中异步执行, 详见 {@link ExceptionLogger};
+ *     各异常被抑制的次数由 {@link #suppressed()} 获取
+ * </p>
+ *
  * @author LZH
  * @version 1.0.9
  * @since 2023/07/21
  */
 @RestControllerAdvice
 @ConditionalOnProperty(name = "easy.exception-webflux")
-public class GlobalWebfluxException {
+public class GlobalWebfluxException implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalWebfluxException.class);
 
@@ -40,23 +50,28 @@ public class GlobalWebfluxException {
     @Autowired(required = false)
     private LogInterface logInterface;
 
+    private final ExceptionLogger exceptionLogger = new ExceptionLogger(log);
+
     /**
      * 全局异常 {@link Exception} 捕获
      *
      * @param exchange {@link ServerWebExchange}
      * @param ex       {@link Exception}
      * @return {@link ResultVo}
+     * @throws Exception 响应已提交时重新抛出, 见 {@link #abortIfCommitted(ServerHttpResponse, Exception)}
      */
     @ExceptionHandler(Exception.class)
-    public ResultVo<?> globalHandle(ServerWebExchange exchange, Exception ex) {
+    public ResultVo<?> globalHandle(ServerWebExchange exchange, Exception ex) throws Exception {
         // 设置 HTTP 响应码
         exchange.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
 
+        LogInterface logInterface = this.logInterface;
         if (logInterface != null) {
-            logInterface.log(ex);
+            exceptionLogger.dispatch(() -> logInterface.log(ex));
         }
 
-        log.error(ex.getMessage(), ex);
+        abortIfCommitted(exchange.getResponse(), ex);
+        exceptionLogger.error(ex.getMessage(), ex);
         return ResultVo.fail();
     }
 
@@ -66,18 +81,22 @@ public class GlobalWebfluxException {
      * @param exchange {@link ServerWebExchange}
      * @param ex       {@link BaseException}
      * @return {@link ResultVo}
+     * @throws BaseException 响应已提交时重新抛出, 见 {@link #abortIfCommitted(ServerHttpResponse, Exception)}
      */
     @ExceptionHandler(BaseException.class)
-    public ResultVo<?> baseHandle(ServerWebExchange exchange, BaseException ex) {
+    public ResultVo<?> baseHandle(ServerWebExchange exchange, BaseException ex) throws BaseException {
         // 设置 HTTP 响应码
         exchange.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
 
+        LogInterface logInterface = this.logInterface;
         if (logInterface != null) {
-            logInterface.log(ex);
+            exceptionLogger.dispatch(() -> logInterface.log(ex));
         }
 
-        log.error(ex.getMsg(), ex);
-        return StringUtils.hasLength(ex.getMsg()) ? ResultVo.fail(ex.getMsg()): ResultVo.fail();
+        abortIfCommitted(exchange.getResponse(), ex);
+        // 无堆栈的业务异常只记录错误码与提示
+        exceptionLogger.error(ex);
+        return ResultVo.fail(ex.getCode(), StringUtils.hasLength(ex.getMsg()) ? ex.getMsg() : StatusEnum.CODE_500.getMsg());
     }
 
     /**
@@ -95,12 +114,45 @@ public class GlobalWebfluxException {
         // 设置 HTTP 响应码
         exchange.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
 
+        LogInterface logInterface = this.logInterface;
         if (logInterface != null) {
-            logInterface.log(ex);
+            exceptionLogger.dispatch(() -> logInterface.log(ex));
         }
 
-        log.error(error.getDefaultMessage(), ex);
+        exceptionLogger.error(error.getDefaultMessage(), ex);
         return ResultVo.fail(error.getDefaultMessage());
     }
 
+    /**
+     * 响应已提交（如 {@code StreamResult} 已写出部分数据）时重新抛出异常, 不再追加 {@link ResultVo},
+     * 由 WebFlux 中断连接使客户端感知到数据不完整, 日志由抛出方或 WebFlux 记录
+     *
+     * @param response {@link ServerHttpResponse}
+     * @param ex       异常
+     * @param <E>      异常的类型
+     * @throws E 响应已提交
+     */
+    private static <E extends Exception> void abortIfCommitted(ServerHttpResponse response, E ex) throws E {
+        if (response.isCommitted()) {
+            throw ex;
+        }
+    }
+
+    /**
+     * 各异常累计被抑制的次数, key 为异常类型与抛出位置
+     *
+     * @return {@link Map}
+     */
+    public Map<String, Long> suppressed() {
+        return exceptionLogger.suppressed();
+    }
+
+    /**
+     * 执行完异步队列中剩余的 {@link LogInterface} 任务
+     */
+    @Override
+    public void destroy() {
+        exceptionLogger.close();
+    }
+
 }
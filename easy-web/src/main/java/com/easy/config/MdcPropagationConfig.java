@@ -0,0 +1,30 @@
+package com.easy.config;
+
+import com.basic.tool.TaskPool;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * MDC 传递配置类, 将 {@link MdcPropagator} 注册至 {@link TaskPool}
+ *
+ * <p>配置 {@code easy.mdc-propagation=true} 后生效, 之后提交至 {@link TaskPool} 的任务、定时任务均携带提交线程的 MDC</p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@ConditionalOnProperty(name = "easy.mdc-propagation", havingValue = "true")
+public class MdcPropagationConfig {
+
+    /**
+     * 创建 MDC 传递器并注册至 {@link TaskPool}
+     *
+     * @return {@link MdcPropagator}
+     */
+    @Bean
+    public MdcPropagator mdcPropagator() {
+        MdcPropagator propagator = new MdcPropagator();
+        TaskPool.propagate(propagator);
+        return propagator;
+    }
+}
@@ -0,0 +1,62 @@
+package com.easy.config;
+
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import com.basic.tool.ContextPropagator;
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+/**
+ * 在 {@link com.basic.tool.TaskPool} 的任务边界传递 {@link MDC}, 异步任务的日志可按 traceId 等字段关联
+ *
+ * <p>
+ *     Logback 的 MDC 为写时复制, 直接引用其当前的 Map 作为快照, 提交任务时不复制;
+ *     其它日志实现通过 {@link MDC#getCopyOfContextMap()} 获取副本. 快照与工作线程当前的 MDC 相同时不做设置.
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class MdcPropagator implements ContextPropagator<Map<String, String>> {
+
+    /**
+     * 是否为 Logback 的 MDC 实现
+     */
+    private static final boolean LOGBACK = "ch.qos.logback.classic.util.LogbackMDCAdapter"
+            .equals(MDC.getMDCAdapter().getClass().getName());
+
+    @Override
+    public Map<String, String> capture() {
+        return LOGBACK ? Logback.map() : MDC.getCopyOfContextMap();
+    }
+
+    @Override
+    public Map<String, String> restore(Map<String, String> snapshot) {
+        Map<String, String> previous = capture();
+        if (previous == snapshot) {
+            return previous;
+        }
+        if (snapshot == null || snapshot.isEmpty()) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(snapshot);
+        }
+        return previous;
+    }
+
+    /**
+     * 只在使用 Logback 时加载, 避免其它日志实现下找不到类
+     */
+    private static final class Logback {
+
+        /**
+         * Logback MDC 当前的 Map, 之后的修改会复制出新的 Map, 不影响该引用
+         *
+         * @return {@link Map}
+         */
+        private static Map<String, String> map() {
+            return ((LogbackMDCAdapter) MDC.getMDCAdapter()).getPropertyMap();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.easy.config;
+
+import com.basic.domain.ResultVo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ResultVo} 的 JSON 编码器（reactive 版本）
+ *
+ * <p>
+ *     常量实例（{@link ResultVo#isConstant(ResultVo)}）首次编码时序列化并缓存字节, 之后包装缓存的字节直接写出, 不再分配与序列化;
+ *     其它实例与 {@link Jackson2JsonEncoder} 相同
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class ResultVoEncoder extends Jackson2JsonEncoder {
+
+    /**
+     * 常量实例的 JSON（UTF-8）, key 为常量实例本身
+     */
+    private final Map<ResultVo<?>, byte[]> constants = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param objectMapper 与默认 JSON 编码器相同的 {@link ObjectMapper}
+     */
+    public ResultVoEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return ResultVo.class.isAssignableFrom(elementType.toClass()) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        if (value instanceof ResultVo && ResultVo.isConstant((ResultVo<?>) value)) {
+            Charset charset = mimeType == null ? null : mimeType.getCharset();
+            if (charset == null || StandardCharsets.UTF_8.equals(charset)) {
+                // 缓冲区只被读取, 多个响应共享同一个字节数组
+                return bufferFactory.wrap(constants.computeIfAbsent((ResultVo<?>) value, this::encode));
+            }
+        }
+        return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+    }
+
+    /**
+     * 序列化常量实例
+     *
+     * @param result {@link ResultVo}
+     * @return JSON（UTF-8）
+     */
+    private byte[] encode(ResultVo<?> result) {
+        try {
+            return getObjectMapper().writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new EncodingException("JSON encoding error: " + e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.easy.config;
+
+import com.basic.domain.ResultVo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ResultVo} 的 JSON 转换器（Tomcat 容器）
+ *
+ * <p>
+ *     常量实例（{@link ResultVo#isConstant(ResultVo)}）首次写出时以同一个 {@link ObjectMapper} 序列化并缓存字节, 之后直接写出缓存的字节;
+ *     其它实例与 {@link MappingJackson2HttpMessageConverter} 相同. 只负责写出, 读取仍由默认的转换器处理
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class ResultVoHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    /**
+     * 常量实例的 JSON（UTF-8）, key 为常量实例本身（{@link ResultVo} 未重写 equals, 按引用比较）
+     */
+    private final Map<ResultVo<?>, byte[]> constants = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param objectMapper 与默认 JSON 转换器相同的 {@link ObjectMapper}
+     */
+    public ResultVoHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return ResultVo.class.isAssignableFrom(clazz) && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (object instanceof ResultVo && ResultVo.isConstant((ResultVo<?>) object)) {
+            MediaType contentType = outputMessage.getHeaders().getContentType();
+            Charset charset = contentType == null ? null : contentType.getCharset();
+            if (charset == null || StandardCharsets.UTF_8.equals(charset)) {
+                byte[] json = constants.computeIfAbsent((ResultVo<?>) object, this::encode);
+                outputMessage.getHeaders().setContentLength(json.length);
+                outputMessage.getBody().write(json);
+                return;
+            }
+        }
+        super.writeInternal(object, type, outputMessage);
+    }
+
+    /**
+     * 序列化常量实例
+     *
+     * @param result {@link ResultVo}
+     * @return JSON（UTF-8）
+     */
+    private byte[] encode(ResultVo<?> result) {
+        try {
+            return getObjectMapper().writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.easy.config;
+
+import com.basic.domain.ResultVo;
+import com.basic.domain.StreamResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * {@link ResultVo} 与 {@link StreamResult} 的写出配置（Tomcat 容器）
+ *
+ * <p>
+ *     配置 {@code easy.result-web=true} 后生效, 在默认的 JSON 转换器之前加入使用同一个 {@link ObjectMapper} 的
+ *     {@link ResultVoHttpMessageConverter}（常量响应的 JSON 缓存）与 {@link StreamResultHttpMessageConverter}（流式响应）
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@ConditionalOnClass(name = "org.springframework.web.servlet.config.annotation.WebMvcConfigurer")
+@ConditionalOnProperty(name = "easy.result-web", havingValue = "true")
+public class ResultVoWebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                ObjectMapper mapper = ((MappingJackson2HttpMessageConverter) converters.get(i)).getObjectMapper();
+                converters.add(i, new StreamResultHttpMessageConverter(mapper));
+                converters.add(i, new ResultVoHttpMessageConverter(mapper));
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.easy.config;
+
+import com.basic.domain.ResultVo;
+import com.basic.domain.StreamResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * {@link ResultVo} 与 {@link StreamResult} 的写出配置（reactive 版本）
+ *
+ * <p>
+ *     配置 {@code easy.result-webflux=true} 后生效, 注册使用容器中 {@link ObjectMapper} 的
+ *     {@link ResultVoEncoder}（常量响应的 JSON 缓存）与 {@link StreamResultWriter}（流式响应）
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+@ConditionalOnClass(name = "org.springframework.web.reactive.config.WebFluxConfigurer")
+@ConditionalOnProperty(name = "easy.result-webflux", havingValue = "true")
+public class ResultVoWebfluxConfig implements WebFluxConfigurer {
+
+    /**
+     * {@link ObjectMapper}, 未配置时使用默认配置
+     */
+    private final ObjectProvider<ObjectMapper> mapper;
+
+    public ResultVoWebfluxConfig(ObjectProvider<ObjectMapper> mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper objectMapper = mapper.getIfAvailable(ObjectMapper::new);
+        configurer.customCodecs().register(new ResultVoEncoder(objectMapper));
+        configurer.customCodecs().register(new StreamResultWriter(objectMapper));
+    }
+}
@@ -0,0 +1,170 @@
+package com.easy.config;
+
+import com.basic.domain.ResultVo;
+import com.basic.domain.StreamResult;
+import com.basic.enums.StatusEnum;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link StreamResult} 各写出格式的分段编码, 供 {@link StreamResultHttpMessageConverter}、{@link StreamResultWriter} 共用
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+final class StreamResultCodec {
+
+    /**
+     * {@code application/x-ndjson}
+     */
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /**
+     * JSON 数组元素的分隔符
+     */
+    private static final byte[] COMMA = {','};
+
+    /**
+     * JSON 格式的结尾
+     */
+    private static final byte[] SUFFIX = {']', '}'};
+
+    /**
+     * NDJSON 的行尾
+     */
+    private static final byte[] NEWLINE = {'\n'};
+
+    /**
+     * SSE 事件的开头
+     */
+    private static final byte[] DATA = "data:".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * SSE 事件的结尾
+     */
+    private static final byte[] EVENT_END = {'\n', '\n'};
+
+    /**
+     * {@link ObjectMapper}
+     */
+    private final ObjectMapper mapper;
+
+    /**
+     * 构造函数
+     *
+     * @param mapper {@link ObjectMapper}
+     */
+    StreamResultCodec(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * 写出格式对应的 Content-Type
+     *
+     * @param format {@link StreamResult.Format}
+     * @return {@link MediaType}
+     */
+    static MediaType mediaType(StreamResult.Format format) {
+        switch (format) {
+            case NDJSON : return NDJSON;
+            case SSE    : return MediaType.TEXT_EVENT_STREAM;
+            default     : return MediaType.APPLICATION_JSON;
+        }
+    }
+
+    /**
+     * 开头: JSON 格式为 {@code {"code":200,"msg":"操作成功","data":[}}
+     *
+     * @param result {@link StreamResult}
+     * @return 字节, 没有开头时为 null
+     * @throws IOException 序列化失败
+     */
+    byte[] prefix(StreamResult<?> result) throws IOException {
+        if (result.getFormat() != StreamResult.Format.JSON) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        JsonGenerator generator = mapper.getFactory().createGenerator(out);
+        generator.writeStartObject();
+        generator.writeNumberField("code", result.getCode());
+        generator.writeStringField("msg", result.getMsg());
+        generator.writeFieldName("data");
+        generator.writeStartArray();
+        // 不关闭, 否则会自动补全数组与对象的结尾
+        generator.flush();
+        return out.toByteArray();
+    }
+
+    /**
+     * 编码一个元素
+     *
+     * @param format  {@link StreamResult.Format}
+     * @param element 元素
+     * @param first   是否为第一个元素
+     * @return 字节
+     * @throws IOException 序列化失败
+     */
+    byte[] element(StreamResult.Format format, Object element, boolean first) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(element);
+        switch (format) {
+            case NDJSON : return concat(null, json, NEWLINE);
+            case SSE    : return concat(DATA, json, EVENT_END);
+            default     : return first ? json : concat(COMMA, json, null);
+        }
+    }
+
+    /**
+     * 结尾
+     *
+     * @param format {@link StreamResult.Format}
+     * @return 字节, 没有结尾时为 null
+     */
+    static byte[] suffix(StreamResult.Format format) {
+        return format == StreamResult.Format.JSON ? SUFFIX : null;
+    }
+
+    /**
+     * 写出中途出错时的结尾, 只有 SSE 格式可以告知客户端: {@code event:error}, 数据与 {@link ResultVo#fail()} 相同
+     *
+     * @param format {@link StreamResult.Format}
+     * @return 字节, 其它格式为 null, 应中断连接使客户端感知到数据不完整
+     */
+    byte[] error(StreamResult.Format format) {
+        if (format != StreamResult.Format.SSE) {
+            return null;
+        }
+        try {
+            byte[] json = mapper.writeValueAsBytes(ResultVo.fail(StatusEnum.CODE_500));
+            return concat("event:error\ndata:".getBytes(StandardCharsets.UTF_8), json, EVENT_END);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 拼接字节
+     *
+     * @param head 开头, 可为 null
+     * @param body 内容
+     * @param tail 结尾, 可为 null
+     * @return 字节
+     */
+    private static byte[] concat(byte[] head, byte[] body, byte[] tail) {
+        int h = head == null ? 0 : head.length, t = tail == null ? 0 : tail.length;
+        byte[] bytes = new byte[h + body.length + t];
+        if (h > 0) {
+            System.arraycopy(head, 0, bytes, 0, h);
+        }
+        System.arraycopy(body, 0, bytes, h, body.length);
+        if (t > 0) {
+            System.arraycopy(tail, 0, bytes, h + body.length, t);
+        }
+        return bytes;
+    }
+}
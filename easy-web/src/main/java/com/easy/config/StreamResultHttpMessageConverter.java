@@ -0,0 +1,197 @@
+package com.easy.config;
+
+import com.basic.domain.StreamResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.apache.catalina.connector.ClientAbortException;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * {@link StreamResult} 的转换器（Tomcat 容器）
+ *
+ * <p>
+ *     在请求线程中逐个序列化并写出元素, 每 {@link #FLUSH} 个元素刷新一次, 内存中只保留当前元素与输出缓冲区;
+ *     Content-Type 由 {@link StreamResult#getFormat()} 决定
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class StreamResultHttpMessageConverter extends AbstractHttpMessageConverter<StreamResult<?>> {
+
+    /**
+     * 日志记录: {@link Logger}
+     */
+    private static final Logger log = LoggerFactory.getLogger(StreamResultHttpMessageConverter.class);
+
+    /**
+     * JSON 格式每写出多少个元素刷新一次, NDJSON、SSE 格式每个元素刷新一次
+     */
+    private static final int FLUSH = 64;
+
+    /**
+     * 是否运行在 Tomcat 容器中
+     */
+    private static final boolean TOMCAT = ClassUtils.isPresent(
+            "org.apache.catalina.connector.ClientAbortException", StreamResultHttpMessageConverter.class.getClassLoader());
+
+    /**
+     * 分段编码
+     */
+    private final StreamResultCodec codec;
+
+    /**
+     * 构造函数
+     *
+     * @param objectMapper 与默认 JSON 转换器相同的 {@link ObjectMapper}
+     */
+    public StreamResultHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, StreamResultCodec.NDJSON, MediaType.TEXT_EVENT_STREAM);
+        this.codec = new StreamResultCodec(objectMapper);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StreamResult.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StreamResult<?> readInternal(Class<? extends StreamResult<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StreamResult cannot be read", inputMessage);
+    }
+
+    @Override
+    protected void addDefaultHeaders(HttpHeaders headers, StreamResult<?> result, MediaType contentType) throws IOException {
+        // 以写出格式为准, 不使用内容协商的结果
+        super.addDefaultHeaders(headers, result, StreamResultCodec.mediaType(result.getFormat()));
+    }
+
+    @Override
+    protected void writeInternal(StreamResult<?> result, HttpOutputMessage outputMessage) throws IOException {
+        StreamResult.Format format = result.getFormat();
+        int flush = format == StreamResult.Format.JSON ? FLUSH : 1;
+        OutputStream out = outputMessage.getBody();
+        Stream<?> stream = null;
+        try {
+            Iterator<?> iterator = result.iterator();
+            if (iterator == null) {
+                stream = Blocking.stream(result);
+                iterator = stream.iterator();
+            }
+            write(out, codec.prefix(result));
+            int n = 0;
+            while (iterator.hasNext()) {
+                out.write(codec.element(format, iterator.next(), n == 0));
+                if (++n % flush == 0) {
+                    out.flush();
+                }
+            }
+            write(out, StreamResultCodec.suffix(format));
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            byte[] error = codec.error(format);
+            if (error == null) {
+                if (!committed(outputMessage)) {
+                    // 尚未写出任何数据, 交给全局异常处理
+                    throw e;
+                }
+                // 已写出部分数据, 中断连接使客户端感知到数据不完整, 不再追加任何内容
+                log.error(e.getMessage(), e);
+                if (TOMCAT) {
+                    throw Tomcat.abort(e);
+                }
+                throw e;
+            }
+            // SSE 已通过 error 事件告知客户端, 响应已提交, 不再交给全局异常处理
+            log.error(e.getMessage(), e);
+            try {
+                out.write(error);
+                out.flush();
+            } catch (IOException ignored) {
+                // 客户端已断开
+            }
+        } finally {
+            if (stream != null) {
+                // 写出失败、客户端断开时取消订阅, 数据源不再生产
+                stream.close();
+            }
+            result.close();
+        }
+    }
+
+    /**
+     * 响应是否已提交（已写出部分数据）
+     *
+     * @param outputMessage {@link HttpOutputMessage}
+     * @return boolean
+     */
+    private static boolean committed(HttpOutputMessage outputMessage) {
+        return !(outputMessage instanceof ServletServerHttpResponse)
+                || ((ServletServerHttpResponse) outputMessage).getServletResponse().isCommitted();
+    }
+
+    /**
+     * 写出字节
+     *
+     * @param out   {@link OutputStream}
+     * @param bytes 字节, 为 null 时忽略
+     * @throws IOException 写出失败
+     */
+    private static void write(OutputStream out, byte[] bytes) throws IOException {
+        if (bytes != null) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Tomcat 容器, 单独成类, 未使用时不加载 Tomcat
+     */
+    private static final class Tomcat {
+
+        /**
+         * 包装为 {@link ClientAbortException}, Tomcat 对其直接中断连接, 不再转发至错误页（如 Spring Boot 的 {@code /error}）
+         *
+         * @param e 写出失败的原因
+         * @return {@link ClientAbortException}
+         */
+        private static IOException abort(Exception e) {
+            return e instanceof ClientAbortException ? (IOException) e : new ClientAbortException(e);
+        }
+    }
+
+    /**
+     * 阻塞地读取 {@link org.reactivestreams.Publisher} 数据源, 单独成类, 未使用时不加载 Reactor
+     */
+    private static final class Blocking {
+
+        /**
+         * 以 {@link #FLUSH} 个元素的有界缓冲读取, 关闭 {@link Stream} 时取消订阅
+         *
+         * @param result {@link StreamResult}
+         * @return {@link Stream}
+         */
+        private static Stream<?> stream(StreamResult<?> result) {
+            return Flux.from(result.publisher()).toStream(FLUSH);
+        }
+    }
+}
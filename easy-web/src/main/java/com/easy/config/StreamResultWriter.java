@@ -0,0 +1,121 @@
+package com.easy.config;
+
+import com.basic.domain.StreamResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link StreamResult} 的写出器（reactive 版本）
+ *
+ * <p>
+ *     元素按背压逐个序列化, JSON 格式每 {@link #FLUSH} 个元素刷新一次, NDJSON、SSE 格式每个元素刷新一次;
+ *     {@link Iterator} 数据源（如 MyBatis {@code Cursor}）可能阻塞, 在 {@link Schedulers#boundedElastic()} 中读取
+ * </p>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public class StreamResultWriter implements HttpMessageWriter<StreamResult<?>> {
+
+    /**
+     * JSON 格式每写出多少个元素刷新一次
+     */
+    private static final int FLUSH = 64;
+
+    /**
+     * 支持的 Content-Type
+     */
+    private static final List<MediaType> MEDIA_TYPES = Arrays.asList(
+            MediaType.APPLICATION_JSON, StreamResultCodec.NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    /**
+     * 分段编码
+     */
+    private final StreamResultCodec codec;
+
+    /**
+     * 构造函数
+     *
+     * @param objectMapper {@link ObjectMapper}
+     */
+    public StreamResultWriter(ObjectMapper objectMapper) {
+        this.codec = new StreamResultCodec(objectMapper);
+    }
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        if (!StreamResult.class.isAssignableFrom(elementType.toClass())) {
+            return false;
+        }
+        return mediaType == null || MEDIA_TYPES.stream().anyMatch(type -> type.isCompatibleWith(mediaType));
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<? extends StreamResult<?>> inputStream, ResolvableType elementType,
+                            MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        return Mono.from(inputStream).flatMap(result -> {
+            StreamResult.Format format = result.getFormat();
+            message.getHeaders().setContentType(StreamResultCodec.mediaType(format));
+            DataBufferFactory factory = message.bufferFactory();
+
+            Iterator<?> iterator = result.iterator();
+            Flux<?> elements = iterator != null
+                    ? Flux.fromIterable(() -> iterator).subscribeOn(Schedulers.boundedElastic())
+                    : Flux.from(result.publisher());
+
+            Flux<DataBuffer> body = Flux.concat(
+                    Mono.fromCallable(() -> codec.prefix(result)).map(factory::wrap),
+                    elements.index().map(e -> factory.wrap(encode(format, e.getT2(), e.getT1() == 0))),
+                    Mono.justOrEmpty(StreamResultCodec.suffix(format)).map(factory::wrap))
+                    .onErrorResume(e -> {
+                        byte[] error = codec.error(format);
+                        // 先写出已编码的部分, 再以错误结束, 使客户端感知到数据不完整
+                        return error == null ? Flux.error(e) : Flux.just(factory.wrap(error));
+                    })
+                    .doFinally(signal -> result.close());
+
+            // 按窗口而非缓冲分组: 窗口中的元素到达即写出, 出错时不丢弃未满一组的已编码元素
+            return format == StreamResult.Format.JSON
+                    ? message.writeAndFlushWith(body.window(FLUSH))
+                    : message.writeAndFlushWith(body.map(Mono::just));
+        });
+    }
+
+    /**
+     * 编码一个元素, 受检异常转为运行时异常
+     *
+     * @param format  {@link StreamResult.Format}
+     * @param element 元素
+     * @param first   是否为第一个元素
+     * @return 字节
+     */
+    private byte[] encode(StreamResult.Format format, Object element, boolean first) {
+        try {
+            return codec.element(format, element, first);
+        } catch (IOException e) {
+            throw new EncodingException("JSON encoding error: " + e.getMessage(), e);
+        }
+    }
+}
@@ -6,6 +6,11 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 /**
  * 全局异常日志扩展接口
  *
+ * <p>
+ *     由全局异常处理提交到有界队列, 在 {@code Custom-exception-log} 线程中依次异步执行, 请求线程的 MDC 已传递;
+ *     请求相关的对象（如 {@code HttpServletRequest}）此时可能已被回收, 需要的信息应从异常或 MDC 中获取. 队列已满时丢弃
+ * </p>
+ *
  * @author LZH
  * @version 1.0.4
  * @since 2023/05/21
@@ -0,0 +1,49 @@
+package com.easy.interfaces;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式的接口参数校验, 用于 WebFlux 控制器
+ *
+ * <p>
+ *     返回 {@link Mono} 的方法中, 校验作为 {@link Mono} 组合在响应流之前, 不阻塞事件循环线程;
+ *     校验失败时返回 {@link Mono#error(Throwable)}（如 {@link com.basic.exception.BaseException}）, 由全局异常处理
+ * </p>
+ *
+ * <pre>{@code
+ *     public Mono<Void> validate(Object... params) {
+ *         User user = (User) params[0];
+ *         return redis.hasKey("user:" + user.getName())
+ *                 .flatMap(exists -> exists ? Mono.error(new BaseException("用户名已存在")) : Mono.empty());
+ *     }
+ * }</pre>
+ *
+ * @author LZH
+ * @version 1.0.13
+ * @since 2024/01/15
+ */
+public interface ReactiveValidInterface extends ValidInterface {
+
+    /**
+     * 具体执行参数校验的逻辑接口
+     *
+     * @param params 目标方法入参参数, {@link Mono} 类型的参数已替换为其中的值（为空时为 null）,
+     *               {@code Flux} 类型的参数已替换为其中全部元素组成的 {@link java.util.List}
+     * @return {@link Mono}, 校验通过时正常完成
+     */
+    Mono<Void> validate(Object... params);
+
+    /**
+     * 非响应式方法（如 Spring MVC 控制器）中阻塞等待 {@link #validate(Object...)} 完成;
+     * 事件循环线程中（WebFlux 控制器的返回值不是 {@link Mono}、{@code Flux}）不允许阻塞, 由 {@code ValidParams} 拒绝
+     *
+     * @param params 目标方法入参参数
+     * @param <T>    泛型
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    default <T> void handle(T...params) {
+        validate((Object[]) params).block();
+    }
+
+}